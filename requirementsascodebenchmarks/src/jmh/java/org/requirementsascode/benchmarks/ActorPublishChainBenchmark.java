@@ -0,0 +1,91 @@
+package org.requirementsascode.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.requirementsascode.AbstractActor;
+import org.requirementsascode.Model;
+import org.requirementsascode.benchmarks.Messages.Ping;
+
+/**
+ * Measures sending a message through a chain of actors, where each actor
+ * publishes the message to the next one. With asynchronous delivery, each
+ * actor but the first one reacts on the common fork join pool, and the
+ * benchmark waits until the last actor has received the message.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ActorPublishChainBenchmark {
+  @Param({ "1", "10", "100" })
+  private int chainLength;
+
+  @Param({ "false", "true" })
+  private boolean asyncDelivery;
+
+  private AbstractActor firstActor;
+  private LastActor lastActor;
+  private Ping ping;
+
+  @Setup
+  public void setup() {
+    this.lastActor = new LastActor();
+    AbstractActor nextActor = lastActor;
+    for (int i = 0; i < chainLength; i++) {
+      if (asyncDelivery) {
+        nextActor.withAsyncDelivery();
+      }
+      nextActor = new ForwardingActor("Actor" + i, nextActor);
+    }
+    this.firstActor = nextActor;
+    this.ping = new Ping();
+  }
+
+  @Benchmark
+  public long reactTo() {
+    long expectedPingsReceived = lastActor.pingsReceived.get() + 1;
+    firstActor.reactTo(ping);
+    long pingsReceived;
+    while ((pingsReceived = lastActor.pingsReceived.get()) < expectedPingsReceived) {
+      Thread.yield();
+    }
+    return pingsReceived;
+  }
+
+  private static class ForwardingActor extends AbstractActor {
+    private final AbstractActor nextActor;
+
+    ForwardingActor(String name, AbstractActor nextActor) {
+      super(name);
+      this.nextActor = nextActor;
+    }
+
+    @Override
+    protected Model behavior() {
+      Model model = Model.builder()
+        .on(Ping.class).systemPublish(ping -> ping).to(nextActor)
+      .build();
+      return model;
+    }
+  }
+
+  private static class LastActor extends AbstractActor {
+    private final AtomicLong pingsReceived = new AtomicLong();
+
+    @Override
+    protected Model behavior() {
+      Model model = Model.builder()
+        .on(Ping.class).system(ping -> pingsReceived.incrementAndGet())
+      .build();
+      return model;
+    }
+  }
+}
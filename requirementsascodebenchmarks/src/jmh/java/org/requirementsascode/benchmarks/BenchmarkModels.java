@@ -0,0 +1,111 @@
+package org.requirementsascode.benchmarks;
+
+import static org.requirementsascode.benchmarks.Messages.OTHER_COMMANDS;
+
+import java.util.function.Consumer;
+
+import org.requirementsascode.Condition;
+import org.requirementsascode.Model;
+import org.requirementsascode.benchmarks.Messages.EnterNumber;
+import org.requirementsascode.benchmarks.Messages.EnterText;
+import org.requirementsascode.builder.FlowPart;
+import org.requirementsascode.builder.StepSystemPart;
+import org.requirementsascode.builder.UseCasePart;
+
+/**
+ * Models used by the benchmarks, built with the public model builder API.
+ */
+final class BenchmarkModels {
+  private static final Runnable DOES_NOTHING = () -> {};
+
+  private BenchmarkModels() {
+  }
+
+  /**
+   * Creates a flowless model with the specified number of steps. The first step
+   * reacts to {@link EnterText}, all other steps react to other commands.
+   *
+   * @param nrOfSteps           the total number of steps of the model
+   * @param reactionToEnterText the system reaction to {@link EnterText}
+   * @return the model
+   */
+  static Model flowlessModel(int nrOfSteps, Consumer<EnterText> reactionToEnterText) {
+    UseCasePart useCasePart = Model.builder().useCase("Flowless use case");
+    useCasePart.step("S0").user(EnterText.class).system(reactionToEnterText);
+
+    for (int i = 1; i < nrOfSteps; i++) {
+      useCasePart.step("S" + i).user(OTHER_COMMANDS[i % OTHER_COMMANDS.length]).system(DOES_NOTHING);
+    }
+
+    return useCasePart.build();
+  }
+
+  /**
+   * Creates a model with a basic flow of the specified number of steps, that
+   * react to {@link EnterText} and {@link EnterNumber} in turns.
+   *
+   * @param nrOfSteps the number of steps of the basic flow
+   * @return the model
+   */
+  static Model basicFlowModel(int nrOfSteps) {
+    FlowPart basicFlow = Model.builder().useCase("Flow use case").basicFlow();
+    StepSystemPart<?> stepSystemPart = basicFlow.step("S0").user(EnterText.class).system(DOES_NOTHING);
+
+    for (int i = 1; i < nrOfSteps; i++) {
+      Class<?> commandClass = i % 2 == 0 ? EnterText.class : EnterNumber.class;
+      stepSystemPart = stepSystemPart.step("S" + i).user(commandClass).system(DOES_NOTHING);
+    }
+
+    return stepSystemPart.build();
+  }
+
+  /**
+   * Creates a model with a basic flow whose first step reacts to
+   * {@link EnterText}, and whose second step reacts to any number of
+   * {@link EnterNumber} messages after it.
+   *
+   * @return the model
+   */
+  static Model loopingFlowModel() {
+    Model model = Model.builder()
+      .useCase("Looping use case")
+        .basicFlow()
+          .step("S1").user(EnterText.class).system(DOES_NOTHING)
+          .step("S2").user(EnterNumber.class).system(DOES_NOTHING).reactWhile(() -> true)
+      .build();
+
+    return model;
+  }
+
+  /**
+   * Creates a model with a basic flow that contains a loop, an alternative flow
+   * that replaces the last step of the basic flow if the specified condition is
+   * true, and a flow that could start anytime, but whose condition is false.
+   *
+   * <p>
+   * The valid message sequence is: one {@link EnterText}, the specified number of
+   * {@link EnterNumber} messages, another {@link EnterText}.
+   *
+   * @param nrOfNumbers   the number of times the loop step reacts
+   * @param isAlternative if true, the alternative flow replaces the last step
+   * @return the model
+   */
+  static Model flowModel(int nrOfNumbers, Condition isAlternative) {
+    int[] numbersEntered = { 0 };
+
+    Model model = Model.builder()
+      .useCase("Flow use case")
+        .basicFlow()
+          .step("S1").user(EnterText.class).system(() -> numbersEntered[0] = 0)
+          .step("S2").user(EnterNumber.class).system(() -> numbersEntered[0]++)
+            .reactWhile(() -> numbersEntered[0] < nrOfNumbers)
+          .step("S3").user(EnterText.class).system(DOES_NOTHING)
+        .flow("Alternative flow").insteadOf("S3").condition(isAlternative)
+          .step("S3a").user(EnterText.class).system(DOES_NOTHING)
+        .flow("Anytime flow").anytime().condition(() -> false)
+          .step("S4").user(EnterText.class).system(DOES_NOTHING)
+      .build();
+
+    return model;
+  }
+}
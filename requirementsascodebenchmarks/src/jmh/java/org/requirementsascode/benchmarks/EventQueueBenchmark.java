@@ -0,0 +1,71 @@
+package org.requirementsascode.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.requirementsascode.queue.EventQueue;
+import org.requirementsascode.queue.OverflowPolicy;
+import org.requirementsascode.queue.RingBufferEventQueue;
+
+/**
+ * Measures how many events per second pass through an event queue, from a
+ * producer to the consumer. Compares the unbounded {@link EventQueue} with the
+ * {@link RingBufferEventQueue}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EventQueueBenchmark {
+  private static final int EVENTS_PER_INVOCATION = 10_000;
+
+  @Param({ "LINKED_BLOCKING_DEQUE", "RING_BUFFER" })
+  private String queueType;
+
+  private final AtomicLong nrOfConsumedEvents = new AtomicLong();
+  private Consumer<Object> put;
+  private Runnable stop;
+  private Object event;
+
+  @Setup
+  public void setup() {
+    Consumer<Object> eventConsumer = e -> nrOfConsumedEvents.lazySet(nrOfConsumedEvents.get() + 1);
+    if ("RING_BUFFER".equals(queueType)) {
+      RingBufferEventQueue queue = new RingBufferEventQueue(4096, OverflowPolicy.BLOCK, eventConsumer);
+      this.put = queue::put;
+      this.stop = queue::stop;
+    } else {
+      EventQueue queue = new EventQueue(eventConsumer);
+      this.put = queue::put;
+      this.stop = queue::stop;
+    }
+    this.event = new Object();
+  }
+
+  @TearDown
+  public void tearDown() {
+    stop.run();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(EVENTS_PER_INVOCATION)
+  public void putAndConsume() {
+    long expectedNrOfConsumedEvents = nrOfConsumedEvents.get() + EVENTS_PER_INVOCATION;
+    for (int i = 0; i < EVENTS_PER_INVOCATION; i++) {
+      put.accept(event);
+    }
+    while (nrOfConsumedEvents.get() < expectedNrOfConsumedEvents) {
+      Thread.yield();
+    }
+  }
+}
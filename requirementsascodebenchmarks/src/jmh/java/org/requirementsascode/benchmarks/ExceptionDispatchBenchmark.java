@@ -0,0 +1,50 @@
+package org.requirementsascode.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.requirementsascode.Model;
+import org.requirementsascode.ModelRunner;
+import org.requirementsascode.benchmarks.Messages.Fail;
+
+/**
+ * Measures reacting to a message whose system reaction throws an exception,
+ * that another step of the model then reacts to.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExceptionDispatchBenchmark {
+  // Created once, so that the benchmark measures the dispatch, not filling in
+  // the stack trace
+  private static final IllegalStateException EXCEPTION = new IllegalStateException("Benchmark exception");
+
+  private ModelRunner modelRunner;
+  private Fail fail;
+  private int exceptionsHandled;
+
+  @Setup
+  public void setup() {
+    Model model = Model.builder()
+      .user(Fail.class).system(this::throwException)
+      .on(IllegalStateException.class).system(e -> exceptionsHandled++)
+    .build();
+    this.modelRunner = new ModelRunner().run(model);
+    this.fail = new Fail();
+  }
+
+  private void throwException(Fail fail) {
+    throw EXCEPTION;
+  }
+
+  @Benchmark
+  public Object reactTo() {
+    return modelRunner.reactTo(fail);
+  }
+}
@@ -0,0 +1,55 @@
+package org.requirementsascode.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.requirementsascode.Model;
+import org.requirementsascode.ModelRunner;
+import org.requirementsascode.benchmarks.Messages.EnterNumber;
+import org.requirementsascode.benchmarks.Messages.EnterText;
+
+/**
+ * Measures a complete run through a flow model that uses after, insteadOf,
+ * anytime and reactWhile flow positions: restarting the runner, and reacting to
+ * all messages of the path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FlowModelBenchmark {
+  @Param({ "1", "10" })
+  private int nrOfNumbers;
+
+  @Param({ "false", "true" })
+  private boolean isAlternative;
+
+  private ModelRunner modelRunner;
+  private EnterText enterText;
+  private EnterNumber enterNumber;
+
+  @Setup
+  public void setup() {
+    Model model = BenchmarkModels.flowModel(nrOfNumbers, () -> isAlternative);
+    this.modelRunner = new ModelRunner().run(model);
+    this.enterText = new EnterText("Text");
+    this.enterNumber = new EnterNumber(1);
+  }
+
+  @Benchmark
+  public Object runThroughFlow() {
+    modelRunner.restart();
+    modelRunner.reactTo(enterText);
+    for (int i = 0; i < nrOfNumbers; i++) {
+      modelRunner.reactTo(enterNumber);
+    }
+    modelRunner.reactTo(enterText);
+    return modelRunner.getLatestStep();
+  }
+}
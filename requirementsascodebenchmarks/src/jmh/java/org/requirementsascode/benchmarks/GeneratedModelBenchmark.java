@@ -0,0 +1,62 @@
+package org.requirementsascode.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.requirementsascode.ModelRunner;
+import org.requirementsascode.generator.GeneratedModel;
+import org.requirementsascode.generator.GeneratedPath;
+import org.requirementsascode.generator.ModelGenerator;
+
+/**
+ * Measures runs along random paths through generated models of growing size,
+ * with 20 steps per flow and 5 flows per use case: restarting the runner, and
+ * reacting to all messages of the path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GeneratedModelBenchmark {
+  private static final int NR_OF_PATHS = 1024;
+
+  @Param({ "10", "100", "1000" })
+  private int nrOfUseCases;
+
+  private ModelRunner modelRunner;
+  private GeneratedPath[] paths;
+  private int pathIndex;
+
+  @Setup
+  public void setup() {
+    GeneratedModel generatedModel = new ModelGenerator()
+      .useCases(nrOfUseCases)
+      .flowsPerUseCase(5)
+      .stepsPerFlow(20)
+      .actors(4)
+      .generate();
+    this.modelRunner = new ModelRunner().run(generatedModel.getModel());
+
+    Random random = new Random(1);
+    this.paths = new GeneratedPath[NR_OF_PATHS];
+    for (int i = 0; i < NR_OF_PATHS; i++) {
+      paths[i] = generatedModel.randomPath(random);
+    }
+  }
+
+  @Benchmark
+  public Object runAlongRandomPath() {
+    GeneratedPath path = paths[pathIndex];
+    pathIndex = (pathIndex + 1) % NR_OF_PATHS;
+    modelRunner.restart();
+    path.sendTo(modelRunner);
+    return modelRunner.getLatestStep();
+  }
+}
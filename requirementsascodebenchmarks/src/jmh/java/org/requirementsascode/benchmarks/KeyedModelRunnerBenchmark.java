@@ -0,0 +1,64 @@
+package org.requirementsascode.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.requirementsascode.KeyedModelRunner;
+import org.requirementsascode.Model;
+import org.requirementsascode.ModelRunner;
+import org.requirementsascode.benchmarks.Messages.EnterNumber;
+import org.requirementsascode.benchmarks.Messages.EnterText;
+
+/**
+ * Compares a {@link KeyedModelRunner} with one {@link ModelRunner} per entity,
+ * for many entities that each react to messages in turn. Run it with the gc
+ * profiler to see the memory each variant needs per entity.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class KeyedModelRunnerBenchmark {
+  @Param({ "1000", "1000000" })
+  private int nrOfEntities;
+
+  private KeyedModelRunner keyedModelRunner;
+  private ModelRunner[] modelRunners;
+  private EnterNumber enterNumber;
+  private int entity;
+
+  @Setup
+  public void setup() {
+    Model model = BenchmarkModels.loopingFlowModel();
+    EnterText enterText = new EnterText("Text");
+    this.keyedModelRunner = new KeyedModelRunner(model);
+    this.modelRunners = new ModelRunner[nrOfEntities];
+    for (int i = 0; i < nrOfEntities; i++) {
+      keyedModelRunner.reactTo(i, enterText);
+      modelRunners[i] = new ModelRunner().run(model);
+      modelRunners[i].reactTo(enterText);
+    }
+    this.enterNumber = new EnterNumber(1);
+  }
+
+  @Benchmark
+  public Object keyedModelRunner() {
+    return keyedModelRunner.reactTo(nextEntity(), enterNumber);
+  }
+
+  @Benchmark
+  public Object modelRunnerPerEntity() {
+    return modelRunners[nextEntity()].reactTo(enterNumber);
+  }
+
+  private int nextEntity() {
+    entity = entity + 1 == nrOfEntities ? 0 : entity + 1;
+    return entity;
+  }
+}
@@ -0,0 +1,94 @@
+package org.requirementsascode.benchmarks;
+
+/**
+ * Message classes used by the benchmarks.
+ */
+public final class Messages {
+  private Messages() {
+  }
+
+  public static final class EnterText {
+    private final String text;
+
+    public EnterText(String text) {
+      this.text = text;
+    }
+
+    public String getText() {
+      return text;
+    }
+  }
+
+  public static final class EnterNumber {
+    private final int number;
+
+    public EnterNumber(int number) {
+      this.number = number;
+    }
+
+    public int getNumber() {
+      return number;
+    }
+  }
+
+  public static final class Request {
+    private final int id;
+
+    public Request(int id) {
+      this.id = id;
+    }
+
+    public int getId() {
+      return id;
+    }
+  }
+
+  public static final class Response {
+    private final int id;
+
+    public Response(int id) {
+      this.id = id;
+    }
+
+    public int getId() {
+      return id;
+    }
+  }
+
+  public static final class Ping {
+  }
+
+  public static final class Fail {
+  }
+
+  /**
+   * Commands that other steps of a model react to, to make the model bigger
+   * without changing which step reacts to the benchmarked message.
+   */
+  public static final Class<?>[] OTHER_COMMANDS = { OtherCommand0.class, OtherCommand1.class, OtherCommand2.class,
+    OtherCommand3.class, OtherCommand4.class, OtherCommand5.class, OtherCommand6.class, OtherCommand7.class };
+
+  public static final class OtherCommand0 {
+  }
+
+  public static final class OtherCommand1 {
+  }
+
+  public static final class OtherCommand2 {
+  }
+
+  public static final class OtherCommand3 {
+  }
+
+  public static final class OtherCommand4 {
+  }
+
+  public static final class OtherCommand5 {
+  }
+
+  public static final class OtherCommand6 {
+  }
+
+  public static final class OtherCommand7 {
+  }
+}
@@ -0,0 +1,58 @@
+package org.requirementsascode.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.requirementsascode.Model;
+import org.requirementsascode.ModelRunner;
+import org.requirementsascode.benchmarks.Messages.EnterText;
+import org.requirementsascode.metrics.DefaultMetricsRegistry;
+
+/**
+ * Measures the overhead of recording metrics, by comparing
+ * {@link ModelRunner#reactTo(Object)} for a flowless model with and without a
+ * {@link DefaultMetricsRegistry}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MetricsBenchmark {
+  @Param({ "10", "1000" })
+  private int nrOfSteps;
+
+  @Param({ "false", "true" })
+  private boolean recordMetrics;
+
+  private ModelRunner modelRunner;
+  private EnterText enterText;
+  private Blackhole blackhole;
+
+  @Setup
+  public void setup(Blackhole blackhole) {
+    this.blackhole = blackhole;
+    Model model = BenchmarkModels.flowlessModel(nrOfSteps, this::consume);
+    this.modelRunner = new ModelRunner();
+    if (recordMetrics) {
+      modelRunner.withMetrics(new DefaultMetricsRegistry(model));
+    }
+    modelRunner.run(model);
+    this.enterText = new EnterText("Text");
+  }
+
+  private void consume(EnterText enterText) {
+    blackhole.consume(enterText);
+  }
+
+  @Benchmark
+  public Object reactTo() {
+    return modelRunner.reactTo(enterText);
+  }
+}
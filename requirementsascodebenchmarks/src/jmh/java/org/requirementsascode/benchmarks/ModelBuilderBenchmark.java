@@ -0,0 +1,35 @@
+package org.requirementsascode.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.requirementsascode.Model;
+import org.requirementsascode.builder.ModelBuilder;
+
+/**
+ * Measures building models of different sizes with {@link ModelBuilder#build()},
+ * including creating the steps with the builder.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ModelBuilderBenchmark {
+  @Param({ "10", "100", "1000", "10000" })
+  private int nrOfSteps;
+
+  @Benchmark
+  public Model buildFlowlessModel() {
+    return BenchmarkModels.flowlessModel(nrOfSteps, enterText -> {});
+  }
+
+  @Benchmark
+  public Model buildBasicFlowModel() {
+    return BenchmarkModels.basicFlowModel(nrOfSteps);
+  }
+}
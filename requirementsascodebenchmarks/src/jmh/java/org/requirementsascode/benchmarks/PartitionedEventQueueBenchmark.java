@@ -0,0 +1,67 @@
+package org.requirementsascode.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.requirementsascode.queue.OverflowPolicy;
+import org.requirementsascode.queue.PartitionedEventQueue;
+
+/**
+ * Measures how throughput scales with the number of partitions of a
+ * {@link PartitionedEventQueue}, for events of independent keys whose
+ * consumption takes some CPU time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PartitionedEventQueueBenchmark {
+  private static final int EVENTS_PER_INVOCATION = 10_000;
+  private static final int NR_OF_KEYS = 1024;
+
+  @Param({ "1", "2", "4", "8" })
+  private int nrOfPartitions;
+
+  private final LongAdder nrOfConsumedEvents = new LongAdder();
+  private PartitionedEventQueue queue;
+  private Long[] keys;
+
+  @Setup
+  public void setup() {
+    this.queue = new PartitionedEventQueue(nrOfPartitions, 4096, OverflowPolicy.BLOCK, event -> event, event -> {
+      Blackhole.consumeCPU(200);
+      nrOfConsumedEvents.increment();
+    });
+    this.keys = new Long[NR_OF_KEYS];
+    for (int i = 0; i < NR_OF_KEYS; i++) {
+      keys[i] = (long) i;
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    queue.stop();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(EVENTS_PER_INVOCATION)
+  public void putAndConsume() {
+    long expectedNrOfConsumedEvents = nrOfConsumedEvents.sum() + EVENTS_PER_INVOCATION;
+    for (int i = 0; i < EVENTS_PER_INVOCATION; i++) {
+      queue.put(keys[i & (NR_OF_KEYS - 1)]);
+    }
+    while (nrOfConsumedEvents.sum() < expectedNrOfConsumedEvents) {
+      Thread.yield();
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package org.requirementsascode.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.requirementsascode.BehaviorModel;
+import org.requirementsascode.Model;
+import org.requirementsascode.StatelessBehavior;
+import org.requirementsascode.StatelessBehavior.RunnerReuse;
+import org.requirementsascode.benchmarks.Messages.Request;
+import org.requirementsascode.benchmarks.Messages.Response;
+
+/**
+ * Measures {@link StatelessBehavior#reactTo(Object)} for a request / response
+ * behavior, as used e.g. by a service that handles a request per call. Compares
+ * creating a new model runner per request with reusing runners.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StatelessBehaviorBenchmark {
+  @Param({ "NONE", "THREAD_LOCAL", "POOLED" })
+  private RunnerReuse runnerReuse;
+
+  private StatelessBehavior behavior;
+  private Request request;
+
+  @Setup
+  public void setup() {
+    this.behavior = StatelessBehavior.of(new RequestResponseModel(), runnerReuse);
+    this.request = new Request(1);
+  }
+
+  @Benchmark
+  public Object reactTo() {
+    return behavior.reactTo(request);
+  }
+
+  private static class RequestResponseModel implements BehaviorModel {
+    @Override
+    public Model model() {
+      Model model = Model.builder()
+        .user(Request.class).systemPublish(this::respond)
+      .build();
+      return model;
+    }
+
+    private Response respond(Request request) {
+      return new Response(request.getId());
+    }
+  }
+}
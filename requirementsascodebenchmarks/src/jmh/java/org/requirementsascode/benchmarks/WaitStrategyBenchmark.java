@@ -0,0 +1,62 @@
+package org.requirementsascode.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.requirementsascode.metrics.LatencyHistogram;
+import org.requirementsascode.queue.OverflowPolicy;
+import org.requirementsascode.queue.RingBufferEventQueue;
+import org.requirementsascode.queue.WaitStrategy;
+
+/**
+ * Measures the latency of a single event through a
+ * {@link RingBufferEventQueue} whose producer thread waits for it, for each
+ * wait strategy. Prints the latency histogram that the queue records at the
+ * end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WaitStrategyBenchmark {
+  @Param({ "BLOCKING", "SLEEPING", "YIELDING", "BUSY_SPIN" })
+  private WaitStrategy waitStrategy;
+
+  private final AtomicLong nrOfConsumedEvents = new AtomicLong();
+  private LatencyHistogram latencyHistogram;
+  private RingBufferEventQueue queue;
+  private Object event;
+
+  @Setup
+  public void setup() {
+    this.latencyHistogram = new LatencyHistogram();
+    this.queue = new RingBufferEventQueue(1024, OverflowPolicy.BLOCK, e -> nrOfConsumedEvents.incrementAndGet())
+      .withWaitStrategy(waitStrategy)
+      .recordLatencyIn(latencyHistogram);
+    this.event = new Object();
+  }
+
+  @TearDown
+  public void tearDown() {
+    queue.stop();
+    System.out.println(waitStrategy + ": " + latencyHistogram);
+  }
+
+  @Benchmark
+  public long putAndAwaitConsumption() {
+    long expectedNrOfConsumedEvents = nrOfConsumedEvents.get() + 1;
+    queue.put(event);
+    long nrOfEvents;
+    while ((nrOfEvents = nrOfConsumedEvents.get()) < expectedNrOfConsumedEvents) {
+    }
+    return nrOfEvents;
+  }
+}
@@ -1,6 +1,8 @@
 package org.requirementsascode;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Consumer;
 
 import org.requirementsascode.exception.InfiniteRepetition;
@@ -21,6 +23,8 @@ public abstract class AbstractActor implements Behavior {
   private String name;
   private BehaviorModel behaviorModel;
   private ModelRunner modelRunner;
+  private volatile ActorInbox inbox;
+  private volatile boolean isStopped;
 
   /**
    * Creates an actor with a name equal to the current class' simple name.
@@ -129,6 +133,9 @@ public abstract class AbstractActor implements Behavior {
    *         empty Optional.
    */
   public final <T> Optional<T> reactTo(Object message, AbstractActor callingActor) {
+    if (isStopped) {
+      return Optional.empty();
+    }
     if (!getModelRunner().isRunning()) {
       run();
     }
@@ -141,6 +148,106 @@ public abstract class AbstractActor implements Behavior {
     }
   }
 
+  /**
+   * Stops the actor. It doesn't react to messages, until {@link #restart()} is
+   * called.
+   * 
+   * <p>
+   * Note that stopping the actor's model runner instead doesn't stop the actor:
+   * it runs its behavior again when the next message arrives.
+   */
+  public void stop() {
+    isStopped = true;
+    getModelRunner().stop();
+  }
+
+  /**
+   * Restarts the actor: resets it as if no step had been run, and runs its
+   * behavior, which triggers "autonomous system reactions".
+   */
+  public void restart() {
+    isStopped = false;
+    ModelRunner modelRunner = getModelRunner();
+    if (modelRunner.getModel().isPresent()) {
+      modelRunner.restart();
+    } else {
+      run();
+    }
+  }
+
+  /**
+   * Stops the actor in turn with the messages it reacts to: after it has reacted
+   * to the messages that its inbox, or the mailbox of its runner, has received
+   * before. That way, the actor isn't stopped while it is reacting on another
+   * thread. If the actor has neither, it is stopped immediately, like by
+   * {@link #stop()}.
+   *
+   * @return a future that completes when the actor has been stopped
+   */
+  public CompletableFuture<Void> stopAsync() {
+    return runInTurn(this::stop);
+  }
+
+  /**
+   * Restarts the actor in turn with the messages it reacts to, like
+   * {@link #stopAsync()} stops it.
+   *
+   * @see #restart()
+   * @return a future that completes when the actor has been restarted
+   */
+  public CompletableFuture<Void> restartAsync() {
+    return runInTurn(this::restart);
+  }
+
+  private CompletableFuture<Void> runInTurn(Runnable command) {
+    ActorCommand actorCommand = new ActorCommand(command);
+    try {
+      ActorInbox existingInbox = inbox;
+      if (existingInbox != null) {
+        existingInbox.execute(actorCommand);
+      } else if (!getModelRunner().addToExistingMailbox(actorCommand)) {
+        actorCommand.run();
+      }
+    } catch (RejectedExecutionException e) {
+      actorCommand.reject(e);
+    }
+    return actorCommand.done;
+  }
+
+  private static class ActorCommand implements Mailbox.Task, ActorInbox.Command {
+    private final Runnable command;
+    private final CompletableFuture<Void> done;
+
+    ActorCommand(Runnable command) {
+      this.command = command;
+      this.done = new CompletableFuture<>();
+    }
+
+    @Override
+    public void run() {
+      try {
+        command.run();
+        done.complete(null);
+      } catch (RuntimeException e) {
+        done.completeExceptionally(e);
+      }
+    }
+
+    @Override
+    public void reject(RejectedExecutionException cause) {
+      done.completeExceptionally(cause);
+    }
+  }
+
+  /**
+   * Returns whether the actor has been stopped by {@link #stop()}.
+   *
+   * @return true if stopped, false otherwise
+   */
+  public boolean isStopped() {
+    return isStopped;
+  }
+
   private AbstractActor callingActorOrDefaultUser(AbstractActor callingActor) {
     AbstractActor runActor;
     if (callingActor == null) {
@@ -151,6 +258,64 @@ public abstract class AbstractActor implements Behavior {
     return runActor;
   }
 
+  /**
+   * Define the inbox that receives the messages that other actors publish to
+   * this actor. By default, an actor has no inbox: it reacts to a published
+   * message immediately, on the publisher's thread.
+   * 
+   * <p>
+   * If an actor has an inbox, only the inbox should call
+   * {@link #reactTo(Object, AbstractActor)}, as the actor's runner isn't
+   * thread-safe.
+   * 
+   * @param inbox the inbox, or null to react to published messages immediately
+   *              again
+   * @return this actor, for chaining
+   */
+  public AbstractActor withInbox(ActorInbox inbox) {
+    this.inbox = inbox;
+    return this;
+  }
+
+  /**
+   * Returns the inbox of the actor.
+   * 
+   * @return the inbox, or an empty optional if the actor has none
+   */
+  public Optional<ActorInbox> getInbox() {
+    return Optional.ofNullable(inbox);
+  }
+
+  /**
+   * Let the actor react to messages that other actors publish to it
+   * asynchronously: the publishing actor doesn't wait for the reaction. The
+   * actor reacts to the published messages one after the other, on the executor
+   * of its model runner, together with the messages provided via
+   * {@link ModelRunner#reactToAsync(Object)}.
+   * 
+   * @see ModelRunner#withExecutor(java.util.concurrent.Executor)
+   * @return this actor, for chaining
+   */
+  public AbstractActor withAsyncDelivery() {
+    return withInbox(new AsyncActorInbox(this));
+  }
+
+  ActorInbox getInboxOrNull() {
+    return inbox;
+  }
+
+  /**
+   * Returns the inbox of the actor, after giving it one for asynchronous
+   * delivery if it has none. That way, a message published asynchronously and
+   * one published synchronously never make the actor react concurrently.
+   */
+  synchronized ActorInbox getOrCreateAsyncInbox() {
+    if (inbox == null) {
+      inbox = new AsyncActorInbox(this);
+    }
+    return inbox;
+  }
+
   /**
    * Override this method to provide the model for the actor's behavior.
    * 
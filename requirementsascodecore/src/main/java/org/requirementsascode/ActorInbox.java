@@ -0,0 +1,61 @@
+package org.requirementsascode;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * An inbox receives the messages published to an actor, e.g. with
+ * <code>.to(actor)</code>, and lets the actor react to them later, instead of
+ * on the publisher's thread and stack.
+ * 
+ * <p>
+ * An implementation must let the actor react to the messages one after the
+ * other, by calling {@link AbstractActor#reactTo(Object, AbstractActor)} with
+ * the message and the calling actor.
+ *
+ * @see AbstractActor#withInbox(ActorInbox)
+ */
+public interface ActorInbox {
+  /**
+   * A command that an inbox runs in turn with the messages, e.g. to stop the
+   * actor.
+   *
+   * @see ActorInbox#execute(Command)
+   */
+  interface Command extends Runnable {
+    /**
+     * Called instead of {@link #run()} if the inbox won't run the command, e.g.
+     * because it has been closed.
+     *
+     * @param cause the reason why the command isn't run
+     */
+    void reject(RejectedExecutionException cause);
+  }
+
+  /**
+   * Adds the message to the inbox, without waiting for the actor to react.
+   * 
+   * @param message      the message object
+   * @param callingActor the actor as which to call the receiving actor, or null
+   *                     for the receiving actor's default user
+   */
+  void post(Object message, AbstractActor callingActor);
+
+  /**
+   * Runs the command in turn with the messages: after the actor has reacted to
+   * the messages posted before, and never while it is reacting to a message.
+   * This is used to stop or restart the actor from another thread, e.g. by
+   * {@link AbstractActor#stopAsync()}.
+   * 
+   * <p>
+   * By default, the command is run immediately, on the caller's thread. Override
+   * this method if the actor reacts on a thread of its own. An implementation
+   * must either run the command, or reject it, e.g. when it is closed while the
+   * command is still pending, so that no one waits for it forever.
+   * 
+   * @param command the command
+   * @throws RejectedExecutionException if the inbox doesn't accept the command
+   */
+  default void execute(Command command) {
+    command.run();
+  }
+}
@@ -0,0 +1,72 @@
+package org.requirementsascode;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The inbox of an actor with asynchronous delivery. It adds each message to the
+ * mailbox of the actor's model runner, so the actor reacts to it on the
+ * runner's executor, one message after the other, together with the messages
+ * provided via {@link ModelRunner#reactToAsync(Object)}.
+ */
+class AsyncActorInbox implements ActorInbox {
+  private final AbstractActor actor;
+
+  AsyncActorInbox(AbstractActor actor) {
+    this.actor = actor;
+  }
+
+  @Override
+  public void post(Object message, AbstractActor callingActor) {
+    actor.getModelRunner().addToMailbox(new Delivery(message, callingActor));
+  }
+
+  @Override
+  public void execute(Command command) {
+    actor.getModelRunner().addToMailbox(new CommandTask(command));
+  }
+
+  private class Delivery implements Mailbox.Task {
+    private final Object message;
+    private final AbstractActor callingActor;
+
+    Delivery(Object message, AbstractActor callingActor) {
+      this.message = message;
+      this.callingActor = callingActor;
+    }
+
+    @Override
+    public void run() {
+      try {
+        actor.reactTo(message, callingActor);
+      } catch (RuntimeException e) {
+        // No one waits for the reaction, so the exception would get lost
+        actor.getModelRunner().handleAsyncException(e);
+      }
+    }
+
+    @Override
+    public void reject(RejectedExecutionException cause) {
+      // No one waits for the reaction, so let the sender know. The mailbox
+      // rethrows the exception after it has rejected all other tasks.
+      throw cause;
+    }
+  }
+
+  private static class CommandTask implements Mailbox.Task {
+    private final Command command;
+
+    CommandTask(Command command) {
+      this.command = command;
+    }
+
+    @Override
+    public void run() {
+      command.run();
+    }
+
+    @Override
+    public void reject(RejectedExecutionException cause) {
+      command.reject(cause);
+    }
+  }
+}
@@ -0,0 +1,458 @@
+package org.requirementsascode;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.requirementsascode.exception.MissingUseCaseStepPart;
+
+/**
+ * Index that maps each concrete message class to the steps that could react to
+ * messages of that class. The model runner uses it to only evaluate those
+ * candidate steps, instead of all steps of the model.
+ * 
+ * <p>
+ * The index also holds the frozen, array backed step and actor collections of
+ * the model, so that these don't need to be collected again on each call.
+ * Each actor of the model gets a dense id, and each step a bit mask of the ids
+ * of its actors, so that checking whether an actor is allowed to cause the
+ * system reaction of a step doesn't need to compare the actors.
+ * 
+ * <p>
+ * The steps that react to the runner itself, i.e. the "autonomous system
+ * reactions", are kept separately, as the runner looks for them after each step
+ * that has been run.
+ *
+ * <p>
+ * The index holds the transition table that contains, for the latest step run,
+ * the flow steps that are at the right flow position.
+ *
+ * <p>
+ * For each message class of an interruptable flow step, the index holds the
+ * interrupting flow steps that could interrupt it. The model runner evaluates
+ * these at most once per dispatch.
+ *
+ * <p>
+ * A step is a candidate for a concrete message class if the step's message
+ * class is the same class or a superclass / interface of it. The candidates for
+ * a message class are determined when a message of that class is first
+ * dispatched, and are cached afterwards. To determine them, the index looks up
+ * the steps of each supertype of the message class, so that the cost doesn't
+ * depend on the number of steps of the model.
+ */
+class DispatchIndex {
+  private static final Class<?> SYSTEM_EVENT_CLASS = ModelRunner.class;
+
+  private final Step[] steps;
+  private final Step[] stepsById;
+  private final List<Step> stepList;
+  private final List<AbstractActor> actorList;
+  private final Map<AbstractActor, Integer> actorToId;
+  private final BitSet[] actorIdsByStepId;
+  private final boolean[] hasUserOrSystemActorByStepId;
+  private final int[] positionByStepId;
+  private final Map<Class<?>, List<Step>> stepsByOwnMessageClass;
+  private final Step stepWithoutMessageClass;
+  private final ConcurrentMap<Class<?>, Step[]> messageClassToSteps;
+  private volatile Step[] autonomousSteps;
+  private final InterruptingFlowStep[] interruptingSteps;
+  private final Map<Class<?>, int[]> messageClassToInterruptingStepIndices;
+  private final TransitionTable transitionTable;
+
+  /**
+   * Creates an index for the specified steps.
+   *
+   * @param steps      the steps of the model, in the order they have been created
+   * @param nrOfStepIds the number of step ids assigned by the model
+   * @param userActor   the user actor of the model
+   * @param systemActor the system actor of the model
+   */
+  DispatchIndex(Collection<Step> steps, int nrOfStepIds, AbstractActor userActor, AbstractActor systemActor) {
+    this.steps = steps.toArray(new Step[0]);
+    this.stepsById = indexStepsById(this.steps, nrOfStepIds);
+    this.stepList = Collections.unmodifiableList(Arrays.asList(this.steps));
+    AbstractActor[] actors = collectActors(this.steps);
+    this.actorList = Collections.unmodifiableList(Arrays.asList(actors));
+    this.actorToId = indexActorIds(actors);
+    this.actorIdsByStepId = new BitSet[nrOfStepIds];
+    this.hasUserOrSystemActorByStepId = new boolean[nrOfStepIds];
+    indexStepActors(userActor, systemActor);
+    this.positionByStepId = indexStepPositions(this.steps, nrOfStepIds);
+    this.stepsByOwnMessageClass = indexStepsByOwnMessageClass(this.steps);
+    this.stepWithoutMessageClass = findStepWithoutMessageClass(this.steps);
+    this.messageClassToSteps = new ConcurrentHashMap<>();
+    this.interruptingSteps = collectInterruptingSteps(this.steps);
+    this.messageClassToInterruptingStepIndices = indexInterruptingSteps(this.steps, interruptingSteps);
+    this.transitionTable = new TransitionTable(this.steps, stepsById);
+  }
+
+  private static Step[] indexStepsById(Step[] steps, int nrOfStepIds) {
+    Step[] stepsById = new Step[nrOfStepIds];
+    for (Step step : steps) {
+      stepsById[step.getId()] = step;
+    }
+    return stepsById;
+  }
+
+  private static AbstractActor[] collectActors(Step[] steps) {
+    Set<AbstractActor> actors = new LinkedHashSet<>();
+    for (Step step : steps) {
+      AbstractActor[] stepActors = step.getModifiableActors();
+      if (stepActors != null) {
+        actors.addAll(Arrays.asList(stepActors));
+      }
+    }
+    return actors.toArray(new AbstractActor[0]);
+  }
+
+  private static Map<AbstractActor, Integer> indexActorIds(AbstractActor[] actors) {
+    Map<AbstractActor, Integer> actorToId = new HashMap<>();
+    for (int actorId = 0; actorId < actors.length; actorId++) {
+      actorToId.put(actors[actorId], actorId);
+    }
+    return actorToId;
+  }
+
+  private void indexStepActors(AbstractActor userActor, AbstractActor systemActor) {
+    for (Step step : steps) {
+      AbstractActor[] stepActors = step.getModifiableActors();
+      if (stepActors != null) {
+        BitSet stepActorIds = new BitSet(actorList.size());
+        boolean hasUserOrSystemActor = false;
+        for (AbstractActor stepActor : stepActors) {
+          stepActorIds.set(actorToId.get(stepActor));
+          hasUserOrSystemActor |= stepActor.equals(userActor) || stepActor.equals(systemActor);
+        }
+        actorIdsByStepId[step.getId()] = stepActorIds;
+        hasUserOrSystemActorByStepId[step.getId()] = hasUserOrSystemActor;
+      }
+    }
+  }
+
+  private static int[] indexStepPositions(Step[] steps, int nrOfStepIds) {
+    int[] positionByStepId = new int[nrOfStepIds];
+    for (int position = 0; position < steps.length; position++) {
+      positionByStepId[steps[position].getId()] = position;
+    }
+    return positionByStepId;
+  }
+
+  private static Map<Class<?>, List<Step>> indexStepsByOwnMessageClass(Step[] steps) {
+    Map<Class<?>, List<Step>> stepsByOwnMessageClass = new HashMap<>();
+    for (Step step : steps) {
+      Class<?> messageClass = step.getMessageClass();
+      if (messageClass != null) {
+        stepsByOwnMessageClass.computeIfAbsent(messageClass, c -> new ArrayList<>()).add(step);
+      }
+    }
+    return stepsByOwnMessageClass;
+  }
+
+  private static Step findStepWithoutMessageClass(Step[] steps) {
+    for (Step step : steps) {
+      if (step.getMessageClass() == null) {
+        return step;
+      }
+    }
+    return null;
+  }
+
+  private static InterruptingFlowStep[] collectInterruptingSteps(Step[] steps) {
+    List<InterruptingFlowStep> interruptingSteps = new ArrayList<>();
+    for (Step step : steps) {
+      if (isInterruptingStep(step)) {
+        interruptingSteps.add((InterruptingFlowStep) step);
+      }
+    }
+    return interruptingSteps.toArray(new InterruptingFlowStep[0]);
+  }
+
+  private static Map<Class<?>, int[]> indexInterruptingSteps(Step[] steps, InterruptingFlowStep[] interruptingSteps) {
+    Map<Class<?>, List<Integer>> ownMessageClassToInterruptingStepIndices = new HashMap<>();
+    for (int i = 0; i < interruptingSteps.length; i++) {
+      Class<?> messageClass = interruptingSteps[i].getMessageClass();
+      if (messageClass != null) {
+        ownMessageClassToInterruptingStepIndices.computeIfAbsent(messageClass, c -> new ArrayList<>()).add(i);
+      }
+    }
+
+    Map<Class<?>, int[]> messageClassToInterruptingStepIndices = new HashMap<>();
+    for (Step step : steps) {
+      Class<?> messageClass = step.getMessageClass();
+      if (step instanceof InterruptableFlowStep && messageClass != null
+        && !messageClassToInterruptingStepIndices.containsKey(messageClass)) {
+        int[] interruptingStepIndices = findInterruptingStepsFor(messageClass, ownMessageClassToInterruptingStepIndices);
+        messageClassToInterruptingStepIndices.put(messageClass, interruptingStepIndices);
+      }
+    }
+    return messageClassToInterruptingStepIndices;
+  }
+
+  private static int[] findInterruptingStepsFor(Class<?> messageClass,
+    Map<Class<?>, List<Integer>> ownMessageClassToInterruptingStepIndices) {
+    List<Integer> foundIndices = new ArrayList<>();
+    for (Class<?> type : typesMatchedBy(messageClass)) {
+      List<Integer> indices = ownMessageClassToInterruptingStepIndices.get(type);
+      if (indices != null) {
+        foundIndices.addAll(indices);
+      }
+    }
+
+    int[] interruptingStepIndices = new int[foundIndices.size()];
+    for (int i = 0; i < interruptingStepIndices.length; i++) {
+      interruptingStepIndices[i] = foundIndices.get(i);
+    }
+    Arrays.sort(interruptingStepIndices);
+    return interruptingStepIndices;
+  }
+
+  private static int[] findInterruptingStepsFor(Class<?> messageClass, InterruptingFlowStep[] interruptingSteps) {
+    int[] interruptingStepIndices = new int[interruptingSteps.length];
+    int nrOfInterruptingSteps = 0;
+    for (int i = 0; i < interruptingSteps.length; i++) {
+      InterruptingFlowStep interruptingStep = interruptingSteps[i];
+      if (interruptingStep.getMessageClass() != null
+        && stepMessageClassIsSameOrSuperclass(interruptingStep, messageClass)) {
+        interruptingStepIndices[nrOfInterruptingSteps++] = i;
+      }
+    }
+    return Arrays.copyOf(interruptingStepIndices, nrOfInterruptingSteps);
+  }
+
+  private static boolean isInterruptingStep(Step step) {
+    return InterruptingFlowStep.class.equals(step.getClass());
+  }
+
+  /**
+   * Returns all steps of the indexed model.
+   *
+   * @return the steps, don't modify the returned array
+   */
+  Step[] getSteps() {
+    return steps;
+  }
+
+  /**
+   * Returns all steps of the indexed model, as an unmodifiable list.
+   *
+   * @return the steps
+   */
+  List<Step> getStepList() {
+    return stepList;
+  }
+
+  /**
+   * Returns the actors of all steps of the indexed model, as an unmodifiable
+   * list without duplicates.
+   *
+   * @return the actors
+   */
+  List<AbstractActor> getActorList() {
+    return actorList;
+  }
+
+  /**
+   * Returns the id of the specified actor, which is the same for all actors
+   * that are equal to it.
+   *
+   * @param actor the actor, may be null
+   * @return the id, or -1 if the actor is null or not an actor of any step of
+   *         the indexed model
+   */
+  int getActorId(AbstractActor actor) {
+    Integer actorId = actor == null ? null : actorToId.get(actor);
+    return actorId == null ? -1 : actorId;
+  }
+
+  /**
+   * Checks whether the actor with the specified id is allowed to cause the
+   * system reaction of the specified step. That's the case if it's one of the
+   * step's actors, or if the step's actors contain the user or system actor.
+   *
+   * @param step    a step of the indexed model
+   * @param actorId the id of the actor, as returned by
+   *                {@link #getActorId(AbstractActor)}
+   * @return true if the actor is allowed, false otherwise
+   * @throws MissingUseCaseStepPart if the step has no actors
+   */
+  boolean hasRightActor(Step step, int actorId) {
+    BitSet stepActorIds = actorIdsByStepId[step.getId()];
+    if (stepActorIds == null) {
+      throw new MissingUseCaseStepPart(step, "actor");
+    }
+    boolean hasRightActor = hasUserOrSystemActorByStepId[step.getId()]
+      || (actorId >= 0 && stepActorIds.get(actorId));
+    return hasRightActor;
+  }
+
+  /**
+   * Returns the step with the specified id.
+   *
+   * @param stepId the id of a step of the indexed model
+   * @return the step
+   */
+  Step getStep(int stepId) {
+    return stepsById[stepId];
+  }
+
+  /**
+   * Checks whether the specified step is one of the steps of the indexed model.
+   *
+   * @param step the step to check
+   * @return true if it is, false otherwise
+   */
+  boolean contains(Step step) {
+    int stepId = step.getId();
+    return stepId >= 0 && stepId < stepsById.length && stepsById[stepId] == step;
+  }
+
+  /**
+   * Returns the steps that could react to a message of the specified class,
+   * given that their actors and predicates match.
+   *
+   * @param messageClass the concrete class of the message
+   * @return the candidate steps, don't modify the returned array
+   * @throws MissingUseCaseStepPart if a step of the model has no message class
+   */
+  Step[] getStepsFor(Class<?> messageClass) {
+    if (hasSystemEventClass(messageClass)) {
+      return getAutonomousSteps();
+    }
+
+    Step[] stepsForMessageClass = messageClassToSteps.get(messageClass);
+    if (stepsForMessageClass == null) {
+      stepsForMessageClass = findStepsFor(messageClass);
+      messageClassToSteps.putIfAbsent(messageClass, stepsForMessageClass);
+    }
+    return stepsForMessageClass;
+  }
+
+  /**
+   * Returns the steps that react without a message, i.e. the steps that react to
+   * the model runner itself when it triggers "autonomous system reactions".
+   *
+   * @return the autonomous steps, don't modify the returned array
+   * @throws MissingUseCaseStepPart if a step of the model has no message class
+   */
+  Step[] getAutonomousSteps() {
+    Step[] steps = autonomousSteps;
+    if (steps == null) {
+      steps = findStepsFor(SYSTEM_EVENT_CLASS);
+      autonomousSteps = steps;
+    }
+    return steps;
+  }
+
+  /**
+   * Returns the table of flow steps that are at the right flow position after
+   * each step of the indexed model.
+   *
+   * @return the transition table
+   */
+  TransitionTable getTransitionTable() {
+    return transitionTable;
+  }
+
+  /**
+   * Returns the interrupting flow steps of the indexed model.
+   *
+   * @return the interrupting steps, don't modify the returned array
+   */
+  InterruptingFlowStep[] getInterruptingSteps() {
+    return interruptingSteps;
+  }
+
+  /**
+   * Returns the indices (into {@link #getInterruptingSteps()}) of the
+   * interrupting steps that could interrupt an interruptable step with the
+   * specified message class.
+   *
+   * @param messageClass the message class of the interruptable step
+   * @return the indices, don't modify the returned array
+   */
+  int[] getInterruptingStepsFor(Class<?> messageClass) {
+    int[] interruptingStepIndices = messageClassToInterruptingStepIndices.get(messageClass);
+    if (interruptingStepIndices == null) {
+      interruptingStepIndices = findInterruptingStepsFor(messageClass, interruptingSteps);
+    }
+    return interruptingStepIndices;
+  }
+
+  private Step[] findStepsFor(Class<?> messageClass) {
+    if (stepWithoutMessageClass != null) {
+      throw new MissingUseCaseStepPart(stepWithoutMessageClass, "on/user");
+    }
+
+    List<Step> stepsForMessageClass = new ArrayList<>();
+    for (Class<?> type : typesMatchedBy(messageClass)) {
+      List<Step> stepsWithType = stepsByOwnMessageClass.get(type);
+      if (stepsWithType != null) {
+        stepsForMessageClass.addAll(stepsWithType);
+      }
+    }
+    stepsForMessageClass.sort(Comparator.comparingInt(step -> positionByStepId[step.getId()]));
+    return stepsForMessageClass.toArray(new Step[0]);
+  }
+
+  /**
+   * Returns the step message classes that a message of the specified class
+   * matches: the class itself and all of its superclasses and interfaces. The
+   * system event class only matches itself.
+   */
+  private static Set<Class<?>> typesMatchedBy(Class<?> messageClass) {
+    Set<Class<?>> types = new LinkedHashSet<>();
+    if (hasSystemEventClass(messageClass)) {
+      types.add(messageClass);
+    } else {
+      addSupertypes(messageClass, types);
+    }
+    return types;
+  }
+
+  private static void addSupertypes(Class<?> type, Set<Class<?>> types) {
+    if (type != null && types.add(type)) {
+      addSupertypes(type.getSuperclass(), types);
+      for (Class<?> interfaceType : type.getInterfaces()) {
+        addSupertypes(interfaceType, types);
+      }
+      if (type.isInterface()) {
+        types.add(Object.class);
+      } else if (type.isArray() && !type.getComponentType().isPrimitive()) {
+        addArrayTypesOfSupertypes(type.getComponentType(), types);
+      }
+    }
+  }
+
+  private static void addArrayTypesOfSupertypes(Class<?> componentType, Set<Class<?>> types) {
+    Set<Class<?>> componentSupertypes = new LinkedHashSet<>();
+    addSupertypes(componentType, componentSupertypes);
+    for (Class<?> componentSupertype : componentSupertypes) {
+      addSupertypes(Array.newInstance(componentSupertype, 0).getClass(), types);
+    }
+  }
+
+  static boolean stepMessageClassIsSameOrSuperclass(Step step, Class<?> currentMessageClass) {
+    Class<?> stepMessageClass = step.getMessageClass();
+    if (stepMessageClass == null) {
+      throw new MissingUseCaseStepPart(step, "on/user");
+    }
+    boolean result = hasSystemEventClass(currentMessageClass) ? hasSystemEventClass(stepMessageClass)
+      : stepMessageClass.isAssignableFrom(currentMessageClass);
+    return result;
+  }
+
+  private static boolean hasSystemEventClass(Class<?> messageClass) {
+    return SYSTEM_EVENT_CLASS.equals(messageClass);
+  }
+}
@@ -39,10 +39,14 @@ public abstract class FlowStep extends Step{
 		Objects.requireNonNull(flowPosition);
 
 		this.flowPosition = flowPosition;
+		// The model's transition table is compiled from the flow positions
+		flowPosition.setChangeListener(getModel()::unfreeze);
+		getModel().unfreeze();
 	}
 
 	public void orAfter(FlowStep step) {
 	  Objects.requireNonNull(step);
+	  getModel().checkNotBuilt();
 	  if(flowPosition == null) {
 	    throw new RuntimeException("flowPosition must be initialized before calling this method!");
 	  }
@@ -51,15 +55,28 @@ public abstract class FlowStep extends Step{
 	}
 
 	public void setReactWhile(Condition reactWhileCondition) {
+		getModel().checkNotBuilt();
 		this.reactWhile = reactWhileCondition;
 		createLoop();
 	}
 
 	private void createLoop() {
 		getFlowPosition().orAfter(getName(), getUseCase());
+		getModel().unfreeze();
 	}
 
 	public Condition getReactWhile() {
 		return reactWhile;
 	}
+
+	boolean isAtRightPosition(ModelRunner modelRunner) {
+		TransitionTable transitionTable = getModel().getDispatchIndex().getTransitionTable();
+		boolean isAtRightPosition = transitionTable.isAtRightPosition(this, modelRunner);
+		return isAtRightPosition;
+	}
+
+	boolean isReactWhileTrue() {
+		boolean isReactWhileTrue = reactWhile == null || reactWhile.evaluate();
+		return isReactWhileTrue;
+	}
 }
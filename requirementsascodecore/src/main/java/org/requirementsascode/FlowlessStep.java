@@ -1,6 +1,6 @@
 package org.requirementsascode;
 
-import java.util.function.Predicate;
+import org.requirementsascode.trace.DispatchDecision;
 
 /**
  * A step that is not part of a flow (i.e. no flow definition in the model).
@@ -14,13 +14,7 @@ public class FlowlessStep extends Step {
 	}
 
 	@Override
-	public Predicate<ModelRunner> getPredicate() {
-		Predicate<ModelRunner> predicate = toPredicate(getConditionOrElseTrue());
-		return predicate;
-	}
-
-	private Condition getConditionOrElseTrue() {
-		Condition condition = getCondition().orElse(() -> true);
-		return condition;
+	DispatchDecision decide(ModelRunner modelRunner) {
+		return isConditionTrue() ? DispatchDecision.CAN_REACT : DispatchDecision.CONDITION_FALSE;
 	}
 }
@@ -0,0 +1,120 @@
+package org.requirementsascode;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps model runners that are not reacting to a message at the moment, so
+ * that a {@link StatelessBehavior} can reuse them instead of creating a new
+ * runner for each message.
+ *
+ * <p>
+ * A runner is only kept while it's idle: {@link #poll()} removes it, and the
+ * behavior offers it back after it has reacted. So a nested call of the
+ * behavior, e.g. from one of its own system reactions, never gets the runner
+ * that is currently reacting.
+ */
+abstract class IdleModelRunners {
+  /**
+   * Removes an idle runner and returns it.
+   *
+   * @return the runner, or null if there is no idle runner
+   */
+  abstract ModelRunner poll();
+
+  /**
+   * Keeps the specified runner for reuse, or drops it if there's no room for
+   * it.
+   *
+   * @param modelRunner the runner that has finished reacting
+   */
+  abstract void offer(ModelRunner modelRunner);
+
+  static IdleModelRunners none() {
+    return new NoIdleModelRunners();
+  }
+
+  static IdleModelRunners threadLocal() {
+    return new ThreadLocalIdleModelRunners();
+  }
+
+  static IdleModelRunners pooled(int capacity) {
+    return new PooledIdleModelRunners(capacity);
+  }
+
+  private static class NoIdleModelRunners extends IdleModelRunners {
+    @Override
+    ModelRunner poll() {
+      return null;
+    }
+
+    @Override
+    void offer(ModelRunner modelRunner) {
+    }
+  }
+
+  private static class ThreadLocalIdleModelRunners extends IdleModelRunners {
+    private final ThreadLocal<ModelRunner> idleRunner = new ThreadLocal<>();
+
+    @Override
+    ModelRunner poll() {
+      ModelRunner modelRunner = idleRunner.get();
+      if (modelRunner != null) {
+        idleRunner.set(null);
+      }
+      return modelRunner;
+    }
+
+    @Override
+    void offer(ModelRunner modelRunner) {
+      idleRunner.set(modelRunner);
+    }
+  }
+
+  /**
+   * A fixed number of slots that are claimed and filled with atomic operations.
+   * Each thread starts looking at a different slot, to avoid contention.
+   */
+  private static class PooledIdleModelRunners extends IdleModelRunners {
+    private final AtomicReferenceArray<ModelRunner> slots;
+
+    PooledIdleModelRunners(int capacity) {
+      if (capacity <= 0) {
+        throw new IllegalArgumentException("capacity must be positive, but is " + capacity);
+      }
+      this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    @Override
+    ModelRunner poll() {
+      int capacity = slots.length();
+      int start = startSlot(capacity);
+      for (int i = 0; i < capacity; i++) {
+        int slot = (start + i) % capacity;
+        if (slots.get(slot) != null) {
+          ModelRunner modelRunner = slots.getAndSet(slot, null);
+          if (modelRunner != null) {
+            return modelRunner;
+          }
+        }
+      }
+      return null;
+    }
+
+    @Override
+    void offer(ModelRunner modelRunner) {
+      int capacity = slots.length();
+      int start = startSlot(capacity);
+      for (int i = 0; i < capacity; i++) {
+        int slot = (start + i) % capacity;
+        if (slots.get(slot) == null && slots.compareAndSet(slot, null, modelRunner)) {
+          return;
+        }
+      }
+    }
+
+    private static int startSlot(int capacity) {
+      long threadId = Thread.currentThread().getId();
+      return (int) ((threadId ^ (threadId >>> 32)) & Integer.MAX_VALUE) % capacity;
+    }
+  }
+}
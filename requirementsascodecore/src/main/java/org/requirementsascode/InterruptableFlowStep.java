@@ -1,10 +1,9 @@
 package org.requirementsascode;
 
-import java.util.Collection;
 import java.util.List;
-import java.util.function.Predicate;
 
 import org.requirementsascode.flowposition.After;
+import org.requirementsascode.trace.DispatchDecision;
 
 /**
  * An interruptable flow step is either the first step of a flow without a user
@@ -39,40 +38,20 @@ public class InterruptableFlowStep extends FlowStep{
     setFlowPosition(After.afterFlowStep(lastFlowStep));
 	}
 
-  @Override
-	public Predicate<ModelRunner> getPredicate() {
-		Condition reactWhile = getReactWhile();
-
-    Predicate<ModelRunner> predicate = getFlowPosition().and(noStepInterrupts()).and(isConditionTrue());
-    if (reactWhile != null) {
-      predicate = predicate.and(toPredicate(reactWhile));
-    }
-
-    return predicate;
-  }
-
-	private Predicate<ModelRunner> noStepInterrupts() {
-		return modelRunner -> {
-			Class<?> messageClass = getMessageClass();
-
-			boolean noStepInterrupts = true;
-			if (modelRunner.isRunning()) {
-				Collection<Step> steps = getFlow().getModel().getModifiableSteps();
-				
-				for (Step step : steps) {
-					if(isInterruptingStep(step) && modelRunner.canReactToMessageClass(step, messageClass)) {
-						noStepInterrupts = false;
-						break;
-					}
-				}
-			}
-
-			return noStepInterrupts;
-		};
-
-	}
-
-	private boolean isInterruptingStep(Step step) {
-		return InterruptingFlowStep.class.equals(step.getClass());
+	@Override
+	DispatchDecision decide(ModelRunner modelRunner) {
+		DispatchDecision decision;
+		if (!isAtRightPosition(modelRunner)) {
+			decision = DispatchDecision.WRONG_FLOW_POSITION;
+		} else if (modelRunner.isInterrupted(this)) {
+			decision = DispatchDecision.INTERRUPTED;
+		} else if (!isConditionTrue()) {
+			decision = DispatchDecision.CONDITION_FALSE;
+		} else if (!isReactWhileTrue()) {
+			decision = DispatchDecision.REACT_WHILE_FALSE;
+		} else {
+			decision = DispatchDecision.CAN_REACT;
+		}
+		return decision;
 	}
 }
@@ -1,8 +1,7 @@
 package org.requirementsascode;
 
-import java.util.function.Predicate;
-
 import org.requirementsascode.flowposition.FlowPosition;
+import org.requirementsascode.trace.DispatchDecision;
 
 public class InterruptingFlowStep extends FlowStep {
 	InterruptingFlowStep(String stepName, Flow useCaseFlow, FlowPosition flowPosition, Condition condition) {
@@ -10,26 +9,27 @@ public class InterruptingFlowStep extends FlowStep {
 		setFlowPosition(flowPosition);
 	}
 
-	public Predicate<ModelRunner> getPredicate() {
-		Predicate<ModelRunner> predicate;
-		Condition reactWhile = getReactWhile();
-
-		predicate = isFlowConditionTrueAndRunnerInDifferentFlow();
-		if (reactWhile != null) {
-			predicate = predicate.and(toPredicate(reactWhile));
+	@Override
+	DispatchDecision decide(ModelRunner modelRunner) {
+		DispatchDecision decision;
+		if (!isAtRightPosition(modelRunner)) {
+			decision = DispatchDecision.WRONG_FLOW_POSITION;
+		} else if (!isRunnerInDifferentFlow(modelRunner)) {
+			decision = DispatchDecision.IN_SAME_FLOW;
+		} else if (!isConditionTrue()) {
+			decision = DispatchDecision.CONDITION_FALSE;
+		} else if (!isReactWhileTrue()) {
+			decision = DispatchDecision.REACT_WHILE_FALSE;
+		} else {
+			decision = DispatchDecision.CAN_REACT;
 		}
-
-		return predicate;
+		return decision;
 	}
 
-  private Predicate<ModelRunner> isFlowConditionTrueAndRunnerInDifferentFlow() {
-    Predicate<ModelRunner> flowCondition = getFlowPosition().and(isRunnerInDifferentFlow()).and(isConditionTrue());
-    return flowCondition;
-  }
-
-	private Predicate<ModelRunner> isRunnerInDifferentFlow() {
-		Predicate<ModelRunner> isRunnerInDifferentFlow = runner -> runner.getLatestFlow()
-				.map(runnerFlow -> !runnerFlow.equals(getFlow())).orElse(true);
+	private boolean isRunnerInDifferentFlow(ModelRunner modelRunner) {
+		Step latestStep = modelRunner.getLatestStepOrNull();
+		boolean isRunnerInDifferentFlow = !(latestStep instanceof FlowStep)
+			|| !((FlowStep) latestStep).getFlow().equals(getFlow());
 		return isRunnerInDifferentFlow;
 	}
 }
@@ -0,0 +1,295 @@
+package org.requirementsascode;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.requirementsascode.exception.InfiniteRepetition;
+import org.requirementsascode.exception.MoreThanOneStepCanReact;
+import org.requirementsascode.exception.NestedCallOfReactTo;
+import org.requirementsascode.metrics.MetricsRegistry;
+import org.requirementsascode.trace.DispatchFlightRecorder;
+
+/**
+ * A keyed model runner runs the same model for many entities, e.g. credit cards
+ * or user sessions, each identified by a long key. It behaves as if each entity
+ * had a {@link ModelRunner} of its own, but it only stores the latest step run
+ * and the running flag of each entity, in a primitive map. So an entity takes a
+ * few bytes instead of a runner object.
+ *
+ * <p>
+ * An entity that the keyed runner hasn't seen yet is in the initial state: it
+ * is running, and no step has been run. The "autonomous system reactions" of
+ * the initial state are triggered right before the entity reacts to its first
+ * message.
+ *
+ * <p>
+ * A keyed runner is not thread-safe, and a system reaction must not call
+ * {@link #reactTo(long, Object)}: publish the message instead.
+ */
+public class KeyedModelRunner {
+  private static final int STOPPED = 1;
+
+  private final Model model;
+  private final ModelRunner modelRunner;
+  private final LongIntMap entityStates;
+  private boolean isReacting;
+
+  /**
+   * Creates a keyed runner for the specified model.
+   *
+   * @param model the model that defines the behavior of each entity
+   */
+  public KeyedModelRunner(Model model) {
+    this.model = Objects.requireNonNull(model);
+    this.modelRunner = new ModelRunner();
+    this.entityStates = new LongIntMap();
+  }
+
+  /**
+   * Define a custom message handler, for all entities.
+   *
+   * @see ModelRunner#handleWith(Consumer)
+   * @param messageHandler the custom message handler
+   * @return this keyed runner, for chaining
+   */
+  public KeyedModelRunner handleWith(Consumer<StepToBeRun> messageHandler) {
+    modelRunner.handleWith(messageHandler);
+    return this;
+  }
+
+  /**
+   * Define handler for messages that an entity doesn't react to.
+   *
+   * @see ModelRunner#handleUnhandledWith(Consumer)
+   * @param unhandledMessageHandler the handler for messages not handled
+   * @return this keyed runner, for chaining
+   */
+  public KeyedModelRunner handleUnhandledWith(Consumer<Object> unhandledMessageHandler) {
+    modelRunner.handleUnhandledWith(unhandledMessageHandler);
+    return this;
+  }
+
+  /**
+   * Define a custom publisher for events, for all entities.
+   *
+   * @see ModelRunner#publishWith(Consumer)
+   * @param eventPublisher the custom event publisher
+   * @return this keyed runner, for chaining
+   */
+  public KeyedModelRunner publishWith(Consumer<Object> eventPublisher) {
+    modelRunner.publishWith(eventPublisher);
+    return this;
+  }
+
+  /**
+   * Define the maximum number of steps an entity may run for a single message.
+   *
+   * @see ModelRunner#withStepBudget(int)
+   * @param stepBudget the maximum number of steps, must be positive
+   * @return this keyed runner, for chaining
+   */
+  public KeyedModelRunner withStepBudget(int stepBudget) {
+    modelRunner.withStepBudget(stepBudget);
+    return this;
+  }
+
+  /**
+   * Define the registry that receives the metrics, for all entities.
+   *
+   * @see ModelRunner#withMetrics(MetricsRegistry)
+   * @param metricsRegistry the registry, or null to stop recording metrics
+   * @return this keyed runner, for chaining
+   */
+  public KeyedModelRunner withMetrics(MetricsRegistry metricsRegistry) {
+    modelRunner.withMetrics(metricsRegistry);
+    return this;
+  }
+
+  /**
+   * Define the flight recorder that records the dispatch decisions, for all
+   * entities.
+   *
+   * @see ModelRunner#withFlightRecorder(DispatchFlightRecorder)
+   * @param flightRecorder the recorder, or null to stop recording
+   * @return this keyed runner, for chaining
+   */
+  public KeyedModelRunner withFlightRecorder(DispatchFlightRecorder flightRecorder) {
+    modelRunner.withFlightRecorder(flightRecorder);
+    return this;
+  }
+
+  /**
+   * Define the watchdog that reports slow system reactions, for all entities.
+   *
+   * @see ModelRunner#withWatchdog(SlowReactionWatchdog)
+   * @param watchdog the watchdog, or null to stop watching
+   * @return this keyed runner, for chaining
+   */
+  public KeyedModelRunner withWatchdog(SlowReactionWatchdog watchdog) {
+    modelRunner.withWatchdog(watchdog);
+    return this;
+  }
+
+  /**
+   * Define the time budget of the steps that don't have one of their own, for
+   * all entities.
+   *
+   * @see ModelRunner#withTimeBudget(Duration)
+   * @param timeBudget the time budget, must be positive, or null for none
+   * @return this keyed runner, for chaining
+   */
+  public KeyedModelRunner withTimeBudget(Duration timeBudget) {
+    modelRunner.withTimeBudget(timeBudget);
+    return this;
+  }
+
+  /**
+   * Lets the entity with the specified key react to the message, in the same way
+   * as {@link ModelRunner#reactTo(Object)} does. If the entity is stopped, it
+   * doesn't react.
+   *
+   * @param <T>     the return type that you as the user expects
+   * @param key     the key of the entity
+   * @param message the message object
+   * @return the event that was published (latest) if the system reacted, or an
+   *         empty Optional
+   * @throws MoreThanOneStepCanReact when more than one step can react
+   * @throws InfiniteRepetition      when a step has an always true condition, or
+   *                                 there is an infinite loop
+   * @throws NestedCallOfReactTo     when called from a system reaction
+   */
+  public <T> Optional<T> reactTo(long key, Object message) {
+    return reactTo(key, model.getUserActor(), message);
+  }
+
+  /**
+   * Lets the entity with the specified key react to the message, as the
+   * specified actor.
+   *
+   * @see ModelRunner#as(AbstractActor)
+   * @param <T>      the return type that you as the user expects
+   * @param key      the key of the entity
+   * @param runActor the actor to run as
+   * @param message  the message object
+   * @return the event that was published (latest) if the system reacted, or an
+   *         empty Optional
+   * @throws MoreThanOneStepCanReact when more than one step can react
+   * @throws InfiniteRepetition      when a step has an always true condition, or
+   *                                 there is an infinite loop
+   * @throws NestedCallOfReactTo     when called from a system reaction
+   */
+  public <T> Optional<T> reactTo(long key, AbstractActor runActor, Object message) {
+    Objects.requireNonNull(runActor);
+    Objects.requireNonNull(message);
+    if (isReacting) {
+      throw new NestedCallOfReactTo();
+    }
+
+    int entityState = entityStates.get(key, -1);
+    if (isStopped(entityState)) {
+      return Optional.empty();
+    }
+
+    isReacting = true;
+    try {
+      if (entityState == -1) {
+        // Holds the entity's place, so that a restart by the reaction can be seen
+        entityStates.put(key, runningStateOf(null));
+        modelRunner.setLatestStep(null);
+        modelRunner.run(model);
+      } else {
+        modelRunner.setLatestStep(stepOf(entityState));
+      }
+      return modelRunner.as(runActor).reactTo(message);
+    } finally {
+      // The reaction may have stopped or restarted the entity
+      int entityStateAfterReaction = entityStates.get(key, -1);
+      if (entityStateAfterReaction != -1) {
+        int runningState = runningStateOf(modelRunner.getLatestStepOrNull());
+        entityStates.put(key, isStopped(entityStateAfterReaction) ? runningState | STOPPED : runningState);
+      }
+      isReacting = false;
+    }
+  }
+
+  /**
+   * Returns the latest step that the entity with the specified key has run.
+   *
+   * @param key the key of the entity
+   * @return the latest step run, or an empty optional if the entity hasn't run
+   *         a step yet
+   */
+  public Optional<Step> getLatestStep(long key) {
+    int entityState = entityStates.get(key, -1);
+    return entityState == -1 ? Optional.empty() : Optional.ofNullable(stepOf(entityState));
+  }
+
+  /**
+   * Returns whether the entity with the specified key is running.
+   *
+   * @param key the key of the entity
+   * @return true if the entity is running (which is the case for an unknown
+   *         key), false if it has been stopped
+   */
+  public boolean isRunning(long key) {
+    return !isStopped(entityStates.get(key, -1));
+  }
+
+  /**
+   * Stops the entity with the specified key. It will not react to messages, until
+   * {@link #restart(long)} is called for it. If a system reaction of the entity
+   * stops it, the entity still finishes reacting to the current message.
+   *
+   * @param key the key of the entity
+   */
+  public void stop(long key) {
+    int entityState = entityStates.get(key, -1);
+    int stoppedState = entityState == -1 ? STOPPED : entityState | STOPPED;
+    entityStates.put(key, stoppedState);
+  }
+
+  /**
+   * Resets the entity with the specified key to the initial state, and frees
+   * the memory it takes. If a system reaction of the entity restarts it, the
+   * entity is reset after it has finished reacting to the current message.
+   *
+   * @param key the key of the entity
+   */
+  public void restart(long key) {
+    entityStates.remove(key);
+  }
+
+  /**
+   * Returns the number of entities the keyed runner holds a state for.
+   *
+   * @return the number of entities
+   */
+  public int size() {
+    return entityStates.size();
+  }
+
+  /**
+   * Returns the model run for each entity.
+   *
+   * @return the model
+   */
+  public Model getModel() {
+    return model;
+  }
+
+  private static boolean isStopped(int entityState) {
+    return entityState != -1 && (entityState & STOPPED) != 0;
+  }
+
+  private Step stepOf(int entityState) {
+    int stepIdPlusOne = entityState >>> 1;
+    return stepIdPlusOne == 0 ? null : model.getDispatchIndex().getStep(stepIdPlusOne - 1);
+  }
+
+  private static int runningStateOf(Step latestStep) {
+    int stepIdPlusOne = latestStep == null ? 0 : latestStep.getId() + 1;
+    return stepIdPlusOne << 1;
+  }
+}
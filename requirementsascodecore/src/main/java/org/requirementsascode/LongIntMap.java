@@ -0,0 +1,184 @@
+package org.requirementsascode;
+
+import java.util.Arrays;
+
+/**
+ * Map from long keys to int values, with open addressing and linear probing in
+ * two primitive arrays. It doesn't allocate objects per entry, so an entry
+ * takes 12 bytes of the arrays, plus the free slots.
+ *
+ * <p>
+ * Key 0 marks a free slot in the arrays, so the entry for key 0 is held in
+ * separate fields. This class is not thread-safe.
+ */
+class LongIntMap {
+  private static final int MIN_CAPACITY = 16;
+  private static final long PHI = 0x9E3779B97F4A7C15L;
+
+  private long[] keys;
+  private int[] values;
+  private int mask;
+  private int shift;
+  private int nrOfSlotsUsed;
+  private int resizeThreshold;
+
+  private boolean hasZeroKey;
+  private int zeroKeyValue;
+
+  LongIntMap() {
+    allocate(MIN_CAPACITY);
+  }
+
+  /**
+   * Returns the value of the specified key.
+   *
+   * @param key          the key
+   * @param defaultValue the value to return if there is no entry for the key
+   * @return the value, or the default value
+   */
+  int get(long key, int defaultValue) {
+    if (key == 0) {
+      return hasZeroKey ? zeroKeyValue : defaultValue;
+    }
+    for (int slot = slotOf(key);; slot = (slot + 1) & mask) {
+      long slotKey = keys[slot];
+      if (slotKey == key) {
+        return values[slot];
+      } else if (slotKey == 0) {
+        return defaultValue;
+      }
+    }
+  }
+
+  boolean containsKey(long key) {
+    if (key == 0) {
+      return hasZeroKey;
+    }
+    for (int slot = slotOf(key);; slot = (slot + 1) & mask) {
+      long slotKey = keys[slot];
+      if (slotKey == key) {
+        return true;
+      } else if (slotKey == 0) {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Sets the value of the specified key.
+   *
+   * @param key   the key
+   * @param value the new value
+   */
+  void put(long key, int value) {
+    if (key == 0) {
+      hasZeroKey = true;
+      zeroKeyValue = value;
+      return;
+    }
+    for (int slot = slotOf(key);; slot = (slot + 1) & mask) {
+      long slotKey = keys[slot];
+      if (slotKey == key) {
+        values[slot] = value;
+        return;
+      } else if (slotKey == 0) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++nrOfSlotsUsed > resizeThreshold) {
+          resize(keys.length * 2);
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * Removes the entry of the specified key, if there is one.
+   *
+   * @param key the key
+   * @return true if there was an entry, false otherwise
+   */
+  boolean remove(long key) {
+    if (key == 0) {
+      boolean hadZeroKey = hasZeroKey;
+      hasZeroKey = false;
+      return hadZeroKey;
+    }
+    for (int slot = slotOf(key);; slot = (slot + 1) & mask) {
+      long slotKey = keys[slot];
+      if (slotKey == key) {
+        removeAt(slot);
+        return true;
+      } else if (slotKey == 0) {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of entries.
+   *
+   * @return the size
+   */
+  int size() {
+    return nrOfSlotsUsed + (hasZeroKey ? 1 : 0);
+  }
+
+  void clear() {
+    Arrays.fill(keys, 0);
+    nrOfSlotsUsed = 0;
+    hasZeroKey = false;
+  }
+
+  /**
+   * Frees the slot, and shifts back the entries after it that would not be found
+   * anymore otherwise (because their probe sequence passes the freed slot).
+   */
+  private void removeAt(int freedSlot) {
+    int free = freedSlot;
+    for (int slot = (free + 1) & mask;; slot = (slot + 1) & mask) {
+      long slotKey = keys[slot];
+      if (slotKey == 0) {
+        break;
+      }
+      int home = slotOf(slotKey);
+      boolean canMoveToFree = free <= slot ? (home <= free || home > slot) : (home <= free && home > slot);
+      if (canMoveToFree) {
+        keys[free] = slotKey;
+        values[free] = values[slot];
+        free = slot;
+      }
+    }
+    keys[free] = 0;
+    nrOfSlotsUsed--;
+  }
+
+  private int slotOf(long key) {
+    return (int) ((key * PHI) >>> shift);
+  }
+
+  private void resize(int capacity) {
+    long[] oldKeys = keys;
+    int[] oldValues = values;
+    allocate(capacity);
+    for (int i = 0; i < oldKeys.length; i++) {
+      long key = oldKeys[i];
+      if (key != 0) {
+        int slot = slotOf(key);
+        while (keys[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    this.keys = new long[capacity];
+    this.values = new int[capacity];
+    this.mask = capacity - 1;
+    this.shift = 64 - Integer.numberOfTrailingZeros(capacity);
+    this.resizeThreshold = capacity / 4 * 3;
+  }
+}
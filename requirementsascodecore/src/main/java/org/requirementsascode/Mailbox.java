@@ -0,0 +1,115 @@
+package org.requirementsascode;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs tasks one after the other on an executor, in the order they have been
+ * added. Tasks can be added from any thread. At most one thread runs tasks of
+ * the mailbox at a time, so the tasks don't need to synchronize with each
+ * other.
+ *
+ * <p>
+ * The mailbox is only scheduled on the executor while it has tasks. It runs a
+ * limited batch of tasks per scheduling, and reschedules itself afterwards, so
+ * that many mailboxes can share an executor fairly.
+ */
+class Mailbox {
+  private static final int BATCH_SIZE = 64;
+
+  private volatile Executor executor;
+  private final Queue<Task> tasks;
+  private final AtomicBoolean isScheduled;
+
+  /**
+   * A task that can be notified that it will not be run.
+   */
+  interface Task extends Runnable {
+    /**
+     * Called instead of {@link #run()} if the executor has rejected the mailbox.
+     *
+     * @param cause the exception thrown by the executor
+     */
+    void reject(RejectedExecutionException cause);
+  }
+
+  Mailbox(Executor executor) {
+    this.executor = Objects.requireNonNull(executor);
+    this.tasks = new ConcurrentLinkedQueue<>();
+    this.isScheduled = new AtomicBoolean();
+  }
+
+  Executor getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Changes the executor. A batch that is running on the previous executor
+   * finishes there, and the mailbox is scheduled on the new executor afterwards,
+   * so the tasks are still run one after the other.
+   */
+  void setExecutor(Executor executor) {
+    this.executor = Objects.requireNonNull(executor);
+  }
+
+  void add(Task task) {
+    tasks.add(Objects.requireNonNull(task));
+    scheduleIfNeeded();
+  }
+
+  private void scheduleIfNeeded() {
+    if (!tasks.isEmpty() && isScheduled.compareAndSet(false, true)) {
+      try {
+        executor.execute(this::runBatch);
+      } catch (RejectedExecutionException e) {
+        isScheduled.set(false);
+        rejectAll(e);
+      }
+    }
+  }
+
+  private void runBatch() {
+    try {
+      for (int i = 0; i < BATCH_SIZE; i++) {
+        Task task = tasks.poll();
+        if (task == null) {
+          break;
+        }
+        task.run();
+      }
+    } finally {
+      isScheduled.set(false);
+      // A task may have been added after the last poll, but before the flag was
+      // reset, so it's the job of this thread to schedule it.
+      scheduleIfNeeded();
+    }
+  }
+
+  /**
+   * Rejects all queued tasks. If a task throws an exception when it is rejected,
+   * the remaining tasks are rejected nonetheless, and the first exception is
+   * rethrown afterwards.
+   */
+  private void rejectAll(RejectedExecutionException cause) {
+    RuntimeException firstException = null;
+    Task task;
+    while ((task = tasks.poll()) != null) {
+      try {
+        task.reject(cause);
+      } catch (RuntimeException e) {
+        if (firstException == null) {
+          firstException = e;
+        } else {
+          firstException.addSuppressed(e);
+        }
+      }
+    }
+    if (firstException != null) {
+      throw firstException;
+    }
+  }
+}
@@ -6,14 +6,11 @@ import static org.requirementsascode.ModelElementContainer.hasModelElement;
 import static org.requirementsascode.ModelElementContainer.saveModelElement;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.requirementsascode.builder.ModelBuilder;
 import org.requirementsascode.exception.NoSuchElementInModel;
@@ -28,6 +25,16 @@ import org.requirementsascode.exception.NoSuchElementInModel;
  * associated with.
  * 
  * A model is used to configure a {@link ModelRunner}.
+ * 
+ * <p>
+ * A model created by {@link ModelBuilder#build()} is immutable and
+ * thread-safe: building resolves all step references and freezes the model,
+ * and running the model doesn't change it. Methods that would change a built
+ * model, e.g. creating a use case or step, or setting the actors, message class
+ * or flow position of a step, throw an {@link IllegalStateException}. So many
+ * runners on different threads can share the same model, as long as the model
+ * has been safely published to these threads (e.g. via a final field, a
+ * concurrent collection or an executor).
  *
  * @author b_muth
  */
@@ -35,6 +42,9 @@ public class Model{
 	private Map<String, UseCase> nameToUseCaseMap;
 	private AbstractActor userActor;
 	private AbstractActor systemActor;
+	private int nrOfStepIds;
+	private volatile DispatchIndex dispatchIndex;
+	private volatile boolean isBuilt;
 
 	private Model() {
 		this.nameToUseCaseMap = new LinkedHashMap<>();
@@ -49,7 +59,8 @@ public class Model{
 	 * @return the builder.
 	 */
 	public static ModelBuilder builder() {
-		return new ModelBuilder(new Model());
+		Model model = new Model();
+		return new ModelBuilder(model, model::freeze);
 	}
 
 	/**
@@ -77,8 +88,10 @@ public class Model{
 
 	public UseCase newUseCase(String useCaseName) {
 		Objects.requireNonNull(useCaseName);
+		checkNotBuilt();
 		UseCase useCase = new UseCase(useCaseName, this);
 		saveModelElement(useCase, nameToUseCaseMap);
+		unfreeze();
 		return useCase;
 	}
 
@@ -92,12 +105,12 @@ public class Model{
 	 */
 	public AbstractActor findActor(String actorName) {
 	  Objects.requireNonNull(actorName);
-		AbstractActor foundActor = getModifiableSteps().stream()
-			.flatMap(s -> Arrays.stream(s.getActors()))
-			.filter(act -> actorName.equals(act.getName()))
-			.findFirst()
-			.orElseThrow(() -> new NoSuchElementInModel(actorName));
-		return foundActor;
+		for (AbstractActor actor : getDispatchIndex().getActorList()) {
+			if (actorName.equals(actor.getName())) {
+				return actor;
+			}
+		}
+		throw new NoSuchElementInModel(actorName);
 	}
 
 	/**
@@ -119,10 +132,7 @@ public class Model{
 	 * @return the actors
 	 */
 	public Collection<AbstractActor> getActors() {
-		Set<AbstractActor> actors = getModifiableSteps().stream()
-			.flatMap(s -> Arrays.stream(s.getActors()))
-			.collect(Collectors.toSet());
-		return Collections.unmodifiableCollection(actors);
+		return getDispatchIndex().getActorList();
 	}
 
 	/**
@@ -145,11 +155,10 @@ public class Model{
 	 * @return the use steps
 	 */
 	public Collection<Step> getSteps() {
-		Collection<Step> modifiableSteps = getModifiableSteps();
-		return Collections.unmodifiableCollection(modifiableSteps);
+		return getDispatchIndex().getStepList();
 	}
 
-	Collection<Step> getModifiableSteps() {
+	private Collection<Step> collectSteps() {
 		Collection<UseCase> modifiableUseCases = getModifiableUseCases();
 		Collection<Step> modifiableSteps = new ArrayList<>();
 		
@@ -160,6 +169,58 @@ public class Model{
 		return modifiableSteps;
 	}
 
+	/**
+	 * Freezes the model: collects the steps and actors into immutable, array backed
+	 * collections, and creates the index that a {@link ModelRunner} uses to find
+	 * the steps that can react to a message. {@link ModelBuilder#build()} calls
+	 * this method, so the model can't be changed afterwards.
+	 */
+	void freeze() {
+		isBuilt = true;
+		getDispatchIndex();
+	}
+
+	/**
+	 * Checks that the model can still be changed. The parts of the model call this
+	 * method before they change it.
+	 * 
+	 * @throws IllegalStateException if the model has been built
+	 */
+	void checkNotBuilt() {
+		if (isBuilt) {
+			throw new IllegalStateException("The model has been built, so it can't be changed anymore");
+		}
+	}
+
+	int nextStepId() {
+		return nrOfStepIds++;
+	}
+
+	int getNrOfStepIds() {
+		return nrOfStepIds;
+	}
+
+	/**
+	 * Discards the frozen state of the model, so that it is created again the next
+	 * time it is needed. The model calls this method when it is changed while it
+	 * is being built.
+	 * 
+	 * @throws IllegalStateException if the model has been built
+	 */
+	void unfreeze() {
+		checkNotBuilt();
+		dispatchIndex = null;
+	}
+
+	DispatchIndex getDispatchIndex() {
+		DispatchIndex index = dispatchIndex;
+		if (index == null) {
+			index = new DispatchIndex(collectSteps(), nrOfStepIds, userActor, systemActor);
+			dispatchIndex = index;
+		}
+		return index;
+	}
+
 	/**
 	 * Returns the actor representing the default user.
 	 *
@@ -1,19 +1,31 @@
 package org.requirementsascode;
 
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
 
+import org.requirementsascode.SlowReactionWatchdog.RunningReaction;
 import org.requirementsascode.exception.InfiniteRepetition;
 import org.requirementsascode.exception.MissingUseCaseStepPart;
 import org.requirementsascode.exception.MoreThanOneStepCanReact;
 import org.requirementsascode.exception.NestedCallOfReactTo;
+import org.requirementsascode.metrics.DefaultMetricsRegistry;
+import org.requirementsascode.metrics.MetricsRegistry;
+import org.requirementsascode.trace.DispatchDecision;
+import org.requirementsascode.trace.DispatchFlightRecorder;
 
 /**
  * A model runner is a highly configurable controller that receives messages and
@@ -21,10 +33,13 @@ import org.requirementsascode.exception.NestedCallOfReactTo;
  *
  * <p>
  * The runner is configured by the model it owns. Each real user needs an
- * instance of a runner, as the runner determines the user journey.
+ * instance of a runner, as the runner determines the user journey. Use a
+ * {@link ModelRunnerRegistry} to manage the runners of many users.
  */
 public class ModelRunner {
   private static final Class<?> SYSTEM_EVENT_CLASS = ModelRunner.class;
+  private static final int DEFAULT_STEP_BUDGET = 100000;
+  private static final int INITIAL_WORK_CAPACITY = 16;
 
   private AbstractActor owningActor;
   private AbstractActor runActor;
@@ -36,15 +51,46 @@ public class ModelRunner {
   private StepToBeRun stepToBeRun;
   private Consumer<StepToBeRun> messageHandler;
   private Consumer<Object> unhandledMessageHandler;
+  private volatile Consumer<RuntimeException> asyncExceptionHandler;
   private Consumer<Object> messagePublisher;
   private boolean nestedReactToMessageCallCausesException;
 
+  private int stepBudget;
+  private int nrOfStepsRun;
+  private int drainDepth;
+  private Object[] workMessages;
+  private boolean[] workIsTryBlockEnd;
+  private int workSize;
+
+  private int evaluationDepth;
+  private int evaluationRound;
+  private DispatchIndex evaluatedIndex;
+  private int[] interruptingStepRounds;
+  private boolean[] interruptingStepResults;
+
+  private DispatchIndex runActorIdIndex;
+  private AbstractActor runActorIdActor;
+  private int runActorId;
+
+  private volatile Mailbox mailbox;
+  private Map<Behavior, Mailbox> targetMailboxes;
+  private MetricsRegistry metricsRegistry;
+  private DispatchFlightRecorder flightRecorder;
+  private DispatchFlightRecorder tracingRecorder;
+  private Class<?> tracedMessageClass;
+  private SlowReactionWatchdog watchdog;
+  private RunningReaction runningReaction;
+  private long defaultTimeBudgetNanos;
+
   /**
    * Constructor for creating a model runner.
    */
   public ModelRunner() {
     handleWith(StepToBeRun::run);
     publishWith(this::publishMessage);
+    withStepBudget(DEFAULT_STEP_BUDGET);
+    this.workMessages = new Object[INITIAL_WORK_CAPACITY];
+    this.workIsTryBlockEnd = new boolean[INITIAL_WORK_CAPACITY];
   }
 
   private <T> void publishMessage(T message) {
@@ -52,17 +98,32 @@ public class ModelRunner {
     nestedReactToMessageCallCausesException = false;
     if (targetBehavior.isPresent()) {
       AbstractActor owningActor = getOwningActor().orElse(model.getUserActor());
-      sendToTargetBehavior(message, owningActor, targetBehavior.get());
+      boolean isPublishedAsync = getLatestStepOrNull().isPublishedAsync();
+      sendToTargetBehavior(message, owningActor, targetBehavior.get(), isPublishedAsync);
+    } else if (drainDepth == 0) {
+      reactToSingleOrSeveralMessages(message);
     } else {
-      this.reactToSingleOrSeveralMessages(message);
+      pushSingleOrSeveralMessages(message);
     }
   }
 
-  private <T> void sendToTargetBehavior(T message, AbstractActor owningActor, Behavior targetBehavior) {
+  private <T> void sendToTargetBehavior(T message, AbstractActor owningActor, Behavior targetBehavior,
+    boolean isPublishedAsync) {
+    MetricsRegistry registry = enabledMetricsRegistry();
+    if (registry != null) {
+      registry.messagePublished(message, owningActor, targetBehavior, isPublishedAsync);
+    }
     if(targetBehavior instanceof AbstractActor) {
       AbstractActor targetActor = (AbstractActor)targetBehavior;
-      targetActor.reactTo(message, owningActor);
-    }else {
+      ActorInbox targetInbox = isPublishedAsync ? targetActor.getOrCreateAsyncInbox() : targetActor.getInboxOrNull();
+      if (targetInbox != null) {
+        targetInbox.post(message, owningActor);
+      } else {
+        targetActor.reactTo(message, owningActor);
+      }
+    } else if (isPublishedAsync) {
+      targetMailboxOf(targetBehavior).add(new AsyncDelivery(targetBehavior, message));
+    } else {
       targetBehavior.reactTo(message);
     }
   }
@@ -92,6 +153,101 @@ public class ModelRunner {
     return messageHandler;
   }
 
+  /**
+   * Define the maximum number of steps the runner may run for a single call of
+   * {@link #reactTo(Object)} or {@link #run(Model)}, including the steps that
+   * react to published events and the "autonomous system reactions".
+   * 
+   * If more steps would be run, the runner throws an {@link InfiniteRepetition}
+   * instead. The default budget is 100000 steps.
+   *
+   * @param stepBudget the maximum number of steps, must be positive
+   * @return this model runner, for chaining
+   */
+  public ModelRunner withStepBudget(int stepBudget) {
+    if (stepBudget <= 0) {
+      throw new IllegalArgumentException("stepBudget must be positive, but is " + stepBudget);
+    }
+    this.stepBudget = stepBudget;
+    return this;
+  }
+
+  /**
+   * Define the executor that runs the reactions to messages provided via
+   * {@link #reactToAsync(Object)}. By default, that's the common fork join pool.
+   * If reactions are pending, they run on the new executor, still one after the
+   * other.
+   *
+   * @param executor the executor
+   * @return this model runner, for chaining
+   */
+  public synchronized ModelRunner withExecutor(Executor executor) {
+    if (mailbox == null) {
+      this.mailbox = new Mailbox(executor);
+    } else {
+      mailbox.setExecutor(executor);
+    }
+    return this;
+  }
+
+  /**
+   * Define the registry that receives the runner's metrics: which steps have
+   * been run and how long their system reactions took, and how often messages
+   * haven't been handled, more than one step could react, or exceptions have
+   * been dispatched as messages. By default, the runner doesn't record metrics.
+   *
+   * @see DefaultMetricsRegistry
+   * @see MetricsRegistry#of(MetricsRegistry...)
+   * @param metricsRegistry the registry, or null to stop recording metrics
+   * @return this model runner, for chaining
+   */
+  public ModelRunner withMetrics(MetricsRegistry metricsRegistry) {
+    this.metricsRegistry = metricsRegistry;
+    return this;
+  }
+
+  /**
+   * Define the flight recorder that records the runner's dispatch decisions:
+   * for each candidate step of a message, whether it can react, or which check
+   * has failed. By default, the runner doesn't record them.
+   *
+   * @param flightRecorder the recorder, or null to stop recording
+   * @return this model runner, for chaining
+   */
+  public ModelRunner withFlightRecorder(DispatchFlightRecorder flightRecorder) {
+    this.flightRecorder = flightRecorder;
+    return this;
+  }
+
+  /**
+   * Define the watchdog that reports the system reactions that take longer than
+   * their time budget, while they are running. By default, the runner's
+   * reactions aren't watched.
+   *
+   * @see #withTimeBudget(Duration)
+   * @param watchdog the watchdog, or null to stop watching
+   * @return this model runner, for chaining
+   */
+  public ModelRunner withWatchdog(SlowReactionWatchdog watchdog) {
+    this.watchdog = watchdog;
+    this.runningReaction = watchdog == null ? null : watchdog.watchRunner();
+    return this;
+  }
+
+  /**
+   * Define the time budget of the system reactions of steps that don't have a
+   * time budget of their own. A reaction that takes longer is reported by the
+   * runner's watchdog, and counted by the runner's metrics registry.
+   *
+   * @see org.requirementsascode.builder.StepSystemPart#timeBudget(Duration)
+   * @param timeBudget the time budget, must be positive, or null for none
+   * @return this model runner, for chaining
+   */
+  public ModelRunner withTimeBudget(Duration timeBudget) {
+    this.defaultTimeBudgetNanos = timeBudget == null ? 0 : Step.positiveNanosOf(timeBudget);
+    return this;
+  }
+
   /**
    * Define handler for messages that the runner doesn't react to.
    * 
@@ -104,6 +260,34 @@ public class ModelRunner {
     return this;
   }
 
+  /**
+   * Define handler for exceptions thrown by reactions that nobody waits for:
+   * the reactions of the runner's actor to messages published to it
+   * asynchronously, and the reactions of stateless behaviors to messages that
+   * this runner publishes to them asynchronously. By default, such an exception
+   * is passed to the uncaught exception handler of the thread that runs the
+   * reaction.
+   *
+   * @see AbstractActor#withAsyncDelivery()
+   * @param asyncExceptionHandler the handler for exceptions of asynchronous
+   *                              reactions
+   * @return this model runner, for chaining
+   */
+  public ModelRunner handleAsyncExceptionsWith(Consumer<RuntimeException> asyncExceptionHandler) {
+    this.asyncExceptionHandler = Objects.requireNonNull(asyncExceptionHandler);
+    return this;
+  }
+
+  void handleAsyncException(RuntimeException exception) {
+    Consumer<RuntimeException> handler = asyncExceptionHandler;
+    if (handler != null) {
+      handler.accept(exception);
+    } else {
+      Thread thread = Thread.currentThread();
+      thread.getUncaughtExceptionHandler().uncaughtException(thread, exception);
+    }
+  }
+
   /**
    * Define a custom publisher for events. It will be called after a system
    * reaction has been run, for the returned event objects of the system reaction.
@@ -143,9 +327,8 @@ public class ModelRunner {
    * @return this model runner, for chaining
    */
   public ModelRunner run(Model model) {
-    AbstractActor userActor = model.getUserActor();
-    as(userActor).run(model);
-    return this;
+    setRunActor(model.getUserActor());
+    return runModel(model);
   }
 
   /**
@@ -178,6 +361,19 @@ public class ModelRunner {
     }
   }
 
+  /**
+   * Configures the runner to use the specified model, and continues after the
+   * specified step, without triggering "autonomous system reactions". Used to
+   * restore a runner whose state has been stored.
+   */
+  void resume(Model model, Step latestStep) {
+    setRunActor(model.getUserActor());
+    setModel(model);
+    initializeStepToBeRun();
+    setLatestStep(latestStep);
+    setRunning(true);
+  }
+
   private ModelRunner runModel(Model model) {
     setModel(model);
     initializeStepToBeRun();
@@ -270,6 +466,137 @@ public class ModelRunner {
     return Optional.ofNullable((T) latestPublishedEvent);
   }
 
+  /**
+   * Call this method to provide a message to the runner without waiting for the
+   * runner to react to it. The runner reacts to the message on its executor,
+   * in the same way as described for {@link #reactTo(Object)}.
+   *
+   * <p>
+   * The runner reacts to the messages provided by this method one after the
+   * other, in the order they have been provided, even when they are provided
+   * from different threads. So you don't need to synchronize the calls. Don't
+   * call {@link #reactTo(Object)} concurrently, though.
+   *
+   * @see #withExecutor(Executor)
+   * @param <T>     the return type that you as the user expects.
+   * @param message the message object
+   * @return a future that completes with the event that was published (latest)
+   *         if the system reacted, or an empty Optional. If reacting throws an
+   *         exception, the future completes exceptionally with it.
+   */
+  public <T> CompletableFuture<Optional<T>> reactToAsync(Object message) {
+    Objects.requireNonNull(message);
+    AsyncReaction<T> asyncReaction = new AsyncReaction<>(message);
+    getOrCreateMailbox().add(asyncReaction);
+    return asyncReaction.response;
+  }
+
+  void addToMailbox(Mailbox.Task task) {
+    getOrCreateMailbox().add(task);
+  }
+
+  /**
+   * Adds the task to the mailbox, if the runner has one, i.e. if it has reacted
+   * asynchronously before.
+   *
+   * @return true if the task has been added, false if the runner has no mailbox
+   */
+  boolean addToExistingMailbox(Mailbox.Task task) {
+    Mailbox existingMailbox = mailbox;
+    if (existingMailbox == null) {
+      return false;
+    }
+    existingMailbox.add(task);
+    return true;
+  }
+
+  private Mailbox getOrCreateMailbox() {
+    Mailbox existingMailbox = mailbox;
+    if (existingMailbox == null) {
+      synchronized (this) {
+        if (mailbox == null) {
+          mailbox = new Mailbox(ForkJoinPool.commonPool());
+        }
+        existingMailbox = mailbox;
+      }
+    }
+    return existingMailbox;
+  }
+
+  /**
+   * Returns the mailbox for asynchronous deliveries to a behavior that isn't an
+   * actor, so that the behavior reacts to the messages this runner publishes to
+   * it one after the other, in order. The mailbox runs on this runner's current
+   * executor.
+   */
+  private Mailbox targetMailboxOf(Behavior targetBehavior) {
+    if (targetMailboxes == null) {
+      targetMailboxes = new IdentityHashMap<>();
+    }
+    Mailbox targetMailbox = targetMailboxes.get(targetBehavior);
+    if (targetMailbox == null) {
+      targetMailbox = new Mailbox(command -> getOrCreateMailbox().getExecutor().execute(command));
+      targetMailboxes.put(targetBehavior, targetMailbox);
+    }
+    return targetMailbox;
+  }
+
+  private class AsyncDelivery implements Mailbox.Task {
+    private final Behavior targetBehavior;
+    private final Object message;
+
+    AsyncDelivery(Behavior targetBehavior, Object message) {
+      this.targetBehavior = targetBehavior;
+      this.message = message;
+    }
+
+    @Override
+    public void run() {
+      try {
+        targetBehavior.reactTo(message);
+      } catch (RuntimeException e) {
+        // No one waits for the reaction, so the exception would get lost
+        handleAsyncException(e);
+      }
+    }
+
+    @Override
+    public void reject(RejectedExecutionException cause) {
+      // As for actors, let the publisher know. The mailbox rethrows the
+      // exception after it has rejected all other deliveries.
+      throw cause;
+    }
+  }
+
+  private class AsyncReaction<T> implements Mailbox.Task {
+    private final Object message;
+    private final CompletableFuture<Optional<T>> response;
+
+    AsyncReaction(Object message) {
+      this.message = message;
+      this.response = new CompletableFuture<>();
+    }
+
+    @Override
+    public void run() {
+      try {
+        response.complete(reactTo(message));
+      } catch (Exception e) {
+        // Includes checked exceptions that a system reaction hasn't declared
+        response.completeExceptionally(e);
+      } catch (Error e) {
+        // Errors aren't swallowed, but the future must not wait forever
+        response.completeExceptionally(e);
+        throw e;
+      }
+    }
+
+    @Override
+    public void reject(RejectedExecutionException cause) {
+      response.completeExceptionally(cause);
+    }
+  }
+
   private void reactToSingleOrSeveralMessages(Object message) {
     if (isMessageContainer(message)) {
       Object[] messages = flattenMessageContainer(message);
@@ -300,6 +627,18 @@ public class ModelRunner {
     }
   }
 
+  private void pushSingleOrSeveralMessages(Object message) {
+    if (isMessageContainer(message)) {
+      Object[] messages = flattenMessageContainer(message);
+      // Push in reverse order, so that the first message is reacted to first
+      for (int i = messages.length - 1; i >= 0; i--) {
+        pushWork(messages[i], false);
+      }
+    } else {
+      pushWork(message, false);
+    }
+  }
+
   private <T> void reactToSingleMessage(T message) {
     if (!isRunning()) {
       return;
@@ -308,77 +647,320 @@ public class ModelRunner {
       throw new NestedCallOfReactTo();
     }
 
+    int base = workSize;
+    pushWork(message, false);
+    drainWorkDownTo(base);
+  }
+
+  /**
+   * Reacts to the messages on the work stack, until only the specified number of
+   * messages is left.
+   * 
+   * <p>
+   * Instead of calling back into the dispatch recursively, reacting to a message
+   * pushes the follow-up work on the stack: the messages published by the system
+   * reaction, and the trigger for "autonomous system reactions" after it. That
+   * trigger also marks the end of the system reaction's try block: exceptions
+   * thrown when reacting to the messages above it are handled by
+   * {@link #handleException(Exception)}, as if the runner had called itself
+   * recursively.
+   * 
+   * <p>
+   * A nested call, e.g. an actor that sends a message back to this runner's
+   * actor, drains the stack down to its own base.
+   */
+  private void drainWorkDownTo(int base) {
+    if (drainDepth++ == 0) {
+      nrOfStepsRun = 0;
+    }
+
+    try {
+      while (workSize > base) {
+        Object message = popWork();
+        try {
+          reactToWorkMessage(message);
+        } catch (InfiniteRepetition e) {
+          throw e;
+        } catch (Exception e) {
+          handleExceptionOfTryBlock(e, base);
+        }
+      }
+    } catch (StackOverflowError err) {
+      throw new InfiniteRepetition(latestStep);
+    } finally {
+      clearWorkDownTo(base);
+      drainDepth--;
+    }
+  }
+
+  private void handleExceptionOfTryBlock(Exception exception, int base) {
+    Exception exceptionToHandle = exception;
+    while (true) {
+      while (workSize > base && !workIsTryBlockEnd[workSize - 1]) {
+        popWork();
+      }
+      if (workSize == base) {
+        if (drainDepth == 1 && flightRecorder != null) {
+          // The exception leaves reactTo(), so the model doesn't handle it
+          flightRecorder.exceptionThrown(exceptionToHandle);
+        }
+        throw ModelRunner.<RuntimeException>sneakyThrow(exceptionToHandle);
+      }
+
+      // After the exception has been handled, trigger autonomous system reactions
+      workIsTryBlockEnd[workSize - 1] = false;
+      try {
+        MetricsRegistry registry = enabledMetricsRegistry();
+        if (registry != null) {
+          registry.exceptionDispatched(exceptionToHandle);
+        }
+        handleException(exceptionToHandle);
+        return;
+      } catch (InfiniteRepetition e) {
+        throw e;
+      } catch (Exception e) {
+        exceptionToHandle = e;
+      }
+    }
+  }
+
+  /**
+   * Rethrows the exception unchanged, even if it is a checked exception that a
+   * system reaction has thrown without declaring it.
+   */
+  @SuppressWarnings("unchecked")
+  private static <E extends Exception> E sneakyThrow(Exception exception) throws E {
+    throw (E) exception;
+  }
+
+  private void reactToWorkMessage(Object message) {
+    if (!isRunning()) {
+      return;
+    }
+
     Class<? extends Object> currentMessageClass = message.getClass();
+    Step[] steps = model.getDispatchIndex().getStepsFor(currentMessageClass);
+    if (steps.length == 0 && isSystemEvent(message)) {
+      // The model has no autonomous system reactions
+      return;
+    }
+
+    Step stepThatWillReact = null;
+    boolean isSystemEvent = isSystemEvent(message);
+    if (isSystemEvent) {
+      stepThatWillReact = stepThatCanReactTo(message, steps);
+      if (stepThatWillReact == null) {
+        // No autonomous system reaction is due, so there's nothing to measure
+        return;
+      }
+    }
 
+    MetricsRegistry registry = enabledMetricsRegistry();
+    Object dispatchContext = registry == null ? null : registry.dispatchStarted(message);
     try {
-      int nrOfStepsThatCanReact = 0;
-      Step stepThatWillReact = null;
-      Collection<Step> steps = model.getModifiableSteps();
+      if (!isSystemEvent) {
+        stepThatWillReact = stepThatCanReactTo(message, steps);
+      }
+      if (stepThatWillReact != null) {
+        triggerSystemReaction(message, stepThatWillReact);
+      } else {
+        handleUnhandledMessage(message);
+      }
+    } finally {
+      if (registry != null) {
+        registry.dispatchEnded(dispatchContext, message, stepThatWillReact);
+      }
+    }
+  }
 
+  private Step stepThatCanReactTo(Object message, Step[] steps) {
+    Class<? extends Object> currentMessageClass = message.getClass();
+    int nrOfStepsThatCanReact = 0;
+    Step stepThatWillReact = null;
+    DispatchFlightRecorder recorder = flightRecorder;
+    // The internal dispatches that trigger autonomous system reactions aren't
+    // sampled, so that every n-th message sent to the runner is
+    boolean isTraced = recorder != null && !isSystemEvent(message) && recorder.sampleNextMessage();
+
+    beginEvaluation();
+    if (isTraced) {
+      tracingRecorder = recorder;
+      tracedMessageClass = currentMessageClass;
+    }
+    try {
       for (Step step : steps) {
-        if (canReactToMessageClass(step, currentMessageClass)) {
+        if (canReact(step)) {
           stepThatWillReact = step;
           nrOfStepsThatCanReact++;
 
           if (nrOfStepsThatCanReact > 1) {
             // No more than one step is allowed to react to a message
-            throw new MoreThanOneStepCanReact(steps);
+            MetricsRegistry registry = enabledMetricsRegistry();
+            if (registry != null) {
+              registry.moreThanOneStepCanReact(message);
+            }
+            if (isTraced) {
+              recorder.record(currentMessageClass, null, DispatchDecision.MORE_THAN_ONE_STEP_CAN_REACT);
+            }
+            throw new MoreThanOneStepCanReact(Arrays.asList(steps));
           }
         }
       }
+    } finally {
+      tracingRecorder = null;
+      tracedMessageClass = null;
+      endEvaluation();
+    }
 
-      if (nrOfStepsThatCanReact == 1) {
-        triggerSystemReaction(message, stepThatWillReact);
-      } else if (unhandledMessageHandler != null && !isSystemEvent(message)) {
-        unhandledMessageHandler.accept(message);
-      } else if (message instanceof RuntimeException) {
-        throw (RuntimeException) message;
-      }
-    } catch (StackOverflowError err) {
-      throw new InfiniteRepetition(latestStep);
+    if (isTraced && nrOfStepsThatCanReact == 0) {
+      recorder.record(currentMessageClass, null, DispatchDecision.UNHANDLED);
+    }
+    return stepThatWillReact;
+  }
+
+  private void handleUnhandledMessage(Object message) {
+    MetricsRegistry registry = enabledMetricsRegistry();
+    if (registry != null && !isSystemEvent(message)) {
+      registry.messageUnhandled(message);
+    }
+    if (unhandledMessageHandler != null && !isSystemEvent(message)) {
+      unhandledMessageHandler.accept(message);
+    } else if (message instanceof RuntimeException) {
+      throw (RuntimeException) message;
+    }
+  }
+
+  private void pushWork(Object message, boolean isTryBlockEnd) {
+    if (workSize == workMessages.length) {
+      workMessages = Arrays.copyOf(workMessages, workSize * 2);
+      workIsTryBlockEnd = Arrays.copyOf(workIsTryBlockEnd, workSize * 2);
+    }
+    workMessages[workSize] = message;
+    workIsTryBlockEnd[workSize] = isTryBlockEnd;
+    workSize++;
+  }
+
+  private Object popWork() {
+    workSize--;
+    Object message = workMessages[workSize];
+    workMessages[workSize] = null;
+    return message;
+  }
+
+  private void clearWorkDownTo(int base) {
+    while (workSize > base) {
+      popWork();
     }
   }
 
   private boolean canReact(Step step) {
+    if (tracingRecorder != null) {
+      return canReactRecordingDecision(step);
+    }
     boolean stepCanReact = hasRightActor(step) && hasTruePredicate(step);
     return stepCanReact;
   }
 
-  boolean canReactToMessageClass(Step step, Class<? extends Object> currentMessageClass) {
-    boolean stepCanReact = stepMessageClassIsSameOrSuperclass(step, currentMessageClass) && canReact(step);
-    return stepCanReact;
+  private boolean canReactRecordingDecision(Step step) {
+    DispatchFlightRecorder recorder = tracingRecorder;
+    Class<?> messageClass = tracedMessageClass;
+    DispatchDecision decision = hasRightActor(step) ? step.decide(this) : DispatchDecision.WRONG_ACTOR;
+    recorder.record(messageClass, step, decision);
+    return decision == DispatchDecision.CAN_REACT;
+  }
+
+  /**
+   * Checks whether an interrupting step of the specified step's model can react
+   * to the specified step's message class, which means the interruptable step
+   * can't react.
+   * 
+   * While the runner evaluates steps for a message, each interrupting step is
+   * evaluated at most once, and the result is shared by all interruptable steps.
+   */
+  boolean isInterrupted(InterruptableFlowStep step) {
+    if (!isRunning()) {
+      return false;
+    }
+
+    DispatchIndex index = step.getModel().getDispatchIndex();
+    InterruptingFlowStep[] interruptingSteps = index.getInterruptingSteps();
+    int[] interruptingStepIndices = index.getInterruptingStepsFor(step.getMessageClass());
+
+    for (int interruptingStepIndex : interruptingStepIndices) {
+      if (canInterrupt(index, interruptingSteps, interruptingStepIndex)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean canInterrupt(DispatchIndex index, InterruptingFlowStep[] interruptingSteps, int interruptingStepIndex) {
+    InterruptingFlowStep interruptingStep = interruptingSteps[interruptingStepIndex];
+    if (evaluationDepth == 0) {
+      return canReact(interruptingStep);
+    }
+
+    if (evaluatedIndex != index) {
+      evaluatedIndex = index;
+      interruptingStepRounds = new int[interruptingSteps.length];
+      interruptingStepResults = new boolean[interruptingSteps.length];
+    }
+
+    if (interruptingStepRounds[interruptingStepIndex] != evaluationRound) {
+      interruptingStepResults[interruptingStepIndex] = canReact(interruptingStep);
+      interruptingStepRounds[interruptingStepIndex] = evaluationRound;
+    }
+    return interruptingStepResults[interruptingStepIndex];
+  }
+
+  private void beginEvaluation() {
+    evaluationDepth++;
+    evaluationRound++;
+    if (evaluationRound == 0) {
+      // The round counter wrapped around, so forget all results
+      evaluatedIndex = null;
+      evaluationRound++;
+    }
+  }
+
+  private void endEvaluation() {
+    evaluationDepth--;
   }
 
   private boolean hasRightActor(Step step) {
-    final Predicate<AbstractActor> isSystemOrRunActor = actor -> actor.equals(model.getUserActor())
-      || actor.equals(model.getSystemActor()) || actor.equals(runActor);
+    DispatchIndex index = step.getModel().getDispatchIndex();
+    if (index.contains(step)) {
+      return index.hasRightActor(step, getRunActorId(index));
+    }
 
-    AbstractActor[] stepActors = step.getActors();
+    AbstractActor[] stepActors = step.getModifiableActors();
     if (stepActors == null) {
       throw (new MissingUseCaseStepPart(step, "actor"));
     }
 
     for (AbstractActor stepActor : stepActors) {
-      if (isSystemOrRunActor.test(stepActor)) {
+      if (isSystemOrRunActor(stepActor)) {
         return true;
       }
     }
     return false;
   }
 
-  private boolean stepMessageClassIsSameOrSuperclass(Step step, Class<?> currentMessageClass) {
-    Class<?> stepMessageClass = step.getMessageClass();
-    if (stepMessageClass == null) {
-      throw new MissingUseCaseStepPart(step, "on/user");
+  private boolean isSystemOrRunActor(AbstractActor actor) {
+    return actor.equals(model.getUserActor()) || actor.equals(model.getSystemActor()) || actor.equals(runActor);
+  }
+
+  private int getRunActorId(DispatchIndex index) {
+    if (index != runActorIdIndex || runActor != runActorIdActor) {
+      runActorId = index.getActorId(runActor);
+      runActorIdIndex = index;
+      runActorIdActor = runActor;
     }
-    boolean result = hasSystemEventClass(currentMessageClass) ? hasSystemEventClass(stepMessageClass)
-      : stepMessageClass.isAssignableFrom(currentMessageClass);
-    return result;
+    return runActorId;
   }
 
   private boolean hasTruePredicate(Step step) {
-    Predicate<ModelRunner> predicate = step.getPredicate();
-    boolean result = predicate.test(this);
+    boolean result = step.isPredicateTrue(this);
     return result;
   }
 
@@ -387,29 +969,82 @@ public class ModelRunner {
       throw new MissingUseCaseStepPart(step, "system");
     }
 
+    if (++nrOfStepsRun > stepBudget) {
+      throw new InfiniteRepetition(step);
+    }
+
     stepToBeRun.setupWith(step, message);
     setLatestStep(step);
 
+    // Triggers autonomous system reactions after the published messages have
+    // been reacted to, and ends the try block of this step's system reaction
+    pushWork(this, true);
+
     try {
       nestedReactToMessageCallCausesException = true;
 
-      Condition isTheCase = step.getCase().orElse(() -> true);
-      if (isTheCase.evaluate()) {
-        messageHandler.accept(stepToBeRun);
+      if (step.isCaseTrue()) {
+        MetricsRegistry registry = enabledMetricsRegistry();
+        if (registry == null && watchdog == null) {
+          messageHandler.accept(stepToBeRun);
+        } else {
+          handleMessageMonitored(message, step, registry);
+        }
         publishReturnedMessage();
       }
+    } finally {
+      nestedReactToMessageCallCausesException = false;
+    }
+  }
 
-    } catch (Exception e) {
-      handleException(e);
+  private void handleMessageMonitored(Object message, Step step, MetricsRegistry registry) {
+    RunningReaction reaction = runningReaction;
+    long timeBudgetNanos = step.getTimeBudgetNanos() != 0 ? step.getTimeBudgetNanos() : defaultTimeBudgetNanos;
+    long startNanos = System.nanoTime();
+
+    // A system reaction may make this runner react to a published message,
+    // so the outer reaction is watched again afterwards
+    Step outerStep = null;
+    Class<?> outerMessageClass = null;
+    long outerStartNanos = 0;
+    long outerTimeBudgetNanos = 0;
+    if (reaction != null) {
+      outerStep = reaction.getStep();
+      outerMessageClass = reaction.getMessageClass();
+      outerStartNanos = reaction.getStartNanos();
+      outerTimeBudgetNanos = reaction.getTimeBudgetNanos();
+      reaction.set(timeBudgetNanos == 0 ? null : step, message.getClass(), startNanos, timeBudgetNanos);
     }
 
-    triggerAutonomousSystemReaction();
+    try {
+      messageHandler.accept(stepToBeRun);
+    } finally {
+      long systemReactionNanos = System.nanoTime() - startNanos;
+      if (reaction != null) {
+        reaction.set(outerStep, outerMessageClass, outerStartNanos, outerTimeBudgetNanos);
+      }
+      if (registry != null) {
+        registry.stepRun(step, systemReactionNanos);
+        if (timeBudgetNanos != 0 && systemReactionNanos > timeBudgetNanos) {
+          registry.timeBudgetExceeded(step, systemReactionNanos, timeBudgetNanos);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the metrics registry, or null if the runner has none, or the
+   * registry is disabled, so that the runner doesn't measure anything for it.
+   */
+  private MetricsRegistry enabledMetricsRegistry() {
+    MetricsRegistry registry = metricsRegistry;
+    return registry != null && registry.isEnabled() ? registry : null;
   }
 
   private void publishReturnedMessage() {
-    Optional<Object> messageToBePublished = stepToBeRun.getMessageToBePublished();
-    if (messagePublisher != null && messageToBePublished.isPresent()) {
-      messagePublisher.accept(messageToBePublished.get());
+    Object messageToBePublished = stepToBeRun.getMessageToBePublishedOrNull();
+    if (messagePublisher != null && messageToBePublished != null) {
+      messagePublisher.accept(messageToBePublished);
     }
   }
 
@@ -442,12 +1077,17 @@ public class ModelRunner {
     }
     boolean canReact = false;
 
-    Collection<Step> steps = model.getModifiableSteps();
-    for (Step step : steps) {
-      if (canReactToMessageClass(step, messageClass)) {
-        canReact = true;
-        break;
+    Step[] steps = model.getDispatchIndex().getStepsFor(messageClass);
+    beginEvaluation();
+    try {
+      for (Step step : steps) {
+        if (canReact(step)) {
+          canReact = true;
+          break;
+        }
       }
+    } finally {
+      endEvaluation();
     }
 
     return canReact;
@@ -465,13 +1105,18 @@ public class ModelRunner {
 
     if (isRunning) {
       reactToTypes = new LinkedHashSet<>();
-      Collection<Step> steps = model.getModifiableSteps();
-
-      for (Step step : steps) {
-        if (canReact(step)) {
-          Class<?> messageClass = step.getMessageClass();
-          reactToTypes.add(messageClass);
+      Step[] steps = model.getDispatchIndex().getSteps();
+
+      beginEvaluation();
+      try {
+        for (Step step : steps) {
+          if (canReact(step)) {
+            Class<?> messageClass = step.getMessageClass();
+            reactToTypes.add(messageClass);
+          }
         }
+      } finally {
+        endEvaluation();
       }
     } else {
       reactToTypes = Collections.emptySet();
@@ -492,11 +1137,16 @@ public class ModelRunner {
     Set<Step> stepsThatCanReact = new HashSet<>(2);
 
     if (isRunning) {
-      Collection<Step> steps = model.getModifiableSteps();
-      for (Step step : steps) {
-        if (canReactToMessageClass(step, messageClass)) {
-          stepsThatCanReact.add(step);
+      Step[] steps = model.getDispatchIndex().getStepsFor(messageClass);
+      beginEvaluation();
+      try {
+        for (Step step : steps) {
+          if (canReact(step)) {
+            stepsThatCanReact.add(step);
+          }
         }
+      } finally {
+        endEvaluation();
       }
     }
 
@@ -513,7 +1163,11 @@ public class ModelRunner {
    */
   protected void handleException(Exception e) {
     nestedReactToMessageCallCausesException = false;
-    reactToSingleMessage(e);
+    if (drainDepth == 0) {
+      reactToSingleMessage(e);
+    } else {
+      pushWork(e, false);
+    }
   }
 
   /**
@@ -525,6 +1179,10 @@ public class ModelRunner {
     return Optional.ofNullable(latestStep);
   }
 
+  Step getLatestStepOrNull() {
+    return latestStep;
+  }
+
   /**
    * Sets the latest step run by the runner.
    *
@@ -562,7 +1220,11 @@ public class ModelRunner {
   }
 
   private void initializeStepToBeRun() {
-    this.stepToBeRun = new StepToBeRun();
+    if (stepToBeRun == null) {
+      this.stepToBeRun = new StepToBeRun();
+    } else {
+      stepToBeRun.reset();
+    }
   }
   
   /**
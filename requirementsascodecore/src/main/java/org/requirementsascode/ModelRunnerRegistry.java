@@ -0,0 +1,400 @@
+package org.requirementsascode;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * A registry of model runners, one per session key, e.g. per user of a web
+ * application. It creates a runner for a key on demand, when the first message
+ * for that key arrives.
+ *
+ * <p>
+ * To bound the memory the runners take, the registry evicts runners: the least
+ * recently used ones, if there are more active runners than specified, and the
+ * ones that have been idle for longer than specified. An evicted runner is
+ * passivated: its state (the latest step run and whether it's running) is kept
+ * in a few bytes. When the next message for its key arrives, the registry
+ * rehydrates a runner from that state, without triggering "autonomous system
+ * reactions" again.
+ *
+ * <p>
+ * The registry is thread-safe. Messages for the same key are reacted to one
+ * after the other, messages for different keys concurrently. A runner that is
+ * reacting to a message is not evicted.
+ *
+ * @param <K> the type of the session keys
+ */
+public class ModelRunnerRegistry<K> {
+  private static final int RUNNING = 1;
+  private static final int HAS_LATEST_STEP = 2;
+
+  private final Model model;
+  private final LinkedHashMap<K, RegisteredRunner> activeRunners;
+  private final Map<K, byte[]> passivatedRunners;
+  private volatile Consumer<ModelRunner> runnerConfiguration;
+  private int maxNrOfActiveRunners;
+  private Duration maxIdleTime;
+  private Clock clock;
+
+  private long hitCount;
+  private long missCount;
+  private long rehydrationCount;
+  private long evictionCount;
+
+  /**
+   * Creates a registry whose runners run the specified model. By default, it
+   * doesn't evict runners.
+   *
+   * @param model the model that the runners run
+   */
+  public ModelRunnerRegistry(Model model) {
+    this.model = Objects.requireNonNull(model);
+    this.activeRunners = new LinkedHashMap<>(16, 0.75f, true);
+    this.passivatedRunners = new HashMap<>();
+    this.runnerConfiguration = modelRunner -> {};
+    this.maxNrOfActiveRunners = Integer.MAX_VALUE;
+    this.clock = Clock.systemUTC();
+  }
+
+  /**
+   * Define how to configure each runner the registry creates, e.g. with
+   * {@link ModelRunner#handleWith(Consumer)}. The registry calls the
+   * configuration before the runner runs the model.
+   *
+   * @param runnerConfiguration the configuration
+   * @return this registry, for chaining
+   */
+  public synchronized ModelRunnerRegistry<K> configureRunnersWith(Consumer<ModelRunner> runnerConfiguration) {
+    this.runnerConfiguration = Objects.requireNonNull(runnerConfiguration);
+    return this;
+  }
+
+  /**
+   * Define the maximum number of active runners. If there are more, the least
+   * recently used runners are evicted.
+   *
+   * @param maxNrOfActiveRunners the maximum number, must be positive
+   * @return this registry, for chaining
+   */
+  public synchronized ModelRunnerRegistry<K> evictWhenMoreThan(int maxNrOfActiveRunners) {
+    if (maxNrOfActiveRunners <= 0) {
+      throw new IllegalArgumentException("maxNrOfActiveRunners must be positive, but is " + maxNrOfActiveRunners);
+    }
+    this.maxNrOfActiveRunners = maxNrOfActiveRunners;
+    return this;
+  }
+
+  /**
+   * Define the maximum time a runner may be idle. Runners that haven't reacted
+   * to a message for a longer time are evicted when the registry is used next,
+   * or when {@link #evictIdleRunners()} is called.
+   *
+   * @param maxIdleTime the maximum idle time
+   * @return this registry, for chaining
+   */
+  public synchronized ModelRunnerRegistry<K> evictWhenIdleFor(Duration maxIdleTime) {
+    this.maxIdleTime = Objects.requireNonNull(maxIdleTime);
+    return this;
+  }
+
+  /**
+   * Define the clock that the registry uses to determine idle times.
+   *
+   * @param clock the clock
+   * @return this registry, for chaining
+   */
+  public synchronized ModelRunnerRegistry<K> withClock(Clock clock) {
+    this.clock = Objects.requireNonNull(clock);
+    return this;
+  }
+
+  /**
+   * Lets the runner of the specified key react to the message.
+   *
+   * @see ModelRunner#reactTo(Object)
+   * @param <T>     the return type that you as the user expects
+   * @param key     the session key
+   * @param message the message object
+   * @return the event that was published (latest) if the system reacted, or an
+   *         empty Optional
+   */
+  public <T> Optional<T> reactTo(K key, Object message) {
+    return reactTo(key, model.getUserActor(), message);
+  }
+
+  /**
+   * Lets the runner of the specified key react to the message, as the specified
+   * actor.
+   *
+   * @see ModelRunner#as(AbstractActor)
+   * @param <T>      the return type that you as the user expects
+   * @param key      the session key
+   * @param runActor the actor to run as
+   * @param message  the message object
+   * @return the event that was published (latest) if the system reacted, or an
+   *         empty Optional
+   */
+  public <T> Optional<T> reactTo(K key, AbstractActor runActor, Object message) {
+    Objects.requireNonNull(key);
+    Objects.requireNonNull(runActor);
+    Objects.requireNonNull(message);
+
+    RegisteredRunner registeredRunner = acquire(key);
+    try {
+      synchronized (registeredRunner) {
+        return registeredRunner.getOrCreateModelRunner().as(runActor).reactTo(message);
+      }
+    } finally {
+      release(registeredRunner);
+    }
+  }
+
+  /**
+   * Returns the latest step run for the specified key, whether its runner is
+   * active or passivated.
+   *
+   * @param key the session key
+   * @return the latest step, or an empty optional if no step has been run
+   */
+  public Optional<Step> getLatestStep(K key) {
+    RegisteredRunner registeredRunner;
+    byte[] passivatedState;
+    synchronized (this) {
+      registeredRunner = activeRunners.get(key);
+      passivatedState = passivatedRunners.get(key);
+    }
+
+    Optional<Step> latestStep;
+    if (registeredRunner != null) {
+      synchronized (registeredRunner) {
+        latestStep = registeredRunner.getLatestStep();
+      }
+    } else {
+      latestStep = passivatedState == null ? Optional.empty() : Optional.ofNullable(latestStepOf(passivatedState));
+    }
+    return latestStep;
+  }
+
+  /**
+   * Removes the runner of the specified key, e.g. when the session ends.
+   *
+   * @param key the session key
+   */
+  public synchronized void remove(K key) {
+    activeRunners.remove(key);
+    passivatedRunners.remove(key);
+  }
+
+  /**
+   * Evicts the runners that have been idle for longer than the maximum idle
+   * time.
+   */
+  public synchronized void evictIdleRunners() {
+    evictRunners();
+  }
+
+  /**
+   * Returns the number of runners that are active, i.e. not passivated.
+   *
+   * @return the number of active runners
+   */
+  public synchronized int getNrOfActiveRunners() {
+    return activeRunners.size();
+  }
+
+  /**
+   * Returns the number of runners whose state is kept in passivated form.
+   *
+   * @return the number of passivated runners
+   */
+  public synchronized int getNrOfPassivatedRunners() {
+    return passivatedRunners.size();
+  }
+
+  /**
+   * Returns how often a message arrived for a key whose runner was active.
+   *
+   * @return the number of hits
+   */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns how often a message arrived for a key without an active runner, so
+   * that the registry created or rehydrated a runner.
+   *
+   * @return the number of misses
+   */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Returns how often the registry rehydrated a passivated runner.
+   *
+   * @return the number of rehydrations
+   */
+  public synchronized long getRehydrationCount() {
+    return rehydrationCount;
+  }
+
+  /**
+   * Returns how often the registry evicted and passivated a runner.
+   *
+   * @return the number of evictions
+   */
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Returns the registered runner of the key. If there is none, registers a
+   * placeholder, whose runner is created when it is used first. That way, the
+   * runner configuration and the "autonomous system reactions" of a new runner
+   * don't block the registry for other keys.
+   */
+  private synchronized RegisteredRunner acquire(K key) {
+    RegisteredRunner registeredRunner = activeRunners.get(key);
+    if (registeredRunner != null) {
+      hitCount++;
+    } else {
+      registeredRunner = new RegisteredRunner(key, passivatedRunners.remove(key));
+      activeRunners.put(key, registeredRunner);
+    }
+    registeredRunner.nrOfUsers++;
+    return registeredRunner;
+  }
+
+  private synchronized void release(RegisteredRunner registeredRunner) {
+    registeredRunner.nrOfUsers--;
+    registeredRunner.lastUsedMillis = clock.millis();
+    evictRunners();
+  }
+
+  private ModelRunner createRunner(byte[] passivatedState) {
+    ModelRunner modelRunner = new ModelRunner();
+    runnerConfiguration.accept(modelRunner);
+
+    if (passivatedState == null) {
+      modelRunner.run(model);
+    } else {
+      modelRunner.resume(model, latestStepOf(passivatedState));
+      if ((passivatedState[0] & RUNNING) == 0) {
+        modelRunner.stop();
+      }
+    }
+    return modelRunner;
+  }
+
+  private synchronized void runnerCreated(boolean isRehydrated) {
+    missCount++;
+    if (isRehydrated) {
+      rehydrationCount++;
+    }
+  }
+
+  private void evictRunners() {
+    long idleSinceMillis = maxIdleTime == null ? Long.MIN_VALUE : clock.millis() - maxIdleTime.toMillis();
+
+    Iterator<RegisteredRunner> leastRecentlyUsedFirst = activeRunners.values().iterator();
+    while (leastRecentlyUsedFirst.hasNext()) {
+      RegisteredRunner registeredRunner = leastRecentlyUsedFirst.next();
+      boolean isTooMany = activeRunners.size() > maxNrOfActiveRunners;
+      boolean isIdle = registeredRunner.lastUsedMillis < idleSinceMillis;
+      if (!isTooMany && !isIdle) {
+        break;
+      }
+      if (registeredRunner.nrOfUsers == 0) {
+        byte[] passivatedState = registeredRunner.passivate();
+        if (passivatedState != null) {
+          passivatedRunners.put(registeredRunner.key, passivatedState);
+        }
+        leastRecentlyUsedFirst.remove();
+        evictionCount++;
+      }
+    }
+  }
+
+  /**
+   * Stores the state of the runner in a byte array: a flags byte, followed by
+   * the id of the latest step as a variable length integer, if there is one.
+   */
+  private static byte[] passivate(ModelRunner modelRunner) {
+    Step latestStep = modelRunner.getLatestStepOrNull();
+    int flags = (modelRunner.isRunning() ? RUNNING : 0) | (latestStep != null ? HAS_LATEST_STEP : 0);
+
+    ByteArrayOutputStream passivatedState = new ByteArrayOutputStream(6);
+    passivatedState.write(flags);
+    if (latestStep != null) {
+      int stepId = latestStep.getId();
+      while ((stepId & ~0x7F) != 0) {
+        passivatedState.write((stepId & 0x7F) | 0x80);
+        stepId >>>= 7;
+      }
+      passivatedState.write(stepId);
+    }
+    return passivatedState.toByteArray();
+  }
+
+  private Step latestStepOf(byte[] passivatedState) {
+    if ((passivatedState[0] & HAS_LATEST_STEP) == 0) {
+      return null;
+    }
+    int stepId = 0;
+    for (int i = 1, shift = 0; i < passivatedState.length; i++, shift += 7) {
+      stepId |= (passivatedState[i] & 0x7F) << shift;
+    }
+    return model.getDispatchIndex().getStep(stepId);
+  }
+
+  private class RegisteredRunner {
+    private final K key;
+    private final byte[] passivatedState;
+    private ModelRunner modelRunner;
+    private int nrOfUsers;
+    private long lastUsedMillis;
+
+    RegisteredRunner(K key, byte[] passivatedState) {
+      this.key = key;
+      this.passivatedState = passivatedState;
+      this.lastUsedMillis = clock.millis();
+    }
+
+    /**
+     * Creates the runner, if that hasn't been done yet. The caller holds this
+     * object's monitor. If the creation fails, e.g. because an "autonomous
+     * system reaction" throws an exception, the next user tries again.
+     */
+    ModelRunner getOrCreateModelRunner() {
+      if (modelRunner == null) {
+        modelRunner = createRunner(passivatedState);
+        runnerCreated(passivatedState != null);
+      }
+      return modelRunner;
+    }
+
+    Optional<Step> getLatestStep() {
+      if (modelRunner != null) {
+        return modelRunner.getLatestStep();
+      }
+      return passivatedState == null ? Optional.empty() : Optional.ofNullable(latestStepOf(passivatedState));
+    }
+
+    /**
+     * Returns the state of the runner, or the state it would be created from if
+     * it hasn't been created yet.
+     */
+    byte[] passivate() {
+      return modelRunner == null ? passivatedState : ModelRunnerRegistry.passivate(modelRunner);
+    }
+  }
+}
@@ -0,0 +1,242 @@
+package org.requirementsascode;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Watches the system reactions of model runners, and reports the ones that take
+ * longer than their time budget while they are still running, with a sample of
+ * the running thread's stack. That way, you can find out which code makes a
+ * reaction slow.
+ *
+ * <p>
+ * A step's time budget is defined in the model, see
+ * {@link org.requirementsascode.builder.StepSystemPart#timeBudget(Duration)},
+ * or for all steps of a runner, see {@link ModelRunner#withTimeBudget(Duration)}.
+ * Reactions of steps without a budget are not watched.
+ *
+ * <p>
+ * The watchdog checks the running reactions on a thread of its own, every 10
+ * milliseconds by default. So a violation is detected up to one check interval
+ * late, and a reaction is reported at most once. A runner publishes its
+ * running reaction to the watchdog without allocating memory.
+ *
+ * @see ModelRunner#withWatchdog(SlowReactionWatchdog)
+ */
+public class SlowReactionWatchdog implements AutoCloseable {
+  private static final long DEFAULT_CHECK_INTERVAL_NANOS = 10_000_000;
+  private static final int NR_OF_RECENT_VIOLATIONS = 100;
+
+  private final Queue<WeakReference<RunningReaction>> runningReactions;
+  private final Thread watchdogThread;
+  private final LongAdder violationCount;
+  private final Map<Step, LongAdder> violationCountsByStep;
+  private final Deque<TimeBudgetViolation> recentViolations;
+
+  private volatile long checkIntervalNanos;
+  private volatile Consumer<TimeBudgetViolation> violationHandler;
+  private volatile boolean isRunning;
+
+  /**
+   * Creates a watchdog, and starts its thread.
+   */
+  public SlowReactionWatchdog() {
+    this.runningReactions = new ConcurrentLinkedQueue<>();
+    this.violationCount = new LongAdder();
+    this.violationCountsByStep = new ConcurrentHashMap<>();
+    this.recentViolations = new ArrayDeque<>(NR_OF_RECENT_VIOLATIONS);
+    this.checkIntervalNanos = DEFAULT_CHECK_INTERVAL_NANOS;
+    this.violationHandler = violation -> {};
+    this.isRunning = true;
+    this.watchdogThread = new Thread(this::watch, "requirementsascode-watchdog");
+    watchdogThread.setDaemon(true);
+    watchdogThread.start();
+  }
+
+  /**
+   * Define how often the watchdog checks the running reactions.
+   *
+   * @param checkInterval the interval, must be positive
+   * @return this watchdog, for chaining
+   */
+  public SlowReactionWatchdog checkEvery(Duration checkInterval) {
+    this.checkIntervalNanos = Step.positiveNanosOf(Objects.requireNonNull(checkInterval));
+    return this;
+  }
+
+  /**
+   * Define the handler that is called for each violation, on the watchdog's
+   * thread. Exceptions thrown by the handler are ignored.
+   *
+   * @param violationHandler the handler
+   * @return this watchdog, for chaining
+   */
+  public SlowReactionWatchdog handleViolationsWith(Consumer<TimeBudgetViolation> violationHandler) {
+    this.violationHandler = Objects.requireNonNull(violationHandler);
+    return this;
+  }
+
+  /**
+   * Returns the number of violations that have been detected.
+   *
+   * @return the number of violations
+   */
+  public long getViolationCount() {
+    return violationCount.sum();
+  }
+
+  /**
+   * Returns the number of violations that have been detected for the step.
+   *
+   * @param step the step
+   * @return the number of violations
+   */
+  public long getViolationCount(Step step) {
+    LongAdder stepViolationCount = violationCountsByStep.get(step);
+    return stepViolationCount == null ? 0 : stepViolationCount.sum();
+  }
+
+  /**
+   * Returns the latest violations, at most 100, the oldest first.
+   *
+   * @return the violations
+   */
+  public List<TimeBudgetViolation> getRecentViolations() {
+    synchronized (recentViolations) {
+      return new ArrayList<>(recentViolations);
+    }
+  }
+
+  /**
+   * Stops the watchdog's thread. Running reactions are not watched anymore.
+   */
+  @Override
+  public void close() {
+    isRunning = false;
+    LockSupport.unpark(watchdogThread);
+    try {
+      watchdogThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  RunningReaction watchRunner() {
+    RunningReaction runningReaction = new RunningReaction();
+    runningReactions.add(new WeakReference<>(runningReaction));
+    return runningReaction;
+  }
+
+  private void watch() {
+    while (isRunning) {
+      LockSupport.parkNanos(this, checkIntervalNanos);
+      long nowNanos = System.nanoTime();
+      Iterator<WeakReference<RunningReaction>> iterator = runningReactions.iterator();
+      while (iterator.hasNext()) {
+        RunningReaction runningReaction = iterator.next().get();
+        if (runningReaction == null) {
+          // The runner has been garbage collected
+          iterator.remove();
+        } else {
+          check(runningReaction, nowNanos);
+        }
+      }
+    }
+  }
+
+  private void check(RunningReaction runningReaction, long nowNanos) {
+    int version = runningReaction.version;
+    if ((version & 1) != 0) {
+      // The runner is changing the reaction, so check it next time
+      return;
+    }
+    Step step = runningReaction.step;
+    Class<?> messageClass = runningReaction.messageClass;
+    long startNanos = runningReaction.startNanos;
+    long timeBudgetNanos = runningReaction.timeBudgetNanos;
+    Thread thread = runningReaction.thread;
+    if (runningReaction.version != version || step == null || startNanos == runningReaction.reportedStartNanos) {
+      return;
+    }
+
+    long elapsedNanos = nowNanos - startNanos;
+    if (elapsedNanos > timeBudgetNanos) {
+      StackTraceElement[] stackSample = thread.getStackTrace();
+      if (runningReaction.version == version) {
+        runningReaction.reportedStartNanos = startNanos;
+        report(new TimeBudgetViolation(step, messageClass, Duration.ofNanos(timeBudgetNanos),
+          Duration.ofNanos(elapsedNanos), thread.getName(), stackSample));
+      }
+    }
+  }
+
+  private void report(TimeBudgetViolation violation) {
+    violationCount.increment();
+    violationCountsByStep.computeIfAbsent(violation.getStep(), step -> new LongAdder()).increment();
+    synchronized (recentViolations) {
+      if (recentViolations.size() == NR_OF_RECENT_VIOLATIONS) {
+        recentViolations.removeFirst();
+      }
+      recentViolations.addLast(violation);
+    }
+    try {
+      violationHandler.accept(violation);
+    } catch (RuntimeException e) {
+      // A failing handler must not stop the watchdog
+    }
+  }
+
+  /**
+   * The reaction a runner is running, if any. The runner writes it, the
+   * watchdog reads it. The version is odd while the runner is writing, so that
+   * the watchdog never reads a mix of two reactions.
+   */
+  static class RunningReaction {
+    private volatile int version;
+    private volatile Step step;
+    private volatile Class<?> messageClass;
+    private volatile long startNanos;
+    private volatile long timeBudgetNanos;
+    private volatile Thread thread;
+    private long reportedStartNanos;
+
+    void set(Step step, Class<?> messageClass, long startNanos, long timeBudgetNanos) {
+      version++;
+      this.step = step;
+      this.messageClass = messageClass;
+      this.startNanos = startNanos;
+      this.timeBudgetNanos = timeBudgetNanos;
+      this.thread = Thread.currentThread();
+      version++;
+    }
+
+    Step getStep() {
+      return step;
+    }
+
+    Class<?> getMessageClass() {
+      return messageClass;
+    }
+
+    long getStartNanos() {
+      return startNanos;
+    }
+
+    long getTimeBudgetNanos() {
+      return timeBudgetNanos;
+    }
+  }
+}
@@ -4,44 +4,105 @@ import java.util.Objects;
 import java.util.Optional;
 
 import org.requirementsascode.exception.InfiniteRepetition;
+import org.requirementsascode.metrics.MetricsRegistry;
 
 /**
  * This class represents stateless behavior, that is: behavior occurring without
  * remembering past occurences of the same behavior. It is thus suited to be
  * used as a singleton e.g. in a Spring environment.
  * 
+ * <p>
+ * To react to a message, the behavior needs a model runner. By default, it
+ * creates a new runner for each message. To reduce allocations, it can reuse
+ * the runners that have finished reacting instead, and restart them before
+ * each message. See {@link RunnerReuse} for the alternatives.
+ * 
  * @author b_muth
  *
  */
 public class StatelessBehavior implements Behavior {
+  private static final int POOL_CAPACITY_PER_PROCESSOR = 2;
+
   private final BehaviorModel behaviorModel;
   private final Model model;
   private final Object defaultResponse;
+  private final IdleModelRunners idleModelRunners;
+  private volatile MetricsRegistry metricsRegistry;
+
+  /**
+   * Defines whether and how a behavior reuses model runners.
+   */
+  public enum RunnerReuse {
+    /**
+     * Creates a new runner for each message.
+     */
+    NONE,
+    /**
+     * Keeps one runner per thread. Suited for a fixed number of long living
+     * threads, e.g. the worker threads of a web server.
+     */
+    THREAD_LOCAL,
+    /**
+     * Keeps a pool of runners that all threads share. The pool holds at most
+     * two runners per available processor.
+     */
+    POOLED
+  }
 
-  private StatelessBehavior(BehaviorModel behaviorModel) {
+  private StatelessBehavior(BehaviorModel behaviorModel, RunnerReuse runnerReuse) {
     this.behaviorModel = Objects.requireNonNull(behaviorModel, "behaviorModel must not be null!");
     this.model = Objects.requireNonNull(behaviorModel.model(), "behavior must not be null!");
     this.defaultResponse = behaviorModel.defaultResponse();
+    this.idleModelRunners = createIdleModelRunners(Objects.requireNonNull(runnerReuse, "runnerReuse must not be null!"));
   }
 
   /**
-   * Creates a behavior with the specified model.
+   * Creates a behavior with the specified model, that creates a new model
+   * runner for each message.
    * 
    * @param behaviorModel the model describing the requests/responses of the
    *                      behavior
    * @return the new StatelessBehavior instance
    */
   public static StatelessBehavior of(BehaviorModel behaviorModel) {
-    return new StatelessBehavior(behaviorModel);
+    return of(behaviorModel, RunnerReuse.NONE);
+  }
+
+  /**
+   * Creates a behavior with the specified model, that reuses model runners as
+   * specified.
+   * 
+   * @param behaviorModel the model describing the requests/responses of the
+   *                      behavior
+   * @param runnerReuse   whether and how the behavior reuses model runners
+   * @return the new StatelessBehavior instance
+   */
+  public static StatelessBehavior of(BehaviorModel behaviorModel, RunnerReuse runnerReuse) {
+    return new StatelessBehavior(behaviorModel, runnerReuse);
+  }
+
+  /**
+   * Define the registry that receives the metrics of the model runners the
+   * behavior uses.
+   *
+   * @see ModelRunner#withMetrics(MetricsRegistry)
+   * @param metricsRegistry the registry, or null to stop recording metrics
+   * @return this behavior, for chaining
+   */
+  public StatelessBehavior withMetrics(MetricsRegistry metricsRegistry) {
+    this.metricsRegistry = metricsRegistry;
+    return this;
   }
 
   @SuppressWarnings("unchecked")
   public <T> Optional<T> reactTo(Object message) {
     try {
-      final ModelRunner runner = newModelRunner().run(model);
+      final ModelRunner runner = acquireModelRunner();
       final Optional<T> optionalResponse = runner.reactTo(message);
       final T response = optionalResponse.orElse((T) defaultResponse);
 
+      // A runner that has thrown an exception is not reused
+      idleModelRunners.offer(runner);
       return Optional.ofNullable(response);
     } catch (InfiniteRepetition e) {
       final String exceptionMessage = createExceptionMessage(message);
@@ -54,6 +115,29 @@ public class StatelessBehavior implements Behavior {
     return behaviorModel;
   }
 
+  private static IdleModelRunners createIdleModelRunners(RunnerReuse runnerReuse) {
+    IdleModelRunners idleModelRunners;
+    if (RunnerReuse.THREAD_LOCAL.equals(runnerReuse)) {
+      idleModelRunners = IdleModelRunners.threadLocal();
+    } else if (RunnerReuse.POOLED.equals(runnerReuse)) {
+      int capacity = POOL_CAPACITY_PER_PROCESSOR * Runtime.getRuntime().availableProcessors();
+      idleModelRunners = IdleModelRunners.pooled(capacity);
+    } else {
+      idleModelRunners = IdleModelRunners.none();
+    }
+    return idleModelRunners;
+  }
+
+  private ModelRunner acquireModelRunner() {
+    ModelRunner runner = idleModelRunners.poll();
+    if (runner == null) {
+      runner = newModelRunner().withMetrics(metricsRegistry).run(model);
+    } else {
+      runner.withMetrics(metricsRegistry).restart();
+    }
+    return runner;
+  }
+
   private ModelRunner newModelRunner() {
     return new ModelRunner();
   }
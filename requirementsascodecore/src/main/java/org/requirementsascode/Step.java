@@ -1,5 +1,6 @@
 package org.requirementsascode;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Optional;
 import java.util.function.Consumer;
@@ -7,6 +8,8 @@ import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
+import org.requirementsascode.trace.DispatchDecision;
+
 /**
  * A step is a part of a use case. The steps define the behavior of the use
  * case.
@@ -25,7 +28,11 @@ public abstract class Step extends ModelElement{
 	private Class<?> messageClass;
 	private SystemReaction<?> systemReaction;
 	private Behavior publishTo;
+	private boolean isPublishedAsync;
+	private long timeBudgetNanos;
   private Condition aCase;
+	private final Predicate<ModelRunner> predicate;
+	private int id;
 
 	/**
 	 * Creates a step with the specified name that belongs to the specified use
@@ -39,9 +46,48 @@ public abstract class Step extends ModelElement{
 		super(stepName, useCase.getModel());
 		this.useCase = useCase;
 		this.condition = condition;
+		this.predicate = this::isPredicateTrue;
+		this.id = -1;
+	}
+
+	/**
+	 * Returns the id of the step, unique within its model. Ids are dense and
+	 * assigned in the order the steps are created, starting at 0.
+	 * 
+	 * @return the id, or -1 if the step has not been added to its model yet
+	 */
+	public int getId() {
+		return id;
 	}
 
-	public abstract Predicate<ModelRunner> getPredicate();
+	void setId(int id) {
+		this.id = id;
+	}
+
+	/**
+	 * Returns the predicate that needs to be true for the step to react (beside
+	 * the message class and actor being right). The predicate is created once per
+	 * step, and evaluates the step's current flow position and conditions.
+	 * 
+	 * @return the predicate
+	 */
+	public Predicate<ModelRunner> getPredicate() {
+		return predicate;
+	}
+
+	boolean isPredicateTrue(ModelRunner modelRunner) {
+		return decide(modelRunner) == DispatchDecision.CAN_REACT;
+	}
+
+	/**
+	 * Evaluates the step's flow position and conditions, in the same order as the
+	 * predicate does.
+	 * 
+	 * @param modelRunner the runner that evaluates the step
+	 * @return {@link DispatchDecision#CAN_REACT} if the predicate is true, or the
+	 *         decision that names the first check that has failed
+	 */
+	abstract DispatchDecision decide(ModelRunner modelRunner);
 
 	public UseCase getUseCase() {
 		return useCase;
@@ -51,10 +97,9 @@ public abstract class Step extends ModelElement{
 		return Optional.ofNullable(condition);
 	}
 	
-  protected Predicate<ModelRunner> isConditionTrue() {
-    Condition conditionOrElseTrue = getCondition().orElse(() -> true);
-    Predicate<ModelRunner> flowCondition = toPredicate(conditionOrElseTrue);
-    return flowCondition;
+  protected boolean isConditionTrue() {
+    boolean isConditionTrue = condition == null || condition.evaluate();
+    return isConditionTrue;
   }
 
 	public AbstractActor[] getActors() {
@@ -62,8 +107,14 @@ public abstract class Step extends ModelElement{
     return actorsCopy;
 	}
 
+	AbstractActor[] getModifiableActors() {
+		return actors;
+	}
+
 	public void setActors(AbstractActor[] actors) {
+		getModel().checkNotBuilt();
     this.actors = Arrays.copyOf(actors, actors.length);
+		getModel().unfreeze();
 	}
 
 	public Class<?> getMessageClass() {
@@ -71,7 +122,9 @@ public abstract class Step extends ModelElement{
 	}
 
 	public void setMessageClass(Class<?> eventClass) {
+		getModel().checkNotBuilt();
 		this.messageClass = eventClass;
+		getModel().unfreeze();
 	}
 
 	public SystemReaction<?> getSystemReaction() {
@@ -79,38 +132,87 @@ public abstract class Step extends ModelElement{
 	}
 	
 	public void setSystemReaction(Runnable systemReaction) {
+		getModel().checkNotBuilt();
 		this.systemReaction = new SystemReaction<>(systemReaction);
 	}
 	
 	public <T> void setSystemReaction(Consumer<? super T> systemReaction) {
+		getModel().checkNotBuilt();
 		this.systemReaction = new SystemReaction<>(systemReaction);
 	}
 	
 	public <T> void setSystemReaction(Function<? super T, ?> systemReaction) {
+		getModel().checkNotBuilt();
 		this.systemReaction = new SystemReaction<>(systemReaction);
 	}
 
 	public <T> void setSystemReaction(Supplier<?> systemReaction) {
+		getModel().checkNotBuilt();
 		this.systemReaction = new SystemReaction<>(systemReaction);
 	}
 
-	protected static Predicate<ModelRunner> toPredicate(Condition condition) {
-		return modelRunner -> condition.evaluate();
-	}
-
 	public Optional<Behavior> getPublishTo() {
 		return Optional.ofNullable(publishTo);
 	}
 
 	public void setPublishTo(Behavior recipient) {
+		getModel().checkNotBuilt();
 		this.publishTo = recipient;
 	}
 
+	/**
+	 * Returns whether the messages published by the system reaction are delivered
+	 * to the recipient asynchronously, so that the system reaction doesn't wait
+	 * for the recipient to react.
+	 * 
+	 * @return true if asynchronously, false if the recipient reacts immediately
+	 */
+	public boolean isPublishedAsync() {
+		return isPublishedAsync;
+	}
+
+	public void setPublishedAsync(boolean isPublishedAsync) {
+		getModel().checkNotBuilt();
+		this.isPublishedAsync = isPublishedAsync;
+	}
+
+	/**
+	 * Returns the time the system reaction is expected to take at most.
+	 * 
+	 * @see SlowReactionWatchdog
+	 * @return the time budget, or an empty optional if the step has none
+	 */
+	public Optional<Duration> getTimeBudget() {
+		return timeBudgetNanos == 0 ? Optional.empty() : Optional.of(Duration.ofNanos(timeBudgetNanos));
+	}
+
+	public void setTimeBudget(Duration timeBudget) {
+		getModel().checkNotBuilt();
+		this.timeBudgetNanos = timeBudget == null ? 0 : positiveNanosOf(timeBudget);
+	}
+
+	long getTimeBudgetNanos() {
+		return timeBudgetNanos;
+	}
+
+	static long positiveNanosOf(Duration timeBudget) {
+		if (timeBudget.isNegative() || timeBudget.isZero()) {
+			throw new IllegalArgumentException("timeBudget must be positive, but is " + timeBudget);
+		}
+		return timeBudget.toNanos();
+	}
+
   public void setCase(Condition aCase) {
+    getModel().checkNotBuilt();
     this.aCase = aCase;
   }
   
   public Optional<Condition> getCase(){
     return Optional.ofNullable(aCase);
   }
+  
+  boolean isCaseTrue() {
+    boolean isCaseTrue = aCase == null || aCase.evaluate();
+    return isCaseTrue;
+  }
 }
@@ -46,6 +46,10 @@ public class StepToBeRun{
 	  return Optional.ofNullable(messageToBePublished);
 	}
 	
+	Object getMessageToBePublishedOrNull() {
+	  return messageToBePublished;
+	}
+	
 	/**
 	 * Alter the message to be published after the handleWith() method completes.
 	 * IMPORTANT: Call this method after {@link #run()}.
@@ -107,4 +111,9 @@ public class StepToBeRun{
 		this.step = useCaseStep;
 		this.message = message;
 	}
+
+	void reset() {
+		setupWith(null, null);
+		this.messageToBePublished = null;
+	}
 }
@@ -0,0 +1,70 @@
+package org.requirementsascode;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * A system reaction that has taken longer than its time budget, as detected by
+ * a {@link SlowReactionWatchdog} while the reaction was still running.
+ */
+public class TimeBudgetViolation {
+  private final Step step;
+  private final Class<?> messageClass;
+  private final Duration timeBudget;
+  private final Duration elapsedTime;
+  private final String threadName;
+  private final StackTraceElement[] stackSample;
+
+  TimeBudgetViolation(Step step, Class<?> messageClass, Duration timeBudget, Duration elapsedTime,
+    String threadName, StackTraceElement[] stackSample) {
+    this.step = step;
+    this.messageClass = messageClass;
+    this.timeBudget = timeBudget;
+    this.elapsedTime = elapsedTime;
+    this.threadName = threadName;
+    this.stackSample = stackSample;
+  }
+
+  public Step getStep() {
+    return step;
+  }
+
+  public Class<?> getMessageClass() {
+    return messageClass;
+  }
+
+  public Duration getTimeBudget() {
+    return timeBudget;
+  }
+
+  /**
+   * Returns how long the system reaction had been running when the watchdog
+   * detected the violation. The reaction may have taken longer in total.
+   *
+   * @return the elapsed time
+   */
+  public Duration getElapsedTime() {
+    return elapsedTime;
+  }
+
+  public String getThreadName() {
+    return threadName;
+  }
+
+  /**
+   * Returns the stack of the thread running the system reaction, sampled when
+   * the watchdog detected the violation.
+   *
+   * @return the stack, the innermost frame first
+   */
+  public StackTraceElement[] getStackSample() {
+    return Arrays.copyOf(stackSample, stackSample.length);
+  }
+
+  @Override
+  public String toString() {
+    return "Step \"" + step.getName() + "\" reacting to " + messageClass.getSimpleName() + " has run for "
+      + elapsedTime.toMillis() + " ms on thread " + threadName + ", its time budget is " + timeBudget.toMillis()
+      + " ms";
+  }
+}
@@ -0,0 +1,207 @@
+package org.requirementsascode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.requirementsascode.flowposition.After;
+import org.requirementsascode.flowposition.AfterSingleStep;
+import org.requirementsascode.flowposition.Anytime;
+import org.requirementsascode.flowposition.FlowPosition;
+import org.requirementsascode.flowposition.InsteadOf;
+
+/**
+ * Table that contains, for the latest step a runner has run, the flow steps
+ * that are at the right flow position to react next.
+ *
+ * <p>
+ * The table is compiled from the flow positions of the flow steps: after /
+ * insteadOf / anytime, and the additional positions created by reactWhile
+ * loops and continuesAt / continuesAfter. Rows are keyed by the latest step's
+ * id. Row 0 contains the steps that can react when no step has been run yet.
+ * Each row contains the sorted ids of the steps that are enabled after that
+ * step, so that checking a step's flow position doesn't need to walk the flow
+ * position's predicates.
+ *
+ * <p>
+ * Flow positions of user defined subclasses can't be compiled. For their steps,
+ * the table falls back to testing the flow position as a predicate.
+ */
+class TransitionTable {
+  private static final int[] NO_STEP_IDS = new int[0];
+
+  private static final byte AFTER_STEPS = 1;
+  private static final byte ANYTIME = 2;
+  private static final byte DYNAMIC = 3;
+
+  private final Step[] stepsById;
+  private final byte[] positionKindByStepId;
+  private final int[][] enabledStepIdsByRow;
+
+  /**
+   * Compiles the flow positions of the specified steps.
+   *
+   * @param steps     the steps of the model
+   * @param stepsById the steps of the model, at the index of their id
+   */
+  TransitionTable(Step[] steps, Step[] stepsById) {
+    this.stepsById = stepsById;
+    this.positionKindByStepId = new byte[stepsById.length];
+
+    List<List<Integer>> enabledStepIds = new ArrayList<>(stepsById.length + 1);
+    for (int row = 0; row <= stepsById.length; row++) {
+      enabledStepIds.add(null);
+    }
+
+    for (Step step : steps) {
+      if (step instanceof FlowStep) {
+        compileFlowPosition((FlowStep) step, enabledStepIds);
+      }
+    }
+
+    this.enabledStepIdsByRow = toSortedRows(enabledStepIds);
+  }
+
+  private void compileFlowPosition(FlowStep step, List<List<Integer>> enabledStepIds) {
+    List<Step> stepsBefore = new ArrayList<>();
+    byte positionKind;
+    try {
+      positionKind = compile(step.getFlowPosition(), stepsBefore, Collections.newSetFromMap(new IdentityHashMap<>()));
+    } catch (RuntimeException e) {
+      // The flow position will be tested as predicate, and fail there as before
+      positionKind = DYNAMIC;
+    }
+
+    if (positionKind == AFTER_STEPS) {
+      for (Step stepBefore : stepsBefore) {
+        if (stepBefore != null && !isInModel(stepBefore)) {
+          positionKind = DYNAMIC;
+          break;
+        }
+      }
+    }
+
+    if (positionKind == AFTER_STEPS) {
+      for (Step stepBefore : stepsBefore) {
+        int row = rowOf(stepBefore);
+        if (enabledStepIds.get(row) == null) {
+          enabledStepIds.set(row, new ArrayList<>(2));
+        }
+        enabledStepIds.get(row).add(step.getId());
+      }
+    }
+
+    positionKindByStepId[step.getId()] = positionKind;
+  }
+
+  private byte compile(FlowPosition flowPosition, List<Step> stepsBefore, Set<FlowPosition> compiledPositions) {
+    if (flowPosition == null || !compiledPositions.add(flowPosition)) {
+      return DYNAMIC;
+    }
+
+    Class<?> flowPositionClass = flowPosition.getClass();
+    byte positionKind;
+
+    if (Anytime.class.equals(flowPositionClass)) {
+      positionKind = ANYTIME;
+    } else if (After.class.equals(flowPositionClass)) {
+      positionKind = compileAfter((After) flowPosition, stepsBefore);
+    } else if (InsteadOf.class.equals(flowPositionClass)) {
+      // A flow that starts instead of a step is at the right position whenever
+      // that step is.
+      InsteadOf insteadOf = (InsteadOf) flowPosition;
+      insteadOf.resolveSteps();
+      FlowStep insteadOfStep = insteadOf.getStep();
+      positionKind = insteadOfStep == null ? DYNAMIC
+        : compile(insteadOfStep.getFlowPosition(), stepsBefore, compiledPositions);
+    } else {
+      positionKind = DYNAMIC;
+    }
+
+    return positionKind;
+  }
+
+  private byte compileAfter(After after, List<Step> stepsBefore) {
+    after.resolveSteps();
+    for (AfterSingleStep afterSingleStep : after.getAfterForEachSingleStep()) {
+      if (!AfterSingleStep.class.equals(afterSingleStep.getClass())
+        || (afterSingleStep.getStepName() != null && afterSingleStep.getStep() == null)) {
+        return DYNAMIC;
+      }
+      // A null step means: no step has been run yet
+      stepsBefore.add(afterSingleStep.getStep());
+    }
+    return AFTER_STEPS;
+  }
+
+  private static int[][] toSortedRows(List<List<Integer>> enabledStepIds) {
+    int[][] rows = new int[enabledStepIds.size()][];
+    for (int row = 0; row < rows.length; row++) {
+      List<Integer> stepIdsOfRow = enabledStepIds.get(row);
+      rows[row] = stepIdsOfRow == null ? NO_STEP_IDS : toSortedArray(stepIdsOfRow);
+    }
+    return rows;
+  }
+
+  private static int[] toSortedArray(List<Integer> stepIds) {
+    int[] sortedStepIds = stepIds.stream().mapToInt(Integer::intValue).distinct().toArray();
+    Arrays.sort(sortedStepIds);
+    return sortedStepIds;
+  }
+
+  /**
+   * Returns the ids of the steps that are at the right flow position after the
+   * specified latest step, not including steps that can react anytime, or whose
+   * flow position can't be compiled.
+   *
+   * @param latestStep the latest step run, or null if no step has been run
+   * @return the sorted step ids, don't modify the returned array
+   */
+  int[] getEnabledStepIdsAfter(Step latestStep) {
+    int[] enabledStepIds;
+    if (latestStep == null) {
+      enabledStepIds = enabledStepIdsByRow[0];
+    } else if (isInModel(latestStep)) {
+      enabledStepIds = enabledStepIdsByRow[latestStep.getId() + 1];
+    } else {
+      enabledStepIds = NO_STEP_IDS;
+    }
+    return enabledStepIds;
+  }
+
+  /**
+   * Checks whether the specified flow step is at the right flow position, given
+   * the state of the specified runner.
+   *
+   * @param flowStep    the step to check
+   * @param modelRunner the runner whose latest step is used
+   * @return true if the step is at the right position, false otherwise
+   */
+  boolean isAtRightPosition(FlowStep flowStep, ModelRunner modelRunner) {
+    int stepId = flowStep.getId();
+    byte positionKind = isInModel(flowStep) ? positionKindByStepId[stepId] : DYNAMIC;
+
+    boolean isAtRightPosition;
+    if (positionKind == AFTER_STEPS) {
+      int[] enabledStepIds = getEnabledStepIdsAfter(modelRunner.getLatestStepOrNull());
+      isAtRightPosition = Arrays.binarySearch(enabledStepIds, stepId) >= 0;
+    } else if (positionKind == ANYTIME) {
+      isAtRightPosition = true;
+    } else {
+      isAtRightPosition = flowStep.getFlowPosition().test(modelRunner);
+    }
+    return isAtRightPosition;
+  }
+
+  private boolean isInModel(Step step) {
+    int stepId = step.getId();
+    return stepId >= 0 && stepId < stepsById.length && stepsById[stepId] == step;
+  }
+
+  private static int rowOf(Step stepBefore) {
+    return stepBefore == null ? 0 : stepBefore.getId() + 1;
+  }
+}
@@ -33,6 +33,8 @@ public class UseCase extends ModelElement{
 
 	private Map<String, Flow> nameToFlowMap;
 	private Map<String, Step> nameToStepMap;
+	private Collection<Flow> unmodifiableFlows;
+	private Collection<Step> unmodifiableSteps;
 	private Flow basicFlow;
 
 	/**
@@ -46,6 +48,8 @@ public class UseCase extends ModelElement{
 		super(useCaseName, model);
 		this.nameToFlowMap = new LinkedHashMap<>();
 		this.nameToStepMap = new LinkedHashMap<>();
+		this.unmodifiableFlows = Collections.unmodifiableCollection(getModelElements(nameToFlowMap));
+		this.unmodifiableSteps = Collections.unmodifiableCollection(getModelElements(nameToStepMap));
 		this.basicFlow = newFlow(BASIC_FLOW);
 	}
 
@@ -94,6 +98,7 @@ public class UseCase extends ModelElement{
 	 *                               exists in the use case
 	 */
 	public Flow newFlow(String flowName) {
+		getModel().checkNotBuilt();
 		Flow flow = new Flow(flowName, this);
 		saveModelElement(flow, nameToFlowMap);
 		return flow;
@@ -112,9 +117,13 @@ public class UseCase extends ModelElement{
 	 */
 	public InterruptingFlowStep newInterruptingFlowStep(String stepName, Flow flow, FlowPosition flowPosition,
 			Condition condition) {
+		getModel().checkNotBuilt();
 		InterruptingFlowStep step = new InterruptingFlowStep(stepName, flow, flowPosition, condition);
 
 		saveModelElement(step, nameToStepMap);
+		step.setId(getModel().nextStepId());
+		flow.addStep(step);
+		getModel().unfreeze();
 
 		return step;
 	}
@@ -138,8 +147,12 @@ public class UseCase extends ModelElement{
 	 * @return the newly created step
 	 */
 	public InterruptableFlowStep newInterruptableFlowStep(String stepName, Flow flow, Condition optionalCondition) {
+		getModel().checkNotBuilt();
 		InterruptableFlowStep step = new InterruptableFlowStep(stepName, flow, optionalCondition);
 		saveModelElement(step, nameToStepMap);
+		step.setId(getModel().nextStepId());
+		flow.addStep(step);
+		getModel().unfreeze();
 
 		return step;
 	}
@@ -153,8 +166,11 @@ public class UseCase extends ModelElement{
 	 * @return the newly created step
 	 */
 	public FlowlessStep newFlowlessStep(String stepName, Condition optionalCondition) {
+		getModel().checkNotBuilt();
 		FlowlessStep step = new FlowlessStep(stepName, this, optionalCondition);
 		saveModelElement(step, nameToStepMap);
+		step.setId(getModel().nextStepId());
+		getModel().unfreeze();
 
 		return step;
 	}
@@ -191,8 +207,7 @@ public class UseCase extends ModelElement{
 	 * @return a collection of the flows
 	 */
 	public Collection<Flow> getFlows() {
-		Collection<Flow> modifiableFlows = getModelElements(nameToFlowMap);
-		return Collections.unmodifiableCollection(modifiableFlows);
+		return unmodifiableFlows;
 	}
 
 	/**
@@ -201,8 +216,7 @@ public class UseCase extends ModelElement{
 	 * @return a collection of the steps
 	 */
 	public Collection<Step> getSteps() {
-		Collection<Step> modifiableSteps = getModifiableSteps();
-		return Collections.unmodifiableCollection(modifiableSteps);
+		return unmodifiableSteps;
 	}
 
 	Collection<Step> getModifiableSteps() {
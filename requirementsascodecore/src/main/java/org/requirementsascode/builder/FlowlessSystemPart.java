@@ -3,6 +3,7 @@ package org.requirementsascode.builder;
 import static org.requirementsascode.builder.FlowlessConditionPart.flowlessConditionPart;
 import static org.requirementsascode.builder.FlowlessToPart.flowlessToPart;
 
+import java.time.Duration;
 import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -134,6 +135,18 @@ public class FlowlessSystemPart<T> {
 		return new FlowlessUseCasePart(newUseCasePart);
 	}
 	
+	/**
+	 * Specifies the time the system reaction is expected to take at most.
+	 * 
+	 * @see StepSystemPart#timeBudget(Duration)
+	 * @param timeBudget the time budget, must be positive
+	 * @return this system part
+	 */
+	public FlowlessSystemPart<T> timeBudget(Duration timeBudget) {
+		stepSystemPart.timeBudget(timeBudget);
+		return this;
+	}
+
 	/** Specifies the recipient of the message.
 	 * 
 	 * @param recipient the recipient of this message
@@ -145,6 +158,20 @@ public class FlowlessSystemPart<T> {
 		return flowlessToPart;
 	}
 
+	/**
+	 * Specifies the recipient of the message, and that the message is delivered
+	 * asynchronously: the system reaction doesn't wait for the recipient to react.
+	 * 
+	 * @see StepSystemPart#toAsync(Behavior)
+	 * @param recipient the recipient of this message
+	 * @return the created part
+	 */
+	public FlowlessToPart toAsync(Behavior recipient) {
+		FlowlessToPart flowlessToPart = to(recipient);
+		stepSystemPart.getStepPart().getStep().setPublishedAsync(true);
+		return flowlessToPart;
+	}
+
 	/**
 	 * Returns the model that has been built.
 	 * 
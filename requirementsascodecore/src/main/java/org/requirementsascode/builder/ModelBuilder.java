@@ -4,6 +4,7 @@ import static org.requirementsascode.builder.UseCasePart.useCasePart;
 
 import org.requirementsascode.Condition;
 import org.requirementsascode.Flow;
+import org.requirementsascode.FlowStep;
 import org.requirementsascode.Model;
 import org.requirementsascode.Step;
 import org.requirementsascode.SystemReaction;
@@ -20,9 +21,18 @@ public class ModelBuilder {
 	private static final String HANDLES_MESSAGES = "Handles messages";
 
 	private Model model;
+	private Runnable modelFreezer;
 
-	public ModelBuilder(Model model) {
+	/**
+	 * Creates a builder for the specified model. Use {@link Model#builder()}
+	 * instead of calling this constructor.
+	 * 
+	 * @param model        the model to build
+	 * @param modelFreezer freezes the model when it has been built
+	 */
+	public ModelBuilder(Model model, Runnable modelFreezer) {
 		this.model = model;
+		this.modelFreezer = modelFreezer;
 	}
 
 	/**
@@ -101,10 +111,14 @@ public class ModelBuilder {
 	 * @return the model
 	 */
 	public Model build() {
-	  // This is done lazily, only when building, to enable forward references (#92)
+	  // This is done lazily, only when building, to enable forward references (#92).
+	  // All references are resolved here, so that the built model isn't changed
+	  // when runners on different threads use it.
+	  // ContinuesAt adds positions to the steps it continues at, so it comes first.
+	  resolveContinuesAt();
 	  resolveFlowPositions();
 	  resolveContinuesAfter();
-	  resolveContinuesAt();
+	  modelFreezer.run();
 		return getModel();
 	}
 
@@ -114,6 +128,13 @@ public class ModelBuilder {
 	    .map(Flow::getFlowPosition)
 	    .filter(fp -> fp != null)
 	    .forEach(FlowPosition::resolveSteps);
+
+    model.getUseCases().stream()
+      .flatMap(uc -> uc.getSteps().stream())
+      .filter(step -> step instanceof FlowStep)
+      .map(step -> ((FlowStep) step).getFlowPosition())
+      .filter(fp -> fp != null)
+      .forEach(FlowPosition::resolveSteps);
   }
   
   private void resolveContinuesAfter() {
@@ -124,7 +145,7 @@ public class ModelBuilder {
       .map(SystemReaction::getModelObject)
       .filter(obj -> obj instanceof AbstractContinuesAfter)
       .map(obj -> (AbstractContinuesAfter)obj)
-      .forEach(AbstractContinuesAfter::resolvePreviousStep);
+      .forEach(AbstractContinuesAfter::resolveStep);
   }
   
   private void resolveContinuesAt() {
@@ -3,15 +3,19 @@ package org.requirementsascode.builder;
 import static org.requirementsascode.builder.StepPart.interruptableFlowStepPart;
 import static org.requirementsascode.builder.StepToPart.stepToPart;
 
+import java.time.Duration;
 import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
+import org.requirementsascode.AbstractActor;
 import org.requirementsascode.Behavior;
 import org.requirementsascode.Condition;
 import org.requirementsascode.FlowStep;
 import org.requirementsascode.Model;
+import org.requirementsascode.SlowReactionWatchdog;
+import org.requirementsascode.StatelessBehavior;
 import org.requirementsascode.Step;
 import org.requirementsascode.exception.ElementAlreadyInModel;
 
@@ -113,6 +117,19 @@ public class StepSystemPart<T> {
 	}
 	
 
+	/**
+	 * Specifies the time the system reaction is expected to take at most. A
+	 * {@link SlowReactionWatchdog} reports the reactions that take longer.
+	 *
+	 * @param timeBudget the time budget, must be positive
+	 * @return this system part
+	 */
+	public StepSystemPart<T> timeBudget(Duration timeBudget) {
+		Objects.requireNonNull(timeBudget);
+		step.setTimeBudget(timeBudget);
+		return this;
+	}
+
 	/** Specifies the recipient of the message.
 	 * 
 	 * @param recipient the recipient of this message
@@ -124,6 +141,27 @@ public class StepSystemPart<T> {
 		return stepToPart;
 	}
 
+	/**
+	 * Specifies the recipient of the message, and that the message is delivered
+	 * asynchronously: the system reaction doesn't wait for the recipient to react.
+	 * 
+	 * <p>
+	 * If the recipient is an actor without an inbox, it is given one for
+	 * asynchronous delivery, see {@link AbstractActor#withAsyncDelivery()}. Any
+	 * other recipient reacts on the executor of the publishing model runner, to
+	 * the messages of that runner one after the other, in order. If several
+	 * runners publish to it, it must be thread-safe, as e.g. a
+	 * {@link StatelessBehavior} is.
+	 * 
+	 * @param recipient the recipient of this message
+	 * @return the created part
+	 */
+	public StepToPart<T> toAsync(Behavior recipient) {
+		StepToPart<T> stepToPart = to(recipient);
+		step.setPublishedAsync(true);
+		return stepToPart;
+	}
+
 	StepPart getStepPart() {
 		return stepPart;
 	}
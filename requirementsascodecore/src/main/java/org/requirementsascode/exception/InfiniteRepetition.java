@@ -3,8 +3,10 @@ package org.requirementsascode.exception;
 import org.requirementsascode.Step;
 
 /**
- * Exception that is thrown when internally, a StackOverflowException occurs.
- * The likely cause is that a condition is always true.
+ * Exception that is thrown when a model runner would run more steps for a
+ * single message than its step budget allows, or when internally, a
+ * StackOverflowError occurs. The likely cause is that a condition is always
+ * true.
  * 
  * @author b_muth
  *
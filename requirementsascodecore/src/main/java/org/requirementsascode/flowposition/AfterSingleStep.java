@@ -1,6 +1,5 @@
 package org.requirementsascode.flowposition;
 
-import java.util.Objects;
 import java.util.function.Predicate;
 
 import org.requirementsascode.FlowStep;
@@ -15,9 +14,9 @@ import org.requirementsascode.UseCase;
  *
  */
 public class AfterSingleStep implements Predicate<ModelRunner>{
-  private String stepName;
-  private FlowStep step;
-  private UseCase useCase;
+  private final String stepName;
+  private volatile FlowStep step;
+  private final UseCase useCase;
 
   public AfterSingleStep(String stepName, UseCase useCase) {
     this.stepName = stepName;
@@ -44,10 +43,20 @@ public class AfterSingleStep implements Predicate<ModelRunner>{
     return stepName;
   }
 
+  /**
+   * Returns the step after which the runner is at the right position.
+   * 
+   * @return the step, or null if it has not been resolved yet, or if no step
+   *         name has been specified (meaning: no step has been run yet)
+   */
+  public final FlowStep getStep() {
+    return step;
+  }
+
   @Override
   public boolean test(ModelRunner modelRunner) {
     Step latestStepRun = modelRunner.getLatestStep().orElse(null);
-    boolean stepWasRunLast = Objects.equals(step, latestStepRun);
+    boolean stepWasRunLast = step == latestStepRun;
     return stepWasRunLast; 
   } 
 }
@@ -1,6 +1,7 @@
 package org.requirementsascode.flowposition;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Predicate;
 
@@ -8,8 +9,9 @@ import org.requirementsascode.ModelRunner;
 import org.requirementsascode.UseCase;
 
 public abstract class FlowPosition implements Predicate<ModelRunner> {
-  private UseCase useCase;
-  private List<AfterSingleStep> afterForEachSingleStep;
+  private final UseCase useCase;
+  private final List<AfterSingleStep> afterForEachSingleStep;
+  private Runnable changeListener;
 
   protected abstract boolean isRunnerAtRightPositionFor(ModelRunner modelRunner);
 
@@ -34,11 +36,27 @@ public abstract class FlowPosition implements Predicate<ModelRunner> {
 
   public FlowPosition orAfter(String stepName, UseCase useCase) {
     AfterSingleStep afterSingleStep = new AfterSingleStep(stepName, useCase);
+    if (changeListener != null) {
+      changeListener.run();
+    }
     afterForEachSingleStep.add(afterSingleStep);
     return this;
   }
 
+  /**
+   * Define the listener that is run before the position is changed, e.g. by
+   * {@link #orAfter(String, UseCase)}. A step sets it when it is given this
+   * position, so that its model takes the change into account. If the model has
+   * been built, the listener throws an {@link IllegalStateException}, and the
+   * position isn't changed.
+   *
+   * @param changeListener the listener
+   */
+  public void setChangeListener(Runnable changeListener) {
+    this.changeListener = changeListener;
+  }
+
   public List<AfterSingleStep> getAfterForEachSingleStep() {
-    return afterForEachSingleStep;
+    return Collections.unmodifiableList(afterForEachSingleStep);
   }
 }
@@ -5,8 +5,8 @@ import org.requirementsascode.ModelRunner;
 import org.requirementsascode.UseCase;
 
 public class InsteadOf extends FlowPosition{
-  private String stepName;
-  private FlowStep step;
+  private final String stepName;
+  private volatile FlowStep step;
   
 	public InsteadOf(String stepName, UseCase useCase) {
 	  super(useCase);
@@ -15,6 +15,7 @@ public class InsteadOf extends FlowPosition{
 
   @Override
   protected boolean isRunnerAtRightPositionFor(ModelRunner modelRunner) {
+    FlowStep step = this.step;
     if(step == null) {
       throw new RuntimeException("step has not been resolved. Please call resolveSteps()!");
     }
@@ -39,4 +40,13 @@ public class InsteadOf extends FlowPosition{
   public final String getStepName() {
     return stepName;
   }
+
+  /**
+   * Returns the step this flow position takes the place of.
+   * 
+   * @return the step, or null if it has not been resolved yet
+   */
+  public final FlowStep getStep() {
+    return step;
+  }
 }
@@ -0,0 +1,43 @@
+package org.requirementsascode.jmx;
+
+import org.requirementsascode.AbstractActor;
+
+/**
+ * The management view of an actor.
+ */
+public interface ActorMXBean {
+  String getName();
+
+  /**
+   * Returns whether the actor has been stopped.
+   *
+   * @see AbstractActor#isStopped()
+   * @return true if stopped
+   */
+  boolean isStopped();
+
+  /**
+   * Returns the use case and step name of the latest step the actor has run.
+   *
+   * @return the latest step, or null if no step has been run
+   */
+  String getLatestStep();
+
+  /**
+   * Stops the actor: it doesn't react to messages until it is restarted. If
+   * the actor has an inbox, or its runner a mailbox, it is stopped after it has
+   * reacted to the messages received before.
+   *
+   * @see AbstractActor#stopAsync()
+   */
+  void stop();
+
+  /**
+   * Restarts the actor, as if no step had been run, and triggers its
+   * "autonomous system reactions". Like {@link #stop()}, this happens in turn
+   * with the messages the actor reacts to.
+   *
+   * @see AbstractActor#restartAsync()
+   */
+  void restart();
+}
@@ -0,0 +1,56 @@
+package org.requirementsascode.jmx;
+
+import java.lang.ref.WeakReference;
+
+import org.requirementsascode.AbstractActor;
+
+/**
+ * Only keeps a weak reference to the actor, so that exporting it doesn't keep it
+ * and its runner alive. Once the actor has been garbage collected, it is shown
+ * as stopped.
+ */
+class ActorView implements ActorMXBean {
+  private final String name;
+  private final WeakReference<AbstractActor> actorReference;
+
+  ActorView(AbstractActor actor) {
+    this.name = actor.getName();
+    this.actorReference = new WeakReference<>(actor);
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public boolean isStopped() {
+    AbstractActor actor = actorReference.get();
+    return actor == null || actor.isStopped();
+  }
+
+  @Override
+  public String getLatestStep() {
+    AbstractActor actor = actorReference.get();
+    if (actor == null) {
+      return null;
+    }
+    return actor.getModelRunner().getLatestStep().map(ModelView::nameOf).orElse(null);
+  }
+
+  @Override
+  public void stop() {
+    AbstractActor actor = actorReference.get();
+    if (actor != null) {
+      actor.stopAsync();
+    }
+  }
+
+  @Override
+  public void restart() {
+    AbstractActor actor = actorReference.get();
+    if (actor != null) {
+      actor.restartAsync();
+    }
+  }
+}
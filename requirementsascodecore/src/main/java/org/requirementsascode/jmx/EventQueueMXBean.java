@@ -0,0 +1,27 @@
+package org.requirementsascode.jmx;
+
+/**
+ * The management view of an event queue.
+ */
+public interface EventQueueMXBean {
+  /**
+   * Returns the number of events waiting in the queue.
+   *
+   * @return the size
+   */
+  int getSize();
+
+  long getEnqueuedCount();
+
+  long getDroppedCount();
+
+  long getDrainedCount();
+
+  /**
+   * Returns how many events have been drained per second, during the latest
+   * second.
+   *
+   * @return the drained events per second
+   */
+  double getDrainRatePerSecond();
+}
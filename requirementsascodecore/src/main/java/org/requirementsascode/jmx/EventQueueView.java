@@ -0,0 +1,50 @@
+package org.requirementsascode.jmx;
+
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+class EventQueueView implements EventQueueMXBean {
+  private final IntSupplier size;
+  private final LongSupplier enqueuedCount;
+  private final LongSupplier droppedCount;
+  private final LongSupplier drainedCount;
+  private final RateMeter drainRateMeter;
+
+  EventQueueView(IntSupplier size, LongSupplier enqueuedCount, LongSupplier droppedCount,
+    LongSupplier drainedCount) {
+    this.size = size;
+    this.enqueuedCount = enqueuedCount;
+    this.droppedCount = droppedCount;
+    this.drainedCount = drainedCount;
+    this.drainRateMeter = new RateMeter(drainedCount);
+  }
+
+  @Override
+  public int getSize() {
+    return size.getAsInt();
+  }
+
+  @Override
+  public long getEnqueuedCount() {
+    return enqueuedCount.getAsLong();
+  }
+
+  @Override
+  public long getDroppedCount() {
+    return droppedCount.getAsLong();
+  }
+
+  @Override
+  public long getDrainedCount() {
+    return drainedCount.getAsLong();
+  }
+
+  @Override
+  public double getDrainRatePerSecond() {
+    return drainRateMeter.getRatePerSecond();
+  }
+
+  RateMeter getDrainRateMeter() {
+    return drainRateMeter;
+  }
+}
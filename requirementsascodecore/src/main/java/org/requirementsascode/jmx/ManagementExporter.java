@@ -0,0 +1,277 @@
+package org.requirementsascode.jmx;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import org.requirementsascode.AbstractActor;
+import org.requirementsascode.Model;
+import org.requirementsascode.ModelRunner;
+import org.requirementsascode.metrics.DefaultMetricsRegistry;
+import org.requirementsascode.queue.EventQueue;
+import org.requirementsascode.queue.PartitionedEventQueue;
+import org.requirementsascode.queue.RingBufferEventQueue;
+
+/**
+ * Exports models, runners, actors and event queues as MBeans, so that
+ * operators can watch them with a JMX client, e.g. JConsole. Nothing is
+ * exported unless you call one of the export methods.
+ *
+ * <p>
+ * The MBeans are registered in the domain {@value #DOMAIN}, with a type of
+ * Model, Actor or EventQueue, and the specified name. A model MBean shows the
+ * runners that have been exported with {@link #exportRunner(ModelRunner)} or
+ * {@link #exportActor(AbstractActor)} and run the model. The exporter only
+ * keeps weak references to the runners and actors, so exporting a runner or an
+ * actor doesn't keep it alive.
+ *
+ * <p>
+ * Model runners aren't thread-safe, so the MBeans show their state as last
+ * seen from the JMX client's thread, which may be slightly out of date. An
+ * actor is stopped and restarted in turn with the messages it reacts to, via
+ * its inbox or the mailbox of its runner, if it has one. Otherwise, it is
+ * stopped and restarted on the JMX client's thread, so it should be idle then.
+ *
+ * <p>
+ * The step run rates and queue drain rates are computed by a daemon thread of
+ * the exporter, which samples the counters once per second. Reading a rate
+ * doesn't change it, so several JMX clients can watch the same MBeans. The
+ * thread is started when the first rate is exported, and stopped by
+ * {@link #close()}.
+ *
+ * @see AbstractActor#stopAsync()
+ */
+public class ManagementExporter implements AutoCloseable {
+  public static final String DOMAIN = "org.requirementsascode";
+  private static final long RATE_SAMPLING_INTERVAL_MILLIS = 1000;
+
+  private final MBeanServer mBeanServer;
+  private final Set<ModelRunner> runners;
+  private final List<ObjectName> exportedNames;
+  private final List<RateMeter> rateMeters;
+  private final long rateSamplingIntervalMillis;
+  private ScheduledExecutorService rateSampler;
+
+  /**
+   * Creates an exporter that registers the MBeans in the platform MBean server.
+   */
+  public ManagementExporter() {
+    this(ManagementFactory.getPlatformMBeanServer());
+  }
+
+  /**
+   * Creates an exporter that registers the MBeans in the specified MBean server.
+   *
+   * @param mBeanServer the MBean server
+   */
+  public ManagementExporter(MBeanServer mBeanServer) {
+    this(mBeanServer, RATE_SAMPLING_INTERVAL_MILLIS);
+  }
+
+  ManagementExporter(MBeanServer mBeanServer, long rateSamplingIntervalMillis) {
+    this.mBeanServer = Objects.requireNonNull(mBeanServer);
+    this.runners = Collections.newSetFromMap(new WeakHashMap<ModelRunner, Boolean>());
+    this.exportedNames = new ArrayList<>();
+    this.rateMeters = new CopyOnWriteArrayList<>();
+    this.rateSamplingIntervalMillis = rateSamplingIntervalMillis;
+  }
+
+  /**
+   * Exports a model, to show how many exported runners run it, and which steps
+   * they have run latest.
+   *
+   * @param name  the name of the MBean
+   * @param model the model
+   * @return this exporter, for chaining
+   * @throws IllegalStateException if the MBean can't be registered, e.g. because
+   *                               the name is already taken
+   */
+  public ManagementExporter exportModel(String name, Model model) {
+    ModelView modelView = new ModelView(Objects.requireNonNull(model), null, this::getRunners);
+    return register("Model", name, modelView, modelView.getRateMeters());
+  }
+
+  /**
+   * Exports the model of the metrics registry, and in addition the step run
+   * counts and rates that the registry records.
+   *
+   * @see ModelRunner#withMetrics(org.requirementsascode.metrics.MetricsRegistry)
+   * @param name            the name of the MBean
+   * @param metricsRegistry the metrics registry of the model's runners
+   * @return this exporter, for chaining
+   * @throws IllegalStateException if the MBean can't be registered
+   */
+  public ManagementExporter exportModel(String name, DefaultMetricsRegistry metricsRegistry) {
+    Model model = metricsRegistry.getModel();
+    ModelView modelView = new ModelView(model, metricsRegistry, this::getRunners);
+    return register("Model", name, modelView, modelView.getRateMeters());
+  }
+
+  /**
+   * Exports a runner, so that it is shown by the MBean of the model it runs.
+   *
+   * @param modelRunner the runner
+   * @return this exporter, for chaining
+   */
+  public ManagementExporter exportRunner(ModelRunner modelRunner) {
+    Objects.requireNonNull(modelRunner);
+    synchronized (runners) {
+      runners.add(modelRunner);
+    }
+    return this;
+  }
+
+  /**
+   * Exports an actor with its name as the MBean's name, so that it can be
+   * stopped and restarted. Also exports its runner.
+   *
+   * @param actor the actor
+   * @return this exporter, for chaining
+   * @throws IllegalStateException if the MBean can't be registered
+   */
+  public ManagementExporter exportActor(AbstractActor actor) {
+    exportRunner(actor.getModelRunner());
+    return register("Actor", actor.getName(), new ActorView(actor), Collections.emptyList());
+  }
+
+  /**
+   * Exports an event queue.
+   *
+   * @param name       the name of the MBean
+   * @param eventQueue the queue
+   * @return this exporter, for chaining
+   * @throws IllegalStateException if the MBean can't be registered
+   */
+  public ManagementExporter exportQueue(String name, EventQueue eventQueue) {
+    return exportQueue(name, new EventQueueView(eventQueue::getSize, eventQueue::getEnqueuedCount,
+      eventQueue::getDroppedCount, eventQueue::getDrainedCount));
+  }
+
+  /**
+   * Exports a ring buffer event queue.
+   *
+   * @param name       the name of the MBean
+   * @param eventQueue the queue
+   * @return this exporter, for chaining
+   * @throws IllegalStateException if the MBean can't be registered
+   */
+  public ManagementExporter exportQueue(String name, RingBufferEventQueue eventQueue) {
+    return exportQueue(name, new EventQueueView(eventQueue::getSize, eventQueue::getEnqueuedCount,
+      eventQueue::getDroppedCount, eventQueue::getDrainedCount));
+  }
+
+  /**
+   * Exports a partitioned event queue, with the counters summed over all
+   * partitions.
+   *
+   * @param name       the name of the MBean
+   * @param eventQueue the queue
+   * @return this exporter, for chaining
+   * @throws IllegalStateException if the MBean can't be registered
+   */
+  public ManagementExporter exportQueue(String name, PartitionedEventQueue eventQueue) {
+    return exportQueue(name, new EventQueueView(eventQueue::getSize, eventQueue::getEnqueuedCount,
+      eventQueue::getDroppedCount, eventQueue::getDrainedCount));
+  }
+
+  /**
+   * Returns the name under which an MBean of the specified type and name is
+   * registered.
+   *
+   * @param type the type, i.e. Model, Actor or EventQueue
+   * @param name the name
+   * @return the object name
+   */
+  public static ObjectName objectNameOf(String type, String name) {
+    try {
+      return new ObjectName(DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+    } catch (MalformedObjectNameException e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+
+  /**
+   * Unregisters all MBeans this exporter has registered, forgets the exported
+   * runners, and stops sampling the rates.
+   */
+  @Override
+  public synchronized void close() {
+    for (ObjectName exportedName : exportedNames) {
+      try {
+        mBeanServer.unregisterMBean(exportedName);
+      } catch (InstanceNotFoundException e) {
+        // Already unregistered by someone else
+      } catch (JMException e) {
+        throw new IllegalStateException("Couldn't unregister " + exportedName, e);
+      }
+    }
+    exportedNames.clear();
+    if (rateSampler != null) {
+      rateSampler.shutdownNow();
+      rateSampler = null;
+    }
+    rateMeters.clear();
+    synchronized (runners) {
+      runners.clear();
+    }
+  }
+
+  void sampleRates() {
+    for (RateMeter rateMeter : rateMeters) {
+      rateMeter.sample();
+    }
+  }
+
+  private ManagementExporter exportQueue(String name, EventQueueView eventQueueView) {
+    return register("EventQueue", name, eventQueueView, Collections.singletonList(eventQueueView.getDrainRateMeter()));
+  }
+
+  private synchronized ManagementExporter register(String type, String name, Object mBean,
+    Collection<RateMeter> mBeanRateMeters) {
+    ObjectName objectName = objectNameOf(type, Objects.requireNonNull(name));
+    try {
+      mBeanServer.registerMBean(mBean, objectName);
+    } catch (JMException e) {
+      throw new IllegalStateException("Couldn't register " + objectName, e);
+    }
+    exportedNames.add(objectName);
+    if (!mBeanRateMeters.isEmpty()) {
+      rateMeters.addAll(mBeanRateMeters);
+      startRateSampler();
+    }
+    return this;
+  }
+
+  private void startRateSampler() {
+    if (rateSampler == null) {
+      rateSampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread samplerThread = new Thread(runnable, "requirementsascode-rate-sampler");
+        samplerThread.setDaemon(true);
+        return samplerThread;
+      });
+      rateSampler.scheduleAtFixedRate(this::sampleRates, rateSamplingIntervalMillis, rateSamplingIntervalMillis,
+        TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private List<ModelRunner> getRunners() {
+    synchronized (runners) {
+      return new ArrayList<>(runners);
+    }
+  }
+}
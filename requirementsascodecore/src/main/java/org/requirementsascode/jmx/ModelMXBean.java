@@ -0,0 +1,54 @@
+package org.requirementsascode.jmx;
+
+import java.util.Map;
+
+/**
+ * The management view of a model and the runners that run it.
+ */
+public interface ModelMXBean {
+  /**
+   * Returns the number of exported runners that run the model.
+   *
+   * @return the number of runners
+   */
+  int getNrOfRunners();
+
+  /**
+   * Returns the number of exported runners that run the model and are running.
+   *
+   * @return the number of running runners
+   */
+  int getNrOfRunningRunners();
+
+  /**
+   * Returns how many runners have run each step as their latest step. The keys
+   * are the use case and step names.
+   *
+   * @return the number of runners per latest step
+   */
+  Map<String, Integer> getLatestStepDistribution();
+
+  /**
+   * Returns how often each step has been run, if the model has been exported
+   * with a metrics registry.
+   *
+   * @return the number of runs per step, or an empty map
+   */
+  Map<String, Long> getStepRunCounts();
+
+  /**
+   * Returns how often each step has been run per second, during the latest
+   * second, if the model has been exported with a metrics registry.
+   *
+   * @return the runs per second per step, or an empty map
+   */
+  Map<String, Double> getStepRunRatesPerSecond();
+
+  /**
+   * Returns how many messages haven't been handled, if the model has been
+   * exported with a metrics registry.
+   *
+   * @return the number of unhandled messages, or 0
+   */
+  long getUnhandledMessageCount();
+}
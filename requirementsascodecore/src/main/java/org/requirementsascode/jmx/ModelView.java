@@ -0,0 +1,104 @@
+package org.requirementsascode.jmx;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import org.requirementsascode.Model;
+import org.requirementsascode.ModelRunner;
+import org.requirementsascode.Step;
+import org.requirementsascode.metrics.DefaultMetricsRegistry;
+
+class ModelView implements ModelMXBean {
+  private static final String NO_STEP_RUN = "(no step run)";
+
+  private final Model model;
+  private final DefaultMetricsRegistry metricsRegistry;
+  private final Supplier<List<ModelRunner>> runners;
+  private final Map<Step, RateMeter> stepRateMeters;
+
+  ModelView(Model model, DefaultMetricsRegistry metricsRegistry, Supplier<List<ModelRunner>> runners) {
+    this.model = model;
+    this.metricsRegistry = metricsRegistry;
+    this.runners = runners;
+    this.stepRateMeters = new TreeMap<>((step1, step2) -> Integer.compare(step1.getId(), step2.getId()));
+    if (metricsRegistry != null) {
+      for (Step step : model.getSteps()) {
+        stepRateMeters.put(step, new RateMeter(() -> metricsRegistry.getStepRunCount(step)));
+      }
+    }
+  }
+
+  @Override
+  public int getNrOfRunners() {
+    int nrOfRunners = 0;
+    for (ModelRunner runner : runners.get()) {
+      if (isRunnerOfModel(runner)) {
+        nrOfRunners++;
+      }
+    }
+    return nrOfRunners;
+  }
+
+  @Override
+  public int getNrOfRunningRunners() {
+    int nrOfRunningRunners = 0;
+    for (ModelRunner runner : runners.get()) {
+      if (isRunnerOfModel(runner) && runner.isRunning()) {
+        nrOfRunningRunners++;
+      }
+    }
+    return nrOfRunningRunners;
+  }
+
+  @Override
+  public Map<String, Integer> getLatestStepDistribution() {
+    Map<String, Integer> latestStepDistribution = new TreeMap<>();
+    for (ModelRunner runner : runners.get()) {
+      if (isRunnerOfModel(runner)) {
+        String latestStep = runner.getLatestStep().map(ModelView::nameOf).orElse(NO_STEP_RUN);
+        latestStepDistribution.merge(latestStep, 1, Integer::sum);
+      }
+    }
+    return latestStepDistribution;
+  }
+
+  @Override
+  public Map<String, Long> getStepRunCounts() {
+    Map<String, Long> stepRunCounts = new TreeMap<>();
+    for (Step step : stepRateMeters.keySet()) {
+      stepRunCounts.put(nameOf(step), metricsRegistry.getStepRunCount(step));
+    }
+    return stepRunCounts;
+  }
+
+  @Override
+  public Map<String, Double> getStepRunRatesPerSecond() {
+    Map<String, Double> stepRunRates = new TreeMap<>();
+    for (Map.Entry<Step, RateMeter> stepRateMeter : stepRateMeters.entrySet()) {
+      stepRunRates.put(nameOf(stepRateMeter.getKey()), stepRateMeter.getValue().getRatePerSecond());
+    }
+    return stepRunRates;
+  }
+
+  @Override
+  public long getUnhandledMessageCount() {
+    return metricsRegistry == null ? 0 : metricsRegistry.getUnhandledMessageCount();
+  }
+
+  Collection<RateMeter> getRateMeters() {
+    return stepRateMeters.values();
+  }
+
+  private boolean isRunnerOfModel(ModelRunner runner) {
+    Optional<Model> runnerModel = runner.getModel();
+    return runnerModel.isPresent() && runnerModel.get() == model;
+  }
+
+  static String nameOf(Step step) {
+    return step.getUseCase().getName() + ": " + step.getName();
+  }
+}
@@ -0,0 +1,34 @@
+package org.requirementsascode.jmx;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Computes the rate at which a counter grows, between the two latest samples.
+ * The exporter samples the counter at a fixed interval, so reading the rate
+ * doesn't change it, and any number of clients can read it.
+ */
+class RateMeter {
+  private final LongSupplier count;
+  private long previousCount;
+  private long previousNanos;
+  private volatile double ratePerSecond;
+
+  RateMeter(LongSupplier count) {
+    this.count = count;
+    this.previousCount = count.getAsLong();
+    this.previousNanos = System.nanoTime();
+  }
+
+  synchronized void sample() {
+    long currentCount = count.getAsLong();
+    long nanos = System.nanoTime();
+    long elapsedNanos = nanos - previousNanos;
+    ratePerSecond = elapsedNanos <= 0 ? 0 : (currentCount - previousCount) * 1e9 / elapsedNanos;
+    previousCount = currentCount;
+    previousNanos = nanos;
+  }
+
+  double getRatePerSecond() {
+    return ratePerSecond;
+  }
+}
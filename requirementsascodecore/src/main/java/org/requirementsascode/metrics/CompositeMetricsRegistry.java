@@ -0,0 +1,110 @@
+package org.requirementsascode.metrics;
+
+import java.util.Objects;
+
+import org.requirementsascode.AbstractActor;
+import org.requirementsascode.Behavior;
+import org.requirementsascode.Step;
+
+/**
+ * Passes the metrics on to several registries.
+ *
+ * @see MetricsRegistry#of(MetricsRegistry...)
+ */
+class CompositeMetricsRegistry implements MetricsRegistry {
+  private final MetricsRegistry[] registries;
+
+  CompositeMetricsRegistry(MetricsRegistry[] registries) {
+    this.registries = registries.clone();
+    for (MetricsRegistry registry : this.registries) {
+      Objects.requireNonNull(registry);
+    }
+  }
+
+  @Override
+  public boolean isEnabled() {
+    for (MetricsRegistry registry : registries) {
+      if (registry.isEnabled()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void stepRun(Step step, long systemReactionNanos) {
+    for (MetricsRegistry registry : registries) {
+      registry.stepRun(step, systemReactionNanos);
+    }
+  }
+
+  @Override
+  public void messageUnhandled(Object message) {
+    for (MetricsRegistry registry : registries) {
+      registry.messageUnhandled(message);
+    }
+  }
+
+  @Override
+  public void moreThanOneStepCanReact(Object message) {
+    for (MetricsRegistry registry : registries) {
+      registry.moreThanOneStepCanReact(message);
+    }
+  }
+
+  @Override
+  public void exceptionDispatched(Exception exception) {
+    for (MetricsRegistry registry : registries) {
+      registry.exceptionDispatched(exception);
+    }
+  }
+
+  @Override
+  public void timeBudgetExceeded(Step step, long systemReactionNanos, long timeBudgetNanos) {
+    for (MetricsRegistry registry : registries) {
+      registry.timeBudgetExceeded(step, systemReactionNanos, timeBudgetNanos);
+    }
+  }
+
+  /**
+   * Returns the contexts of the registries, or null if none of them has
+   * returned a context, so that no array is allocated in that case.
+   */
+  @Override
+  public Object dispatchStarted(Object message) {
+    Object[] dispatchContexts = null;
+    for (int i = 0; i < registries.length; i++) {
+      Object dispatchContext = registries[i].dispatchStarted(message);
+      if (dispatchContext != null) {
+        if (dispatchContexts == null) {
+          dispatchContexts = new Object[registries.length];
+        }
+        dispatchContexts[i] = dispatchContext;
+      }
+    }
+    return dispatchContexts;
+  }
+
+  @Override
+  public void dispatchEnded(Object dispatchContext, Object message, Step step) {
+    Object[] dispatchContexts = (Object[]) dispatchContext;
+    for (int i = 0; i < registries.length; i++) {
+      registries[i].dispatchEnded(dispatchContexts == null ? null : dispatchContexts[i], message, step);
+    }
+  }
+
+  @Override
+  public void messagePublished(Object message, AbstractActor publishingActor, Behavior targetBehavior,
+    boolean isPublishedAsync) {
+    for (MetricsRegistry registry : registries) {
+      registry.messagePublished(message, publishingActor, targetBehavior, isPublishedAsync);
+    }
+  }
+
+  @Override
+  public void eventDequeued(Object event, long queueWaitNanos) {
+    for (MetricsRegistry registry : registries) {
+      registry.eventDequeued(event, queueWaitNanos);
+    }
+  }
+}
@@ -0,0 +1,183 @@
+package org.requirementsascode.metrics;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.requirementsascode.Flow;
+import org.requirementsascode.Model;
+import org.requirementsascode.Step;
+import org.requirementsascode.UseCase;
+
+/**
+ * A metrics registry for the runners of a model, that keeps the metrics in
+ * memory: how often each step has been run, and a histogram of its system
+ * reaction times. From these, it derives how often the steps of a use case or
+ * flow have been run.
+ *
+ * <p>
+ * The registry creates the counters of all steps up front. A histogram takes
+ * about 8 KB, so the registry creates the histogram of a step only when the
+ * step is run for the first time. After that, recording the step's metrics
+ * doesn't allocate memory. So a big model only takes the memory of the
+ * histograms of the steps that are actually run. The registry is thread-safe,
+ * so runners on different threads can share it. Steps of other models are
+ * ignored.
+ */
+public class DefaultMetricsRegistry implements MetricsRegistry {
+  private final Model model;
+  private final AtomicLongArray stepRunCounts;
+  private final AtomicLongArray timeBudgetExceededCounts;
+  private final AtomicReferenceArray<LatencyHistogram> systemReactionHistograms;
+  private final LongAdder unhandledMessageCount;
+  private final LongAdder moreThanOneStepCanReactCount;
+  private final LongAdder dispatchedExceptionCount;
+
+  /**
+   * Creates a registry for the runners of the specified model.
+   *
+   * @param model the model
+   */
+  public DefaultMetricsRegistry(Model model) {
+    this.model = Objects.requireNonNull(model);
+
+    int nrOfStepIds = 0;
+    for (Step step : model.getSteps()) {
+      nrOfStepIds = Math.max(nrOfStepIds, step.getId() + 1);
+    }
+    this.stepRunCounts = new AtomicLongArray(nrOfStepIds);
+    this.timeBudgetExceededCounts = new AtomicLongArray(nrOfStepIds);
+    this.systemReactionHistograms = new AtomicReferenceArray<>(nrOfStepIds);
+
+    this.unhandledMessageCount = new LongAdder();
+    this.moreThanOneStepCanReactCount = new LongAdder();
+    this.dispatchedExceptionCount = new LongAdder();
+  }
+
+  @Override
+  public void stepRun(Step step, long systemReactionNanos) {
+    if (isStepOfModel(step)) {
+      int stepId = step.getId();
+      stepRunCounts.incrementAndGet(stepId);
+      systemReactionHistogramOf(stepId).record(systemReactionNanos);
+    }
+  }
+
+  @Override
+  public void timeBudgetExceeded(Step step, long systemReactionNanos, long timeBudgetNanos) {
+    if (isStepOfModel(step)) {
+      timeBudgetExceededCounts.incrementAndGet(step.getId());
+    }
+  }
+
+  @Override
+  public void messageUnhandled(Object message) {
+    unhandledMessageCount.increment();
+  }
+
+  @Override
+  public void moreThanOneStepCanReact(Object message) {
+    moreThanOneStepCanReactCount.increment();
+  }
+
+  @Override
+  public void exceptionDispatched(Exception exception) {
+    dispatchedExceptionCount.increment();
+  }
+
+  /**
+   * Returns how often the step has been run.
+   *
+   * @param step a step of the model
+   * @return the number of runs
+   */
+  public long getStepRunCount(Step step) {
+    return isStepOfModel(step) ? stepRunCounts.get(step.getId()) : 0;
+  }
+
+  /**
+   * Returns how often the step's system reaction has taken longer than its time
+   * budget.
+   *
+   * @param step a step of the model
+   * @return the number of runs that exceeded the time budget
+   */
+  public long getTimeBudgetExceededCount(Step step) {
+    return isStepOfModel(step) ? timeBudgetExceededCounts.get(step.getId()) : 0;
+  }
+
+  /**
+   * Returns how often the steps of the use case have been run, in total.
+   *
+   * @param useCase a use case of the model
+   * @return the number of step runs
+   */
+  public long getUseCaseStepRunCount(UseCase useCase) {
+    long count = 0;
+    for (Step step : useCase.getSteps()) {
+      count += getStepRunCount(step);
+    }
+    return count;
+  }
+
+  /**
+   * Returns how often the steps of the flow have been run, in total.
+   *
+   * @param flow a flow of the model
+   * @return the number of step runs
+   */
+  public long getFlowStepRunCount(Flow flow) {
+    long count = 0;
+    for (Step step : flow.getSteps()) {
+      count += getStepRunCount(step);
+    }
+    return count;
+  }
+
+  /**
+   * Returns the histogram of the system reaction times of the step.
+   *
+   * @param step a step of the model
+   * @return the histogram
+   * @throws IllegalArgumentException if the step is not a step of the model
+   */
+  public LatencyHistogram getSystemReactionHistogram(Step step) {
+    if (!isStepOfModel(step)) {
+      throw new IllegalArgumentException("Step " + step + " is not a step of the registry's model");
+    }
+    return systemReactionHistogramOf(step.getId());
+  }
+
+  public long getUnhandledMessageCount() {
+    return unhandledMessageCount.sum();
+  }
+
+  public long getMoreThanOneStepCanReactCount() {
+    return moreThanOneStepCanReactCount.sum();
+  }
+
+  public long getDispatchedExceptionCount() {
+    return dispatchedExceptionCount.sum();
+  }
+
+  public Model getModel() {
+    return model;
+  }
+
+  private LatencyHistogram systemReactionHistogramOf(int stepId) {
+    LatencyHistogram histogram = systemReactionHistograms.get(stepId);
+    if (histogram == null) {
+      LatencyHistogram newHistogram = new LatencyHistogram();
+      // Another thread may have created the histogram in the meantime
+      histogram = systemReactionHistograms.compareAndSet(stepId, null, newHistogram) ? newHistogram
+        : systemReactionHistograms.get(stepId);
+    }
+    return histogram;
+  }
+
+  private boolean isStepOfModel(Step step) {
+    int stepId = step.getId();
+    return step.getModel() == model && stepId >= 0 && stepId < stepRunCounts.length();
+  }
+}
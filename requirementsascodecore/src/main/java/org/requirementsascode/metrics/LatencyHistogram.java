@@ -0,0 +1,150 @@
+package org.requirementsascode.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies in nanoseconds, from which percentiles can be read,
+ * e.g. the 99th percentile as tail latency.
+ *
+ * <p>
+ * It has a fixed number of buckets: each power of two is split into 16 buckets
+ * of equal width. So a percentile is reported at most 1/16 (6.25%) higher than
+ * the latency actually recorded, for latencies up to {@link Long#MAX_VALUE}
+ * nanoseconds. Recording doesn't allocate memory, doesn't lock, and may happen
+ * concurrently with other recordings and reads.
+ */
+public class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int NR_OF_SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int NR_OF_BUCKETS = (64 - SUB_BUCKET_BITS) * NR_OF_SUB_BUCKETS;
+
+  private final AtomicLongArray bucketCounts;
+  private final LongAdder count;
+  private final LongAdder totalNanos;
+  private final AtomicLong maxNanos;
+
+  public LatencyHistogram() {
+    this.bucketCounts = new AtomicLongArray(NR_OF_BUCKETS);
+    this.count = new LongAdder();
+    this.totalNanos = new LongAdder();
+    this.maxNanos = new AtomicLong();
+  }
+
+  /**
+   * Records a latency. A negative latency is recorded as 0.
+   *
+   * @param nanos the latency in nanoseconds
+   */
+  public void record(long nanos) {
+    long latency = Math.max(nanos, 0);
+    bucketCounts.incrementAndGet(bucketOf(latency));
+    count.increment();
+    totalNanos.add(latency);
+
+    long max;
+    while (latency > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, latency)) {
+    }
+  }
+
+  /**
+   * Returns the number of recorded latencies.
+   *
+   * @return the count
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * Returns the highest recorded latency.
+   *
+   * @return the maximum in nanoseconds, or 0 if nothing has been recorded
+   */
+  public long getMaxNanos() {
+    return maxNanos.get();
+  }
+
+  /**
+   * Returns the mean of the recorded latencies.
+   *
+   * @return the mean in nanoseconds, or 0 if nothing has been recorded
+   */
+  public double getMeanNanos() {
+    long currentCount = count.sum();
+    return currentCount == 0 ? 0 : (double) totalNanos.sum() / currentCount;
+  }
+
+  /**
+   * Returns the latency that the specified percentage of recorded latencies
+   * doesn't exceed.
+   *
+   * @param percentile the percentile, between 0 and 100, e.g. 99.9
+   * @return the latency in nanoseconds, or 0 if nothing has been recorded
+   */
+  public long getNanosAtPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("percentile must be between 0 and 100, but is " + percentile);
+    }
+
+    long totalCount = 0;
+    long[] counts = new long[NR_OF_BUCKETS];
+    for (int bucket = 0; bucket < NR_OF_BUCKETS; bucket++) {
+      counts[bucket] = bucketCounts.get(bucket);
+      totalCount += counts[bucket];
+    }
+    if (totalCount == 0) {
+      return 0;
+    }
+
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+    long countUpToBucket = 0;
+    for (int bucket = 0; bucket < NR_OF_BUCKETS; bucket++) {
+      countUpToBucket += counts[bucket];
+      if (countUpToBucket >= rank) {
+        return Math.min(highestNanosOf(bucket), getMaxNanos());
+      }
+    }
+    return getMaxNanos();
+  }
+
+  /**
+   * Removes all recorded latencies. Latencies that are recorded concurrently may
+   * be partly removed.
+   */
+  public void reset() {
+    for (int bucket = 0; bucket < NR_OF_BUCKETS; bucket++) {
+      bucketCounts.set(bucket, 0);
+    }
+    count.reset();
+    totalNanos.reset();
+    maxNanos.set(0);
+  }
+
+  @Override
+  public String toString() {
+    return "LatencyHistogram [count=" + getCount() + ", meanNanos=" + (long) getMeanNanos() + ", p50Nanos="
+      + getNanosAtPercentile(50) + ", p99Nanos=" + getNanosAtPercentile(99) + ", p999Nanos="
+      + getNanosAtPercentile(99.9) + ", maxNanos=" + getMaxNanos() + "]";
+  }
+
+  static int bucketOf(long nanos) {
+    if (nanos < NR_OF_SUB_BUCKETS) {
+      return (int) nanos;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+    int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (NR_OF_SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * NR_OF_SUB_BUCKETS + subBucket;
+  }
+
+  static long highestNanosOf(int bucket) {
+    if (bucket < NR_OF_SUB_BUCKETS) {
+      return bucket;
+    }
+    int exponent = bucket / NR_OF_SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    int subBucket = bucket % NR_OF_SUB_BUCKETS;
+    long lowestNanos = (long) (NR_OF_SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    return lowestNanos + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+  }
+}
@@ -0,0 +1,149 @@
+package org.requirementsascode.metrics;
+
+import org.requirementsascode.AbstractActor;
+import org.requirementsascode.Behavior;
+import org.requirementsascode.ModelRunner;
+import org.requirementsascode.Step;
+import org.requirementsascode.exception.MoreThanOneStepCanReact;
+import org.requirementsascode.queue.EventQueue;
+import org.requirementsascode.queue.RingBufferEventQueue;
+
+/**
+ * Receives the metrics of one or more model runners, e.g. to count how often
+ * each step has been run, or to export the metrics to a monitoring system.
+ *
+ * <p>
+ * The runner calls the methods on its own thread, while reacting to a message,
+ * so they should return quickly and not allocate memory. A registry that is
+ * shared by runners on different threads must be thread-safe.
+ *
+ * <p>
+ * The methods with a default implementation are called more often, or are
+ * only of interest to tracing, e.g. with Java Flight Recorder events. By
+ * default, they do nothing.
+ *
+ * @see ModelRunner#withMetrics(MetricsRegistry)
+ * @see DefaultMetricsRegistry
+ */
+public interface MetricsRegistry {
+  /**
+   * Returns a registry that passes the metrics on to each of the specified
+   * registries, e.g. to count them in a {@link DefaultMetricsRegistry} and
+   * record them as Java Flight Recorder events at the same time.
+   *
+   * @param registries the registries, in the order they receive the metrics
+   * @return the composite registry
+   */
+  static MetricsRegistry of(MetricsRegistry... registries) {
+    return new CompositeMetricsRegistry(registries);
+  }
+
+  /**
+   * Returns whether the registry currently records metrics. While it doesn't,
+   * runners and event queues don't call its other methods, and don't measure
+   * the times they would pass to them, so a disabled registry costs almost
+   * nothing. Runners call this method once per message and step, and queues
+   * once per event, so it must return quickly.
+   *
+   * @return true if the registry records metrics, which is the default
+   */
+  default boolean isEnabled() {
+    return true;
+  }
+
+  /**
+   * Called after a step has been run, i.e. after the message handler has run
+   * its system reaction, even if the system reaction has thrown an exception.
+   *
+   * @param step                the step that has been run
+   * @param systemReactionNanos the time the message handler took, in
+   *                            nanoseconds
+   */
+  void stepRun(Step step, long systemReactionNanos);
+
+  /**
+   * Called when no step reacts to a message.
+   *
+   * @param message the unhandled message
+   */
+  void messageUnhandled(Object message);
+
+  /**
+   * Called right before the runner throws {@link MoreThanOneStepCanReact}.
+   *
+   * @param message the message that more than one step could react to
+   */
+  void moreThanOneStepCanReact(Object message);
+
+  /**
+   * Called when the runner dispatches an exception thrown by a system reaction
+   * as a message, so that a step can react to it.
+   *
+   * @param exception the exception
+   */
+  void exceptionDispatched(Exception exception);
+
+  /**
+   * Called after a system reaction has taken longer than its time budget, right
+   * after {@link #stepRun(Step, long)}.
+   *
+   * @see ModelRunner#withTimeBudget(java.time.Duration)
+   * @param step                the step that has been run
+   * @param systemReactionNanos the time the system reaction took, in nanoseconds
+   * @param timeBudgetNanos     the time budget, in nanoseconds
+   */
+  default void timeBudgetExceeded(Step step, long systemReactionNanos, long timeBudgetNanos) {
+  }
+
+  /**
+   * Called before the runner dispatches a message, i.e. before it evaluates
+   * which step can react to it.
+   *
+   * @param message the message
+   * @return a context that is passed to
+   *         {@link #dispatchEnded(Object, Object, Step)}, or null
+   */
+  default Object dispatchStarted(Object message) {
+    return null;
+  }
+
+  /**
+   * Called after the runner has dispatched a message, i.e. after the system
+   * reaction of the step that has reacted to it, even if an exception has been
+   * thrown.
+   *
+   * @param dispatchContext the context returned by
+   *                        {@link #dispatchStarted(Object)}
+   * @param message         the message
+   * @param step            the step that has reacted, or null if no step has
+   *                        reacted
+   */
+  default void dispatchEnded(Object dispatchContext, Object message, Step step) {
+  }
+
+  /**
+   * Called when the runner publishes a message to another behavior, e.g. an
+   * actor, before the message is delivered.
+   *
+   * @param message          the published message
+   * @param publishingActor  the actor that owns the runner, or the model's user
+   *                         actor if no actor owns the runner
+   * @param targetBehavior   the behavior the message is published to
+   * @param isPublishedAsync whether the message is delivered asynchronously
+   */
+  default void messagePublished(Object message, AbstractActor publishingActor, Behavior targetBehavior,
+    boolean isPublishedAsync) {
+  }
+
+  /**
+   * Called when an event queue provides an event to its consumer.
+   *
+   * @see EventQueue#withMetrics(MetricsRegistry)
+   * @see RingBufferEventQueue#withMetrics(MetricsRegistry)
+   * @param event          the event
+   * @param queueWaitNanos the time the event has waited in the queue, in
+   *                       nanoseconds
+   */
+  default void eventDequeued(Object event, long queueWaitNanos) {
+  }
+}
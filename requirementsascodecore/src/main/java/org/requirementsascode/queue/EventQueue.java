@@ -2,14 +2,20 @@ package org.requirementsascode.queue;
 
 import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
+import org.requirementsascode.metrics.MetricsRegistry;
+
 /**
  * A simple event queue that forwards events to an event consumer, one at a
  * time.
  * 
  * To do that, it internally runs its own event producer thread.
  * 
+ * The queue is unbounded. For a bounded queue with higher throughput, see
+ * {@link RingBufferEventQueue}.
+ * 
  * @author b_muth
  *
  */
@@ -18,6 +24,11 @@ public class EventQueue {
 	private final EventProducer eventProducer;
 	private final Thread eventProducerThread;
 	private final Consumer<Object> eventConsumer;
+	private volatile MetricsRegistry metricsRegistry;
+
+	private final LongAdder enqueuedCount;
+	private final LongAdder droppedCount;
+	private volatile long drainedCount;
 
 	/**
 	 * Create an event queue whose events will be consumed by the specified
@@ -30,19 +41,44 @@ public class EventQueue {
 		this.eventProducer = new EventProducer();
 		this.eventProducerThread = new Thread(eventProducer);
 		this.eventConsumer = eventConsumer;
+		this.enqueuedCount = new LongAdder();
+		this.droppedCount = new LongAdder();
 		eventProducerThread.start();
 	}
 
+	/**
+	 * Define the registry that receives the time each event has waited in the
+	 * queue, until it has been provided to the consumer. By default, the queue
+	 * doesn't measure wait times, as that takes an extra object per event.
+	 * 
+	 * @see MetricsRegistry#eventDequeued(Object, long)
+	 * @param metricsRegistry the registry, or null to stop recording
+	 * @return this queue, for chaining
+	 */
+	public EventQueue withMetrics(MetricsRegistry metricsRegistry) {
+		this.metricsRegistry = metricsRegistry;
+		return this;
+	}
+
 	/**
 	 * Puts an event in the queue, that will be provided to the consumer
 	 * (if the event queue hasn't been stopped).
 	 * 
+	 * If the calling thread is interrupted, the event is dropped, and the
+	 * thread's interrupt status is kept set.
+	 * 
 	 * @param event the event for the queue
 	 */
 	public void put(Object event) {
 		try {
-			events.put(event);
+			MetricsRegistry registry = metricsRegistry;
+			boolean isTimestamped = registry != null && registry.isEnabled();
+			Object queuedEvent = isTimestamped ? new TimestampedEvent(event, System.nanoTime()) : event;
+			events.put(queuedEvent);
+			enqueuedCount.increment();
 		} catch (InterruptedException e) {
+			droppedCount.increment();
+			Thread.currentThread().interrupt();
 		}
 	}
 
@@ -57,6 +93,7 @@ public class EventQueue {
 			eventProducerThread.interrupt();
 			eventProducerThread.join();
 		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
 		}
 	}
 
@@ -73,6 +110,35 @@ public class EventQueue {
 		return events.size();
 	}
 
+	/**
+	 * Returns the number of events that have been put into the queue.
+	 * 
+	 * @return the number of enqueued events
+	 */
+	public long getEnqueuedCount() {
+		return enqueuedCount.sum();
+	}
+
+	/**
+	 * Returns the number of events that have been dropped, because the thread
+	 * putting them has been interrupted.
+	 * 
+	 * @return the number of dropped events
+	 */
+	public long getDroppedCount() {
+		return droppedCount.sum();
+	}
+
+	/**
+	 * Returns the number of events that the producer thread has taken out of the
+	 * queue, to provide them to the consumer.
+	 * 
+	 * @return the number of drained events
+	 */
+	public long getDrainedCount() {
+		return drainedCount;
+	}
+
 	private class EventProducer implements Runnable {
 		private boolean isRunning = true;
 
@@ -81,15 +147,29 @@ public class EventQueue {
 			while (isRunning) {
 				final Object eventObject = take();
 				if (eventObject != null) {
+					drainedCount++;
 					consume(eventObject);
 				}
 			}
 		}
 
-		private void consume(Object event) {
+		private void consume(Object queuedEvent) {
+			Object event = queuedEvent;
+			if (queuedEvent instanceof TimestampedEvent) {
+				TimestampedEvent timestampedEvent = (TimestampedEvent) queuedEvent;
+				event = timestampedEvent.event;
+				recordQueueWait(event, timestampedEvent.putNanos);
+			}
 			eventConsumer.accept(event);
 		}
 
+		private void recordQueueWait(Object event, long putNanos) {
+			MetricsRegistry registry = metricsRegistry;
+			if (registry != null && registry.isEnabled()) {
+				registry.eventDequeued(event, System.nanoTime() - putNanos);
+			}
+		}
+
 		private Object take() {
 			Object event = null;
 			try {
@@ -104,4 +184,14 @@ public class EventQueue {
 			isRunning = false;
 		}
 	}
+
+	private static class TimestampedEvent {
+		private final Object event;
+		private final long putNanos;
+
+		TimestampedEvent(Object event, long putNanos) {
+			this.event = event;
+			this.putNanos = putNanos;
+		}
+	}
 }
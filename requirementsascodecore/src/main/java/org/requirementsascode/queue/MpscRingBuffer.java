@@ -0,0 +1,167 @@
+package org.requirementsascode.queue;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded queue, backed by an array that is used as a ring buffer. It doesn't
+ * allocate objects per event, and doesn't lock: each slot has a sequence number
+ * that tells producers and consumers whether the slot is free or holds an
+ * event, and threads claim slots with a compare-and-set.
+ *
+ * <p>
+ * It is designed for many producers and a single consumer, but polling is safe
+ * from several threads as well. That enables a producer to drop the oldest
+ * event when the buffer is full.
+ */
+class MpscRingBuffer {
+  private final Object[] events;
+  private final long[] timestamps;
+  private final AtomicLongArray sequences;
+  private final int mask;
+  private final AtomicLong tail;
+  private final AtomicLong head;
+
+  /**
+   * Creates a ring buffer.
+   *
+   * @param capacity the minimum capacity, rounded up to the next power of two,
+   *                 and to at least 2: with a single slot, the sequence number
+   *                 of a full slot would equal that of a free one
+   */
+  MpscRingBuffer(int capacity) {
+    if (capacity <= 0 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("capacity must be between 1 and 2^30, but is " + capacity);
+    }
+    int powerOfTwoCapacity = capacity == 1 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+    this.events = new Object[powerOfTwoCapacity];
+    this.timestamps = new long[powerOfTwoCapacity];
+    this.sequences = new AtomicLongArray(powerOfTwoCapacity);
+    this.mask = powerOfTwoCapacity - 1;
+    this.tail = new AtomicLong();
+    this.head = new AtomicLong();
+    for (int i = 0; i < powerOfTwoCapacity; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  int getCapacity() {
+    return events.length;
+  }
+
+  /**
+   * Adds the event, if the buffer isn't full.
+   *
+   * @param event the event, must not be null
+   * @return true if the event has been added, false if the buffer is full
+   */
+  boolean offer(Object event) {
+    return offer(event, 0);
+  }
+
+  /**
+   * Adds the event with a timestamp, e.g. the time when it has been put into an
+   * event queue, if the buffer isn't full.
+   *
+   * @param event     the event, must not be null
+   * @param timestamp the timestamp, that is drained with the event
+   * @return true if the event has been added, false if the buffer is full
+   */
+  boolean offer(Object event, long timestamp) {
+    long position = tail.get();
+    while (true) {
+      int slot = (int) position & mask;
+      long difference = sequences.get(slot) - position;
+      if (difference == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          events[slot] = event;
+          timestamps[slot] = timestamp;
+          sequences.set(slot, position + 1);
+          return true;
+        }
+        position = tail.get();
+      } else if (difference < 0) {
+        return false;
+      } else {
+        position = tail.get();
+      }
+    }
+  }
+
+  /**
+   * Removes the oldest event.
+   *
+   * @return the event, or null if the buffer is empty
+   */
+  Object poll() {
+    return poll(null, 0);
+  }
+
+  private Object poll(long[] polledTimestamps, int index) {
+    long position = head.get();
+    while (true) {
+      int slot = (int) position & mask;
+      long difference = sequences.get(slot) - (position + 1);
+      if (difference == 0) {
+        if (head.compareAndSet(position, position + 1)) {
+          Object event = events[slot];
+          if (polledTimestamps != null) {
+            polledTimestamps[index] = timestamps[slot];
+          }
+          events[slot] = null;
+          sequences.set(slot, position + events.length);
+          return event;
+        }
+        position = head.get();
+      } else if (difference < 0) {
+        return null;
+      } else {
+        position = head.get();
+      }
+    }
+  }
+
+  /**
+   * Removes up to the specified number of the oldest events, and adds them to
+   * the list.
+   *
+   * @param drainedEvents the list to add the events to
+   * @param maxNrOfEvents the maximum number of events to remove
+   * @return the number of events removed
+   */
+  int drainTo(List<Object> drainedEvents, int maxNrOfEvents) {
+    return drainTo(drainedEvents, null, maxNrOfEvents);
+  }
+
+  /**
+   * Same as {@link #drainTo(List, int)}, but also copies the timestamps of the
+   * removed events into the array, at the same indexes as in the list.
+   *
+   * @param drainedEvents     the empty list to add the events to
+   * @param drainedTimestamps the array to copy the timestamps to, with a length
+   *                          of at least the maximum number of events
+   * @param maxNrOfEvents     the maximum number of events to remove
+   * @return the number of events removed
+   */
+  int drainTo(List<Object> drainedEvents, long[] drainedTimestamps, int maxNrOfEvents) {
+    int nrOfEvents = 0;
+    Object event;
+    while (nrOfEvents < maxNrOfEvents && (event = poll(drainedTimestamps, nrOfEvents)) != null) {
+      drainedEvents.add(event);
+      nrOfEvents++;
+    }
+    return nrOfEvents;
+  }
+
+  boolean isEmpty() {
+    return size() == 0;
+  }
+
+  int size() {
+    // Read head first, so that the difference is never negative
+    long headPosition = head.get();
+    long tailPosition = tail.get();
+    return (int) Math.min(tailPosition - headPosition, events.length);
+  }
+}
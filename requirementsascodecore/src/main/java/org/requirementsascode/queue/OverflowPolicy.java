@@ -0,0 +1,28 @@
+package org.requirementsascode.queue;
+
+/**
+ * What a bounded event queue does with an event that is put into it while it is
+ * full.
+ */
+public enum OverflowPolicy {
+  /**
+   * The producer waits until there is room in the queue.
+   */
+  BLOCK,
+
+  /**
+   * The oldest event in the queue is dropped, to make room for the new event.
+   */
+  DROP_OLDEST,
+
+  /**
+   * The new event is dropped.
+   */
+  DROP_NEWEST,
+
+  /**
+   * The new event is dropped, and an {@link IllegalStateException} is thrown to
+   * the producer.
+   */
+  FAIL
+}
@@ -0,0 +1,230 @@
+package org.requirementsascode.queue;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.requirementsascode.metrics.LatencyHistogram;
+import org.requirementsascode.metrics.MetricsRegistry;
+
+/**
+ * An event queue that spreads events over several partitions, by a key that it
+ * extracts from each event, e.g. an aggregate id or an actor name. Each
+ * partition is a {@link RingBufferEventQueue} with its own producer thread, so
+ * events of different partitions are consumed in parallel.
+ *
+ * <p>
+ * All events with the same key go to the same partition, so they are consumed
+ * one after the other, in the order they have been put into the queue. Events
+ * with different keys may be consumed concurrently, so the consumer must be
+ * thread-safe for them.
+ */
+public class PartitionedEventQueue {
+  private final RingBufferEventQueue[] partitions;
+  private final Function<Object, ?> keyExtractor;
+
+  /**
+   * Create a partitioned event queue with one partition per available
+   * processor.
+   *
+   * @param capacityPerPartition the maximum number of events in a partition
+   * @param overflowPolicy       what to do when an event is put into a full
+   *                             partition
+   * @param keyExtractor         extracts the key from an event. A null key is
+   *                             allowed, all events with a null key go to the
+   *                             same partition.
+   * @param eventConsumer        the target of events
+   */
+  public PartitionedEventQueue(int capacityPerPartition, OverflowPolicy overflowPolicy,
+    Function<Object, ?> keyExtractor, Consumer<Object> eventConsumer) {
+    this(Runtime.getRuntime().availableProcessors(), capacityPerPartition, overflowPolicy, keyExtractor,
+      eventConsumer);
+  }
+
+  /**
+   * Create a partitioned event queue with the specified number of partitions.
+   *
+   * @param nrOfPartitions       the number of partitions, and producer threads
+   * @param capacityPerPartition the maximum number of events in a partition
+   * @param overflowPolicy       what to do when an event is put into a full
+   *                             partition
+   * @param keyExtractor         extracts the key from an event. A null key is
+   *                             allowed, all events with a null key go to the
+   *                             same partition.
+   * @param eventConsumer        the target of events
+   */
+  public PartitionedEventQueue(int nrOfPartitions, int capacityPerPartition, OverflowPolicy overflowPolicy,
+    Function<Object, ?> keyExtractor, Consumer<Object> eventConsumer) {
+    if (nrOfPartitions <= 0) {
+      throw new IllegalArgumentException("nrOfPartitions must be positive, but is " + nrOfPartitions);
+    }
+    this.keyExtractor = Objects.requireNonNull(keyExtractor);
+    Objects.requireNonNull(eventConsumer);
+
+    this.partitions = new RingBufferEventQueue[nrOfPartitions];
+    for (int i = 0; i < nrOfPartitions; i++) {
+      partitions[i] = new RingBufferEventQueue(capacityPerPartition, overflowPolicy, eventConsumer);
+    }
+  }
+
+  /**
+   * Define how the producer threads of the partitions wait for events.
+   *
+   * @see RingBufferEventQueue#withWaitStrategy(WaitStrategy)
+   * @param waitStrategy the wait strategy
+   * @return this queue, for chaining
+   */
+  public PartitionedEventQueue withWaitStrategy(WaitStrategy waitStrategy) {
+    for (RingBufferEventQueue partition : partitions) {
+      partition.withWaitStrategy(waitStrategy);
+    }
+    return this;
+  }
+
+  /**
+   * Record the latency of each event in the specified histogram, which is shared
+   * by all partitions.
+   *
+   * @see RingBufferEventQueue#recordLatencyIn(LatencyHistogram)
+   * @param latencyHistogram the histogram, or null to stop recording
+   * @return this queue, for chaining
+   */
+  public PartitionedEventQueue recordLatencyIn(LatencyHistogram latencyHistogram) {
+    for (RingBufferEventQueue partition : partitions) {
+      partition.recordLatencyIn(latencyHistogram);
+    }
+    return this;
+  }
+
+  /**
+   * Define the registry that receives the queue wait times of all partitions.
+   *
+   * @see RingBufferEventQueue#withMetrics(MetricsRegistry)
+   * @param metricsRegistry the registry, or null to stop recording
+   * @return this queue, for chaining
+   */
+  public PartitionedEventQueue withMetrics(MetricsRegistry metricsRegistry) {
+    for (RingBufferEventQueue partition : partitions) {
+      partition.withMetrics(metricsRegistry);
+    }
+    return this;
+  }
+
+  /**
+   * Define how to handle an exception that the consumer throws, for all
+   * partitions.
+   *
+   * @see RingBufferEventQueue#handleExceptionsWith(Consumer)
+   * @param exceptionHandler the handler
+   * @return this queue, for chaining
+   */
+  public PartitionedEventQueue handleExceptionsWith(Consumer<RuntimeException> exceptionHandler) {
+    for (RingBufferEventQueue partition : partitions) {
+      partition.handleExceptionsWith(exceptionHandler);
+    }
+    return this;
+  }
+
+  /**
+   * Puts an event in the partition of its key.
+   *
+   * @see RingBufferEventQueue#put(Object)
+   * @param event the event for the queue
+   * @return true if the event has been enqueued, false if it has been dropped
+   * @throws IllegalStateException if the partition is full, and the overflow
+   *                               policy is {@link OverflowPolicy#FAIL}
+   */
+  public boolean put(Object event) {
+    Objects.requireNonNull(event);
+    Object key = keyExtractor.apply(event);
+    return partitions[partitionOf(key)].put(event);
+  }
+
+  int partitionOf(Object key) {
+    if (key == null) {
+      return 0;
+    }
+    // Mix the high bits into the low bits, so that keys whose hash codes only
+    // differ in the high bits are spread over the partitions as well
+    int hash = key.hashCode();
+    hash ^= hash >>> 16;
+    return Math.floorMod(hash * 0x9E3779B9, partitions.length);
+  }
+
+  /**
+   * Stop providing events to the consumer, in all partitions.
+   */
+  public void stop() {
+    for (RingBufferEventQueue partition : partitions) {
+      partition.stop();
+    }
+  }
+
+  /**
+   * Returns whether all partitions are empty.
+   *
+   * @return true if empty, false if not
+   */
+  public boolean isEmpty() {
+    for (RingBufferEventQueue partition : partitions) {
+      if (!partition.isEmpty()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public int getSize() {
+    int size = 0;
+    for (RingBufferEventQueue partition : partitions) {
+      size += partition.getSize();
+    }
+    return size;
+  }
+
+  public int getNrOfPartitions() {
+    return partitions.length;
+  }
+
+  /**
+   * Returns the number of enqueued events, summed over all partitions.
+   *
+   * @see RingBufferEventQueue#getEnqueuedCount()
+   * @return the number of enqueued events
+   */
+  public long getEnqueuedCount() {
+    long count = 0;
+    for (RingBufferEventQueue partition : partitions) {
+      count += partition.getEnqueuedCount();
+    }
+    return count;
+  }
+
+  /**
+   * Returns the number of dropped events, summed over all partitions.
+   *
+   * @see RingBufferEventQueue#getDroppedCount()
+   * @return the number of dropped events
+   */
+  public long getDroppedCount() {
+    long count = 0;
+    for (RingBufferEventQueue partition : partitions) {
+      count += partition.getDroppedCount();
+    }
+    return count;
+  }
+
+  /**
+   * Returns the number of drained events, summed over all partitions.
+   *
+   * @see RingBufferEventQueue#getDrainedCount()
+   * @return the number of drained events
+   */
+  public long getDrainedCount() {
+    long count = 0;
+    for (RingBufferEventQueue partition : partitions) {
+      count += partition.getDrainedCount();
+    }
+    return count;
+  }
+}
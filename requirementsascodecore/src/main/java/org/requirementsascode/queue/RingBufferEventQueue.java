@@ -0,0 +1,442 @@
+package org.requirementsascode.queue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import org.requirementsascode.metrics.LatencyHistogram;
+import org.requirementsascode.metrics.MetricsRegistry;
+
+/**
+ * A bounded event queue that forwards events to an event consumer, in the
+ * order they have been put into it. Like {@link EventQueue}, it internally runs
+ * its own event producer thread.
+ *
+ * <p>
+ * The events are held in an array that is used as a ring buffer, so putting an
+ * event into the queue doesn't allocate memory, and doesn't take a lock. Many
+ * threads may put events concurrently. The producer thread drains the events in
+ * batches, so that the consumer can e.g. write a batch of events at once.
+ *
+ * <p>
+ * When the queue is full, it applies its {@link OverflowPolicy}. The queue
+ * counts the events that have been enqueued, dropped and drained, to make
+ * backpressure visible.
+ *
+ * <p>
+ * While the queue is empty, the producer thread waits according to its
+ * {@link WaitStrategy}. To see the effect of a strategy, the queue can record
+ * the latency of each event, from being put into the queue to being consumed,
+ * in a {@link LatencyHistogram}.
+ */
+public class RingBufferEventQueue {
+  private static final int DEFAULT_MAX_BATCH_SIZE = 256;
+  private static final int NR_OF_SPINS = 100;
+  private static final int NR_OF_YIELDS = 100;
+  private static final long PRODUCER_PARK_NANOS = 10_000;
+  private static final long SLEEP_NANOS = 100_000;
+  private static final int MAX_BUSY_SPIN_PAUSE = 1 << 10;
+
+  private final MpscRingBuffer events;
+  private final int maxBatchSize;
+  private final OverflowPolicy overflowPolicy;
+  private final Consumer<Object> eventConsumer;
+  private final Consumer<List<Object>> batchConsumer;
+  private final EventProducer eventProducer;
+  private final Thread eventProducerThread;
+
+  private final LongAdder enqueuedCount;
+  private final LongAdder droppedCount;
+  private volatile long drainedCount;
+
+  private volatile WaitStrategy waitStrategy;
+  private volatile LatencyHistogram latencyHistogram;
+  private volatile MetricsRegistry metricsRegistry;
+  private volatile Consumer<RuntimeException> exceptionHandler;
+
+  /**
+   * Create an event queue whose events will be consumed by the specified
+   * consumer, one at a time.
+   *
+   * @param capacity       the maximum number of events in the queue, rounded up
+   *                       to the next power of two
+   * @param overflowPolicy what to do when an event is put into the full queue
+   * @param eventConsumer  the target of events
+   */
+  public RingBufferEventQueue(int capacity, OverflowPolicy overflowPolicy, Consumer<Object> eventConsumer) {
+    this(capacity, DEFAULT_MAX_BATCH_SIZE, overflowPolicy, Objects.requireNonNull(eventConsumer), null);
+  }
+
+  /**
+   * Create an event queue whose events will be consumed by the specified
+   * consumer, in batches. The list passed to the consumer is unmodifiable, and
+   * only valid during the call.
+   *
+   * @param capacity       the maximum number of events in the queue, rounded up
+   *                       to the next power of two
+   * @param maxBatchSize   the maximum number of events per batch
+   * @param overflowPolicy what to do when an event is put into the full queue
+   * @param batchConsumer  the target of event batches
+   */
+  public RingBufferEventQueue(int capacity, int maxBatchSize, OverflowPolicy overflowPolicy,
+    Consumer<List<Object>> batchConsumer) {
+    this(capacity, maxBatchSize, overflowPolicy, null, Objects.requireNonNull(batchConsumer));
+  }
+
+  private RingBufferEventQueue(int capacity, int maxBatchSize, OverflowPolicy overflowPolicy,
+    Consumer<Object> eventConsumer, Consumer<List<Object>> batchConsumer) {
+    if (maxBatchSize <= 0) {
+      throw new IllegalArgumentException("maxBatchSize must be positive, but is " + maxBatchSize);
+    }
+    this.events = new MpscRingBuffer(capacity);
+    this.maxBatchSize = maxBatchSize;
+    this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
+    this.eventConsumer = eventConsumer;
+    this.batchConsumer = batchConsumer;
+    this.waitStrategy = WaitStrategy.BLOCKING;
+    this.exceptionHandler = RingBufferEventQueue::handleUncaughtException;
+    this.eventProducer = new EventProducer();
+    this.eventProducerThread = new Thread(eventProducer);
+    this.enqueuedCount = new LongAdder();
+    this.droppedCount = new LongAdder();
+    eventProducerThread.start();
+  }
+
+  /**
+   * Define how the producer thread waits for events while the queue is empty.
+   * By default, it uses {@link WaitStrategy#BLOCKING}. The strategy can be
+   * changed while the queue is running.
+   *
+   * @param waitStrategy the wait strategy
+   * @return this queue, for chaining
+   */
+  public RingBufferEventQueue withWaitStrategy(WaitStrategy waitStrategy) {
+    this.waitStrategy = Objects.requireNonNull(waitStrategy);
+    eventProducer.wakeUp();
+    return this;
+  }
+
+  /**
+   * Record the latency of each event, from being put into the queue to being
+   * provided to the consumer, in the specified histogram. For a batch consumer,
+   * the latency is measured until the batch is provided. By default, the queue
+   * doesn't record latencies, as that takes two calls of
+   * {@link System#nanoTime()} per event.
+   *
+   * @param latencyHistogram the histogram, or null to stop recording
+   * @return this queue, for chaining
+   */
+  public RingBufferEventQueue recordLatencyIn(LatencyHistogram latencyHistogram) {
+    this.latencyHistogram = latencyHistogram;
+    return this;
+  }
+
+  /**
+   * Define the registry that receives the time each event has waited in the
+   * queue, measured in the same way as by {@link #recordLatencyIn(LatencyHistogram)}.
+   *
+   * @see MetricsRegistry#eventDequeued(Object, long)
+   * @param metricsRegistry the registry, or null to stop recording
+   * @return this queue, for chaining
+   */
+  public RingBufferEventQueue withMetrics(MetricsRegistry metricsRegistry) {
+    this.metricsRegistry = metricsRegistry;
+    return this;
+  }
+
+  /**
+   * Define how to handle an exception that the consumer throws. The producer
+   * thread calls the handler, and then goes on providing the next event, or
+   * the next batch. By default, the exception is passed to the uncaught
+   * exception handler of the producer thread.
+   *
+   * @param exceptionHandler the handler
+   * @return this queue, for chaining
+   */
+  public RingBufferEventQueue handleExceptionsWith(Consumer<RuntimeException> exceptionHandler) {
+    this.exceptionHandler = Objects.requireNonNull(exceptionHandler);
+    return this;
+  }
+
+  /**
+   * Puts an event in the queue, that will be provided to the consumer (if the
+   * event queue hasn't been stopped). If the queue is full, the overflow policy
+   * is applied.
+   *
+   * <p>
+   * With {@link OverflowPolicy#BLOCK}, the calling thread waits until there is
+   * room in the queue. If it is interrupted while waiting, the event is dropped,
+   * and the thread's interrupt status is kept set.
+   *
+   * @param event the event for the queue
+   * @return true if the event has been enqueued, false if it has been dropped
+   * @throws IllegalStateException if the queue is full, and the overflow policy
+   *                               is {@link OverflowPolicy#FAIL}
+   */
+  public boolean put(Object event) {
+    Objects.requireNonNull(event);
+    MetricsRegistry registry = metricsRegistry;
+    boolean isTimed = latencyHistogram != null || (registry != null && registry.isEnabled());
+    long putNanos = isTimed ? System.nanoTime() : 0;
+
+    boolean isEnqueued;
+    if (!eventProducer.isRunning()) {
+      isEnqueued = false;
+    } else if (overflowPolicy == OverflowPolicy.BLOCK) {
+      isEnqueued = putWaitingForRoom(event, putNanos);
+    } else if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+      isEnqueued = putDroppingOldest(event, putNanos);
+    } else {
+      isEnqueued = events.offer(event, putNanos);
+    }
+
+    if (isEnqueued) {
+      enqueuedCount.increment();
+      eventProducer.wakeUp();
+    } else {
+      droppedCount.increment();
+      if (overflowPolicy == OverflowPolicy.FAIL && eventProducer.isRunning()) {
+        throw new IllegalStateException("The event queue is full, its capacity is " + getCapacity());
+      }
+    }
+    return isEnqueued;
+  }
+
+  private boolean putWaitingForRoom(Object event, long putNanos) {
+    for (int nrOfAttempts = 0; !events.offer(event, putNanos); nrOfAttempts++) {
+      if (!eventProducer.isRunning() || Thread.currentThread().isInterrupted()) {
+        return false;
+      }
+      if (nrOfAttempts < NR_OF_SPINS) {
+        continue;
+      } else if (nrOfAttempts < NR_OF_SPINS + NR_OF_YIELDS) {
+        Thread.yield();
+      } else {
+        LockSupport.parkNanos(this, PRODUCER_PARK_NANOS);
+      }
+    }
+    return true;
+  }
+
+  private boolean putDroppingOldest(Object event, long putNanos) {
+    while (!events.offer(event, putNanos)) {
+      if (events.poll() != null) {
+        droppedCount.increment();
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Stop providing events to the consumer. Events that are still in the queue
+   * are not provided, and events put into the queue afterwards are dropped.
+   * 
+   * Internally, that stops the producer thread.
+   */
+  public void stop() {
+    eventProducer.stopProviding();
+    eventProducerThread.interrupt();
+    try {
+      eventProducerThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Returns whether this queue is empty.
+   * 
+   * @return true if empty, false if not
+   */
+  public boolean isEmpty() {
+    return events.isEmpty();
+  }
+
+  public int getSize() {
+    return events.size();
+  }
+
+  /**
+   * Returns the maximum number of events in the queue.
+   *
+   * @return the capacity
+   */
+  public int getCapacity() {
+    return events.getCapacity();
+  }
+
+  public OverflowPolicy getOverflowPolicy() {
+    return overflowPolicy;
+  }
+
+  public WaitStrategy getWaitStrategy() {
+    return waitStrategy;
+  }
+
+  /**
+   * Returns the number of events that have been put into the queue, and not been
+   * dropped on the way in.
+   *
+   * @return the number of enqueued events
+   */
+  public long getEnqueuedCount() {
+    return enqueuedCount.sum();
+  }
+
+  /**
+   * Returns the number of events that have been dropped, because the queue was
+   * full or had been stopped. With {@link OverflowPolicy#DROP_OLDEST}, this
+   * includes the enqueued events that have been dropped later on.
+   *
+   * @return the number of dropped events
+   */
+  public long getDroppedCount() {
+    return droppedCount.sum();
+  }
+
+  /**
+   * Returns the number of events that the producer thread has taken out of the
+   * queue, to provide them to the consumer.
+   *
+   * @return the number of drained events
+   */
+  public long getDrainedCount() {
+    return drainedCount;
+  }
+
+  private static void handleUncaughtException(RuntimeException exception) {
+    Thread thread = Thread.currentThread();
+    thread.getUncaughtExceptionHandler().uncaughtException(thread, exception);
+  }
+
+  private class EventProducer implements Runnable {
+    private volatile boolean isRunning = true;
+    private volatile boolean isWaitingForEvents;
+
+    @Override
+    public void run() {
+      List<Object> batch = new ArrayList<>(maxBatchSize);
+      List<Object> unmodifiableBatch = Collections.unmodifiableList(batch);
+      long[] putNanos = new long[maxBatchSize];
+      try {
+        int nrOfIdleLoops = 0;
+        while (isRunning) {
+          int nrOfEvents = events.drainTo(batch, putNanos, maxBatchSize);
+          if (nrOfEvents > 0) {
+            drainedCount += nrOfEvents;
+            if (eventConsumer != null) {
+              consumeOneAtATime(batch, putNanos);
+            } else {
+              consumeBatch(unmodifiableBatch, putNanos);
+            }
+            batch.clear();
+            nrOfIdleLoops = 0;
+          } else {
+            waitForEvents(nrOfIdleLoops++);
+          }
+        }
+      } finally {
+        // If an error has stopped the thread, producers must not wait for room
+        stopProviding();
+      }
+    }
+
+    private void consumeOneAtATime(List<Object> batch, long[] putNanos) {
+      for (int i = 0; i < batch.size(); i++) {
+        Object event = batch.get(i);
+        recordLatency(event, putNanos[i]);
+        try {
+          eventConsumer.accept(event);
+        } catch (RuntimeException e) {
+          handleException(e);
+        }
+      }
+    }
+
+    private void consumeBatch(List<Object> batch, long[] putNanos) {
+      for (int i = 0; i < batch.size(); i++) {
+        recordLatency(batch.get(i), putNanos[i]);
+      }
+      try {
+        batchConsumer.accept(batch);
+      } catch (RuntimeException e) {
+        handleException(e);
+      }
+    }
+
+    private void handleException(RuntimeException exception) {
+      try {
+        exceptionHandler.accept(exception);
+      } catch (RuntimeException e) {
+        // A failing handler must not stop the queue
+      }
+    }
+
+    private void recordLatency(Object event, long putNanos) {
+      LatencyHistogram histogram = latencyHistogram;
+      MetricsRegistry registry = metricsRegistry;
+      if (registry != null && !registry.isEnabled()) {
+        registry = null;
+      }
+      // Events put before recording has started have no timestamp
+      if ((histogram != null || registry != null) && putNanos != 0) {
+        long latencyNanos = System.nanoTime() - putNanos;
+        if (histogram != null) {
+          histogram.record(latencyNanos);
+        }
+        if (registry != null) {
+          registry.eventDequeued(event, latencyNanos);
+        }
+      }
+    }
+
+    private void waitForEvents(int nrOfIdleLoops) {
+      WaitStrategy currentWaitStrategy = waitStrategy;
+      if (currentWaitStrategy == WaitStrategy.BUSY_SPIN) {
+        pause(Math.min(1 << Math.min(nrOfIdleLoops, 10), MAX_BUSY_SPIN_PAUSE));
+      } else if (nrOfIdleLoops < NR_OF_SPINS) {
+        return;
+      } else if (currentWaitStrategy == WaitStrategy.YIELDING || nrOfIdleLoops < NR_OF_SPINS + NR_OF_YIELDS) {
+        Thread.yield();
+      } else if (currentWaitStrategy == WaitStrategy.SLEEPING) {
+        LockSupport.parkNanos(this, SLEEP_NANOS);
+      } else {
+        isWaitingForEvents = true;
+        // Check again after setting the flag, so that an event put into the queue
+        // in the meantime doesn't go unnoticed
+        if (isRunning && events.isEmpty() && waitStrategy == WaitStrategy.BLOCKING) {
+          LockSupport.park(this);
+        }
+        isWaitingForEvents = false;
+      }
+    }
+
+    /**
+     * Pauses for about the specified number of loop iterations. Reading the
+     * volatile running flag keeps the loop from being optimized away, and lets
+     * the thread stop quickly.
+     */
+    private void pause(int nrOfIterations) {
+      for (int i = 0; i < nrOfIterations && isRunning; i++) {
+      }
+    }
+
+    private void wakeUp() {
+      if (isWaitingForEvents) {
+        LockSupport.unpark(eventProducerThread);
+      }
+    }
+
+    private boolean isRunning() {
+      return isRunning;
+    }
+
+    private void stopProviding() {
+      isRunning = false;
+    }
+  }
+}
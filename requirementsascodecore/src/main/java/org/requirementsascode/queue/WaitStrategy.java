@@ -0,0 +1,33 @@
+package org.requirementsascode.queue;
+
+/**
+ * How the producer thread of an event queue waits for events while the queue
+ * is empty. The strategies trade CPU usage for latency: the less the thread
+ * gives up the CPU while waiting, the sooner it notices a new event.
+ */
+public enum WaitStrategy {
+  /**
+   * Spins and yields briefly, then parks until an event is put into the queue.
+   * Uses no CPU while waiting, but waking up the thread adds latency.
+   */
+  BLOCKING,
+
+  /**
+   * Spins and yields briefly, then sleeps for short periods and checks for
+   * events in between. Putting an event doesn't need to wake up the thread, but
+   * an event may wait for the rest of a sleep period.
+   */
+  SLEEPING,
+
+  /**
+   * Spins briefly, then yields the CPU to other threads between checks for
+   * events. Low latency, but uses a core if no other thread needs it.
+   */
+  YIELDING,
+
+  /**
+   * Checks for events in a busy loop, with a short, growing pause between checks.
+   * The lowest latency, but permanently uses a core.
+   */
+  BUSY_SPIN
+}
@@ -4,7 +4,7 @@ import org.requirementsascode.FlowStep;
 import org.requirementsascode.ModelRunner;
 
 public abstract class AbstractContinuesAfter extends AbstractContinues<ModelRunner> {
-	private FlowStep previousStep;
+	private volatile FlowStep previousStep;
 
 	public AbstractContinuesAfter(String stepName) {
 		super(stepName);
@@ -12,10 +12,18 @@ public abstract class AbstractContinuesAfter extends AbstractContinues<ModelRunn
 
 	@Override
   public void accept(ModelRunner runner) {
-    if(previousStep == null) {
+    resolveStep();
+    runner.setLatestStep(previousStep);
+  }
+
+  /**
+   * Resolves the step to continue after, if that hasn't been done yet. The
+   * model builder calls this method when building the model.
+   */
+  public void resolveStep() {
+    if (previousStep == null) {
       previousStep = resolvePreviousStep();
     }
-    runner.setLatestStep(previousStep);
   }
 
   public abstract FlowStep resolvePreviousStep();
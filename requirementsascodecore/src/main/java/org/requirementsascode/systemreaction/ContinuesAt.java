@@ -3,8 +3,8 @@ package org.requirementsascode.systemreaction;
 import org.requirementsascode.FlowStep;
 
 public class ContinuesAt<T> extends AbstractContinues<T> {
-  private FlowStep currentStep;
-  private FlowStep continueAtStep;
+  private final FlowStep currentStep;
+  private volatile FlowStep continueAtStep;
 
   public ContinuesAt(String continueAtStepName, FlowStep currentStep) {
     super(continueAtStepName);
@@ -19,8 +19,17 @@ public class ContinuesAt<T> extends AbstractContinues<T> {
     }
   }
 
-  public void resolveContinueAtStep() {
-    continueAtStep = ((FlowStep) currentStep.getUseCase().findStep(getStepName()));
-    continueAtStep.orAfter(currentStep);
+  /**
+   * Resolves the step to continue at, and adds the current step to the
+   * positions that step can be run at, if that hasn't been done yet. The model
+   * builder calls this method when building the model, so that the model isn't
+   * changed when it's run.
+   */
+  public synchronized void resolveContinueAtStep() {
+    if (continueAtStep == null) {
+      FlowStep resolvedStep = (FlowStep) currentStep.getUseCase().findStep(getStepName());
+      resolvedStep.orAfter(currentStep);
+      continueAtStep = resolvedStep;
+    }
   }
-}
\ No newline at end of file
+}
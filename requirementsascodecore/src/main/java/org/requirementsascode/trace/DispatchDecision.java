@@ -0,0 +1,55 @@
+package org.requirementsascode.trace;
+
+/**
+ * The decision the model runner has made while dispatching a message: whether
+ * a step can react to it, and if not, which check has failed first. The last
+ * two decisions are about the message as a whole, not a single step.
+ */
+public enum DispatchDecision {
+  /**
+   * The step can react to the message.
+   */
+  CAN_REACT,
+
+  /**
+   * The actor the runner runs as is not an actor of the step.
+   */
+  WRONG_ACTOR,
+
+  /**
+   * The step's flow position is false, e.g. because the latest step run is not
+   * the step before it.
+   */
+  WRONG_FLOW_POSITION,
+
+  /**
+   * An interrupting step can react to the message, so the step can't.
+   */
+  INTERRUPTED,
+
+  /**
+   * The step is an interrupting step, but the latest step run is in the same
+   * flow.
+   */
+  IN_SAME_FLOW,
+
+  /**
+   * The step's condition is false.
+   */
+  CONDITION_FALSE,
+
+  /**
+   * The step's reactWhile condition is false.
+   */
+  REACT_WHILE_FALSE,
+
+  /**
+   * No step can react to the message.
+   */
+  UNHANDLED,
+
+  /**
+   * More than one step can react to the message.
+   */
+  MORE_THAN_ONE_STEP_CAN_REACT
+}
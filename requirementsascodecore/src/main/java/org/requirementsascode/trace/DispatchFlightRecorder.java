@@ -0,0 +1,208 @@
+package org.requirementsascode.trace;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.requirementsascode.ModelRunner;
+import org.requirementsascode.Step;
+import org.requirementsascode.exception.MoreThanOneStepCanReact;
+
+/**
+ * Records the decisions a model runner makes while dispatching messages: for
+ * each candidate step of a message, whether it can react, or which check has
+ * failed. That way, you can find out why a message has unexpectedly not been
+ * handled.
+ *
+ * <p>
+ * The recorder keeps the latest records in a ring buffer whose capacity is
+ * fixed when it's created, so recording doesn't allocate memory. To reduce the
+ * overhead further, it can record only every n-th message. The records can be
+ * read or dumped as text at any time, or dumped automatically when an
+ * exception is thrown while dispatching a message.
+ *
+ * <p>
+ * A recorder must only be used by a single runner, but it may be read from
+ * other threads.
+ *
+ * @see ModelRunner#withFlightRecorder(DispatchFlightRecorder)
+ */
+public class DispatchFlightRecorder {
+  private final long[] nanoTimes;
+  private final Class<?>[] messageClasses;
+  private final Step[] steps;
+  private final DispatchDecision[] decisions;
+  private long nrOfRecords;
+
+  private int samplingInterval;
+  private int nrOfMessagesUntilSample;
+  private Consumer<String> exceptionDumpConsumer;
+  private Exception lastDumpedException;
+
+  /**
+   * Creates a recorder that keeps the specified number of latest records, and
+   * records every message.
+   *
+   * @param capacity the number of records, must be positive
+   */
+  public DispatchFlightRecorder(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive, but is " + capacity);
+    }
+    this.nanoTimes = new long[capacity];
+    this.messageClasses = new Class<?>[capacity];
+    this.steps = new Step[capacity];
+    this.decisions = new DispatchDecision[capacity];
+    this.samplingInterval = 1;
+  }
+
+  /**
+   * Define that only every n-th message sent to a runner is recorded. The
+   * runner's internal dispatches that trigger "autonomous system reactions"
+   * aren't recorded.
+   *
+   * @param samplingInterval the n, must be positive
+   * @return this recorder, for chaining
+   */
+  public synchronized DispatchFlightRecorder sampleEvery(int samplingInterval) {
+    if (samplingInterval <= 0) {
+      throw new IllegalArgumentException("samplingInterval must be positive, but is " + samplingInterval);
+    }
+    this.samplingInterval = samplingInterval;
+    this.nrOfMessagesUntilSample = 0;
+    return this;
+  }
+
+  /**
+   * Define that the records are dumped when an exception is thrown while
+   * dispatching a message, e.g. by a system reaction, or
+   * {@link MoreThanOneStepCanReact}, and the model doesn't handle it, so that
+   * it leaves the runner's <code>reactTo</code> method.
+   *
+   * @param exceptionDumpConsumer the consumer of the dump, or null for no
+   *                              automatic dumps
+   * @return this recorder, for chaining
+   */
+  public synchronized DispatchFlightRecorder dumpOnExceptionTo(Consumer<String> exceptionDumpConsumer) {
+    this.exceptionDumpConsumer = exceptionDumpConsumer;
+    return this;
+  }
+
+  /**
+   * Called by the model runner before it dispatches a message, to find out
+   * whether the message's decisions are recorded.
+   *
+   * @return true if the message is sampled
+   */
+  public synchronized boolean sampleNextMessage() {
+    if (nrOfMessagesUntilSample == 0) {
+      nrOfMessagesUntilSample = samplingInterval - 1;
+      return true;
+    }
+    nrOfMessagesUntilSample--;
+    return false;
+  }
+
+  /**
+   * Called by the model runner to record a decision. If the buffer is full, the
+   * oldest record is overwritten.
+   *
+   * @param messageClass the class of the dispatched message
+   * @param step         the candidate step, or null if the decision is about the
+   *                     message as a whole
+   * @param decision     the decision
+   */
+  public synchronized void record(Class<?> messageClass, Step step, DispatchDecision decision) {
+    int index = (int) (nrOfRecords % nanoTimes.length);
+    nanoTimes[index] = System.nanoTime();
+    messageClasses[index] = messageClass;
+    steps[index] = step;
+    decisions[index] = decision;
+    nrOfRecords++;
+  }
+
+  /**
+   * Called by the model runner when an exception that has been thrown while
+   * dispatching a message leaves its <code>reactTo</code> method. Dumps the
+   * records, if specified. An exception that the runner rethrows from a nested
+   * dispatch is only dumped once.
+   *
+   * @see #dumpOnExceptionTo(Consumer)
+   * @param exception the exception
+   */
+  public void exceptionThrown(Exception exception) {
+    Consumer<String> dumpConsumer;
+    synchronized (this) {
+      if (exception == lastDumpedException) {
+        return;
+      }
+      lastDumpedException = exception;
+      dumpConsumer = exceptionDumpConsumer;
+    }
+    if (dumpConsumer != null) {
+      dumpConsumer.accept("Dispatch records before " + exception + ":\n" + dump());
+    }
+  }
+
+  /**
+   * Returns the records the buffer holds, the oldest first.
+   *
+   * @return the records
+   */
+  public synchronized List<DispatchRecord> getRecords() {
+    int capacity = nanoTimes.length;
+    long firstRecord = Math.max(0, nrOfRecords - capacity);
+    List<DispatchRecord> records = new ArrayList<>((int) (nrOfRecords - firstRecord));
+    for (long record = firstRecord; record < nrOfRecords; record++) {
+      int index = (int) (record % capacity);
+      records.add(new DispatchRecord(nanoTimes[index], messageClasses[index], steps[index], decisions[index]));
+    }
+    return records;
+  }
+
+  /**
+   * Returns the records the buffer holds as text, one line per record, the
+   * oldest first. Each line starts with the time in microseconds relative to
+   * the oldest record.
+   *
+   * @return the text
+   */
+  public String dump() {
+    List<DispatchRecord> records = getRecords();
+    StringBuilder dump = new StringBuilder();
+    if (!records.isEmpty()) {
+      long firstNanoTime = records.get(0).getNanoTime();
+      for (DispatchRecord record : records) {
+        long relativeMicros = (record.getNanoTime() - firstNanoTime) / 1000;
+        dump.append('+').append(relativeMicros).append("us ").append(record).append('\n');
+      }
+    }
+    return dump.toString();
+  }
+
+  /**
+   * Returns the total number of records, including the ones that have been
+   * overwritten.
+   *
+   * @return the number of records
+   */
+  public synchronized long getNrOfRecords() {
+    return nrOfRecords;
+  }
+
+  /**
+   * Removes all records.
+   */
+  public synchronized void clear() {
+    nrOfRecords = 0;
+    lastDumpedException = null;
+    Arrays.fill(messageClasses, null);
+    Arrays.fill(steps, null);
+    Arrays.fill(decisions, null);
+  }
+
+  public int getCapacity() {
+    return nanoTimes.length;
+  }
+}
@@ -0,0 +1,57 @@
+package org.requirementsascode.trace;
+
+import java.util.Optional;
+
+import org.requirementsascode.Step;
+
+/**
+ * A record of a {@link DispatchFlightRecorder}: the decision the model runner
+ * has made for a message, and the candidate step it has evaluated, if any.
+ */
+public class DispatchRecord {
+  private final long nanoTime;
+  private final Class<?> messageClass;
+  private final Step step;
+  private final DispatchDecision decision;
+
+  DispatchRecord(long nanoTime, Class<?> messageClass, Step step, DispatchDecision decision) {
+    this.nanoTime = nanoTime;
+    this.messageClass = messageClass;
+    this.step = step;
+    this.decision = decision;
+  }
+
+  /**
+   * Returns when the decision has been made, as returned by
+   * {@link System#nanoTime()}.
+   *
+   * @return the time in nanoseconds
+   */
+  public long getNanoTime() {
+    return nanoTime;
+  }
+
+  public Class<?> getMessageClass() {
+    return messageClass;
+  }
+
+  /**
+   * Returns the candidate step the decision is about.
+   *
+   * @return the step, or an empty optional if the decision is about the message
+   *         as a whole
+   */
+  public Optional<Step> getStep() {
+    return Optional.ofNullable(step);
+  }
+
+  public DispatchDecision getDecision() {
+    return decision;
+  }
+
+  @Override
+  public String toString() {
+    String stepText = step == null ? "" : " step \"" + step.getName() + "\" (id " + step.getId() + ")";
+    return messageClass.getSimpleName() + stepText + ": " + decision;
+  }
+}
@@ -117,6 +117,24 @@ public abstract class AbstractTestCase {
     return messages;
   }
 
+	protected Model textAndNumberModel() {
+		Model model = Model.builder()
+			.useCase(USE_CASE)
+				.basicFlow()
+					.step(CUSTOMER_ENTERS_TEXT).user(EntersText.class).system(displaysEnteredText())
+					.step(CUSTOMER_ENTERS_NUMBER).user(EntersNumber.class).system(displaysEnteredNumber())
+			.build();
+		return model;
+	}
+
+	protected static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
 	protected boolean textIsAvailable() {
 		return displayedText != null;
 	}
@@ -55,6 +55,25 @@ public class ActorWithBehaviorTest extends AbstractTestCase{
     assertRecordedStepNames(recordingCustomer, CUSTOMER_ENTERS_TEXT, CUSTOMER_ENTERS_NUMBER);
   }
   
+  @Test
+  public void stoppedActorDoesntReactUntilRestarted() {
+		Model model = modelBuilder
+			.step(CUSTOMER_ENTERS_TEXT).on(EntersText.class).system(displaysEnteredText())
+		.build();
+
+		customer.withBehavior(model);
+		customer.stop();
+		Optional<Object> latestPublishedEvent = customer.reactTo(entersText());
+		assertTrue(customer.isStopped());
+		assertFalse(latestPublishedEvent.isPresent());
+		assertFalse(customer.getModelRunner().getLatestStep().isPresent());
+
+		customer.restart();
+		customer.reactTo(entersText());
+		assertFalse(customer.isStopped());
+		assertEquals(CUSTOMER_ENTERS_TEXT, customer.getModelRunner().getLatestStep().get().getName());
+  }
+
   @Test
   public void actorReactsIfActorInModelMatches() {
   	Actor validActor = new Actor("ValidActor");
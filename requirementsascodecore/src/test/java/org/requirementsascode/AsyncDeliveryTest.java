@@ -0,0 +1,341 @@
+package org.requirementsascode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class AsyncDeliveryTest {
+  private ExecutorService executor;
+
+  @BeforeEach
+  public void setup() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void senderDoesntWaitForActorWhenPublishingAsync() throws InterruptedException {
+    CountDownLatch mayReact = new CountDownLatch(1);
+    CountDownLatch hasReacted = new CountDownLatch(1);
+    AtomicReference<Thread> reactingThread = new AtomicReference<>();
+    AbstractActor target = new Actor("Target").withBehavior(Model.builder()
+      .on(String.class).system(s -> {
+        await(mayReact);
+        reactingThread.set(Thread.currentThread());
+        hasReacted.countDown();
+      })
+      .build());
+    target.getModelRunner().withExecutor(executor);
+
+    AbstractActor source = new Actor("Source").withBehavior(Model.builder()
+      .on(String.class).systemPublish(s -> s).toAsync(target)
+      .build());
+
+    source.reactTo("Text");
+    mayReact.countDown();
+
+    assertTrue(hasReacted.await(10, TimeUnit.SECONDS));
+    assertNotSame(Thread.currentThread(), reactingThread.get());
+    assertTrue(target.getInbox().isPresent());
+  }
+
+  @Test
+  public void senderDoesntWaitForActorWithAsyncDelivery() throws InterruptedException {
+    CountDownLatch mayReact = new CountDownLatch(1);
+    CountDownLatch hasReacted = new CountDownLatch(1);
+    AbstractActor target = new Actor("Target").withBehavior(Model.builder()
+      .on(String.class).system(s -> {
+        await(mayReact);
+        hasReacted.countDown();
+      })
+      .build())
+      .withAsyncDelivery();
+    target.getModelRunner().withExecutor(executor);
+
+    AbstractActor source = new Actor("Source").withBehavior(Model.builder()
+      .useCase("Use case")
+        .basicFlow()
+          .step("S1").on(String.class).systemPublish(s -> s).to(target)
+      .build());
+
+    source.reactTo("Text");
+    assertFalse(hasReacted.await(0, TimeUnit.SECONDS));
+    mayReact.countDown();
+
+    assertTrue(hasReacted.await(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void actorReactsToAsyncMessagesInOrder() throws InterruptedException {
+    List<Integer> receivedNumbers = new ArrayList<>();
+    CountDownLatch hasReceivedAll = new CountDownLatch(1000);
+    AbstractActor target = new Actor("Target").withBehavior(Model.builder()
+      .on(Integer.class).system(i -> {
+        receivedNumbers.add(i);
+        hasReceivedAll.countDown();
+      })
+      .build());
+    target.getModelRunner().withExecutor(executor);
+
+    AbstractActor source = new Actor("Source").withBehavior(Model.builder()
+      .on(Integer.class).systemPublish(i -> i).toAsync(target)
+      .build());
+
+    List<Integer> sentNumbers = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      source.reactTo(i);
+      sentNumbers.add(i);
+    }
+
+    assertTrue(hasReceivedAll.await(10, TimeUnit.SECONDS));
+    assertEquals(sentNumbers, receivedNumbers);
+  }
+
+  @Test
+  public void longAsyncPipelineDoesntGrowTheStack() throws InterruptedException {
+    int nrOfHops = 100_000;
+    CountDownLatch hasFinished = new CountDownLatch(1);
+    Player ping = new Player("Ping", nrOfHops, hasFinished);
+    Player pong = new Player("Pong", nrOfHops, hasFinished);
+    ping.playWith(pong);
+    pong.playWith(ping);
+    ping.getModelRunner().withExecutor(executor);
+    pong.getModelRunner().withExecutor(executor);
+
+    ping.reactTo(0);
+
+    assertTrue(hasFinished.await(30, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void statelessBehaviorReactsOnExecutorWhenPublishingAsync() throws InterruptedException {
+    CountDownLatch hasReacted = new CountDownLatch(1);
+    AtomicReference<Thread> reactingThread = new AtomicReference<>();
+    Behavior target = StatelessBehavior.of(() -> Model.builder()
+      .user(String.class).system(s -> {
+        reactingThread.set(Thread.currentThread());
+        hasReacted.countDown();
+      })
+      .build());
+
+    ModelRunner modelRunner = new ModelRunner().withExecutor(executor).run(Model.builder()
+      .user(String.class).systemPublish(s -> s).toAsync(target)
+      .build());
+    modelRunner.reactTo("Text");
+
+    assertTrue(hasReacted.await(10, TimeUnit.SECONDS));
+    assertNotSame(Thread.currentThread(), reactingThread.get());
+  }
+
+  @Test
+  public void statelessBehaviorReactsToAsyncMessagesInOrder() throws InterruptedException {
+    List<Integer> receivedNumbers = new ArrayList<>();
+    CountDownLatch hasReceivedAll = new CountDownLatch(1000);
+    Behavior target = StatelessBehavior.of(() -> Model.builder()
+      .user(Integer.class).system(i -> {
+        receivedNumbers.add(i);
+        hasReceivedAll.countDown();
+      })
+      .build());
+
+    ModelRunner modelRunner = new ModelRunner().withExecutor(executor).run(Model.builder()
+      .user(Integer.class).systemPublish(i -> i).toAsync(target)
+      .build());
+    for (int i = 0; i < 1000; i++) {
+      modelRunner.reactTo(i);
+    }
+
+    assertTrue(hasReceivedAll.await(10, TimeUnit.SECONDS));
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i, (int) receivedNumbers.get(i));
+    }
+  }
+
+  @Test
+  public void exceptionOfAsyncReactionIsHandledByReceivingRunner() throws Exception {
+    CompletableFuture<RuntimeException> handledException = new CompletableFuture<>();
+    IllegalStateException exception = new IllegalStateException();
+    AbstractActor target = new Actor("Target").withBehavior(Model.builder()
+      .on(String.class).system(s -> {
+        throw exception;
+      })
+      .build());
+    target.getModelRunner().withExecutor(executor).handleAsyncExceptionsWith(handledException::complete);
+
+    AbstractActor source = new Actor("Source").withBehavior(Model.builder()
+      .on(String.class).systemPublish(s -> s).toAsync(target)
+      .build());
+    source.reactTo("Text");
+
+    assertSame(exception, handledException.get(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void exceptionOfAsyncStatelessBehaviorIsHandledByPublishingRunner() throws Exception {
+    CompletableFuture<RuntimeException> handledException = new CompletableFuture<>();
+    IllegalStateException exception = new IllegalStateException();
+    Behavior target = StatelessBehavior.of(() -> Model.builder()
+      .user(String.class).system(s -> {
+        throw exception;
+      })
+      .build());
+
+    ModelRunner modelRunner = new ModelRunner().withExecutor(executor)
+      .handleAsyncExceptionsWith(handledException::complete).run(Model.builder()
+        .user(String.class).systemPublish(s -> s).toAsync(target)
+        .build());
+    modelRunner.reactTo("Text");
+
+    assertSame(exception, handledException.get(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void rejectedDeliveryDoesntStrandTasksQueuedBehindIt() throws Exception {
+    List<Runnable> scheduledBatches = new ArrayList<>();
+    boolean[] isRejecting = { false };
+    Executor executorThatRejectsLater = task -> {
+      if (isRejecting[0]) {
+        throw new RejectedExecutionException();
+      }
+      scheduledBatches.add(task);
+    };
+    AbstractActor target = new Actor("Target").withBehavior(Model.builder()
+      .on(String.class).system(s -> {})
+      .build());
+    ModelRunner targetRunner = target.getModelRunner().withExecutor(executorThatRejectsLater);
+    AbstractActor source = new Actor("Source").withBehavior(Model.builder()
+      .on(String.class).systemPublish(s -> s).toAsync(target)
+      .build());
+
+    // Fill the first batch, so that the delivery and the reaction behind it wait
+    // for the next scheduling, which is rejected
+    for (int i = 0; i < 64; i++) {
+      targetRunner.reactToAsync("Text");
+    }
+    source.reactTo("Text");
+    CompletableFuture<Optional<Object>> queuedBehindDelivery = targetRunner.reactToAsync("Text");
+    isRejecting[0] = true;
+
+    assertThrows(RejectedExecutionException.class, () -> scheduledBatches.get(0).run());
+    ExecutionException thrown = assertThrows(ExecutionException.class,
+      () -> queuedBehindDelivery.get(10, TimeUnit.SECONDS));
+    assertTrue(thrown.getCause() instanceof RejectedExecutionException);
+  }
+
+  @Test
+  public void stopsActorWithAsyncDeliveryAfterItHasReacted() throws Exception {
+    CountDownLatch isReacting = new CountDownLatch(1);
+    CountDownLatch mayFinish = new CountDownLatch(1);
+    AbstractActor target = new Actor("Target").withBehavior(Model.builder()
+      .on(String.class).system(s -> {
+        isReacting.countDown();
+        await(mayFinish);
+      })
+      .build())
+      .withAsyncDelivery();
+    target.getModelRunner().withExecutor(executor);
+    AbstractActor source = new Actor("Source").withBehavior(Model.builder()
+      .on(String.class).systemPublish(s -> s).to(target)
+      .build());
+
+    source.reactTo("Text");
+    assertTrue(isReacting.await(10, TimeUnit.SECONDS));
+    CompletableFuture<Void> stopped = target.stopAsync();
+    assertFalse(target.isStopped());
+
+    mayFinish.countDown();
+    stopped.get(10, TimeUnit.SECONDS);
+    assertTrue(target.isStopped());
+  }
+
+  @Test
+  public void stopThatIsPendingWhenExecutorRejectsCompletesExceptionally() throws Exception {
+    List<Runnable> scheduledBatches = new ArrayList<>();
+    boolean[] isRejecting = { false };
+    Executor executorThatRejectsLater = task -> {
+      if (isRejecting[0]) {
+        throw new RejectedExecutionException();
+      }
+      scheduledBatches.add(task);
+    };
+    AbstractActor target = new Actor("Target").withBehavior(Model.builder()
+      .on(String.class).system(s -> {})
+      .build())
+      .withAsyncDelivery();
+    ModelRunner targetRunner = target.getModelRunner().withExecutor(executorThatRejectsLater);
+
+    // Fill the first batch, so that the stop waits for the next scheduling,
+    // which is rejected
+    for (int i = 0; i < 64; i++) {
+      targetRunner.reactToAsync("Text");
+    }
+    CompletableFuture<Void> stopped = target.stopAsync();
+    isRejecting[0] = true;
+    scheduledBatches.get(0).run();
+
+    ExecutionException thrown = assertThrows(ExecutionException.class, () -> stopped.get(10, TimeUnit.SECONDS));
+    assertTrue(thrown.getCause() instanceof RejectedExecutionException);
+    assertFalse(target.isStopped());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static class Player extends AbstractActor {
+    private final int nrOfHops;
+    private final CountDownLatch hasFinished;
+    private AbstractActor partner;
+
+    Player(String name, int nrOfHops, CountDownLatch hasFinished) {
+      super(name);
+      this.nrOfHops = nrOfHops;
+      this.hasFinished = hasFinished;
+    }
+
+    void playWith(AbstractActor partner) {
+      this.partner = partner;
+    }
+
+    @Override
+    protected Model behavior() {
+      return Model.builder()
+        .on(Integer.class).systemPublish(i -> {
+          if (i < nrOfHops) {
+            return i + 1;
+          }
+          hasFinished.countDown();
+          return null;
+        }).toAsync(partner)
+        .build();
+    }
+  }
+}
@@ -78,10 +78,60 @@ public class BehaviorTest {
 		assertTrue(exceptionMessage.contains(String.class.getName()));
 	}
 
+	@Test
+	void startsEachMessageFromInitialStateWhenReusingRunners() {
+		for (StatelessBehavior.RunnerReuse runnerReuse : StatelessBehavior.RunnerReuse.values()) {
+			StatelessBehavior statelessBehavior = StatelessBehavior.of(new TwoStepFlow(), runnerReuse);
+
+			for (int i = 0; i < 3; i++) {
+				Optional<String> response = statelessBehavior.reactTo(i);
+				assertEquals("S1", response.get(), runnerReuse.name());
+			}
+		}
+	}
+
+	@Test
+	void reactsToNestedCallWhenReusingRunners() {
+		for (StatelessBehavior.RunnerReuse runnerReuse : StatelessBehavior.RunnerReuse.values()) {
+			NestedCaller nestedCaller = new NestedCaller();
+			StatelessBehavior statelessBehavior = StatelessBehavior.of(nestedCaller, runnerReuse);
+			nestedCaller.behavior = statelessBehavior;
+
+			for (int i = 0; i < 3; i++) {
+				Optional<Long> response = statelessBehavior.reactTo("Outer");
+				assertEquals(42L, response.get(), runnerReuse.name());
+			}
+		}
+	}
+
 	private class MessageFieldMutator implements BehaviorModel {
 		@Override
 		public Model model() {
 			return Model.builder().user(String.class).system(msg -> receivedMessage = msg).build();
 		}
 	}
+
+	private static class TwoStepFlow implements BehaviorModel {
+		@Override
+		public Model model() {
+			return Model.builder()
+				.useCase("Two steps")
+					.basicFlow()
+						.step("S1").user(Integer.class).systemPublish(i -> "S1")
+						.step("S2").user(Integer.class).systemPublish(i -> "S2")
+				.build();
+		}
+	}
+
+	private static class NestedCaller implements BehaviorModel {
+		private Behavior behavior;
+
+		@Override
+		public Model model() {
+			return Model.builder()
+				.user(String.class).systemPublish(s -> behavior.reactTo(1).get())
+				.user(Integer.class).systemPublish(i -> 42L)
+				.build();
+		}
+	}
 }
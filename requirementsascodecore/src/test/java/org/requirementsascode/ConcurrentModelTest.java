@@ -0,0 +1,188 @@
+package org.requirementsascode;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.Test;
+import org.requirementsascode.StatelessBehavior.RunnerReuse;
+import org.requirementsascode.generator.GeneratedModel;
+import org.requirementsascode.generator.GeneratedPath;
+import org.requirementsascode.generator.ModelGenerator;
+
+public class ConcurrentModelTest {
+  private static final int NR_OF_THREADS = 16;
+
+  @Test
+  public void runnersOnManyThreadsReactAlongRandomPathsOfSharedModel() throws Exception {
+    GeneratedModel generatedModel = new ModelGenerator()
+      .useCases(50).flowsPerUseCase(5).stepsPerFlow(10)
+      .insteadOfFraction(0.3).anytimeFraction(0.2).conditionalFraction(0.5)
+      .messageClassHierarchyDepth(3).actors(4)
+      .generate();
+    Model model = generatedModel.getModel();
+    DispatchIndex dispatchIndex = model.getDispatchIndex();
+
+    runConcurrently(threadIndex -> {
+      List<String> stepNamesRun = new ArrayList<>();
+      ModelRunner modelRunner = recordingModelRunner(stepNamesRun).run(model);
+      Random random = new Random(threadIndex);
+
+      for (int i = 0; i < 200; i++) {
+        GeneratedPath path = generatedModel.randomPath(random);
+        stepNamesRun.clear();
+
+        modelRunner.restart();
+        path.sendTo(modelRunner);
+
+        assertEquals(path.getStepNames(), stepNamesRun);
+      }
+    });
+
+    assertSame(dispatchIndex, model.getDispatchIndex());
+  }
+
+  @Test
+  public void runnersOnManyThreadsContinueInSharedModelFromFirstUse() throws Exception {
+    for (int i = 0; i < 20; i++) {
+      Model model = modelWithContinuesAtAndContinuesAfter();
+      DispatchIndex dispatchIndex = model.getDispatchIndex();
+
+      runConcurrently(threadIndex -> {
+        List<String> stepNamesRun = new ArrayList<>();
+        recordingModelRunner(stepNamesRun).run(model).reactTo("Text", 1, 2);
+
+        assertEquals(asList("S1", "Continue", "S3", "ContinueAfter", "Continue", "S3", "ContinueAfter", "Continue"),
+          stepNamesRun);
+      });
+
+      assertSame(dispatchIndex, model.getDispatchIndex());
+    }
+  }
+
+  @Test
+  public void sharedModelCantBeChangedWhileRunnersReactToIt() throws Exception {
+    Model model = modelWithContinuesAtAndContinuesAfter();
+    DispatchIndex dispatchIndex = model.getDispatchIndex();
+    UseCase useCase = model.findUseCase("Use case");
+    FlowStep s1 = (FlowStep) useCase.findStep("S1");
+    FlowStep s3 = (FlowStep) useCase.findStep("S3");
+
+    runConcurrently(threadIndex -> {
+      if (threadIndex == 0) {
+        assertThrows(IllegalStateException.class, () -> model.newUseCase("Another use case"));
+        assertThrows(IllegalStateException.class, () -> useCase.newFlow("Another flow"));
+        assertThrows(IllegalStateException.class, () -> useCase.newFlowlessStep("Another step", null));
+        assertThrows(IllegalStateException.class, () -> s1.setMessageClass(Integer.class));
+        assertThrows(IllegalStateException.class, () -> s1.setActors(new AbstractActor[] { model.getSystemActor() }));
+        assertThrows(IllegalStateException.class, () -> s1.setSystemReaction(() -> {}));
+        assertThrows(IllegalStateException.class, () -> s1.orAfter(s3));
+        assertThrows(IllegalStateException.class, () -> s1.getFlowPosition().orAfter("S3", useCase));
+      } else {
+        for (int i = 0; i < 100; i++) {
+          List<String> stepNamesRun = new ArrayList<>();
+          recordingModelRunner(stepNamesRun).run(model).reactTo("Text", 1, 2);
+
+          assertEquals(asList("S1", "Continue", "S3", "ContinueAfter", "Continue", "S3", "ContinueAfter", "Continue"),
+            stepNamesRun);
+        }
+      }
+    });
+
+    assertSame(dispatchIndex, model.getDispatchIndex());
+    assertEquals(1, model.getUseCases().size());
+  }
+
+  @Test
+  public void sharedStatelessBehaviorReactsOnManyThreads() throws Exception {
+    for (RunnerReuse runnerReuse : RunnerReuse.values()) {
+      StatelessBehavior behavior = StatelessBehavior.of(new DoublingBehaviorModel(), runnerReuse);
+
+      runConcurrently(threadIndex -> {
+        for (int i = 0; i < 1000; i++) {
+          int number = threadIndex * 1000 + i;
+          Optional<Long> response = behavior.reactTo(number);
+          assertEquals(2L * number, (long) response.get());
+        }
+      });
+    }
+  }
+
+  private Model modelWithContinuesAtAndContinuesAfter() {
+    Model model = Model.builder()
+      .useCase("Use case")
+        .basicFlow()
+          .step("S1").user(String.class).system(s -> {})
+          .step("S2").user(String.class).system(s -> {})
+          .step("S3").user(Integer.class).system(i -> {})
+        .flow("Alternative flow").insteadOf("S2")
+          .step("Continue").continuesAt("S3")
+        .flow("Flow after S3").after("S3")
+          .step("ContinueAfter").continuesAfter("S1")
+      .build();
+    return model;
+  }
+
+  private ModelRunner recordingModelRunner(List<String> stepNamesRun) {
+    return new ModelRunner().handleWith(stepToBeRun -> {
+      stepNamesRun.add(stepToBeRun.getStepName());
+      stepToBeRun.run();
+    });
+  }
+
+  private void runConcurrently(IntConsumer task) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(NR_OF_THREADS);
+    try {
+      CountDownLatch startSignal = new CountDownLatch(1);
+      List<Future<?>> futures = new ArrayList<>();
+      for (int threadIndex = 0; threadIndex < NR_OF_THREADS; threadIndex++) {
+        int taskThreadIndex = threadIndex;
+        futures.add(executor.submit(() -> {
+          startSignal.await();
+          task.accept(taskThreadIndex);
+          return null;
+        }));
+      }
+      startSignal.countDown();
+
+      for (Future<?> future : futures) {
+        getRethrowingCause(future);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void getRethrowingCause(Future<?> future) throws Exception {
+    try {
+      future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw (Exception) cause;
+    }
+  }
+
+  private static class DoublingBehaviorModel implements BehaviorModel {
+    @Override
+    public Model model() {
+      return Model.builder()
+        .user(Integer.class).systemPublish(i -> 2L * i)
+        .build();
+    }
+  }
+}
@@ -3,6 +3,8 @@ package org.requirementsascode;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.io.IOException;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -89,4 +91,24 @@ public class ExceptionHandlingTest extends AbstractTestCase{
 		
 		assertRecordedStepNames(SYSTEM_DISPLAYS_TEXT, SYSTEM_THROWS_EXCEPTION, SYSTEM_HANDLES_EXCEPTION);
 	}
+	
+	@Test
+	public void handlesSneakyThrownCheckedException() {
+		Model model = 
+			modelBuilder.useCase(USE_CASE)
+				.basicFlow()
+					.step(SYSTEM_THROWS_EXCEPTION).system(() -> sneakyThrow(new IOException()))
+				.flow(ALTERNATIVE_FLOW).anytime()
+					.step(SYSTEM_HANDLES_EXCEPTION).on(Exception.class).system(e -> {})
+			.build();
+		
+		modelRunner.run(model);
+		
+		assertRecordedStepNames(SYSTEM_THROWS_EXCEPTION, SYSTEM_HANDLES_EXCEPTION);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <E extends Exception> void sneakyThrow(Exception exception) throws E {
+		throw (E) exception;
+	}
 }
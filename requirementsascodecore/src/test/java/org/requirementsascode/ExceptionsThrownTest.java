@@ -1,5 +1,6 @@
 package org.requirementsascode;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -105,6 +106,20 @@ public class ExceptionsThrownTest extends AbstractTestCase {
     }, "S1");
 	}
 
+  @Test
+  public void throwsExceptionWhenStepBudgetIsExceeded() {
+    final int[] timesReacted = {0};
+    Model model = modelBuilder
+      .condition(() -> true).system(() -> timesReacted[0]++)
+    .build();
+    
+    modelRunner.withStepBudget(10);
+    assertThrows(InfiniteRepetition.class, () -> {
+      modelRunner.run(model);
+    });
+    assertEquals(10, timesReacted[0]);
+  }
+
   @Test
   public void throwsExceptionWhenReactToIsCalledFromSystemReaction() {
     assertThrows(NestedCallOfReactTo.class, () -> {
@@ -2,6 +2,7 @@ package org.requirementsascode;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
@@ -17,6 +18,7 @@ import org.requirementsascode.systemreaction.IgnoresIt;
 public class FlowTest extends AbstractTestCase{
 	private Actor secondActor;
 	private int timesDisplayed;
+	private int timesConditionEvaluated;
 		
 	@BeforeEach
 	public void setup() {
@@ -1204,4 +1206,73 @@ public class FlowTest extends AbstractTestCase{
 		assertRecordedStepNames(CUSTOMER_ENTERS_TEXT, CUSTOMER_ENTERS_ALTERNATIVE_TEXT, CONTINUE,
 			CUSTOMER_ENTERS_TEXT_AGAIN, CUSTOMER_ENTERS_NUMBER);
 	}
+	
+	@Test
+	public void evaluatesInterruptingStepOnlyOncePerMessage() {
+		Model model = modelBuilder
+			.useCase(USE_CASE)
+				.basicFlow()
+					.step(THIS_STEP_SHOULD_BE_SKIPPED).user(EntersText.class).system(throwsRuntimeException())
+				.flow(ALTERNATIVE_FLOW).anytime().condition(this::countsConditionEvaluation)
+					.step(CUSTOMER_ENTERS_ALTERNATIVE_TEXT).user(EntersText.class).system(displaysEnteredText())
+			.useCase(USE_CASE_2)
+				.basicFlow()
+					.step(THIS_STEP_SHOULD_BE_SKIPPED_AS_WELL).user(EntersText.class).system(throwsRuntimeException())
+			.build();
+		
+		modelRunner.run(model).reactTo(entersText());
+		
+		assertRecordedStepNames(CUSTOMER_ENTERS_ALTERNATIVE_TEXT);
+		// Once as candidate for the message, once for both interruptable steps
+		assertEquals(2, timesConditionEvaluated);
+	}
+	
+	@Test
+	public void addingStepToFlowPositionAfterBuildThrowsException() {
+		Model model = modelBuilder
+			.useCase(USE_CASE)
+				.basicFlow()
+					.step(CUSTOMER_ENTERS_TEXT).user(EntersText.class).system(displaysEnteredText())
+					.step(CUSTOMER_ENTERS_NUMBER).user(EntersNumber.class).system(displaysEnteredNumber())
+			.build();
+		
+		UseCase useCase = model.findUseCase(USE_CASE);
+		FlowStep customerEntersText = (FlowStep) useCase.findStep(CUSTOMER_ENTERS_TEXT);
+		FlowStep customerEntersNumber = (FlowStep) useCase.findStep(CUSTOMER_ENTERS_NUMBER);
+		
+		modelRunner.run(model).reactTo(entersText(), entersNumber());
+		assertFalse(modelRunner.canReactTo(EntersText.class));
+		
+		assertThrows(IllegalStateException.class, () -> customerEntersText.orAfter(customerEntersNumber));
+		modelRunner.reactTo(entersText());
+		
+		assertRecordedStepNames(CUSTOMER_ENTERS_TEXT, CUSTOMER_ENTERS_NUMBER);
+	}
+	
+	@Test
+	public void addingStepToFlowPositionDirectlyAfterBuildThrowsException() {
+		Model model = modelBuilder
+			.useCase(USE_CASE)
+				.basicFlow()
+					.step(CUSTOMER_ENTERS_TEXT).user(EntersText.class).system(displaysEnteredText())
+					.step(CUSTOMER_ENTERS_NUMBER).user(EntersNumber.class).system(displaysEnteredNumber())
+			.build();
+		
+		UseCase useCase = model.findUseCase(USE_CASE);
+		FlowStep customerEntersText = (FlowStep) useCase.findStep(CUSTOMER_ENTERS_TEXT);
+		
+		modelRunner.run(model).reactTo(entersText(), entersNumber());
+		assertFalse(modelRunner.canReactTo(EntersText.class));
+		
+		assertThrows(IllegalStateException.class,
+			() -> customerEntersText.getFlowPosition().orAfter(CUSTOMER_ENTERS_NUMBER, useCase));
+		modelRunner.reactTo(entersText());
+		
+		assertRecordedStepNames(CUSTOMER_ENTERS_TEXT, CUSTOMER_ENTERS_NUMBER);
+	}
+	
+	private boolean countsConditionEvaluation() {
+		timesConditionEvaluated++;
+		return true;
+	}
 }
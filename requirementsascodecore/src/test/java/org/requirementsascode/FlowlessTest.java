@@ -1,7 +1,9 @@
 package org.requirementsascode;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.Optional;
 
@@ -78,6 +80,36 @@ public class FlowlessTest extends AbstractTestCase {
 			assertFalse(latestStepRun.isPresent());
     }
 
+    @Test
+    public void withUseCase_oneNamedStepReactsToCommandWithEqualActor() {
+			Model model = modelBuilder.useCase(USE_CASE).as(customer)
+				.step(CUSTOMER_ENTERS_TEXT).user(EntersText.class).system(displaysEnteredText())
+			.build();
+		
+			modelRunner.run(model).as(new Actor(CUSTOMER)).reactTo(entersText());
+			Optional<Step> latestStepRun = modelRunner.getLatestStep();
+		
+			assertEquals(EntersText.class, latestStepRun.get().getMessageClass());
+    }
+    
+    @Test
+    public void withUseCase_settingActorsOfStepAfterBuildThrowsException() {
+    	Actor anotherActor = new Actor("AnotherActor");
+
+			Model model = modelBuilder.useCase(USE_CASE).as(customer)
+				.step(CUSTOMER_ENTERS_TEXT).user(EntersText.class).system(displaysEnteredText())
+			.build();
+		
+			modelRunner.run(model).as(anotherActor).reactTo(entersText());
+			assertFalse(modelRunner.getLatestStep().isPresent());
+			
+			Step step = model.findUseCase(USE_CASE).findStep(CUSTOMER_ENTERS_TEXT);
+			assertThrows(IllegalStateException.class, () -> step.setActors(new AbstractActor[] {customer, anotherActor}));
+			modelRunner.reactTo(entersText());
+		
+			assertFalse(modelRunner.getLatestStep().isPresent());
+    }
+
     @Test
     public void withUseCase_twoNamedStepsReactToEventsOfDifferentTypeInRightOrder() {
 			Model model = modelBuilder.useCase(USE_CASE)
@@ -1112,4 +1144,89 @@ public class FlowlessTest extends AbstractTestCase {
 			latestStepRun = modelRunner.getLatestStep();
 			assertEquals(EntersText.class, latestStepRun.get().getMessageClass());
     }
+    
+    @Test
+    public void withUseCase_oneNamedStepReactsToEvent_withInterfaceMessageClass() {
+			Model model = modelBuilder.useCase(USE_CASE)
+				.step(CUSTOMER_ENTERS_TEXT).on(CharSequence.class).system(() -> {})
+			.build();
+		
+			modelRunner.run(model).reactTo(new StringBuilder(TEXT));
+			Optional<Step> latestStepRun = modelRunner.getLatestStep();
+		
+			assertEquals(CharSequence.class, latestStepRun.get().getMessageClass());
+    }
+    
+    @Test
+    public void withUseCase_addingStepAfterBuildThrowsException() {
+			Model model = modelBuilder.useCase(USE_CASE)
+				.step(CUSTOMER_ENTERS_TEXT).on(EntersText.class).system(displaysEnteredText())
+			.build();
+			modelRunner.run(model).reactTo(entersNumber());
+			assertFalse(modelRunner.getLatestStep().isPresent());
+		
+			UseCase useCase = model.findUseCase(USE_CASE);
+			assertThrows(IllegalStateException.class, () -> useCase.newFlowlessStep(CUSTOMER_ENTERS_NUMBER, null));
+		
+			modelRunner.reactTo(entersNumber());
+			assertFalse(modelRunner.getLatestStep().isPresent());
+			assertEquals(1, useCase.getSteps().size());
+    }
+    
+    @Test
+    public void withUseCase_changingStepAfterBuildThrowsException() {
+			Model model = modelBuilder.useCase(USE_CASE)
+				.step(CUSTOMER_ENTERS_TEXT).on(EntersText.class).system(displaysEnteredText())
+			.build();
+			modelRunner.run(model).reactTo(entersText());
+			assertEquals(CUSTOMER_ENTERS_TEXT, latestStepName());
+		
+			Step step = model.findUseCase(USE_CASE).findStep(CUSTOMER_ENTERS_TEXT);
+			assertThrows(IllegalStateException.class, () -> step.setMessageClass(EntersNumber.class));
+			assertThrows(IllegalStateException.class, () -> step.setSystemReaction(displaysConstantText()));
+		
+			modelRunner.reactTo(entersNumber(), entersText());
+			assertEquals(CUSTOMER_ENTERS_TEXT, latestStepName());
+			assertEquals(TEXT, displayedText);
+    }
+    
+    @Test
+    public void withUseCase_stepsForMessageClassAreFoundBySupertypesInModelOrder() {
+			Model model = modelBuilder.useCase(USE_CASE)
+				.step(CUSTOMER_ENTERS_TEXT).on(Object.class).system(() -> {})
+				.step(CUSTOMER_ENTERS_TEXT_AGAIN).on(String.class).system(() -> {})
+				.step(CUSTOMER_ENTERS_NUMBER).on(Integer.class).system(() -> {})
+				.step(CUSTOMER_ENTERS_ALTERNATIVE_TEXT).on(CharSequence.class).system(() -> {})
+				.step(CUSTOMER_ENTERS_ALTERNATIVE_NUMBER).on(Comparable.class).system(() -> {})
+			.build();
+		
+			Step[] stepsForString = model.getDispatchIndex().getStepsFor(String.class);
+			Step[] stepsForStringArray = model.getDispatchIndex().getStepsFor(String[].class);
+		
+			assertArrayEquals(new String[] { CUSTOMER_ENTERS_TEXT, CUSTOMER_ENTERS_TEXT_AGAIN,
+				CUSTOMER_ENTERS_ALTERNATIVE_TEXT, CUSTOMER_ENTERS_ALTERNATIVE_NUMBER }, namesOf(stepsForString));
+			assertArrayEquals(new String[] { CUSTOMER_ENTERS_TEXT }, namesOf(stepsForStringArray));
+    }
+    
+    @Test
+    public void withUseCase_interruptingStepWithInterfaceMessageClassInterrupts() {
+			Model model = modelBuilder.useCase(USE_CASE)
+				.basicFlow()
+					.step(CUSTOMER_ENTERS_TEXT).user(String.class).system(() -> {})
+				.flow(ALTERNATIVE_FLOW).anytime()
+					.step(CUSTOMER_ENTERS_ALTERNATIVE_TEXT).user(CharSequence.class).system(() -> {})
+			.build();
+		
+			modelRunner.run(model).reactTo(TEXT);
+		
+			assertEquals(CUSTOMER_ENTERS_ALTERNATIVE_TEXT, latestStepName());
+    }
+    
+    private static String[] namesOf(Step[] steps) {
+			String[] names = new String[steps.length];
+			for (int i = 0; i < steps.length; i++) {
+				names[i] = steps[i].getName();
+			}
+			return names;
+    }
 }
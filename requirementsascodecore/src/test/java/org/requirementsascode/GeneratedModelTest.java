@@ -0,0 +1,81 @@
+package org.requirementsascode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.requirementsascode.generator.GeneratedModel;
+import org.requirementsascode.generator.GeneratedPath;
+import org.requirementsascode.generator.ModelGenerator;
+
+public class GeneratedModelTest {
+  private List<String> stepNamesRun;
+  private ModelRunner modelRunner;
+
+  @BeforeEach
+  public void setup() {
+    stepNamesRun = new ArrayList<>();
+    modelRunner = new ModelRunner().handleWith(stepToBeRun -> {
+      stepNamesRun.add(stepToBeRun.getStepName());
+      stepToBeRun.run();
+    });
+  }
+
+  @Test
+  public void reactsAlongBasicPath() {
+    GeneratedModel generatedModel = new ModelGenerator().useCases(3).stepsPerFlow(20).generate();
+    GeneratedPath basicPath = generatedModel.basicPath(1);
+
+    modelRunner.run(generatedModel.getModel());
+    basicPath.sendTo(modelRunner);
+
+    assertEquals(20, basicPath.size());
+    assertEquals(basicPath.getStepNames(), stepNamesRun);
+  }
+
+  @Test
+  public void reactsAlongRandomPathsOfBigModel() {
+    GeneratedModel generatedModel = bigModel(100);
+    assertEquals(10000, generatedModel.getNrOfSteps());
+
+    reactsAlongRandomPaths(generatedModel, 200);
+  }
+
+  // Too slow for the default test run, see the core project's build.gradle
+  @Tag("slow")
+  @Test
+  public void reactsAlongRandomPathsOfHugeModel() {
+    GeneratedModel generatedModel = bigModel(1000);
+    assertEquals(100000, generatedModel.getNrOfSteps());
+
+    reactsAlongRandomPaths(generatedModel, 200);
+  }
+
+  private GeneratedModel bigModel(int nrOfUseCases) {
+    GeneratedModel generatedModel = new ModelGenerator()
+      .useCases(nrOfUseCases).flowsPerUseCase(5).stepsPerFlow(20)
+      .insteadOfFraction(0.3).anytimeFraction(0.2).conditionalFraction(0.5)
+      .messageClassHierarchyDepth(3).actors(4).seed(42)
+      .generate();
+    return generatedModel;
+  }
+
+  private void reactsAlongRandomPaths(GeneratedModel generatedModel, int nrOfPaths) {
+    modelRunner.run(generatedModel.getModel());
+    Random random = new Random(42);
+    for (int i = 0; i < nrOfPaths; i++) {
+      GeneratedPath path = generatedModel.randomPath(random);
+      stepNamesRun.clear();
+
+      modelRunner.restart();
+      path.sendTo(modelRunner);
+
+      assertEquals(path.getStepNames(), stepNamesRun);
+    }
+  }
+}
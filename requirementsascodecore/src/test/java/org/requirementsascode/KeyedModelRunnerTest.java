@@ -0,0 +1,189 @@
+package org.requirementsascode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.requirementsascode.exception.NestedCallOfReactTo;
+import org.requirementsascode.generator.GeneratedModel;
+import org.requirementsascode.generator.GeneratedPath;
+import org.requirementsascode.generator.ModelGenerator;
+
+public class KeyedModelRunnerTest extends AbstractTestCase {
+  private int timesStarted;
+
+  @BeforeEach
+  public void setup() {
+    setupWithRecordingModelRunner();
+  }
+
+  @Test
+  public void entitiesReactIndependently() {
+    Model model = modelBuilder
+      .useCase(USE_CASE)
+        .basicFlow()
+          .step(CUSTOMER_ENTERS_TEXT).user(EntersText.class).system(displaysEnteredText())
+          .step(CUSTOMER_ENTERS_NUMBER).user(EntersNumber.class).systemPublish(number -> 2L * number.value())
+      .build();
+    KeyedModelRunner keyedRunner = new KeyedModelRunner(model);
+
+    keyedRunner.reactTo(1L, entersText());
+    keyedRunner.reactTo(2L, entersNumber());
+    Optional<Object> response = keyedRunner.reactTo(1L, entersNumber());
+
+    assertEquals(CUSTOMER_ENTERS_NUMBER, keyedRunner.getLatestStep(1L).get().getName());
+    assertFalse(keyedRunner.getLatestStep(2L).isPresent());
+    assertEquals(2L * NUMBER, response.get());
+    assertEquals(2, keyedRunner.size());
+  }
+
+  @Test
+  public void triggersAutonomousSystemReactionOncePerEntity() {
+    Model model = modelBuilder
+      .useCase(USE_CASE)
+        .basicFlow()
+          .step(SYSTEM_DISPLAYS_TEXT).system(() -> timesStarted++)
+          .step(CUSTOMER_ENTERS_TEXT).user(EntersText.class).system(displaysEnteredText())
+      .build();
+    KeyedModelRunner keyedRunner = new KeyedModelRunner(model);
+
+    keyedRunner.reactTo(1L, entersText());
+    keyedRunner.reactTo(2L, entersText());
+    keyedRunner.reactTo(1L, entersText());
+
+    assertEquals(2, timesStarted);
+    assertEquals(CUSTOMER_ENTERS_TEXT, keyedRunner.getLatestStep(1L).get().getName());
+    assertEquals(CUSTOMER_ENTERS_TEXT, keyedRunner.getLatestStep(2L).get().getName());
+  }
+
+  @Test
+  public void entityReactsOnlyAsActorOfStep() {
+    Model model = modelBuilder
+      .useCase(USE_CASE).as(customer)
+        .basicFlow()
+          .step(CUSTOMER_ENTERS_TEXT).user(EntersText.class).system(displaysEnteredText())
+      .build();
+    KeyedModelRunner keyedRunner = new KeyedModelRunner(model);
+
+    keyedRunner.reactTo(1L, entersText());
+    keyedRunner.reactTo(2L, customer, entersText());
+    keyedRunner.reactTo(1L, customer, entersText());
+    keyedRunner.reactTo(2L, entersText());
+
+    assertEquals(CUSTOMER_ENTERS_TEXT, keyedRunner.getLatestStep(1L).get().getName());
+    assertEquals(CUSTOMER_ENTERS_TEXT, keyedRunner.getLatestStep(2L).get().getName());
+    assertFalse(keyedRunner.reactTo(3L, entersText()).isPresent());
+    assertFalse(keyedRunner.getLatestStep(3L).isPresent());
+  }
+
+  @Test
+  public void stoppedEntityDoesntReactUntilRestarted() {
+    KeyedModelRunner keyedRunner = new KeyedModelRunner(textAndNumberModel());
+
+    keyedRunner.reactTo(1L, entersText());
+    keyedRunner.stop(1L);
+    keyedRunner.stop(2L);
+    keyedRunner.reactTo(1L, entersNumber());
+    keyedRunner.reactTo(2L, entersText());
+
+    assertFalse(keyedRunner.isRunning(1L));
+    assertFalse(keyedRunner.isRunning(2L));
+    assertTrue(keyedRunner.isRunning(3L));
+    assertEquals(CUSTOMER_ENTERS_TEXT, keyedRunner.getLatestStep(1L).get().getName());
+    assertFalse(keyedRunner.getLatestStep(2L).isPresent());
+
+    keyedRunner.restart(1L);
+    keyedRunner.reactTo(1L, entersNumber());
+
+    assertTrue(keyedRunner.isRunning(1L));
+    assertFalse(keyedRunner.getLatestStep(1L).isPresent());
+  }
+
+  @Test
+  public void entityStoppedByItsOwnSystemReactionStaysStopped() {
+    KeyedModelRunner[] keyedRunner = new KeyedModelRunner[1];
+    Model model = modelBuilder
+      .useCase(USE_CASE)
+        .basicFlow()
+          .step(CUSTOMER_ENTERS_TEXT).user(EntersText.class).system(enteredText -> keyedRunner[0].stop(1L))
+          .step(CUSTOMER_ENTERS_NUMBER).user(EntersNumber.class).system(displaysEnteredNumber())
+      .build();
+    keyedRunner[0] = new KeyedModelRunner(model);
+
+    keyedRunner[0].reactTo(1L, entersText());
+    keyedRunner[0].reactTo(1L, entersNumber());
+
+    assertFalse(keyedRunner[0].isRunning(1L));
+    assertEquals(CUSTOMER_ENTERS_TEXT, keyedRunner[0].getLatestStep(1L).get().getName());
+  }
+
+  @Test
+  public void entityRestartedByItsOwnSystemReactionIsInInitialState() {
+    KeyedModelRunner[] keyedRunner = new KeyedModelRunner[1];
+    Model model = modelBuilder
+      .useCase(USE_CASE)
+        .basicFlow()
+          .step(CUSTOMER_ENTERS_TEXT).user(EntersText.class).system(displaysEnteredText())
+          .step(CUSTOMER_ENTERS_NUMBER).user(EntersNumber.class).system(enteredNumber -> keyedRunner[0].restart(1L))
+      .build();
+    keyedRunner[0] = new KeyedModelRunner(model);
+
+    keyedRunner[0].reactTo(1L, entersText());
+    keyedRunner[0].reactTo(1L, entersNumber());
+
+    assertTrue(keyedRunner[0].isRunning(1L));
+    assertFalse(keyedRunner[0].getLatestStep(1L).isPresent());
+    assertEquals(0, keyedRunner[0].size());
+  }
+
+  @Test
+  public void throwsExceptionForNestedCall() {
+    KeyedModelRunner[] keyedRunner = new KeyedModelRunner[1];
+    Model model = modelBuilder
+      .user(EntersText.class).system(enteredText -> keyedRunner[0].reactTo(2L, enteredText))
+      .build();
+    keyedRunner[0] = new KeyedModelRunner(model);
+
+    assertThrows(NestedCallOfReactTo.class, () -> keyedRunner[0].reactTo(1L, entersText()));
+  }
+
+  @Test
+  public void manyEntitiesReactAlongInterleavedRandomPaths() {
+    GeneratedModel generatedModel = new ModelGenerator()
+      .useCases(20).flowsPerUseCase(5).stepsPerFlow(10)
+      .insteadOfFraction(0.3).anytimeFraction(0.2)
+      .generate();
+    List<String> stepNamesRun = new ArrayList<>();
+    KeyedModelRunner keyedRunner = new KeyedModelRunner(generatedModel.getModel()).handleWith(stepToBeRun -> {
+      stepNamesRun.add(stepToBeRun.getStepName());
+      stepToBeRun.run();
+    });
+
+    int nrOfEntities = 1000;
+    Random random = new Random(3);
+    List<GeneratedPath> paths = new ArrayList<>();
+    for (int i = 0; i < nrOfEntities; i++) {
+      paths.add(generatedModel.randomPath(random));
+    }
+
+    for (int messageIndex = 0; messageIndex < 10; messageIndex++) {
+      for (int entity = 0; entity < nrOfEntities; entity++) {
+        GeneratedPath path = paths.get(entity);
+        if (messageIndex < path.size()) {
+          stepNamesRun.clear();
+          keyedRunner.reactTo(entity * 7919L, path.getMessages().get(messageIndex));
+          assertEquals(path.getStepNames().subList(messageIndex, messageIndex + 1), stepNamesRun);
+        }
+      }
+    }
+    assertEquals(nrOfEntities, keyedRunner.size());
+  }
+}
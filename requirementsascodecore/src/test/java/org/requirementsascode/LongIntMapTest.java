@@ -0,0 +1,69 @@
+package org.requirementsascode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class LongIntMapTest {
+  @Test
+  public void putsAndGetsValues() {
+    LongIntMap map = new LongIntMap();
+    map.put(1L, 10);
+    map.put(0L, 0);
+    map.put(-1L, 20);
+    map.put(1L, 11);
+
+    assertEquals(3, map.size());
+    assertEquals(11, map.get(1L, -1));
+    assertEquals(0, map.get(0L, -1));
+    assertEquals(20, map.get(-1L, -1));
+    assertEquals(-1, map.get(2L, -1));
+    assertTrue(map.containsKey(0L));
+    assertFalse(map.containsKey(2L));
+  }
+
+  @Test
+  public void removesValues() {
+    LongIntMap map = new LongIntMap();
+    map.put(0L, 1);
+    map.put(5L, 2);
+
+    assertTrue(map.remove(0L));
+    assertTrue(map.remove(5L));
+    assertFalse(map.remove(5L));
+    assertEquals(0, map.size());
+    assertEquals(-1, map.get(5L, -1));
+  }
+
+  @Test
+  public void behavesLikeHashMapForRandomOperations() {
+    LongIntMap map = new LongIntMap();
+    Map<Long, Integer> expectedMap = new HashMap<>();
+    Random random = new Random(7);
+
+    for (int i = 0; i < 200000; i++) {
+      // Few distinct keys, so that puts and removes hit the same probe sequences
+      long key = random.nextInt(5000) - 100;
+      int operation = random.nextInt(3);
+      if (operation == 0) {
+        map.put(key, i);
+        expectedMap.put(key, i);
+      } else if (operation == 1) {
+        assertEquals(expectedMap.remove(key) != null, map.remove(key));
+      } else {
+        assertEquals((int) expectedMap.getOrDefault(key, -1), map.get(key, -1));
+      }
+    }
+
+    assertEquals(expectedMap.size(), map.size());
+    for (Map.Entry<Long, Integer> entry : expectedMap.entrySet()) {
+      assertEquals((int) entry.getValue(), map.get(entry.getKey(), -1));
+    }
+  }
+}
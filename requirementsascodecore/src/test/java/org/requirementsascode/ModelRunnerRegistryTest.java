@@ -0,0 +1,291 @@
+package org.requirementsascode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.requirementsascode.generator.GeneratedModel;
+import org.requirementsascode.generator.GeneratedPath;
+import org.requirementsascode.generator.ModelGenerator;
+
+public class ModelRunnerRegistryTest {
+  private int timesStarted;
+  private Model model;
+
+  @BeforeEach
+  public void setup() {
+    timesStarted = 0;
+    model = Model.builder()
+      .useCase("Use case")
+        .basicFlow()
+          .step("Start").system(() -> timesStarted++)
+          .step("S1").user(String.class).system(s -> {})
+          .step("S2").user(Integer.class).system(i -> {})
+          .step("S3").user(String.class).system(s -> {})
+      .build();
+  }
+
+  @Test
+  public void createsRunnerPerKeyOnDemand() {
+    ModelRunnerRegistry<String> registry = new ModelRunnerRegistry<>(model);
+
+    registry.reactTo("Ann", "Text");
+    registry.reactTo("Bob", 1);
+    registry.reactTo("Ann", 1);
+
+    assertEquals("S2", registry.getLatestStep("Ann").get().getName());
+    assertEquals("Start", registry.getLatestStep("Bob").get().getName());
+    assertFalse(registry.getLatestStep("Carl").isPresent());
+    assertEquals(2, timesStarted);
+    assertEquals(2, registry.getNrOfActiveRunners());
+    assertEquals(1, registry.getHitCount());
+    assertEquals(2, registry.getMissCount());
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsedRunnerAndRehydratesIt() {
+    ModelRunnerRegistry<String> registry = new ModelRunnerRegistry<String>(model).evictWhenMoreThan(2);
+
+    registry.reactTo("Ann", "Text");
+    registry.reactTo("Bob", "Text");
+    registry.reactTo("Carl", "Text");
+
+    assertEquals(2, registry.getNrOfActiveRunners());
+    assertEquals(1, registry.getNrOfPassivatedRunners());
+    assertEquals(1, registry.getEvictionCount());
+    assertEquals("S1", registry.getLatestStep("Ann").get().getName());
+
+    registry.reactTo("Ann", 1);
+
+    assertEquals("S2", registry.getLatestStep("Ann").get().getName());
+    assertEquals(3, timesStarted);
+    assertEquals(1, registry.getRehydrationCount());
+    assertEquals(4, registry.getMissCount());
+    assertEquals(2, registry.getEvictionCount());
+  }
+
+  @Test
+  public void evictsIdleRunners() {
+    MutableClock clock = new MutableClock();
+    ModelRunnerRegistry<String> registry = new ModelRunnerRegistry<String>(model)
+      .withClock(clock)
+      .evictWhenIdleFor(Duration.ofMinutes(30));
+
+    registry.reactTo("Ann", "Text");
+    clock.advance(Duration.ofMinutes(20));
+    registry.reactTo("Bob", "Text");
+    clock.advance(Duration.ofMinutes(20));
+    registry.evictIdleRunners();
+
+    assertEquals(1, registry.getNrOfActiveRunners());
+    assertEquals(1, registry.getNrOfPassivatedRunners());
+    assertEquals("S1", registry.getLatestStep("Ann").get().getName());
+
+    clock.advance(Duration.ofMinutes(20));
+    registry.reactTo("Ann", 1);
+
+    assertEquals(1, registry.getNrOfActiveRunners());
+    assertEquals("S2", registry.getLatestStep("Ann").get().getName());
+    assertEquals(2, registry.getEvictionCount());
+  }
+
+  @Test
+  public void rehydratesStoppedRunner() {
+    ModelRunnerRegistry<String> registry = new ModelRunnerRegistry<String>(model)
+      .evictWhenMoreThan(1)
+      .configureRunnersWith(runner -> runner.handleWith(stepToBeRun -> {
+        stepToBeRun.run();
+        if ("S2".equals(stepToBeRun.getStepName())) {
+          runner.stop();
+        }
+      }));
+
+    registry.reactTo("Ann", "Text");
+    registry.reactTo("Ann", 1);
+    registry.reactTo("Bob", "Text");
+    registry.reactTo("Ann", "Text");
+
+    assertEquals("S2", registry.getLatestStep("Ann").get().getName());
+    assertEquals(1, registry.getRehydrationCount());
+  }
+
+  @Test
+  public void removesRunner() {
+    ModelRunnerRegistry<String> registry = new ModelRunnerRegistry<String>(model).evictWhenMoreThan(1);
+
+    registry.reactTo("Ann", "Text");
+    registry.reactTo("Bob", "Text");
+    registry.remove("Ann");
+    registry.remove("Bob");
+
+    assertEquals(0, registry.getNrOfActiveRunners());
+    assertEquals(0, registry.getNrOfPassivatedRunners());
+    assertFalse(registry.getLatestStep("Ann").isPresent());
+  }
+
+  @Test
+  public void slowNewRunnerDoesntBlockOtherKeys() throws Exception {
+    CountDownLatch annIsStarting = new CountDownLatch(1);
+    CountDownLatch bobHasReacted = new CountDownLatch(1);
+    Model slowStartModel = Model.builder()
+      .useCase("Use case")
+        .basicFlow()
+          .step("Start").system(() -> {
+            annIsStarting.countDown();
+            awaitUninterruptibly(bobHasReacted);
+          })
+          .step("S1").user(String.class).system(s -> {})
+      .build();
+    ModelRunnerRegistry<String> registry = new ModelRunnerRegistry<String>(slowStartModel)
+      .configureRunnersWith(modelRunner -> {
+        if (annIsStarting.getCount() == 0) {
+          bobHasReacted.countDown();
+        }
+      });
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<?> annReacts = executor.submit(() -> registry.reactTo("Ann", "Text"));
+      annIsStarting.await();
+
+      registry.reactTo("Bob", "Text");
+      annReacts.get(10, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals("S1", registry.getLatestStep("Ann").get().getName());
+    assertEquals("S1", registry.getLatestStep("Bob").get().getName());
+    assertEquals(2, registry.getMissCount());
+  }
+
+  @Test
+  public void doesntCountMissIfRunnerCantBeCreated() {
+    ModelRunnerRegistry<String> registry = new ModelRunnerRegistry<String>(model)
+      .configureRunnersWith(modelRunner -> {
+        if (timesStarted == 0) {
+          timesStarted++;
+          throw new IllegalStateException();
+        }
+      });
+
+    assertThrows(IllegalStateException.class, () -> registry.reactTo("Ann", "Text"));
+    assertEquals(0, registry.getMissCount());
+
+    registry.reactTo("Ann", "Text");
+    assertEquals(1, registry.getMissCount());
+    assertTrue(registry.getLatestStep("Ann").isPresent());
+  }
+
+  @Test
+  public void rehydratesRunnerOfStepWithBigId() {
+    GeneratedModel generatedModel = new ModelGenerator().useCases(2).stepsPerFlow(300).generate();
+    GeneratedPath path = generatedModel.basicPath(1);
+    ModelRunnerRegistry<Integer> registry = new ModelRunnerRegistry<Integer>(generatedModel.getModel())
+      .evictWhenMoreThan(1);
+
+    for (int i = 0; i < path.size(); i++) {
+      registry.reactTo(1, path.getMessages().get(i));
+      registry.reactTo(2, "Evicts runner of key 1");
+      assertEquals(path.getStepNames().get(i), registry.getLatestStep(1).get().getName());
+    }
+    assertEquals(2 * (path.size() - 1), registry.getRehydrationCount());
+  }
+
+  @Test
+  public void runnersOnManyThreadsReactAlongRandomPaths() throws Exception {
+    GeneratedModel generatedModel = new ModelGenerator()
+      .useCases(10).flowsPerUseCase(4).stepsPerFlow(10).insteadOfFraction(0.3)
+      .generate();
+    ModelRunnerRegistry<Integer> registry = new ModelRunnerRegistry<Integer>(generatedModel.getModel())
+      .evictWhenMoreThan(8);
+
+    int nrOfThreads = 8;
+    int keysPerThread = 20;
+    ExecutorService executor = Executors.newFixedThreadPool(nrOfThreads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int thread = 0; thread < nrOfThreads; thread++) {
+        int firstKey = thread * keysPerThread;
+        futures.add(executor.submit(() -> {
+          reactAlongRandomPaths(generatedModel, registry, firstKey, keysPerThread);
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(nrOfThreads * keysPerThread, registry.getMissCount() - registry.getRehydrationCount());
+  }
+
+  private void reactAlongRandomPaths(GeneratedModel generatedModel, ModelRunnerRegistry<Integer> registry,
+    int firstKey, int nrOfKeys) {
+    Random random = new Random(firstKey);
+    List<GeneratedPath> paths = new ArrayList<>();
+    for (int i = 0; i < nrOfKeys; i++) {
+      paths.add(generatedModel.randomPath(random));
+    }
+
+    for (int messageIndex = 0; messageIndex < 10; messageIndex++) {
+      for (int i = 0; i < nrOfKeys; i++) {
+        GeneratedPath path = paths.get(i);
+        if (messageIndex < path.size()) {
+          int key = firstKey + i;
+          registry.reactTo(key, path.getMessages().get(messageIndex));
+          assertEquals(path.getStepNames().get(messageIndex), registry.getLatestStep(key).get().getName());
+        }
+      }
+    }
+  }
+
+  private static class MutableClock extends Clock {
+    private Instant instant = Instant.EPOCH;
+
+    void advance(Duration duration) {
+      instant = instant.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+
+  private static void awaitUninterruptibly(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
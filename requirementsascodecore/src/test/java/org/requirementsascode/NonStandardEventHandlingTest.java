@@ -226,4 +226,18 @@ public class NonStandardEventHandlingTest extends AbstractTestCase {
         return;
       };
     }
+    
+    @Test
+    public void reactsToLongChainOfPublishedEvents() {
+      final int chainLength = 50000;
+      Model model = modelBuilder
+        .useCase(USE_CASE)
+          .on(Integer.class).systemPublish((Integer i) -> i > 0 ? i - 1 : null)
+        .build();
+      
+      ModelRunner runner = new ModelRunner();
+      Optional<Integer> latestPublishedEvent = runner.run(model).reactTo(chainLength);
+      
+      assertEquals(0, latestPublishedEvent.get().intValue());
+    }
  }
\ No newline at end of file
@@ -0,0 +1,207 @@
+package org.requirementsascode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ReactToAsyncTest {
+  private ExecutorService executor;
+  private int nrOfNumbersReceived;
+  private int[] latestNumberBySender;
+  private boolean isInOrder;
+
+  @BeforeEach
+  public void setup() {
+    executor = Executors.newFixedThreadPool(4);
+    latestNumberBySender = new int[8];
+    isInOrder = true;
+  }
+
+  @AfterEach
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void completesFutureWithPublishedEvent() throws Exception {
+    Model model = Model.builder()
+      .user(Integer.class).systemPublish(i -> 2L * i)
+      .build();
+    ModelRunner modelRunner = new ModelRunner().withExecutor(executor).run(model);
+
+    Optional<Long> response = modelRunner.<Long>reactToAsync(21).get(10, TimeUnit.SECONDS);
+
+    assertEquals(42L, (long) response.get());
+  }
+
+  @Test
+  public void completesFutureWithDefaultExecutor() throws Exception {
+    Model model = Model.builder()
+      .user(Integer.class).systemPublish(i -> 2L * i)
+      .build();
+    ModelRunner modelRunner = new ModelRunner().run(model);
+
+    Optional<Long> response = modelRunner.<Long>reactToAsync(21).get(10, TimeUnit.SECONDS);
+
+    assertEquals(42L, (long) response.get());
+  }
+
+  @Test
+  public void completesFutureExceptionallyWhenReactionThrowsException() throws Exception {
+    Model model = Model.builder()
+      .user(Integer.class).system(i -> {
+        throw new IllegalStateException("Test exception");
+      })
+      .build();
+    ModelRunner modelRunner = new ModelRunner().withExecutor(executor).run(model);
+
+    CompletableFuture<Optional<Object>> response = modelRunner.reactToAsync(1);
+
+    ExecutionException exception = assertThrowsExecutionException(response);
+    assertTrue(exception.getCause() instanceof IllegalStateException);
+  }
+
+  @Test
+  public void completesFutureExceptionallyAndRethrowsWhenReactionThrowsError() throws Exception {
+    List<Runnable> tasks = new ArrayList<>();
+    Model model = Model.builder()
+      .user(Integer.class).system(i -> {
+        throw new OutOfMemoryError("Test error");
+      })
+      .build();
+    ModelRunner modelRunner = new ModelRunner().withExecutor(tasks::add).run(model);
+
+    CompletableFuture<Optional<Object>> response = modelRunner.reactToAsync(1);
+
+    assertThrows(OutOfMemoryError.class, () -> tasks.remove(0).run());
+    ExecutionException exception = assertThrowsExecutionException(response);
+    assertTrue(exception.getCause() instanceof OutOfMemoryError);
+  }
+
+  @Test
+  public void completesFutureExceptionallyWhenExecutorRejects() throws Exception {
+    executor.shutdown();
+    Model model = Model.builder()
+      .user(Integer.class).system(i -> {})
+      .build();
+    ModelRunner modelRunner = new ModelRunner().withExecutor(executor).run(model);
+
+    CompletableFuture<Optional<Object>> response = modelRunner.reactToAsync(1);
+
+    ExecutionException exception = assertThrowsExecutionException(response);
+    assertTrue(exception.getCause() instanceof RejectedExecutionException);
+  }
+
+  @Test
+  public void reactsOneAfterTheOtherWhenExecutorIsChangedWhileReacting() throws Exception {
+    CountDownLatch firstReactionStarted = new CountDownLatch(1);
+    CountDownLatch executorChanged = new CountDownLatch(1);
+    AtomicInteger nrOfActiveReactions = new AtomicInteger();
+    Model model = Model.builder()
+      .user(Integer.class).system(i -> {
+        if (nrOfActiveReactions.incrementAndGet() > 1) {
+          isInOrder = false;
+        }
+        if (i == 1) {
+          firstReactionStarted.countDown();
+          await(executorChanged);
+        }
+        nrOfActiveReactions.decrementAndGet();
+      })
+      .build();
+    ModelRunner modelRunner = new ModelRunner().withExecutor(executor).run(model);
+    ExecutorService otherExecutor = Executors.newFixedThreadPool(4);
+    try {
+      CompletableFuture<Optional<Object>> firstResponse = modelRunner.reactToAsync(1);
+      firstReactionStarted.await(10, TimeUnit.SECONDS);
+      modelRunner.withExecutor(otherExecutor);
+      CompletableFuture<Optional<Object>> secondResponse = modelRunner.reactToAsync(2);
+      executorChanged.countDown();
+
+      firstResponse.get(10, TimeUnit.SECONDS);
+      secondResponse.get(10, TimeUnit.SECONDS);
+    } finally {
+      otherExecutor.shutdownNow();
+    }
+
+    assertTrue(isInOrder);
+  }
+
+  @Test
+  public void reactsToMessagesFromManyThreadsOneAfterTheOther() throws Exception {
+    Model model = Model.builder()
+      .user(int[].class).system(this::receiveNumberOfSender)
+      .build();
+    ModelRunner modelRunner = new ModelRunner().withExecutor(executor).run(model);
+
+    ExecutorService senders = Executors.newFixedThreadPool(latestNumberBySender.length);
+    try {
+      List<Future<List<CompletableFuture<Optional<Object>>>>> sent = new ArrayList<>();
+      for (int sender = 0; sender < latestNumberBySender.length; sender++) {
+        int senderIndex = sender;
+        sent.add(senders.submit(() -> sendNumbers(modelRunner, senderIndex, 1000)));
+      }
+      for (Future<List<CompletableFuture<Optional<Object>>>> sentBySender : sent) {
+        for (CompletableFuture<Optional<Object>> response : sentBySender.get()) {
+          response.get(10, TimeUnit.SECONDS);
+        }
+      }
+    } finally {
+      senders.shutdownNow();
+    }
+
+    assertEquals(8000, nrOfNumbersReceived);
+    assertTrue(isInOrder);
+  }
+
+  private List<CompletableFuture<Optional<Object>>> sendNumbers(ModelRunner modelRunner, int sender, int count) {
+    List<CompletableFuture<Optional<Object>>> responses = new ArrayList<>();
+    for (int number = 1; number <= count; number++) {
+      responses.add(modelRunner.reactToAsync(new int[] { sender, number }));
+    }
+    return responses;
+  }
+
+  private void receiveNumberOfSender(int[] senderAndNumber) {
+    // Not synchronized on purpose: the runner must not react concurrently
+    nrOfNumbersReceived++;
+    int sender = senderAndNumber[0];
+    int number = senderAndNumber[1];
+    isInOrder &= latestNumberBySender[sender] == number - 1;
+    latestNumberBySender[sender] = number;
+  }
+
+  private ExecutionException assertThrowsExecutionException(CompletableFuture<?> future) throws Exception {
+    try {
+      future.get(10, TimeUnit.SECONDS);
+    } catch (ExecutionException e) {
+      return e;
+    }
+    throw new AssertionError("Future completed normally");
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
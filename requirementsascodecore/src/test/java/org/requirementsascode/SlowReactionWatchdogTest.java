@@ -0,0 +1,178 @@
+package org.requirementsascode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.requirementsascode.metrics.DefaultMetricsRegistry;
+
+public class SlowReactionWatchdogTest extends AbstractTestCase {
+  private SlowReactionWatchdog watchdog;
+  private List<TimeBudgetViolation> violations;
+  private CountDownLatch violationReported;
+
+  @BeforeEach
+  public void setup() {
+    setupWithRecordingModelRunner();
+    violations = new CopyOnWriteArrayList<>();
+    violationReported = new CountDownLatch(1);
+    watchdog = new SlowReactionWatchdog().checkEvery(Duration.ofMillis(1)).handleViolationsWith(violation -> {
+      violations.add(violation);
+      violationReported.countDown();
+    });
+  }
+
+  @AfterEach
+  public void tearDown() {
+    watchdog.close();
+  }
+
+  @Test
+  public void reportsReactionThatExceedsStepTimeBudget() {
+    Model model = modelBuilder
+      .useCase(USE_CASE)
+        .basicFlow()
+          .step(CUSTOMER_ENTERS_TEXT).user(EntersText.class).system(this::awaitViolation)
+            .timeBudget(Duration.ofMillis(10))
+      .build();
+    modelRunner.withWatchdog(watchdog).run(model);
+
+    modelRunner.reactTo(entersText());
+
+    Step slowStep = model.findUseCase(USE_CASE).findStep(CUSTOMER_ENTERS_TEXT);
+    assertEquals(1, violations.size());
+    TimeBudgetViolation violation = violations.get(0);
+    assertEquals(slowStep, violation.getStep());
+    assertEquals(EntersText.class, violation.getMessageClass());
+    assertEquals(Duration.ofMillis(10), violation.getTimeBudget());
+    assertTrue(violation.getElapsedTime().compareTo(Duration.ofMillis(10)) > 0);
+    assertEquals(Thread.currentThread().getName(), violation.getThreadName());
+    assertTrue(containsMethod(violation.getStackSample(), "awaitViolation"));
+    assertEquals(1, watchdog.getViolationCount());
+    assertEquals(1, watchdog.getViolationCount(slowStep));
+    assertEquals(violations, watchdog.getRecentViolations());
+  }
+
+  @Test
+  public void reportsReactionThatExceedsRunnerTimeBudget() {
+    Model model = modelBuilder
+      .on(EntersText.class).system(this::awaitViolation)
+      .build();
+    modelRunner.withWatchdog(watchdog).withTimeBudget(Duration.ofMillis(10)).run(model);
+
+    modelRunner.reactTo(entersText());
+
+    assertEquals(1, violations.size());
+    assertEquals(Duration.ofMillis(10), violations.get(0).getTimeBudget());
+  }
+
+  @Test
+  public void stepTimeBudgetOverridesRunnerTimeBudget() {
+    Model model = modelBuilder
+      .on(EntersText.class).system(enteredText -> sleep(50)).timeBudget(Duration.ofSeconds(10))
+      .build();
+    modelRunner.withWatchdog(watchdog).withTimeBudget(Duration.ofMillis(10)).run(model);
+
+    modelRunner.reactTo(entersText());
+
+    assertTrue(violations.isEmpty());
+  }
+
+  @Test
+  public void doesntReportReactionWithinTimeBudget() {
+    Model model = modelBuilder
+      .on(EntersText.class).system(displaysEnteredText()).timeBudget(Duration.ofSeconds(10))
+      .on(EntersNumber.class).system(enteredNumber -> sleep(50))
+      .build();
+    modelRunner.withWatchdog(watchdog).run(model);
+
+    modelRunner.reactTo(entersText());
+    modelRunner.reactTo(entersNumber());
+    sleep(20);
+
+    assertTrue(violations.isEmpty());
+    assertEquals(0, watchdog.getViolationCount());
+  }
+
+  @Test
+  public void countsExceededTimeBudgetsInMetrics() {
+    Model model = modelBuilder
+      .on(EntersText.class).system(enteredText -> sleep(20)).timeBudget(Duration.ofMillis(5))
+      .on(EntersNumber.class).system(displaysEnteredNumber()).timeBudget(Duration.ofSeconds(10))
+      .build();
+    DefaultMetricsRegistry metrics = new DefaultMetricsRegistry(model);
+    modelRunner.withMetrics(metrics).run(model);
+
+    modelRunner.reactTo(entersText());
+    modelRunner.reactTo(entersText());
+    modelRunner.reactTo(entersNumber());
+
+    Step slowStep = model.findUseCase("Handles messages").findStep("S1");
+    Step fastStep = model.findUseCase("Handles messages").findStep("S2");
+    assertEquals(2, metrics.getTimeBudgetExceededCount(slowStep));
+    assertEquals(0, metrics.getTimeBudgetExceededCount(fastStep));
+  }
+
+  @Test
+  public void keyedRunnerReportsSlowReactions() {
+    Model model = modelBuilder
+      .on(EntersText.class).system(this::awaitViolation)
+      .build();
+    KeyedModelRunner keyedRunner = new KeyedModelRunner(model).withWatchdog(watchdog)
+      .withTimeBudget(Duration.ofMillis(10));
+
+    keyedRunner.reactTo(1L, entersText());
+
+    assertEquals(1, violations.size());
+  }
+
+  @Test
+  public void doesntReportAfterClose() {
+    Model model = modelBuilder
+      .on(EntersText.class).system(enteredText -> sleep(50)).timeBudget(Duration.ofMillis(5))
+      .build();
+    modelRunner.withWatchdog(watchdog).run(model);
+    watchdog.close();
+
+    modelRunner.reactTo(entersText());
+
+    assertTrue(violations.isEmpty());
+  }
+
+  @Test
+  public void rejectsNonPositiveTimeBudget() {
+    assertThrows(IllegalArgumentException.class, () -> new ModelRunner().withTimeBudget(Duration.ZERO));
+    assertThrows(IllegalArgumentException.class,
+      () -> Model.builder().on(String.class).system(s -> {}).timeBudget(Duration.ofMillis(-1)));
+    assertFalse(Model.builder().on(String.class).system(s -> {}).build().getSteps().iterator().next()
+      .getTimeBudget().isPresent());
+  }
+
+  private void awaitViolation(EntersText enteredText) {
+    try {
+      // Keeps the reaction running until the watchdog has reported it
+      violationReported.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static boolean containsMethod(StackTraceElement[] stackSample, String methodName) {
+    for (StackTraceElement element : stackSample) {
+      if (methodName.equals(element.getMethodName())) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
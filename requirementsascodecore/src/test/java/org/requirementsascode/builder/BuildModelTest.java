@@ -2,6 +2,7 @@ package org.requirementsascode.builder;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Collection;
@@ -741,4 +742,26 @@ public class BuildModelTest extends AbstractTestCase {
 		assertTrue(actor1 == actor2);
 		assertEquals(customer, actor1);
   }
+    
+  @Test
+  public void returnsSameStepAndActorCollectionsOfBuiltModel() {
+		Model model = 
+			modelBuilder.useCase(USE_CASE).as(customer).basicFlow()
+				.step(CUSTOMER_ENTERS_TEXT).user(EntersText.class).system(displaysEnteredText())
+			.build();
+	
+		Collection<Step> steps = model.getSteps();
+		Collection<AbstractActor> actors = model.getActors();
+		assertTrue(steps == model.getSteps());
+		assertTrue(actors == model.getActors());
+		assertEquals(1, steps.size());
+		assertEquals(1, actors.size());
+		
+		assertThrows(IllegalStateException.class, () -> modelBuilder.useCase(USE_CASE_2).as(sourceActor).basicFlow()
+			.step(CUSTOMER_ENTERS_NUMBER).user(EntersNumber.class).system(displaysEnteredNumber()));
+		
+		assertTrue(steps == model.getSteps());
+		assertTrue(actors == model.getActors());
+		assertEquals(1, steps.size());
+  }
 }
@@ -0,0 +1,226 @@
+package org.requirementsascode.jmx;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.requirementsascode.AbstractActor;
+import org.requirementsascode.AbstractTestCase;
+import org.requirementsascode.Model;
+import org.requirementsascode.ModelRunner;
+import org.requirementsascode.metrics.DefaultMetricsRegistry;
+import org.requirementsascode.queue.EventQueue;
+
+public class ManagementExporterTest extends AbstractTestCase {
+  private MBeanServer mBeanServer;
+  private ManagementExporter exporter;
+
+  @BeforeEach
+  public void setup() {
+    this.mBeanServer = MBeanServerFactory.newMBeanServer();
+    // Rates are only sampled when a test calls sampleRates()
+    this.exporter = new ManagementExporter(mBeanServer, TimeUnit.HOURS.toMillis(1));
+  }
+
+  @AfterEach
+  public void tearDown() {
+    exporter.close();
+  }
+
+  @Test
+  public void showsRunnersOfModel() throws JMException {
+    Model model = textAndNumberModel();
+    ModelRunner runner1 = new ModelRunner().run(model);
+    ModelRunner runner2 = new ModelRunner().run(model);
+    ModelRunner stoppedRunner = new ModelRunner().run(model);
+    ModelRunner runnerOfOtherModel = new ModelRunner().run(textAndNumberModel());
+    exporter.exportModel("Two steps", model).exportRunner(runner1).exportRunner(runner2)
+      .exportRunner(stoppedRunner).exportRunner(runnerOfOtherModel);
+
+    runner1.reactTo(entersText());
+    runner2.reactTo(entersText());
+    stoppedRunner.stop();
+
+    ObjectName modelName = ManagementExporter.objectNameOf("Model", "Two steps");
+    assertEquals(3, mBeanServer.getAttribute(modelName, "NrOfRunners"));
+    assertEquals(2, mBeanServer.getAttribute(modelName, "NrOfRunningRunners"));
+    TabularData latestStepDistribution = (TabularData) mBeanServer.getAttribute(modelName, "LatestStepDistribution");
+    assertEquals(2, valueOf(latestStepDistribution, USE_CASE + ": " + CUSTOMER_ENTERS_TEXT));
+    assertEquals(1, valueOf(latestStepDistribution, "(no step run)"));
+  }
+
+  @Test
+  public void showsStepRunCountsOfMetricsRegistry() throws JMException {
+    Model model = textAndNumberModel();
+    DefaultMetricsRegistry metricsRegistry = new DefaultMetricsRegistry(model);
+    ModelRunner runner = new ModelRunner().withMetrics(metricsRegistry).run(model);
+    exporter.exportModel("Two steps", metricsRegistry).exportRunner(runner);
+
+    runner.reactTo(entersText(), entersNumber(), entersNumber());
+
+    ObjectName modelName = ManagementExporter.objectNameOf("Model", "Two steps");
+    TabularData stepRunCounts = (TabularData) mBeanServer.getAttribute(modelName, "StepRunCounts");
+    assertEquals(1L, valueOf(stepRunCounts, USE_CASE + ": " + CUSTOMER_ENTERS_TEXT));
+    assertEquals(1L, valueOf(stepRunCounts, USE_CASE + ": " + CUSTOMER_ENTERS_NUMBER));
+    assertEquals(1L, mBeanServer.getAttribute(modelName, "UnhandledMessageCount"));
+  }
+
+  @Test
+  public void readingStepRunRatesDoesntChangeThem() throws JMException {
+    Model model = textAndNumberModel();
+    DefaultMetricsRegistry metricsRegistry = new DefaultMetricsRegistry(model);
+    ModelRunner runner = new ModelRunner().withMetrics(metricsRegistry).run(model);
+    exporter.exportModel("Two steps", metricsRegistry).exportRunner(runner);
+
+    runner.reactTo(entersText());
+    exporter.sampleRates();
+
+    ObjectName modelName = ManagementExporter.objectNameOf("Model", "Two steps");
+    String entersTextStep = USE_CASE + ": " + CUSTOMER_ENTERS_TEXT;
+    TabularData stepRunRates = (TabularData) mBeanServer.getAttribute(modelName, "StepRunRatesPerSecond");
+    TabularData stepRunRatesReadAgain = (TabularData) mBeanServer.getAttribute(modelName, "StepRunRatesPerSecond");
+    assertTrue((Double) valueOf(stepRunRates, entersTextStep) > 0);
+    assertEquals(valueOf(stepRunRates, entersTextStep), valueOf(stepRunRatesReadAgain, entersTextStep));
+    assertEquals(0.0, valueOf(stepRunRates, USE_CASE + ": " + CUSTOMER_ENTERS_NUMBER));
+  }
+
+  @Test
+  public void stopsAndRestartsActor() throws JMException {
+    Counter counter = new Counter();
+    exporter.exportActor(counter);
+    counter.reactTo(TEXT);
+
+    ObjectName actorName = ManagementExporter.objectNameOf("Actor", "Counter");
+    assertEquals("Handles messages: S1", mBeanServer.getAttribute(actorName, "LatestStep"));
+
+    mBeanServer.invoke(actorName, "stop", null, null);
+    counter.reactTo(TEXT);
+    assertTrue((Boolean) mBeanServer.getAttribute(actorName, "Stopped"));
+    assertEquals(1, counter.count);
+
+    mBeanServer.invoke(actorName, "restart", null, null);
+    assertFalse((Boolean) mBeanServer.getAttribute(actorName, "Stopped"));
+    assertNull(mBeanServer.getAttribute(actorName, "LatestStep"));
+    counter.reactTo(TEXT);
+    assertEquals(2, counter.count);
+  }
+
+  @Test
+  public void stopsAndRestartsActorAfterMessagesInMailbox() throws JMException {
+    List<Runnable> tasks = new ArrayList<>();
+    Counter counter = new Counter();
+    counter.run();
+    counter.getModelRunner().withExecutor(tasks::add);
+    exporter.exportActor(counter);
+
+    counter.getModelRunner().reactToAsync(TEXT);
+    ObjectName actorName = ManagementExporter.objectNameOf("Actor", "Counter");
+    mBeanServer.invoke(actorName, "stop", null, null);
+    counter.getModelRunner().reactToAsync(TEXT);
+    assertFalse((Boolean) mBeanServer.getAttribute(actorName, "Stopped"));
+
+    runAll(tasks);
+    assertTrue((Boolean) mBeanServer.getAttribute(actorName, "Stopped"));
+    assertEquals(1, counter.count);
+
+    mBeanServer.invoke(actorName, "restart", null, null);
+    assertTrue((Boolean) mBeanServer.getAttribute(actorName, "Stopped"));
+    runAll(tasks);
+    assertFalse((Boolean) mBeanServer.getAttribute(actorName, "Stopped"));
+  }
+
+  @Test
+  public void doesntKeepExportedActorAlive() throws JMException, InterruptedException {
+    exporter.exportActor(new Counter());
+    ObjectName actorName = ManagementExporter.objectNameOf("Actor", "Counter");
+
+    for (int i = 0; i < 50 && !(Boolean) mBeanServer.getAttribute(actorName, "Stopped"); i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+
+    assertTrue((Boolean) mBeanServer.getAttribute(actorName, "Stopped"));
+    assertEquals("Counter", mBeanServer.getAttribute(actorName, "Name"));
+  }
+
+  @Test
+  public void showsEventQueueCounters() throws JMException, InterruptedException {
+    CountDownLatch consumed = new CountDownLatch(3);
+    EventQueue eventQueue = new EventQueue(event -> consumed.countDown());
+    exporter.exportQueue("Queue", eventQueue);
+
+    eventQueue.put("A");
+    eventQueue.put("B");
+    eventQueue.put("C");
+    assertTrue(consumed.await(5, TimeUnit.SECONDS));
+    eventQueue.stop();
+
+    ObjectName queueName = ManagementExporter.objectNameOf("EventQueue", "Queue");
+    assertEquals(3L, mBeanServer.getAttribute(queueName, "EnqueuedCount"));
+    assertEquals(3L, mBeanServer.getAttribute(queueName, "DrainedCount"));
+    assertEquals(0L, mBeanServer.getAttribute(queueName, "DroppedCount"));
+    assertEquals(0, mBeanServer.getAttribute(queueName, "Size"));
+
+    exporter.sampleRates();
+    double drainRate = (Double) mBeanServer.getAttribute(queueName, "DrainRatePerSecond");
+    assertTrue(drainRate > 0);
+    assertEquals(drainRate, mBeanServer.getAttribute(queueName, "DrainRatePerSecond"));
+  }
+
+  @Test
+  public void closeUnregistersMBeans() {
+    exporter.exportModel("Two steps", textAndNumberModel());
+    ObjectName modelName = ManagementExporter.objectNameOf("Model", "Two steps");
+    assertTrue(mBeanServer.isRegistered(modelName));
+
+    exporter.close();
+
+    assertFalse(mBeanServer.isRegistered(modelName));
+  }
+
+  @Test
+  public void throwsExceptionForNameThatIsTaken() {
+    exporter.exportModel("Two steps", textAndNumberModel());
+    assertThrows(IllegalStateException.class, () -> exporter.exportModel("Two steps", textAndNumberModel()));
+  }
+
+  private static void runAll(List<Runnable> tasks) {
+    while (!tasks.isEmpty()) {
+      tasks.remove(0).run();
+    }
+  }
+
+  private static Object valueOf(TabularData tabularData, String key) {
+    CompositeData row = tabularData.get(new Object[] { key });
+    return row == null ? null : row.get("value");
+  }
+
+  private static class Counter extends AbstractActor {
+    private int count;
+
+    @Override
+    protected Model behavior() {
+      Model model = Model.builder()
+        .step("S1").on(String.class).system(s -> count++)
+        .build();
+      return model;
+    }
+  }
+}
@@ -0,0 +1,162 @@
+package org.requirementsascode.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.requirementsascode.AbstractTestCase;
+import org.requirementsascode.KeyedModelRunner;
+import org.requirementsascode.Model;
+import org.requirementsascode.ModelRunner;
+import org.requirementsascode.Step;
+import org.requirementsascode.UseCase;
+import org.requirementsascode.exception.MoreThanOneStepCanReact;
+
+public class DefaultMetricsRegistryTest extends AbstractTestCase {
+  @BeforeEach
+  public void setup() {
+    setupWithRecordingModelRunner();
+  }
+
+  @Test
+  public void countsStepRunsPerStepUseCaseAndFlow() {
+    Model model = textAndNumberModel();
+    DefaultMetricsRegistry metrics = new DefaultMetricsRegistry(model);
+    modelRunner.withMetrics(metrics).run(model);
+
+    modelRunner.reactTo(entersText(), entersNumber());
+
+    UseCase useCase = model.findUseCase(USE_CASE);
+    Step entersTextStep = useCase.findStep(CUSTOMER_ENTERS_TEXT);
+    Step entersNumberStep = useCase.findStep(CUSTOMER_ENTERS_NUMBER);
+    assertEquals(1, metrics.getStepRunCount(entersTextStep));
+    assertEquals(1, metrics.getStepRunCount(entersNumberStep));
+    assertEquals(2, metrics.getUseCaseStepRunCount(useCase));
+    assertEquals(2, metrics.getFlowStepRunCount(useCase.getBasicFlow()));
+    assertEquals(1, metrics.getSystemReactionHistogram(entersTextStep).getCount());
+    assertEquals(1, metrics.getSystemReactionHistogram(entersNumberStep).getCount());
+  }
+
+  @Test
+  public void recordsSystemReactionTimeIncludingHandler() {
+    Model model = textAndNumberModel();
+    DefaultMetricsRegistry metrics = new DefaultMetricsRegistry(model);
+    modelRunner.withMetrics(metrics).handleWith(stepToBeRun -> {
+      sleep(5);
+      stepToBeRun.run();
+    });
+    modelRunner.run(model);
+
+    modelRunner.reactTo(entersText());
+
+    Step entersTextStep = model.findUseCase(USE_CASE).findStep(CUSTOMER_ENTERS_TEXT);
+    assertTrue(metrics.getSystemReactionHistogram(entersTextStep).getMaxNanos() >= 5_000_000);
+  }
+
+  @Test
+  public void stepThatHasntBeenRunHasEmptyHistogram() {
+    Model model = textAndNumberModel();
+    DefaultMetricsRegistry metrics = new DefaultMetricsRegistry(model);
+    modelRunner.withMetrics(metrics).run(model);
+
+    modelRunner.reactTo(entersText());
+
+    Step entersTextStep = model.findUseCase(USE_CASE).findStep(CUSTOMER_ENTERS_TEXT);
+    Step entersNumberStep = model.findUseCase(USE_CASE).findStep(CUSTOMER_ENTERS_NUMBER);
+    assertEquals(1, metrics.getSystemReactionHistogram(entersTextStep).getCount());
+    assertEquals(0, metrics.getSystemReactionHistogram(entersNumberStep).getCount());
+    assertSame(metrics.getSystemReactionHistogram(entersNumberStep),
+      metrics.getSystemReactionHistogram(entersNumberStep));
+  }
+
+  @Test
+  public void countsUnhandledMessages() {
+    Model model = textAndNumberModel();
+    DefaultMetricsRegistry metrics = new DefaultMetricsRegistry(model);
+    modelRunner.withMetrics(metrics).run(model);
+
+    modelRunner.reactTo(entersNumber());
+    modelRunner.handleUnhandledWith(message -> {});
+    modelRunner.reactTo(entersNumber());
+
+    assertEquals(2, metrics.getUnhandledMessageCount());
+  }
+
+  @Test
+  public void countsMessagesMoreThanOneStepCanReactTo() {
+    Model model = modelBuilder
+      .on(EntersText.class).system(displaysEnteredText())
+      .on(EntersText.class).system(displaysEnteredText())
+      .build();
+    DefaultMetricsRegistry metrics = new DefaultMetricsRegistry(model);
+    modelRunner.withMetrics(metrics).run(model);
+
+    assertThrows(MoreThanOneStepCanReact.class, () -> modelRunner.reactTo(entersText()));
+
+    assertEquals(1, metrics.getMoreThanOneStepCanReactCount());
+  }
+
+  @Test
+  public void countsDispatchedExceptions() {
+    Model model = modelBuilder
+      .on(EntersText.class).system(throwsRuntimeException())
+      .on(RuntimeException.class).system(e -> {})
+      .build();
+    DefaultMetricsRegistry metrics = new DefaultMetricsRegistry(model);
+    modelRunner.withMetrics(metrics).run(model);
+
+    modelRunner.reactTo(entersText());
+
+    assertEquals(1, metrics.getDispatchedExceptionCount());
+    assertEquals(2, metrics.getUseCaseStepRunCount(model.findUseCase("Handles messages")));
+  }
+
+  @Test
+  public void countsDispatchedExceptionsIfRunnerOverridesHandleException() {
+    Model model = modelBuilder
+      .on(EntersText.class).system(throwsRuntimeException())
+      .build();
+    DefaultMetricsRegistry metrics = new DefaultMetricsRegistry(model);
+    ModelRunner modelRunner = new ModelRunner() {
+      @Override
+      protected void handleException(Exception e) {
+      }
+    }.withMetrics(metrics);
+    modelRunner.run(model);
+
+    modelRunner.reactTo(entersText());
+
+    assertEquals(1, metrics.getDispatchedExceptionCount());
+  }
+
+  @Test
+  public void keyedRunnerRecordsMetricsOfAllEntities() {
+    Model model = textAndNumberModel();
+    DefaultMetricsRegistry metrics = new DefaultMetricsRegistry(model);
+    KeyedModelRunner keyedRunner = new KeyedModelRunner(model).withMetrics(metrics);
+
+    keyedRunner.reactTo(1L, entersText());
+    keyedRunner.reactTo(2L, entersText());
+
+    Step entersTextStep = model.findUseCase(USE_CASE).findStep(CUSTOMER_ENTERS_TEXT);
+    assertEquals(2, metrics.getStepRunCount(entersTextStep));
+  }
+
+  @Test
+  public void ignoresStepsOfOtherModels() {
+    Model model = textAndNumberModel();
+    Model otherModel = textAndNumberModel();
+    DefaultMetricsRegistry metrics = new DefaultMetricsRegistry(model);
+    modelRunner.withMetrics(metrics).run(otherModel);
+
+    modelRunner.reactTo(entersText());
+
+    Step otherEntersTextStep = otherModel.findUseCase(USE_CASE).findStep(CUSTOMER_ENTERS_TEXT);
+    assertEquals(0, metrics.getStepRunCount(otherEntersTextStep));
+    assertEquals(0, metrics.getUseCaseStepRunCount(model.findUseCase(USE_CASE)));
+    assertThrows(IllegalArgumentException.class, () -> metrics.getSystemReactionHistogram(otherEntersTextStep));
+  }
+}
@@ -0,0 +1,88 @@
+package org.requirementsascode.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+  @Test
+  public void bucketsCoverAllLatenciesWithoutGaps() {
+    assertEquals(0, LatencyHistogram.bucketOf(0));
+    assertEquals(15, LatencyHistogram.bucketOf(15));
+    assertEquals(16, LatencyHistogram.bucketOf(16));
+
+    for (int bucket = 0; bucket < 959; bucket++) {
+      long highestNanos = LatencyHistogram.highestNanosOf(bucket);
+      assertEquals(bucket, LatencyHistogram.bucketOf(highestNanos));
+      assertEquals(bucket + 1, LatencyHistogram.bucketOf(highestNanos + 1));
+    }
+    assertEquals(Long.MAX_VALUE, LatencyHistogram.highestNanosOf(LatencyHistogram.bucketOf(Long.MAX_VALUE)));
+  }
+
+  @Test
+  public void emptyHistogramReportsZero() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getNanosAtPercentile(99));
+    assertEquals(0, histogram.getMaxNanos());
+    assertEquals(0, histogram.getMeanNanos(), 0);
+  }
+
+  @Test
+  public void reportsPercentilesWithinBucketPrecision() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    List<Long> latencies = new ArrayList<>();
+    Random random = new Random(42);
+    for (int i = 0; i < 10_000; i++) {
+      long latency = (long) Math.abs(random.nextGaussian() * 1_000_000);
+      latencies.add(latency);
+      histogram.record(latency);
+    }
+    latencies.sort(null);
+
+    for (double percentile : new double[] { 0, 50, 90, 99, 99.9, 100 }) {
+      int rank = Math.max(1, (int) Math.ceil(percentile / 100 * latencies.size()));
+      long exactNanos = latencies.get(rank - 1);
+      long reportedNanos = histogram.getNanosAtPercentile(percentile);
+      assertTrue(reportedNanos >= exactNanos);
+      assertTrue(reportedNanos <= exactNanos + exactNanos / 16 + 1);
+    }
+    assertEquals(10_000, histogram.getCount());
+    assertEquals((long) latencies.get(latencies.size() - 1), histogram.getMaxNanos());
+  }
+
+  @Test
+  public void recordsNegativeLatencyAsZero() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(-5);
+
+    assertEquals(1, histogram.getCount());
+    assertEquals(0, histogram.getNanosAtPercentile(100));
+  }
+
+  @Test
+  public void resetRemovesRecordedLatencies() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(1000);
+    histogram.reset();
+
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMaxNanos());
+    assertEquals(0, histogram.getNanosAtPercentile(50));
+  }
+
+  @Test
+  public void rejectsInvalidPercentile() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    assertThrows(IllegalArgumentException.class, () -> histogram.getNanosAtPercentile(100.1));
+    assertThrows(IllegalArgumentException.class, () -> histogram.getNanosAtPercentile(-1));
+  }
+}
@@ -0,0 +1,199 @@
+package org.requirementsascode.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.requirementsascode.AbstractActor;
+import org.requirementsascode.Behavior;
+import org.requirementsascode.Model;
+import org.requirementsascode.ModelRunner;
+import org.requirementsascode.StatelessBehavior;
+import org.requirementsascode.Step;
+import org.requirementsascode.queue.EventQueue;
+import org.requirementsascode.queue.OverflowPolicy;
+import org.requirementsascode.queue.RingBufferEventQueue;
+
+public class MetricsRegistryTest {
+  private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+
+  @Test
+  public void dispatchEndsAfterSystemReaction() {
+    Model model = Model.builder()
+      .on(String.class).system(s -> calls.add("reaction"))
+      .build();
+    ModelRunner modelRunner = new ModelRunner().withMetrics(new RecordingRegistry()).run(model);
+
+    modelRunner.reactTo("Text");
+    modelRunner.reactTo(1);
+
+    assertEquals(Arrays.asList("started String", "reaction", "stepRun", "ended String by step", "started Integer",
+      "unhandled", "ended Integer"), calls);
+  }
+
+  @Test
+  public void reportsOnlySystemEventDispatchesThatTriggerAutonomousReaction() {
+    Model model = Model.builder()
+      .useCase("Use case")
+        .basicFlow()
+          .step("S1").user(String.class).system(s -> calls.add("reaction"))
+          .step("S2").system(() -> calls.add("autonomous reaction"))
+          .step("S3").user(String.class).system(s -> calls.add("reaction"))
+      .build();
+    ModelRunner modelRunner = new ModelRunner().withMetrics(new RecordingRegistry()).run(model);
+
+    modelRunner.reactTo("Text");
+    modelRunner.reactTo("Text");
+
+    assertEquals(Arrays.asList("started String", "reaction", "stepRun", "ended String by step",
+      "started ModelRunner", "autonomous reaction", "stepRun", "ended ModelRunner by step", "started String",
+      "reaction", "stepRun", "ended String by step"), calls);
+  }
+
+  @Test
+  public void reportsMessagePublishedToActor() {
+    Receiver receiver = new Receiver();
+    Model model = Model.builder()
+      .on(String.class).systemPublish(s -> s.length()).to(receiver)
+      .build();
+    ModelRunner modelRunner = new ModelRunner().withMetrics(new RecordingRegistry()).run(model);
+
+    modelRunner.reactTo("Text");
+
+    assertTrue(calls.contains("published Integer to Receiver"));
+  }
+
+  @Test
+  public void statelessBehaviorReportsToRegistry() {
+    Model model = Model.builder()
+      .on(String.class).system(s -> {})
+      .build();
+    Behavior behavior = StatelessBehavior.of(() -> model).withMetrics(new RecordingRegistry());
+
+    behavior.reactTo("Text");
+    behavior.reactTo("Text");
+
+    assertEquals(2, Collections.frequency(calls, "stepRun"));
+  }
+
+  @Test
+  public void queuesReportWaitTime() throws InterruptedException {
+    CountDownLatch consumed = new CountDownLatch(2);
+    EventQueue eventQueue = new EventQueue(event -> consumed.countDown()).withMetrics(new RecordingRegistry());
+    RingBufferEventQueue ringBufferQueue = new RingBufferEventQueue(16, OverflowPolicy.BLOCK,
+      event -> consumed.countDown()).withMetrics(new RecordingRegistry());
+
+    eventQueue.put("Text");
+    ringBufferQueue.put("Text");
+    assertTrue(consumed.await(5, TimeUnit.SECONDS));
+    eventQueue.stop();
+    ringBufferQueue.stop();
+
+    assertEquals(2, Collections.frequency(calls, "dequeued String"));
+  }
+
+  @Test
+  public void disabledRegistryIsntCalled() throws InterruptedException {
+    Model model = Model.builder()
+      .on(String.class).system(s -> calls.add("reaction"))
+      .build();
+    RecordingRegistry disabledRegistry = new RecordingRegistry();
+    disabledRegistry.isEnabled = false;
+    ModelRunner modelRunner = new ModelRunner().withMetrics(disabledRegistry).run(model);
+    CountDownLatch consumed = new CountDownLatch(2);
+    EventQueue eventQueue = new EventQueue(event -> consumed.countDown()).withMetrics(disabledRegistry);
+    RingBufferEventQueue ringBufferQueue = new RingBufferEventQueue(16, OverflowPolicy.BLOCK,
+      event -> consumed.countDown()).withMetrics(disabledRegistry);
+
+    modelRunner.reactTo("Text", 1);
+    eventQueue.put("Text");
+    ringBufferQueue.put("Text");
+    assertTrue(consumed.await(5, TimeUnit.SECONDS));
+    eventQueue.stop();
+    ringBufferQueue.stop();
+
+    assertEquals(Arrays.asList("reaction"), calls);
+  }
+
+  @Test
+  public void compositeRegistryPassesMetricsOnToEachRegistry() {
+    Model model = Model.builder()
+      .on(String.class).system(s -> calls.add("reaction"))
+      .build();
+    DefaultMetricsRegistry defaultRegistry = new DefaultMetricsRegistry(model);
+    MetricsRegistry registry = MetricsRegistry.of(new RecordingRegistry(), defaultRegistry);
+    ModelRunner modelRunner = new ModelRunner().withMetrics(registry).run(model);
+
+    modelRunner.reactTo("Text");
+
+    assertEquals(Arrays.asList("started String", "reaction", "stepRun", "ended String by step"), calls);
+    assertEquals(1, defaultRegistry.getStepRunCount(model.getSteps().iterator().next()));
+  }
+
+  private class RecordingRegistry implements MetricsRegistry {
+    private boolean isEnabled = true;
+
+    @Override
+    public boolean isEnabled() {
+      return isEnabled;
+    }
+
+    @Override
+    public Object dispatchStarted(Object message) {
+      calls.add("started " + message.getClass().getSimpleName());
+      return message;
+    }
+
+    @Override
+    public void dispatchEnded(Object dispatchContext, Object message, Step step) {
+      assertEquals(message, dispatchContext);
+      calls.add("ended " + message.getClass().getSimpleName() + (step == null ? "" : " by step"));
+    }
+
+    @Override
+    public void stepRun(Step step, long systemReactionNanos) {
+      calls.add("stepRun");
+    }
+
+    @Override
+    public void messageUnhandled(Object message) {
+      calls.add("unhandled");
+    }
+
+    @Override
+    public void moreThanOneStepCanReact(Object message) {
+    }
+
+    @Override
+    public void exceptionDispatched(Exception exception) {
+    }
+
+    @Override
+    public void messagePublished(Object message, AbstractActor publishingActor, Behavior targetBehavior,
+      boolean isPublishedAsync) {
+      calls.add("published " + message.getClass().getSimpleName() + " to " + targetBehavior);
+    }
+
+    @Override
+    public void eventDequeued(Object event, long queueWaitNanos) {
+      calls.add("dequeued " + event.getClass().getSimpleName());
+    }
+  }
+
+  private static class Receiver extends AbstractActor {
+    @Override
+    protected Model behavior() {
+      Model model = Model.builder()
+        .on(Integer.class).system(i -> {})
+        .build();
+      return model;
+    }
+  }
+}
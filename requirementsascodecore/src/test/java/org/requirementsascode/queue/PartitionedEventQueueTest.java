@@ -0,0 +1,136 @@
+package org.requirementsascode.queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class PartitionedEventQueueTest {
+  private PartitionedEventQueue queue;
+
+  @AfterEach
+  public void tearDown() {
+    if (queue != null) {
+      queue.stop();
+    }
+  }
+
+  @Test
+  public void consumesEventsOfEachKeyInOrder() throws InterruptedException {
+    int nrOfKeys = 100;
+    int nrOfEventsPerKey = 1000;
+    Map<Integer, List<Integer>> consumedIndexesPerKey = new ConcurrentHashMap<>();
+    Map<Integer, Thread> consumingThreadPerKey = new ConcurrentHashMap<>();
+    Set<Integer> keysConsumedOnOtherThread = ConcurrentHashMap.newKeySet();
+    CountDownLatch hasConsumedAll = new CountDownLatch(nrOfKeys * nrOfEventsPerKey);
+
+    queue = new PartitionedEventQueue(4, 256, OverflowPolicy.BLOCK, event -> ((KeyedEvent) event).key, event -> {
+      KeyedEvent keyedEvent = (KeyedEvent) event;
+      // Each key is consumed on a single thread, so the list needs no synchronization
+      consumedIndexesPerKey.computeIfAbsent(keyedEvent.key, key -> new ArrayList<>()).add(keyedEvent.index);
+      Thread thread = consumingThreadPerKey.computeIfAbsent(keyedEvent.key, key -> Thread.currentThread());
+      if (thread != Thread.currentThread()) {
+        keysConsumedOnOtherThread.add(keyedEvent.key);
+      }
+      hasConsumedAll.countDown();
+    });
+
+    List<Thread> producers = new ArrayList<>();
+    for (int producer = 0; producer < 4; producer++) {
+      int firstKey = producer * nrOfKeys / 4;
+      producers.add(new Thread(() -> {
+        for (int index = 0; index < nrOfEventsPerKey; index++) {
+          for (int key = firstKey; key < firstKey + nrOfKeys / 4; key++) {
+            queue.put(new KeyedEvent(key, index));
+          }
+        }
+      }));
+    }
+    producers.forEach(Thread::start);
+
+    assertTrue(hasConsumedAll.await(30, TimeUnit.SECONDS));
+    assertTrue(keysConsumedOnOtherThread.isEmpty());
+    assertEquals(nrOfKeys, consumedIndexesPerKey.size());
+    for (List<Integer> consumedIndexes : consumedIndexesPerKey.values()) {
+      for (int index = 0; index < nrOfEventsPerKey; index++) {
+        assertEquals(index, (int) consumedIndexes.get(index));
+      }
+    }
+    assertEquals(nrOfKeys * nrOfEventsPerKey, queue.getEnqueuedCount());
+    assertEquals(nrOfKeys * nrOfEventsPerKey, queue.getDrainedCount());
+  }
+
+  @Test
+  public void consumesEventsOfDifferentPartitionsInParallel() throws InterruptedException {
+    CyclicBarrier bothPartitionsConsuming = new CyclicBarrier(2);
+    CountDownLatch hasConsumedBoth = new CountDownLatch(2);
+    queue = new PartitionedEventQueue(2, 16, OverflowPolicy.BLOCK, event -> event, event -> {
+      try {
+        // Only passes if the other partition consumes at the same time
+        bothPartitionsConsuming.await(10, TimeUnit.SECONDS);
+        hasConsumedBoth.countDown();
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    });
+    Object[] keysOfDifferentPartitions = keysOfDifferentPartitions();
+
+    queue.put(keysOfDifferentPartitions[0]);
+    queue.put(keysOfDifferentPartitions[1]);
+
+    assertTrue(hasConsumedBoth.await(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void spreadsKeysOverAllPartitions() {
+    queue = new PartitionedEventQueue(8, 16, OverflowPolicy.BLOCK, event -> event, event -> {});
+
+    Set<Integer> partitions = new HashSet<>();
+    for (long key = 0; key < 64; key++) {
+      partitions.add(queue.partitionOf(key));
+      partitions.add(queue.partitionOf(key << 32));
+    }
+
+    assertEquals(8, partitions.size());
+    assertEquals(0, queue.partitionOf(null));
+  }
+
+  @Test
+  public void rejectsNonPositiveNumberOfPartitions() {
+    assertThrows(IllegalArgumentException.class,
+      () -> new PartitionedEventQueue(0, 16, OverflowPolicy.BLOCK, event -> event, event -> {}));
+  }
+
+  private Object[] keysOfDifferentPartitions() {
+    Object firstKey = "Key0";
+    int firstPartition = queue.partitionOf(firstKey);
+    for (int i = 1;; i++) {
+      Object key = "Key" + i;
+      if (queue.partitionOf(key) != firstPartition) {
+        return new Object[] { firstKey, key };
+      }
+    }
+  }
+
+  private static class KeyedEvent {
+    private final int key;
+    private final int index;
+
+    KeyedEvent(int key, int index) {
+      this.key = key;
+      this.index = index;
+    }
+  }
+}
@@ -0,0 +1,398 @@
+package org.requirementsascode.queue;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.requirementsascode.metrics.LatencyHistogram;
+
+public class RingBufferEventQueueTest {
+  private RingBufferEventQueue queue;
+
+  @AfterEach
+  public void tearDown() {
+    if (queue != null) {
+      queue.stop();
+    }
+  }
+
+  @Test
+  public void ringBufferRoundsCapacityUpToPowerOfTwo() {
+    assertEquals(2, new MpscRingBuffer(1).getCapacity());
+    assertEquals(4, new MpscRingBuffer(3).getCapacity());
+    assertEquals(4, new MpscRingBuffer(4).getCapacity());
+    assertEquals(8, new MpscRingBuffer(5).getCapacity());
+    assertThrows(IllegalArgumentException.class, () -> new MpscRingBuffer(0));
+  }
+
+  @Test
+  public void ringBufferWrapsAround() {
+    MpscRingBuffer ringBuffer = new MpscRingBuffer(4);
+    for (int i = 0; i < 100; i++) {
+      assertTrue(ringBuffer.offer(i));
+      assertTrue(ringBuffer.offer(-i));
+      assertEquals(2, ringBuffer.size());
+      assertEquals(i, ringBuffer.poll());
+      assertEquals(-i, ringBuffer.poll());
+    }
+    assertNull(ringBuffer.poll());
+    assertTrue(ringBuffer.isEmpty());
+  }
+
+  @Test
+  public void ringBufferRejectsEventWhenFull() {
+    MpscRingBuffer ringBuffer = new MpscRingBuffer(2);
+    assertTrue(ringBuffer.offer("A"));
+    assertTrue(ringBuffer.offer("B"));
+    assertFalse(ringBuffer.offer("C"));
+
+    List<Object> drainedEvents = new ArrayList<>();
+    assertEquals(1, ringBuffer.drainTo(drainedEvents, 1));
+    assertTrue(ringBuffer.offer("C"));
+    assertEquals(2, ringBuffer.drainTo(drainedEvents, 10));
+    assertEquals(asList("A", "B", "C"), drainedEvents);
+  }
+
+  @Test
+  public void consumesEventsInOrder() throws InterruptedException {
+    List<Object> consumedEvents = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch hasConsumedAll = new CountDownLatch(1000);
+    queue = new RingBufferEventQueue(16, OverflowPolicy.BLOCK, countingDown(hasConsumedAll, consumedEvents::add));
+
+    List<Object> expectedEvents = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      assertTrue(queue.put(i));
+      expectedEvents.add(i);
+    }
+
+    assertTrue(hasConsumedAll.await(10, TimeUnit.SECONDS));
+    assertEquals(expectedEvents, consumedEvents);
+    assertEquals(1000, queue.getEnqueuedCount());
+    assertEquals(1000, queue.getDrainedCount());
+    assertEquals(0, queue.getDroppedCount());
+    assertTrue(queue.isEmpty());
+  }
+
+  @Test
+  public void consumesEventsInOrderWithEachWaitStrategy() throws InterruptedException {
+    for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+      List<Object> consumedEvents = Collections.synchronizedList(new ArrayList<>());
+      CountDownLatch hasConsumedAll = new CountDownLatch(100);
+      queue = new RingBufferEventQueue(16, OverflowPolicy.BLOCK, countingDown(hasConsumedAll, consumedEvents::add))
+        .withWaitStrategy(waitStrategy);
+
+      List<Object> expectedEvents = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        queue.put(i);
+        expectedEvents.add(i);
+        // Let the producer thread run out of events, and wait
+        if (i % 10 == 0) {
+          Thread.sleep(2);
+        }
+      }
+
+      assertTrue(hasConsumedAll.await(10, TimeUnit.SECONDS));
+      assertEquals(expectedEvents, consumedEvents);
+      assertEquals(waitStrategy, queue.getWaitStrategy());
+      queue.stop();
+    }
+  }
+
+  @Test
+  public void changingWaitStrategyWakesUpBlockedProducerThread() throws InterruptedException {
+    CountDownLatch hasConsumed = new CountDownLatch(1);
+    queue = new RingBufferEventQueue(16, OverflowPolicy.BLOCK, event -> hasConsumed.countDown());
+    Thread.sleep(50);
+
+    queue.withWaitStrategy(WaitStrategy.SLEEPING);
+    queue.put("Event");
+
+    assertTrue(hasConsumed.await(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void recordsLatencyOfEachEvent() throws InterruptedException {
+    LatencyHistogram latencyHistogram = new LatencyHistogram();
+    CountDownLatch hasConsumedAll = new CountDownLatch(1000);
+    queue = new RingBufferEventQueue(64, OverflowPolicy.BLOCK, countingDown(hasConsumedAll, event -> {}))
+      .recordLatencyIn(latencyHistogram);
+
+    long startNanos = System.nanoTime();
+    for (int i = 0; i < 1000; i++) {
+      queue.put(i);
+    }
+    assertTrue(hasConsumedAll.await(10, TimeUnit.SECONDS));
+    long elapsedNanos = System.nanoTime() - startNanos;
+
+    assertEquals(1000, latencyHistogram.getCount());
+    assertTrue(latencyHistogram.getMaxNanos() <= elapsedNanos);
+  }
+
+  @Test
+  public void recordsLatencyOfEventsInBatches() throws InterruptedException {
+    LatencyHistogram latencyHistogram = new LatencyHistogram();
+    CountDownLatch hasConsumedAll = new CountDownLatch(100);
+    queue = new RingBufferEventQueue(64, 8, OverflowPolicy.BLOCK, batch -> batch.forEach(e -> hasConsumedAll.countDown()))
+      .recordLatencyIn(latencyHistogram);
+
+    for (int i = 0; i < 100; i++) {
+      queue.put(i);
+    }
+
+    assertTrue(hasConsumedAll.await(10, TimeUnit.SECONDS));
+    assertEquals(100, latencyHistogram.getCount());
+  }
+
+  @Test
+  public void consumesEventsOfManyProducersInOrderPerProducer() throws InterruptedException {
+    int nrOfProducers = 8;
+    int nrOfEventsPerProducer = 100_000;
+    List<List<Integer>> consumedEventsPerProducer = new ArrayList<>();
+    for (int i = 0; i < nrOfProducers; i++) {
+      consumedEventsPerProducer.add(new ArrayList<>());
+    }
+    CountDownLatch hasConsumedAll = new CountDownLatch(nrOfProducers * nrOfEventsPerProducer);
+    queue = new RingBufferEventQueue(1024, OverflowPolicy.BLOCK, countingDown(hasConsumedAll, event -> {
+      int[] producerAndIndex = (int[]) event;
+      consumedEventsPerProducer.get(producerAndIndex[0]).add(producerAndIndex[1]);
+    }));
+
+    List<Thread> producers = new ArrayList<>();
+    for (int i = 0; i < nrOfProducers; i++) {
+      int producer = i;
+      producers.add(new Thread(() -> {
+        for (int index = 0; index < nrOfEventsPerProducer; index++) {
+          queue.put(new int[] { producer, index });
+        }
+      }));
+    }
+    producers.forEach(Thread::start);
+
+    assertTrue(hasConsumedAll.await(30, TimeUnit.SECONDS));
+    for (List<Integer> consumedEvents : consumedEventsPerProducer) {
+      assertEquals(nrOfEventsPerProducer, consumedEvents.size());
+      for (int index = 0; index < nrOfEventsPerProducer; index++) {
+        assertEquals(index, (int) consumedEvents.get(index));
+      }
+    }
+    assertEquals(nrOfProducers * nrOfEventsPerProducer, queue.getDrainedCount());
+  }
+
+  @Test
+  public void consumesEventsInBatches() throws InterruptedException {
+    List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch isConsuming = new CountDownLatch(1);
+    CountDownLatch mayContinue = new CountDownLatch(1);
+    queue = new RingBufferEventQueue(64, 10, OverflowPolicy.BLOCK, batch -> {
+      batchSizes.add(batch.size());
+      isConsuming.countDown();
+      await(mayContinue);
+    });
+
+    queue.put("First");
+    assertTrue(isConsuming.await(10, TimeUnit.SECONDS));
+    for (int i = 0; i < 25; i++) {
+      queue.put(i);
+    }
+    mayContinue.countDown();
+
+    waitUntilDrained(26);
+    assertEquals(asList(1, 10, 10, 5), batchSizes);
+  }
+
+  @Test
+  public void dropsNewestEventWhenFull() throws InterruptedException {
+    List<Object> consumedEvents = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch mayContinue = blockingConsumerQueue(4, OverflowPolicy.DROP_NEWEST, consumedEvents);
+
+    for (int i = 0; i < 6; i++) {
+      queue.put(i);
+    }
+    mayContinue.countDown();
+
+    waitUntilDrained(5);
+    assertEquals(asList("Blocker", 0, 1, 2, 3), consumedEvents);
+    assertEquals(5, queue.getEnqueuedCount());
+    assertEquals(2, queue.getDroppedCount());
+  }
+
+  @Test
+  public void dropsOldestEventWhenFull() throws InterruptedException {
+    List<Object> consumedEvents = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch mayContinue = blockingConsumerQueue(4, OverflowPolicy.DROP_OLDEST, consumedEvents);
+
+    for (int i = 0; i < 6; i++) {
+      assertTrue(queue.put(i));
+    }
+    mayContinue.countDown();
+
+    waitUntilDrained(5);
+    assertEquals(asList("Blocker", 2, 3, 4, 5), consumedEvents);
+    assertEquals(7, queue.getEnqueuedCount());
+    assertEquals(2, queue.getDroppedCount());
+  }
+
+  @Test
+  public void failsWhenFull() throws InterruptedException {
+    List<Object> consumedEvents = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch mayContinue = blockingConsumerQueue(2, OverflowPolicy.FAIL, consumedEvents);
+
+    queue.put(0);
+    queue.put(1);
+    assertThrows(IllegalStateException.class, () -> queue.put(2));
+    mayContinue.countDown();
+
+    waitUntilDrained(3);
+    assertEquals(asList("Blocker", 0, 1), consumedEvents);
+    assertEquals(1, queue.getDroppedCount());
+  }
+
+  @Test
+  public void blocksProducerWhenFull() throws InterruptedException {
+    List<Object> consumedEvents = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch mayContinue = blockingConsumerQueue(2, OverflowPolicy.BLOCK, consumedEvents);
+    queue.put(0);
+    queue.put(1);
+
+    CountDownLatch hasPut = new CountDownLatch(1);
+    Thread producer = new Thread(() -> {
+      queue.put(2);
+      hasPut.countDown();
+    });
+    producer.start();
+
+    assertFalse(hasPut.await(100, TimeUnit.MILLISECONDS));
+    mayContinue.countDown();
+    assertTrue(hasPut.await(10, TimeUnit.SECONDS));
+
+    waitUntilDrained(4);
+    assertEquals(asList("Blocker", 0, 1, 2), consumedEvents);
+  }
+
+  @Test
+  public void interruptedProducerDropsEventAndKeepsInterruptStatus() throws InterruptedException {
+    CountDownLatch mayContinue = blockingConsumerQueue(2, OverflowPolicy.BLOCK, new ArrayList<>());
+    queue.put(0);
+    queue.put(1);
+
+    Thread.currentThread().interrupt();
+    boolean isEnqueued = queue.put(2);
+    boolean isInterrupted = Thread.interrupted();
+    mayContinue.countDown();
+
+    assertFalse(isEnqueued);
+    assertTrue(isInterrupted);
+    assertEquals(1, queue.getDroppedCount());
+  }
+
+  @Test
+  public void goesOnConsumingAfterConsumerThrowsException() throws InterruptedException {
+    List<Object> consumedEvents = Collections.synchronizedList(new ArrayList<>());
+    List<RuntimeException> handledExceptions = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch hasConsumedAll = new CountDownLatch(2);
+    queue = new RingBufferEventQueue(4, OverflowPolicy.FAIL, event -> {
+      if ("Failing".equals(event)) {
+        throw new IllegalStateException();
+      }
+      consumedEvents.add(event);
+      hasConsumedAll.countDown();
+    }).handleExceptionsWith(handledExceptions::add);
+
+    queue.put(0);
+    queue.put("Failing");
+    waitUntilDrained(2);
+    queue.put(1);
+
+    assertTrue(hasConsumedAll.await(10, TimeUnit.SECONDS));
+    assertEquals(asList(0, 1), consumedEvents);
+    assertEquals(1, handledExceptions.size());
+    assertTrue(handledExceptions.get(0) instanceof IllegalStateException);
+    assertEquals(0, queue.getDroppedCount());
+  }
+
+  @Test
+  public void goesOnConsumingBatchesAfterConsumerThrowsException() throws InterruptedException {
+    List<Object> consumedEvents = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch hasHandledException = new CountDownLatch(1);
+    queue = new RingBufferEventQueue(4, 1, OverflowPolicy.FAIL, batch -> {
+      if (batch.contains("Failing")) {
+        throw new IllegalStateException();
+      }
+      consumedEvents.addAll(batch);
+    }).handleExceptionsWith(e -> hasHandledException.countDown());
+
+    queue.put("Failing");
+    assertTrue(hasHandledException.await(10, TimeUnit.SECONDS));
+    queue.put(1);
+
+    waitUntilDrained(2);
+    assertEquals(asList(1), consumedEvents);
+  }
+
+  @Test
+  public void dropsEventsAfterStop() {
+    queue = new RingBufferEventQueue(4, OverflowPolicy.FAIL, event -> {});
+    queue.stop();
+
+    assertFalse(queue.put("Event"));
+    assertEquals(1, queue.getDroppedCount());
+  }
+
+  /**
+   * Creates a queue whose consumer blocks on the first event, until the returned
+   * latch is counted down. Returns when the consumer is blocking, so the queue
+   * is empty then.
+   */
+  private CountDownLatch blockingConsumerQueue(int capacity, OverflowPolicy overflowPolicy,
+    List<Object> consumedEvents) throws InterruptedException {
+    CountDownLatch isBlocking = new CountDownLatch(1);
+    CountDownLatch mayContinue = new CountDownLatch(1);
+    queue = new RingBufferEventQueue(capacity, overflowPolicy, event -> {
+      consumedEvents.add(event);
+      if ("Blocker".equals(event)) {
+        isBlocking.countDown();
+        await(mayContinue);
+      }
+    });
+    queue.put("Blocker");
+    assertTrue(isBlocking.await(10, TimeUnit.SECONDS));
+    return mayContinue;
+  }
+
+  private Consumer<Object> countingDown(CountDownLatch latch, Consumer<Object> eventConsumer) {
+    return event -> {
+      eventConsumer.accept(event);
+      latch.countDown();
+    };
+  }
+
+  private void waitUntilDrained(long nrOfEvents) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (queue.getDrainedCount() < nrOfEvents || !queue.isEmpty()) {
+      assertTrue(System.nanoTime() < deadline);
+      Thread.sleep(1);
+    }
+    // Let the consumer finish the batch
+    Thread.sleep(50);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
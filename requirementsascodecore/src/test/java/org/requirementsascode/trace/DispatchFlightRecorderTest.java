@@ -0,0 +1,194 @@
+package org.requirementsascode.trace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.requirementsascode.Actor;
+import org.requirementsascode.Model;
+import org.requirementsascode.ModelRunner;
+import org.requirementsascode.exception.MoreThanOneStepCanReact;
+
+public class DispatchFlightRecorderTest {
+  private boolean isAlternative;
+
+  @Test
+  public void recordsDecisionForEachCandidateStep() {
+    DispatchFlightRecorder recorder = new DispatchFlightRecorder(16);
+    ModelRunner modelRunner = new ModelRunner().withFlightRecorder(recorder).run(flowModel());
+
+    modelRunner.reactTo("Text");
+
+    assertEquals(DispatchDecision.CAN_REACT, decisionOf(recorder, "S1"));
+    assertEquals(DispatchDecision.WRONG_FLOW_POSITION, decisionOf(recorder, "S2"));
+    assertEquals(DispatchDecision.WRONG_FLOW_POSITION, decisionOf(recorder, "A1"));
+
+    recorder.clear();
+    modelRunner.reactTo("Text");
+
+    assertEquals(DispatchDecision.WRONG_FLOW_POSITION, decisionOf(recorder, "S1"));
+    assertEquals(DispatchDecision.CAN_REACT, decisionOf(recorder, "S2"));
+    assertEquals(DispatchDecision.CONDITION_FALSE, decisionOf(recorder, "A1"));
+  }
+
+  @Test
+  public void recordsInterruptedStep() {
+    DispatchFlightRecorder recorder = new DispatchFlightRecorder(16);
+    ModelRunner modelRunner = new ModelRunner().withFlightRecorder(recorder).run(flowModel());
+
+    modelRunner.reactTo("Text");
+    isAlternative = true;
+    recorder.clear();
+    modelRunner.reactTo("Text");
+
+    assertEquals(DispatchDecision.INTERRUPTED, decisionOf(recorder, "S2"));
+    assertEquals(DispatchDecision.CAN_REACT, decisionOf(recorder, "A1"));
+    assertEquals("A1", modelRunner.getLatestStep().get().getName());
+  }
+
+  @Test
+  public void recordsWrongActorAndUnhandledMessage() {
+    Actor customer = new Actor("Customer");
+    Model model = Model.builder()
+      .useCase("Use case")
+        .basicFlow()
+          .step("S1").as(customer).user(String.class).system(s -> {})
+      .build();
+    DispatchFlightRecorder recorder = new DispatchFlightRecorder(16);
+    ModelRunner modelRunner = new ModelRunner().withFlightRecorder(recorder).run(model);
+
+    modelRunner.reactTo("Text");
+
+    List<DispatchRecord> records = recorder.getRecords();
+    assertEquals(2, records.size());
+    assertEquals("S1", records.get(0).getStep().get().getName());
+    assertEquals(DispatchDecision.WRONG_ACTOR, records.get(0).getDecision());
+    assertEquals(String.class, records.get(1).getMessageClass());
+    assertFalse(records.get(1).getStep().isPresent());
+    assertEquals(DispatchDecision.UNHANDLED, records.get(1).getDecision());
+  }
+
+  @Test
+  public void recordsOnlySampledMessages() {
+    DispatchFlightRecorder recorder = new DispatchFlightRecorder(16).sampleEvery(2);
+    ModelRunner modelRunner = new ModelRunner().withFlightRecorder(recorder).run(flowModel());
+
+    modelRunner.reactTo(1, 2, 3, 4);
+
+    assertEquals(2, recorder.getNrOfRecords());
+  }
+
+  @Test
+  public void samplesOnlyMessagesSentToRunner() {
+    Model model = Model.builder()
+      .useCase("Use case")
+        .basicFlow()
+          .step("S1").user(Integer.class).system(i -> {})
+          .step("S2").system(() -> {})
+          .step("S3").user(Integer.class).system(i -> {})
+          .step("S4").system(() -> {})
+      .build();
+    DispatchFlightRecorder recorder = new DispatchFlightRecorder(16).sampleEvery(2);
+    ModelRunner modelRunner = new ModelRunner().withFlightRecorder(recorder).run(model);
+
+    modelRunner.reactTo(1, 2);
+
+    List<DispatchRecord> records = recorder.getRecords();
+    assertEquals(2, records.size());
+    assertEquals("S1", records.get(0).getStep().get().getName());
+    assertEquals("S3", records.get(1).getStep().get().getName());
+  }
+
+  @Test
+  public void keepsLatestRecordsOnly() {
+    DispatchFlightRecorder recorder = new DispatchFlightRecorder(2);
+    ModelRunner modelRunner = new ModelRunner().withFlightRecorder(recorder).run(flowModel());
+
+    modelRunner.reactTo(1, 2L, 3.0);
+
+    List<DispatchRecord> records = recorder.getRecords();
+    assertEquals(3, recorder.getNrOfRecords());
+    assertEquals(2, records.size());
+    assertEquals(Long.class, records.get(0).getMessageClass());
+    assertEquals(Double.class, records.get(1).getMessageClass());
+  }
+
+  @Test
+  public void dumpsRecordsWhenExceptionIsThrown() {
+    Model model = Model.builder()
+      .on(String.class).system(s -> {
+        throw new IllegalStateException();
+      })
+      .on(Integer.class).system(i -> {})
+      .on(Integer.class).system(i -> {})
+      .build();
+    List<String> dumps = new ArrayList<>();
+    DispatchFlightRecorder recorder = new DispatchFlightRecorder(16).dumpOnExceptionTo(dumps::add);
+    ModelRunner modelRunner = new ModelRunner().withFlightRecorder(recorder).run(model);
+
+    assertThrows(IllegalStateException.class, () -> modelRunner.reactTo("Text"));
+    assertThrows(MoreThanOneStepCanReact.class, () -> modelRunner.reactTo(1));
+
+    assertEquals(2, dumps.size());
+    assertTrue(dumps.get(0).contains("IllegalStateException"));
+    assertTrue(dumps.get(0).contains("String step"));
+    assertTrue(dumps.get(1).contains(DispatchDecision.MORE_THAN_ONE_STEP_CAN_REACT.toString()));
+  }
+
+  @Test
+  public void doesntDumpRecordsWhenModelHandlesException() {
+    Model model = Model.builder()
+      .on(String.class).system(s -> {
+        throw new IllegalStateException();
+      })
+      .on(IllegalStateException.class).system(e -> {})
+      .build();
+    List<String> dumps = new ArrayList<>();
+    DispatchFlightRecorder recorder = new DispatchFlightRecorder(16).dumpOnExceptionTo(dumps::add);
+    ModelRunner modelRunner = new ModelRunner().withFlightRecorder(recorder).run(model);
+
+    modelRunner.reactTo("Text");
+
+    assertTrue(dumps.isEmpty());
+    assertEquals(2, recorder.getNrOfRecords());
+  }
+
+  @Test
+  public void doesntRecordWithoutRecorder() {
+    DispatchFlightRecorder recorder = new DispatchFlightRecorder(16);
+    ModelRunner modelRunner = new ModelRunner().withFlightRecorder(recorder).run(flowModel());
+    modelRunner.withFlightRecorder(null);
+
+    modelRunner.reactTo("Text");
+
+    assertEquals(0, recorder.getNrOfRecords());
+    assertEquals("", recorder.dump());
+  }
+
+  private Model flowModel() {
+    Model model = Model.builder()
+      .useCase("Use case")
+        .basicFlow()
+          .step("S1").user(String.class).system(s -> {})
+          .step("S2").user(String.class).system(s -> {})
+        .flow("Alternative flow").insteadOf("S2").condition(() -> isAlternative)
+          .step("A1").user(String.class).system(s -> {})
+      .build();
+    return model;
+  }
+
+  private static DispatchDecision decisionOf(DispatchFlightRecorder recorder, String stepName) {
+    DispatchDecision decision = null;
+    for (DispatchRecord record : recorder.getRecords()) {
+      if (record.getStep().isPresent() && record.getStep().get().getName().equals(stepName)) {
+        decision = record.getDecision();
+      }
+    }
+    return decision;
+  }
+}
@@ -0,0 +1,12 @@
+package org.requirementsascode.generator;
+
+/**
+ * Superclass of the message classes that the {@link ModelGenerator} creates at
+ * runtime, one for each step of a generated model.
+ */
+public abstract class GeneratedMessage {
+  @Override
+  public String toString() {
+    return getClass().getSimpleName();
+  }
+}
@@ -0,0 +1,242 @@
+package org.requirementsascode.generator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.requirementsascode.AbstractActor;
+import org.requirementsascode.Model;
+
+/**
+ * A model created by the {@link ModelGenerator}, together with the structure it
+ * has been generated from. Use it to create valid paths through the model.
+ */
+public class GeneratedModel {
+  private final Model model;
+  private final List<GeneratedUseCase> useCases;
+  private final int nrOfSteps;
+
+  GeneratedModel(Model model, List<GeneratedUseCase> useCases) {
+    this.model = model;
+    this.useCases = Collections.unmodifiableList(useCases);
+    this.nrOfSteps = countSteps(useCases);
+  }
+
+  private static int countSteps(List<GeneratedUseCase> useCases) {
+    int nrOfSteps = 0;
+    for (GeneratedUseCase useCase : useCases) {
+      for (GeneratedFlow flow : useCase.getFlows()) {
+        nrOfSteps += flow.getSteps().size();
+      }
+    }
+    return nrOfSteps;
+  }
+
+  /**
+   * Returns the generated model.
+   *
+   * @return the model
+   */
+  public Model getModel() {
+    return model;
+  }
+
+  /**
+   * Returns the number of steps of the generated model.
+   *
+   * @return the number of steps
+   */
+  public int getNrOfSteps() {
+    return nrOfSteps;
+  }
+
+  /**
+   * Returns the number of use cases of the generated model.
+   *
+   * @return the number of use cases
+   */
+  public int getNrOfUseCases() {
+    return useCases.size();
+  }
+
+  /**
+   * Returns the path through the basic flow of the specified use case.
+   *
+   * @param useCaseIndex the index of the use case, starting at 0
+   * @return the path
+   */
+  public GeneratedPath basicPath(int useCaseIndex) {
+    GeneratedUseCase useCase = useCases.get(useCaseIndex);
+    return createPath(useCase.getBasicFlow().getSteps());
+  }
+
+  /**
+   * Returns a random path through the model, from the start of a use case. The
+   * path follows the basic flow of a random use case. At each step, it may switch
+   * to an alternative flow that can start there, and then follows that flow to
+   * its end. On average, a path switches flows about once.
+   *
+   * @param random the random generator that chooses the path
+   * @return the path
+   */
+  public GeneratedPath randomPath(Random random) {
+    GeneratedUseCase useCase = useCases.get(random.nextInt(useCases.size()));
+    List<GeneratedStep> basicSteps = useCase.getBasicFlow().getSteps();
+    List<GeneratedStep> pathSteps = new ArrayList<>();
+
+    for (int stepIndex = 0; stepIndex <= basicSteps.size(); stepIndex++) {
+      GeneratedFlow alternativeFlow = chooseAlternativeFlowAt(useCase, stepIndex, random);
+      if (alternativeFlow != null) {
+        pathSteps.addAll(alternativeFlow.getSteps());
+        break;
+      }
+      if (stepIndex < basicSteps.size()) {
+        pathSteps.add(basicSteps.get(stepIndex));
+      }
+    }
+
+    return createPath(pathSteps);
+  }
+
+  private GeneratedFlow chooseAlternativeFlowAt(GeneratedUseCase useCase, int basicStepIndex, Random random) {
+    List<GeneratedFlow> flows = useCase.getFlows();
+    int nrOfPositions = useCase.getBasicFlow().getSteps().size() + 1;
+    for (int flowIndex = 1; flowIndex < flows.size(); flowIndex++) {
+      GeneratedFlow flow = flows.get(flowIndex);
+      if (flow.canStartBefore(basicStepIndex) && random.nextInt(nrOfPositions) == 0) {
+        return flow;
+      }
+    }
+    return null;
+  }
+
+  private GeneratedPath createPath(List<GeneratedStep> steps) {
+    List<String> stepNames = new ArrayList<>(steps.size());
+    List<Object> messages = new ArrayList<>(steps.size());
+    List<AbstractActor> actors = new ArrayList<>(steps.size());
+    for (GeneratedStep step : steps) {
+      stepNames.add(step.getName());
+      messages.add(step.getMessage());
+      actors.add(step.getActor() == null ? model.getUserActor() : step.getActor());
+    }
+    return new GeneratedPath(stepNames, messages, actors);
+  }
+
+  enum FlowKind {
+    BASIC, AFTER, INSTEAD_OF, ANYTIME
+  }
+
+  static class GeneratedUseCase {
+    private final String name;
+    private final List<GeneratedFlow> flows;
+
+    GeneratedUseCase(String name, List<GeneratedFlow> flows) {
+      this.name = name;
+      this.flows = flows;
+    }
+
+    String getName() {
+      return name;
+    }
+
+    GeneratedFlow getBasicFlow() {
+      return flows.get(0);
+    }
+
+    List<GeneratedFlow> getFlows() {
+      return flows;
+    }
+  }
+
+  static class GeneratedFlow {
+    private final String name;
+    private final FlowKind kind;
+    private final int startStepIndex;
+    private final boolean isConditional;
+    private final List<GeneratedStep> steps;
+
+    GeneratedFlow(String name, FlowKind kind, int startStepIndex, boolean isConditional, List<GeneratedStep> steps) {
+      this.name = name;
+      this.kind = kind;
+      this.startStepIndex = startStepIndex;
+      this.isConditional = isConditional;
+      this.steps = steps;
+    }
+
+    String getName() {
+      return name;
+    }
+
+    FlowKind getKind() {
+      return kind;
+    }
+
+    /**
+     * Returns the index of the basic flow step the flow starts after / instead
+     * of, or -1 for flows that can start anytime.
+     */
+    int getStartStepIndex() {
+      return startStepIndex;
+    }
+
+    boolean isConditional() {
+      return isConditional;
+    }
+
+    List<GeneratedStep> getSteps() {
+      return steps;
+    }
+
+    /**
+     * Checks whether the flow can start when the runner is at the position of
+     * the specified basic flow step, i.e. after the basic flow step before it.
+     */
+    boolean canStartBefore(int basicStepIndex) {
+      boolean canStart;
+      if (kind == FlowKind.INSTEAD_OF) {
+        canStart = startStepIndex == basicStepIndex;
+      } else if (kind == FlowKind.AFTER) {
+        canStart = startStepIndex == basicStepIndex - 1;
+      } else {
+        canStart = kind == FlowKind.ANYTIME;
+      }
+      return canStart;
+    }
+  }
+
+  static class GeneratedStep {
+    private final String name;
+    private final Class<? extends GeneratedMessage> messageClass;
+    private final GeneratedMessage message;
+    private final AbstractActor actor;
+
+    GeneratedStep(String name, Class<? extends GeneratedMessage> messageClass, GeneratedMessage message,
+      AbstractActor actor) {
+      this.name = name;
+      this.messageClass = messageClass;
+      this.message = message;
+      this.actor = actor;
+    }
+
+    String getName() {
+      return name;
+    }
+
+    Class<? extends GeneratedMessage> getMessageClass() {
+      return messageClass;
+    }
+
+    GeneratedMessage getMessage() {
+      return message;
+    }
+
+    /**
+     * Returns the actor of the step, or null if the step has the default user
+     * actor.
+     */
+    AbstractActor getActor() {
+      return actor;
+    }
+  }
+}
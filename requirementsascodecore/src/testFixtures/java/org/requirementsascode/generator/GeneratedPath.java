@@ -0,0 +1,72 @@
+package org.requirementsascode.generator;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.requirementsascode.AbstractActor;
+import org.requirementsascode.ModelRunner;
+
+/**
+ * A valid path through a {@link GeneratedModel}: the messages to send, the
+ * actors to send them as, and the names of the steps that react to them.
+ */
+public class GeneratedPath {
+  private final List<String> stepNames;
+  private final List<Object> messages;
+  private final List<AbstractActor> actors;
+
+  GeneratedPath(List<String> stepNames, List<Object> messages, List<AbstractActor> actors) {
+    this.stepNames = Collections.unmodifiableList(stepNames);
+    this.messages = Collections.unmodifiableList(messages);
+    this.actors = Collections.unmodifiableList(actors);
+  }
+
+  /**
+   * Returns the names of the steps that react, in order.
+   *
+   * @return the step names
+   */
+  public List<String> getStepNames() {
+    return stepNames;
+  }
+
+  /**
+   * Returns the messages to send, in order.
+   *
+   * @return the messages
+   */
+  public List<Object> getMessages() {
+    return messages;
+  }
+
+  /**
+   * Returns the actors to send the messages as, one for each message.
+   *
+   * @return the actors
+   */
+  public List<AbstractActor> getActors() {
+    return actors;
+  }
+
+  /**
+   * Sends the messages of this path to the specified runner, each as the actor
+   * of the step that reacts to it. The runner must run the generated model, and
+   * not have run a step yet (e.g. after {@link ModelRunner#restart()}).
+   *
+   * @param modelRunner the runner to send the messages to
+   */
+  public void sendTo(ModelRunner modelRunner) {
+    for (int i = 0; i < messages.size(); i++) {
+      modelRunner.as(actors.get(i)).reactTo(messages.get(i));
+    }
+  }
+
+  /**
+   * Returns the number of messages of this path.
+   *
+   * @return the length of the path
+   */
+  public int size() {
+    return messages.size();
+  }
+}
@@ -0,0 +1,117 @@
+package org.requirementsascode.generator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Class loader that defines empty subclasses of {@link GeneratedMessage} at
+ * runtime, so that a generated model can have as many distinct message classes
+ * as it has steps.
+ */
+class MessageClassLoader extends ClassLoader {
+  private static final String PACKAGE_NAME = "org.requirementsascode.generator.messages";
+
+  private static final int CLASS_FILE_MAGIC = 0xCAFEBABE;
+  private static final int JAVA_8_MAJOR_VERSION = 52;
+  private static final int ACC_PUBLIC = 0x0001;
+  private static final int ACC_SUPER = 0x0020;
+
+  private static final int CONSTANT_UTF8 = 1;
+  private static final int CONSTANT_CLASS = 7;
+  private static final int CONSTANT_METHODREF = 10;
+  private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+  private static final int ALOAD_0 = 0x2a;
+  private static final int INVOKESPECIAL = 0xb7;
+  private static final int RETURN = 0xb1;
+
+  MessageClassLoader() {
+    super(GeneratedMessage.class.getClassLoader());
+  }
+
+  /**
+   * Defines a public message class with the specified simple name, that has a
+   * public no-argument constructor.
+   *
+   * @param simpleName the simple name of the class, unique for this loader
+   * @param superclass the superclass, either {@link GeneratedMessage} or a class
+   *                   defined by this loader
+   * @return the new class
+   */
+  Class<? extends GeneratedMessage> defineMessageClass(String simpleName, Class<? extends GeneratedMessage> superclass) {
+    String className = PACKAGE_NAME + "." + simpleName;
+    byte[] classFile = classFileOf(internalNameOf(className), internalNameOf(superclass.getName()));
+    Class<?> messageClass = defineClass(className, classFile, 0, classFile.length);
+    return messageClass.asSubclass(GeneratedMessage.class);
+  }
+
+  private static String internalNameOf(String className) {
+    return className.replace('.', '/');
+  }
+
+  private static byte[] classFileOf(String internalClassName, String internalSuperclassName) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(CLASS_FILE_MAGIC);
+      out.writeShort(0);
+      out.writeShort(JAVA_8_MAJOR_VERSION);
+
+      // Constant pool, indices start at 1
+      out.writeShort(10);
+      writeUtf8(out, internalClassName); // 1
+      writeClass(out, 1); // 2
+      writeUtf8(out, internalSuperclassName); // 3
+      writeClass(out, 3); // 4
+      writeUtf8(out, "<init>"); // 5
+      writeUtf8(out, "()V"); // 6
+      out.writeByte(CONSTANT_NAME_AND_TYPE); // 7
+      out.writeShort(5);
+      out.writeShort(6);
+      out.writeByte(CONSTANT_METHODREF); // 8
+      out.writeShort(4);
+      out.writeShort(7);
+      writeUtf8(out, "Code"); // 9
+
+      out.writeShort(ACC_PUBLIC | ACC_SUPER);
+      out.writeShort(2);
+      out.writeShort(4);
+      out.writeShort(0); // interfaces
+      out.writeShort(0); // fields
+
+      // The constructor, calling the superclass constructor
+      out.writeShort(1);
+      out.writeShort(ACC_PUBLIC);
+      out.writeShort(5);
+      out.writeShort(6);
+      out.writeShort(1);
+      out.writeShort(9);
+      out.writeInt(17);
+      out.writeShort(1); // max stack
+      out.writeShort(1); // max locals
+      out.writeInt(5);
+      out.writeByte(ALOAD_0);
+      out.writeByte(INVOKESPECIAL);
+      out.writeShort(8);
+      out.writeByte(RETURN);
+      out.writeShort(0); // exception table
+      out.writeShort(0); // code attributes
+
+      out.writeShort(0); // class attributes
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static void writeUtf8(DataOutputStream out, String value) throws IOException {
+    out.writeByte(CONSTANT_UTF8);
+    out.writeUTF(value);
+  }
+
+  private static void writeClass(DataOutputStream out, int nameIndex) throws IOException {
+    out.writeByte(CONSTANT_CLASS);
+    out.writeShort(nameIndex);
+  }
+}
@@ -0,0 +1,336 @@
+package org.requirementsascode.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import org.requirementsascode.AbstractActor;
+import org.requirementsascode.Actor;
+import org.requirementsascode.Condition;
+import org.requirementsascode.Model;
+import org.requirementsascode.builder.FlowPart;
+import org.requirementsascode.builder.FlowPositionPart;
+import org.requirementsascode.builder.ModelBuilder;
+import org.requirementsascode.builder.StepPart;
+import org.requirementsascode.builder.StepSystemPart;
+import org.requirementsascode.builder.UseCasePart;
+import org.requirementsascode.generator.GeneratedModel.FlowKind;
+import org.requirementsascode.generator.GeneratedModel.GeneratedFlow;
+import org.requirementsascode.generator.GeneratedModel.GeneratedStep;
+import org.requirementsascode.generator.GeneratedModel.GeneratedUseCase;
+
+/**
+ * Generates big models with the public model builder API, to benchmark and
+ * stress test the model runner at realistic sizes.
+ *
+ * <p>
+ * Each use case of a generated model has a basic flow, and alternative flows
+ * that start after a step of the basic flow, instead of a step of the basic
+ * flow, or anytime. Alternative flows can have a condition (that is always
+ * true, but needs to be evaluated). Each step reacts to its own message class.
+ * The message classes are created at runtime, as subclasses of
+ * {@link GeneratedMessage}, with the specified hierarchy depth.
+ *
+ * <p>
+ * The generated model comes with paths through it, see
+ * {@link GeneratedModel#randomPath(Random)}.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>
+ * GeneratedModel generatedModel = new ModelGenerator().useCases(100).flowsPerUseCase(10).stepsPerFlow(100).generate();
+ * </pre>
+ */
+public class ModelGenerator {
+  private static final Condition ALWAYS_TRUE = () -> true;
+
+  private int nrOfUseCases;
+  private int nrOfFlowsPerUseCase;
+  private int nrOfStepsPerFlow;
+  private double insteadOfFraction;
+  private double anytimeFraction;
+  private double conditionalFraction;
+  private int messageClassHierarchyDepth;
+  private int nrOfActors;
+  private long seed;
+  private Consumer<Object> systemReaction;
+
+  /**
+   * Creates a generator for a model with 1 use case, that has a basic flow of 10
+   * steps.
+   */
+  public ModelGenerator() {
+    this.nrOfUseCases = 1;
+    this.nrOfFlowsPerUseCase = 1;
+    this.nrOfStepsPerFlow = 10;
+    this.messageClassHierarchyDepth = 1;
+    this.systemReaction = message -> {};
+  }
+
+  /**
+   * Defines the number of use cases.
+   *
+   * @param nrOfUseCases the number of use cases, at least 1
+   * @return this generator, for chaining
+   */
+  public ModelGenerator useCases(int nrOfUseCases) {
+    this.nrOfUseCases = requireAtLeast(1, nrOfUseCases, "nrOfUseCases");
+    return this;
+  }
+
+  /**
+   * Defines the number of flows per use case, including the basic flow.
+   *
+   * @param nrOfFlowsPerUseCase the number of flows, at least 1
+   * @return this generator, for chaining
+   */
+  public ModelGenerator flowsPerUseCase(int nrOfFlowsPerUseCase) {
+    this.nrOfFlowsPerUseCase = requireAtLeast(1, nrOfFlowsPerUseCase, "nrOfFlowsPerUseCase");
+    return this;
+  }
+
+  /**
+   * Defines the number of steps of each flow.
+   *
+   * @param nrOfStepsPerFlow the number of steps, at least 1
+   * @return this generator, for chaining
+   */
+  public ModelGenerator stepsPerFlow(int nrOfStepsPerFlow) {
+    this.nrOfStepsPerFlow = requireAtLeast(1, nrOfStepsPerFlow, "nrOfStepsPerFlow");
+    return this;
+  }
+
+  /**
+   * Defines the fraction of alternative flows that start instead of a step of
+   * the basic flow.
+   *
+   * @param insteadOfFraction the fraction, between 0 and 1
+   * @return this generator, for chaining
+   */
+  public ModelGenerator insteadOfFraction(double insteadOfFraction) {
+    this.insteadOfFraction = requireFraction(insteadOfFraction, "insteadOfFraction");
+    return this;
+  }
+
+  /**
+   * Defines the fraction of alternative flows that can start anytime.
+   *
+   * @param anytimeFraction the fraction, between 0 and 1
+   * @return this generator, for chaining
+   */
+  public ModelGenerator anytimeFraction(double anytimeFraction) {
+    this.anytimeFraction = requireFraction(anytimeFraction, "anytimeFraction");
+    return this;
+  }
+
+  /**
+   * Defines the fraction of alternative flows that have a condition.
+   *
+   * @param conditionalFraction the fraction, between 0 and 1
+   * @return this generator, for chaining
+   */
+  public ModelGenerator conditionalFraction(double conditionalFraction) {
+    this.conditionalFraction = requireFraction(conditionalFraction, "conditionalFraction");
+    return this;
+  }
+
+  /**
+   * Defines the depth of the message class hierarchy. With a depth of 1, the
+   * message classes are direct subclasses of {@link GeneratedMessage}. With a
+   * bigger depth, each use case has a chain of superclasses between the message
+   * classes of its steps and {@link GeneratedMessage}.
+   *
+   * @param messageClassHierarchyDepth the depth, at least 1
+   * @return this generator, for chaining
+   */
+  public ModelGenerator messageClassHierarchyDepth(int messageClassHierarchyDepth) {
+    this.messageClassHierarchyDepth = requireAtLeast(1, messageClassHierarchyDepth, "messageClassHierarchyDepth");
+    return this;
+  }
+
+  /**
+   * Defines the number of actors that the steps are distributed over. With 0
+   * actors, all steps have the default user actor.
+   *
+   * @param nrOfActors the number of actors, at least 0
+   * @return this generator, for chaining
+   */
+  public ModelGenerator actors(int nrOfActors) {
+    this.nrOfActors = requireAtLeast(0, nrOfActors, "nrOfActors");
+    return this;
+  }
+
+  /**
+   * Defines the seed of the random generator that chooses the kinds of flows,
+   * the steps they start at, and the actors of the steps.
+   *
+   * @param seed the seed
+   * @return this generator, for chaining
+   */
+  public ModelGenerator seed(long seed) {
+    this.seed = seed;
+    return this;
+  }
+
+  /**
+   * Defines the system reaction of all steps.
+   *
+   * @param systemReaction the system reaction, that receives the message
+   * @return this generator, for chaining
+   */
+  public ModelGenerator systemReaction(Consumer<Object> systemReaction) {
+    this.systemReaction = Objects.requireNonNull(systemReaction);
+    return this;
+  }
+
+  /**
+   * Generates the model.
+   *
+   * @return the generated model, and its use cases, flows and steps
+   */
+  public GeneratedModel generate() {
+    if (insteadOfFraction + anytimeFraction > 1) {
+      throw new IllegalArgumentException("insteadOfFraction + anytimeFraction must not be greater than 1");
+    }
+
+    Random random = new Random(seed);
+    MessageClassLoader messageClassLoader = new MessageClassLoader();
+    List<AbstractActor> actors = createActors();
+
+    List<GeneratedUseCase> useCases = new ArrayList<>(nrOfUseCases);
+    for (int useCaseIndex = 0; useCaseIndex < nrOfUseCases; useCaseIndex++) {
+      useCases.add(generateUseCase(useCaseIndex, messageClassLoader, actors, random));
+    }
+
+    Model model = buildModel(useCases);
+    return new GeneratedModel(model, useCases);
+  }
+
+  private List<AbstractActor> createActors() {
+    List<AbstractActor> actors = new ArrayList<>(nrOfActors);
+    for (int actorIndex = 0; actorIndex < nrOfActors; actorIndex++) {
+      actors.add(new Actor("Actor" + actorIndex));
+    }
+    return actors;
+  }
+
+  private GeneratedUseCase generateUseCase(int useCaseIndex, MessageClassLoader messageClassLoader,
+    List<AbstractActor> actors, Random random) {
+    String useCaseName = "UseCase" + useCaseIndex;
+    Class<? extends GeneratedMessage> messageSuperclass = GeneratedMessage.class;
+    for (int level = 1; level < messageClassHierarchyDepth; level++) {
+      messageSuperclass = messageClassLoader.defineMessageClass(useCaseName + "Level" + level, messageSuperclass);
+    }
+
+    List<GeneratedFlow> flows = new ArrayList<>(nrOfFlowsPerUseCase);
+    for (int flowIndex = 0; flowIndex < nrOfFlowsPerUseCase; flowIndex++) {
+      String flowName = "Flow" + flowIndex;
+      FlowKind flowKind = flowIndex == 0 ? FlowKind.BASIC : randomAlternativeFlowKind(random);
+      int startStepIndex = flowKind == FlowKind.ANYTIME ? -1 : random.nextInt(nrOfStepsPerFlow);
+      boolean isConditional = flowIndex > 0 && random.nextDouble() < conditionalFraction;
+
+      List<GeneratedStep> steps = new ArrayList<>(nrOfStepsPerFlow);
+      for (int stepIndex = 0; stepIndex < nrOfStepsPerFlow; stepIndex++) {
+        String stepName = useCaseName + flowName + "Step" + stepIndex;
+        Class<? extends GeneratedMessage> messageClass = messageClassLoader.defineMessageClass(stepName,
+          messageSuperclass);
+        AbstractActor actor = actors.isEmpty() ? null : actors.get(random.nextInt(actors.size()));
+        steps.add(new GeneratedStep(stepName, messageClass, newMessage(messageClass), actor));
+      }
+      flows.add(new GeneratedFlow(flowName, flowKind, startStepIndex, isConditional, steps));
+    }
+
+    return new GeneratedUseCase(useCaseName, flows);
+  }
+
+  private FlowKind randomAlternativeFlowKind(Random random) {
+    double kind = random.nextDouble();
+    FlowKind flowKind;
+    if (kind < insteadOfFraction) {
+      flowKind = FlowKind.INSTEAD_OF;
+    } else if (kind < insteadOfFraction + anytimeFraction) {
+      flowKind = FlowKind.ANYTIME;
+    } else {
+      flowKind = FlowKind.AFTER;
+    }
+    return flowKind;
+  }
+
+  private static GeneratedMessage newMessage(Class<? extends GeneratedMessage> messageClass) {
+    try {
+      return messageClass.getConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Message class can't be instantiated: " + messageClass.getName(), e);
+    }
+  }
+
+  private Model buildModel(List<GeneratedUseCase> useCases) {
+    ModelBuilder modelBuilder = Model.builder();
+    for (GeneratedUseCase useCase : useCases) {
+      UseCasePart useCasePart = modelBuilder.useCase(useCase.getName());
+      GeneratedFlow basicFlow = useCase.getBasicFlow();
+      for (GeneratedFlow flow : useCase.getFlows()) {
+        buildFlow(useCasePart, flow, basicFlow);
+      }
+    }
+    return modelBuilder.build();
+  }
+
+  private void buildFlow(UseCasePart useCasePart, GeneratedFlow flow, GeneratedFlow basicFlow) {
+    StepPart stepPart = firstStepPart(useCasePart, flow, basicFlow);
+    List<GeneratedStep> steps = flow.getSteps();
+    StepSystemPart<?> stepSystemPart = buildStep(stepPart, steps.get(0));
+    for (int stepIndex = 1; stepIndex < steps.size(); stepIndex++) {
+      GeneratedStep step = steps.get(stepIndex);
+      stepSystemPart = buildStep(stepSystemPart.step(step.getName()), step);
+    }
+  }
+
+  private StepPart firstStepPart(UseCasePart useCasePart, GeneratedFlow flow, GeneratedFlow basicFlow) {
+    String firstStepName = flow.getSteps().get(0).getName();
+    if (flow.getKind() == FlowKind.BASIC) {
+      return useCasePart.basicFlow().step(firstStepName);
+    }
+
+    FlowPart flowPart = useCasePart.flow(flow.getName());
+    FlowPositionPart flowPositionPart;
+    if (flow.getKind() == FlowKind.INSTEAD_OF) {
+      flowPositionPart = flowPart.insteadOf(basicFlow.getSteps().get(flow.getStartStepIndex()).getName());
+    } else if (flow.getKind() == FlowKind.ANYTIME) {
+      flowPositionPart = flowPart.anytime();
+    } else {
+      flowPositionPart = flowPart.after(basicFlow.getSteps().get(flow.getStartStepIndex()).getName());
+    }
+
+    StepPart stepPart = flow.isConditional() ? flowPositionPart.condition(ALWAYS_TRUE).step(firstStepName)
+      : flowPositionPart.step(firstStepName);
+    return stepPart;
+  }
+
+  private StepSystemPart<?> buildStep(StepPart stepPart, GeneratedStep step) {
+    StepSystemPart<?> stepSystemPart;
+    if (step.getActor() == null) {
+      stepSystemPart = stepPart.user(step.getMessageClass()).system(systemReaction);
+    } else {
+      stepSystemPart = stepPart.as(step.getActor()).user(step.getMessageClass()).system(systemReaction);
+    }
+    return stepSystemPart;
+  }
+
+  private static int requireAtLeast(int minimum, int value, String name) {
+    if (value < minimum) {
+      throw new IllegalArgumentException(name + " must be at least " + minimum + ", but is " + value);
+    }
+    return value;
+  }
+
+  private static double requireFraction(double value, String name) {
+    if (value < 0 || value > 1) {
+      throw new IllegalArgumentException(name + " must be between 0 and 1, but is " + value);
+    }
+    return value;
+  }
+}
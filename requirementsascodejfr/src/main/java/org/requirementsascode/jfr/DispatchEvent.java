@@ -0,0 +1,34 @@
+package org.requirementsascode.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emitted when a model runner has dispatched a message. The event's duration
+ * spans evaluating the candidate steps and the system reaction of the step that
+ * has reacted.
+ */
+@Name(DispatchEvent.NAME)
+@Label("Message Dispatch")
+@Description("A model runner has dispatched a message to the step that reacts to it")
+@Category("requirementsascode")
+@Enabled(false)
+@StackTrace(false)
+public final class DispatchEvent extends Event {
+  public static final String NAME = "org.requirementsascode.Dispatch";
+
+  @Label("Message Class")
+  Class<?> messageClass;
+
+  @Label("Use Case")
+  String useCaseName;
+
+  @Label("Step")
+  @Description("The step that has reacted, or null if the message has not been handled")
+  String stepName;
+}
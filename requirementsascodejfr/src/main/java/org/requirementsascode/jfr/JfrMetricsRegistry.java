@@ -0,0 +1,129 @@
+package org.requirementsascode.jfr;
+
+import org.requirementsascode.AbstractActor;
+import org.requirementsascode.Behavior;
+import org.requirementsascode.ModelRunner;
+import org.requirementsascode.Step;
+import org.requirementsascode.metrics.MetricsRegistry;
+import org.requirementsascode.queue.EventQueue;
+
+import jdk.jfr.EventType;
+
+/**
+ * A metrics registry that emits Java Flight Recorder events: a
+ * {@link DispatchEvent} per dispatched message, a {@link SystemReactionEvent}
+ * per step run, a {@link PublishEvent} per message published to another
+ * behavior, and a {@link QueueWaitEvent} per event an event queue provides.
+ *
+ * <p>
+ * The events are disabled by default. Enable them in the JFR settings, e.g.
+ * with {@code recording.enable(DispatchEvent.NAME)}, or in a .jfc file. While
+ * an event is disabled, the registry only checks whether it's enabled, and
+ * doesn't allocate memory. While all of them are disabled, the registry reports
+ * that it isn't enabled, so runners and queues don't even measure the times
+ * they would pass to it.
+ *
+ * <p>
+ * The registry has no state, so all runners and queues can share one instance.
+ *
+ * @see ModelRunner#withMetrics(MetricsRegistry)
+ * @see EventQueue#withMetrics(MetricsRegistry)
+ */
+public class JfrMetricsRegistry implements MetricsRegistry {
+  private static final EventType DISPATCH = EventType.getEventType(DispatchEvent.class);
+  private static final EventType SYSTEM_REACTION = EventType.getEventType(SystemReactionEvent.class);
+  private static final EventType PUBLISH = EventType.getEventType(PublishEvent.class);
+  private static final EventType QUEUE_WAIT = EventType.getEventType(QueueWaitEvent.class);
+
+  @Override
+  public boolean isEnabled() {
+    return DISPATCH.isEnabled() || SYSTEM_REACTION.isEnabled() || PUBLISH.isEnabled() || QUEUE_WAIT.isEnabled();
+  }
+
+  @Override
+  public Object dispatchStarted(Object message) {
+    if (!DISPATCH.isEnabled()) {
+      return null;
+    }
+    DispatchEvent event = new DispatchEvent();
+    event.begin();
+    return event;
+  }
+
+  @Override
+  public void dispatchEnded(Object dispatchContext, Object message, Step step) {
+    if (!(dispatchContext instanceof DispatchEvent)) {
+      return;
+    }
+    DispatchEvent event = (DispatchEvent) dispatchContext;
+    event.end();
+    if (event.shouldCommit()) {
+      event.messageClass = message.getClass();
+      if (step != null) {
+        event.useCaseName = step.getUseCase().getName();
+        event.stepName = step.getName();
+      }
+      event.commit();
+    }
+  }
+
+  @Override
+  public void stepRun(Step step, long systemReactionNanos) {
+    if (!SYSTEM_REACTION.isEnabled()) {
+      return;
+    }
+    SystemReactionEvent event = new SystemReactionEvent();
+    if (event.shouldCommit()) {
+      event.useCaseName = step.getUseCase().getName();
+      event.stepName = step.getName();
+      event.reactionTime = systemReactionNanos;
+      event.commit();
+    }
+  }
+
+  @Override
+  public void messagePublished(Object message, AbstractActor publishingActor, Behavior targetBehavior,
+    boolean isPublishedAsync) {
+    if (!PUBLISH.isEnabled()) {
+      return;
+    }
+    PublishEvent event = new PublishEvent();
+    if (event.shouldCommit()) {
+      event.messageClass = message.getClass();
+      event.publisherName = publishingActor == null ? null : publishingActor.getName();
+      event.targetName = nameOf(targetBehavior);
+      event.isAsync = isPublishedAsync;
+      event.commit();
+    }
+  }
+
+  @Override
+  public void eventDequeued(Object event, long queueWaitNanos) {
+    if (!QUEUE_WAIT.isEnabled()) {
+      return;
+    }
+    QueueWaitEvent queueWaitEvent = new QueueWaitEvent();
+    if (queueWaitEvent.shouldCommit()) {
+      queueWaitEvent.eventClass = event.getClass();
+      queueWaitEvent.waitTime = queueWaitNanos;
+      queueWaitEvent.commit();
+    }
+  }
+
+  @Override
+  public void messageUnhandled(Object message) {
+  }
+
+  @Override
+  public void moreThanOneStepCanReact(Object message) {
+  }
+
+  @Override
+  public void exceptionDispatched(Exception exception) {
+  }
+
+  private static String nameOf(Behavior behavior) {
+    return behavior instanceof AbstractActor ? ((AbstractActor) behavior).getName()
+      : behavior.getClass().getSimpleName();
+  }
+}
@@ -0,0 +1,36 @@
+package org.requirementsascode.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emitted when a model runner publishes a message to another behavior, e.g. a
+ * hop from one actor to the next.
+ */
+@Name(PublishEvent.NAME)
+@Label("Message Publish")
+@Description("A model runner has published a message to another behavior")
+@Category("requirementsascode")
+@Enabled(false)
+@StackTrace(false)
+public final class PublishEvent extends Event {
+  public static final String NAME = "org.requirementsascode.Publish";
+
+  @Label("Message Class")
+  Class<?> messageClass;
+
+  @Label("Publisher")
+  @Description("The actor that owns the publishing runner, or null if there is none")
+  String publisherName;
+
+  @Label("Target")
+  String targetName;
+
+  @Label("Asynchronous")
+  boolean isAsync;
+}
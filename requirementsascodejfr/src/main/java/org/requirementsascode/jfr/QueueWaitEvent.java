@@ -0,0 +1,31 @@
+package org.requirementsascode.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Emitted when an event queue provides an event to its consumer, with the time
+ * the event has waited in the queue.
+ */
+@Name(QueueWaitEvent.NAME)
+@Label("Queue Wait")
+@Description("An event queue has provided an event to its consumer")
+@Category("requirementsascode")
+@Enabled(false)
+@StackTrace(false)
+public final class QueueWaitEvent extends Event {
+  public static final String NAME = "org.requirementsascode.QueueWait";
+
+  @Label("Event Class")
+  Class<?> eventClass;
+
+  @Label("Wait Time")
+  @Timespan(Timespan.NANOSECONDS)
+  long waitTime;
+}
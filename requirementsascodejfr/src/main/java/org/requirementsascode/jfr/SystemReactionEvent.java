@@ -0,0 +1,34 @@
+package org.requirementsascode.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Emitted when a step's system reaction has ended, with the time the message
+ * handler took.
+ */
+@Name(SystemReactionEvent.NAME)
+@Label("System Reaction")
+@Description("A step's system reaction has been run")
+@Category("requirementsascode")
+@Enabled(false)
+@StackTrace(false)
+public final class SystemReactionEvent extends Event {
+  public static final String NAME = "org.requirementsascode.SystemReaction";
+
+  @Label("Use Case")
+  String useCaseName;
+
+  @Label("Step")
+  String stepName;
+
+  @Label("Reaction Time")
+  @Timespan(Timespan.NANOSECONDS)
+  long reactionTime;
+}
@@ -0,0 +1,174 @@
+package org.requirementsascode.jfr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.requirementsascode.AbstractActor;
+import org.requirementsascode.Model;
+import org.requirementsascode.ModelRunner;
+import org.requirementsascode.queue.EventQueue;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class JfrMetricsRegistryTest {
+  private final JfrMetricsRegistry metricsRegistry = new JfrMetricsRegistry();
+
+  @Test
+  public void emitsDispatchAndSystemReactionEvents() throws IOException {
+    Model model = Model.builder()
+      .useCase("Use case")
+        .basicFlow()
+          .step("S1").user(String.class).system(s -> {})
+      .build();
+    ModelRunner modelRunner = new ModelRunner().withMetrics(metricsRegistry).run(model);
+
+    List<RecordedEvent> events = record(() -> {
+      modelRunner.reactTo("Text");
+      modelRunner.reactTo(1);
+    }, DispatchEvent.NAME, SystemReactionEvent.NAME);
+
+    List<RecordedEvent> dispatchEvents = eventsNamed(events, DispatchEvent.NAME);
+    assertEquals(2, dispatchEvents.size());
+    assertEquals(String.class.getName(), dispatchEvents.get(0).getClass("messageClass").getName());
+    assertEquals("Use case", dispatchEvents.get(0).getString("useCaseName"));
+    assertEquals("S1", dispatchEvents.get(0).getString("stepName"));
+    assertEquals(Integer.class.getName(), dispatchEvents.get(1).getClass("messageClass").getName());
+    assertNull(dispatchEvents.get(1).getString("stepName"));
+
+    List<RecordedEvent> systemReactionEvents = eventsNamed(events, SystemReactionEvent.NAME);
+    assertEquals(1, systemReactionEvents.size());
+    assertEquals("S1", systemReactionEvents.get(0).getString("stepName"));
+    assertFalse(systemReactionEvents.get(0).getDuration("reactionTime").isNegative());
+  }
+
+  @Test
+  public void emitsPublishEventForHopBetweenActors() throws IOException {
+    Receiver receiver = new Receiver();
+    Sender sender = new Sender(receiver);
+    sender.getModelRunner().withMetrics(metricsRegistry);
+
+    List<RecordedEvent> events = record(() -> sender.reactTo("Text"), PublishEvent.NAME);
+
+    List<RecordedEvent> publishEvents = eventsNamed(events, PublishEvent.NAME);
+    assertEquals(1, publishEvents.size());
+    assertEquals("Sender", publishEvents.get(0).getString("publisherName"));
+    assertEquals("Receiver", publishEvents.get(0).getString("targetName"));
+    assertFalse(publishEvents.get(0).getBoolean("isAsync"));
+    assertEquals(1, receiver.nrOfMessagesReceived);
+  }
+
+  @Test
+  public void emitsQueueWaitEvents() throws IOException {
+    CountDownLatch consumed = new CountDownLatch(2);
+    EventQueue queue = new EventQueue(event -> consumed.countDown()).withMetrics(metricsRegistry);
+
+    List<RecordedEvent> events = record(() -> {
+      queue.put("Text");
+      queue.put(1);
+      await(consumed);
+    }, QueueWaitEvent.NAME);
+    queue.stop();
+
+    List<RecordedEvent> queueWaitEvents = eventsNamed(events, QueueWaitEvent.NAME);
+    assertEquals(2, queueWaitEvents.size());
+    assertEquals(String.class.getName(), queueWaitEvents.get(0).getClass("eventClass").getName());
+  }
+
+  @Test
+  public void emitsNoEventsWhileDisabled() throws IOException {
+    Model model = Model.builder()
+      .on(String.class).system(s -> {})
+      .build();
+    ModelRunner modelRunner = new ModelRunner().withMetrics(metricsRegistry).run(model);
+
+    List<RecordedEvent> events = record(() -> {
+      assertNull(metricsRegistry.dispatchStarted("Text"));
+      modelRunner.reactTo("Text");
+    });
+
+    assertTrue(events.stream().noneMatch(event -> event.getEventType().getName().startsWith("org.requirementsascode")));
+  }
+
+  @Test
+  public void isEnabledOnlyWhileAnEventIsRecorded() throws IOException {
+    assertFalse(metricsRegistry.isEnabled());
+
+    boolean[] isEnabledWhileRecording = { false };
+    record(() -> isEnabledWhileRecording[0] = metricsRegistry.isEnabled(), QueueWaitEvent.NAME);
+
+    assertTrue(isEnabledWhileRecording[0]);
+    assertFalse(metricsRegistry.isEnabled());
+  }
+
+  private static List<RecordedEvent> record(Runnable runnable, String... eventNames) throws IOException {
+    Path file = Files.createTempFile("requirementsascode", ".jfr");
+    try (Recording recording = new Recording()) {
+      for (String eventName : eventNames) {
+        recording.enable(eventName);
+      }
+      recording.start();
+      runnable.run();
+      recording.stop();
+      recording.dump(file);
+      return RecordingFile.readAllEvents(file);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  private static List<RecordedEvent> eventsNamed(List<RecordedEvent> events, String eventName) {
+    return events.stream()
+      .filter(event -> event.getEventType().getName().equals(eventName))
+      .sorted((event1, event2) -> event1.getStartTime().compareTo(event2.getStartTime()))
+      .collect(Collectors.toList());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static class Sender extends AbstractActor {
+    private final AbstractActor receiver;
+
+    Sender(AbstractActor receiver) {
+      this.receiver = receiver;
+    }
+
+    @Override
+    protected Model behavior() {
+      Model model = Model.builder()
+        .on(String.class).systemPublish(s -> s.length()).to(receiver)
+        .build();
+      return model;
+    }
+  }
+
+  private static class Receiver extends AbstractActor {
+    private int nrOfMessagesReceived;
+
+    @Override
+    protected Model behavior() {
+      Model model = Model.builder()
+        .on(Integer.class).system(i -> nrOfMessagesReceived++)
+        .build();
+      return model;
+    }
+  }
+}